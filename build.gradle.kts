@@ -3,7 +3,9 @@ plugins {
     id("application")
     id("jacoco")
     id("org.springframework.boot") version "3.2.0"
+    id("org.springframework.boot.aot") version "3.2.0"
     id("io.spring.dependency-management") version "1.1.4"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -21,14 +23,27 @@ repositories {
     mavenCentral()
 }
 
+// Batch classification uses SIMD lanes through the incubating Vector API (scalar fallback without the module)
+val vectorApiArgs = listOf("--add-modules", "jdk.incubator.vector")
+
+tasks.withType<JavaCompile> {
+    options.compilerArgs.addAll(vectorApiArgs)
+}
+
 tasks.withType<JavaExec> {
     standardOutput = System.out
     errorOutput = System.err
+    jvmArgs(vectorApiArgs)
 }
 
+// Dependencies of the Spring-free CLI, bundled into the slim jar
+val slimRuntime: Configuration by configurations.creating
+val guava = "com.google.guava:guava:33.4.8-jre"
+
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter")
-    implementation("com.google.guava:guava:33.4.8-jre")
+    implementation(guava)
+    slimRuntime(guava)
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
@@ -36,6 +51,7 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
+    jvmArgs(vectorApiArgs)
     
     // Generate test reports
     reports {
@@ -59,6 +75,22 @@ tasks.test {
     finalizedBy(tasks.jacocoTestReport)
 }
 
+// JMH benchmarks (src/jmh/java): throughput, average time and allocation rate per operation
+// Usage: ./gradlew jmh [-PjmhIncludes=ClassificationBenchmark]
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkMode.set(listOf("thrpt", "avgt"))
+    profilers.set(listOf("gc"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    jvmArgsAppend.set(vectorApiArgs)
+    resultFormat.set("JSON")
+    if (project.hasProperty("jmhIncludes")) {
+        includes.set(listOf(project.property("jmhIncludes").toString()))
+    }
+}
+
 // JaCoCo configuration
 jacoco {
     toolVersion = "0.8.12"
@@ -259,9 +291,128 @@ application {
     mainClass.set("ai.thoughtful.platform.factory.PackageSorterApplication")
 }
 
+// Fast startup: Spring AOT generates the bean definitions at build time (enabled at runtime with
+// -Dspring.aot.enabled=true) and an AppCDS archive maps the loaded classes from a training run.
+// CDS cannot archive classes from the nested jars of the boot jar, so the archive uses a flat layout:
+// build/cds/app.jar with the application and AOT classes, and build/cds/lib with the dependencies.
+val cdsDir = layout.buildDirectory.dir("cds")
+val startupArgs = vectorApiArgs + listOf("-Dspring.aot.enabled=true")
+val javaLauncher = javaToolchains.launcherFor(java.toolchain)
+
+val cdsJar = tasks.register<Jar>("cdsJar") {
+    group = "build"
+    description = "Builds the application jar of the AppCDS layout"
+    archiveClassifier.set("cds")
+    from(sourceSets["main"].output)
+    from(sourceSets["aot"].output)
+    duplicatesStrategy = DuplicatesStrategy.EXCLUDE
+    val runtimeClasspath = configurations.runtimeClasspath
+    doFirst {
+        manifest.attributes(
+            "Main-Class" to application.mainClass.get(),
+            "Class-Path" to runtimeClasspath.get().joinToString(" ") { "lib/${it.name}" }
+        )
+    }
+}
+
+val appCdsLayout = tasks.register<Sync>("appCdsLayout") {
+    group = "build"
+    description = "Copies the application jar and its dependencies into build/cds"
+    from(cdsJar) {
+        rename { "app.jar" }
+    }
+    into("lib") {
+        from(configurations.runtimeClasspath)
+    }
+    into(cdsDir)
+    preserve {
+        include("app.jsa")
+    }
+}
+
+tasks.register<Exec>("appCdsArchive") {
+    dependsOn(appCdsLayout)
+    group = "build"
+    description = "Creates build/cds/app.jsa with the classes loaded while classifying a sample package"
+    workingDir(cdsDir)
+    executable(javaLauncher.get().executablePath.asFile.absolutePath)
+    args(startupArgs + listOf("-XX:ArchiveClassesAtExit=app.jsa", "-jar", "app.jar", "50,30,20,5000"))
+    inputs.files(cdsJar, configurations.runtimeClasspath)
+    outputs.file(cdsDir.map { it.file("app.jsa") })
+}
+
+// Spring-free CLI: same flags and output as the boot jar, without the Spring context and its dependencies
+val slimJar = tasks.register<Jar>("slimJar") {
+    group = "build"
+    description = "Builds the Spring-free CLI jar (build/libs/*-slim.jar)"
+    archiveClassifier.set("slim")
+    from(sourceSets["main"].output) {
+        exclude("application.properties")
+        exclude("ai/thoughtful/platform/factory/PackageSorterApplication*.class")
+        exclude("ai/thoughtful/platform/factory/cli/PackageClassifierRunner*.class")
+    }
+    from(provider { slimRuntime.map { zipTree(it) } }) {
+        exclude("META-INF/**", "module-info.class")
+    }
+    duplicatesStrategy = DuplicatesStrategy.EXCLUDE
+    manifest {
+        attributes("Main-Class" to "ai.thoughtful.platform.factory.cli.PackageClassifierCli")
+    }
+}
+
+// Usage: ./gradlew startupBenchmark [-PstartupRuns=10]
+tasks.register("startupBenchmark") {
+    dependsOn("bootJar", "appCdsArchive", slimJar)
+    group = "verification"
+    description = "Measures the wall clock from java -jar to the printed StackType (target: 300 ms)"
+    val bootJarFile = tasks.bootJar.flatMap { it.archiveFile }
+    val slimJarFile = slimJar.flatMap { it.archiveFile }
+    val runs = (project.findProperty("startupRuns") ?: "10").toString().toInt()
+    doLast {
+        val targetMillis = 300.0
+        val java = javaLauncher.get().executablePath.asFile.absolutePath
+        val stackTypes = setOf("STANDARD", "SPECIAL", "REJECTED")
+
+        fun measure(label: String, workingDir: File, command: List<String>): Double {
+            val millis = (1..runs).map {
+                val start = System.nanoTime()
+                val process = ProcessBuilder(listOf(java) + command + "50,30,20,5000")
+                    .directory(workingDir)
+                    .redirectErrorStream(true)
+                    .start()
+                val printed = process.inputStream.bufferedReader().lineSequence().any { it.trim() in stackTypes }
+                val elapsed = (System.nanoTime() - start) / 1_000_000.0
+                process.inputStream.readAllBytes()
+                if (process.waitFor() != 0 || !printed) {
+                    throw GradleException("$label did not print a StackType")
+                }
+                elapsed
+            }.sorted()
+            val median = millis[millis.size / 2]
+            println(String.format("%-28s min %6.0f ms   median %6.0f ms   max %6.0f ms",
+                label, millis.first(), median, millis.last()))
+            return median
+        }
+
+        println("\n⏱️  STARTUP BENCHMARK ($runs runs each, java -jar to printed StackType)")
+        println("-".repeat(80))
+        measure("boot jar", projectDir, vectorApiArgs + listOf("-jar", bootJarFile.get().asFile.absolutePath))
+        measure("AOT + AppCDS", cdsDir.get().asFile,
+            startupArgs + listOf("-XX:SharedArchiveFile=app.jsa", "-jar", "app.jar"))
+        val median = measure("slim jar (no Spring)", projectDir,
+            vectorApiArgs + listOf("-jar", slimJarFile.get().asFile.absolutePath))
+        println("-".repeat(80))
+        if (median <= targetMillis) {
+            println("✅ Slim jar median startup ${median.toInt()} ms is within the ${targetMillis.toInt()} ms target")
+        } else {
+            println("⚠️  Slim jar median startup ${median.toInt()} ms is above the ${targetMillis.toInt()} ms target")
+        }
+    }
+}
+
 // Task to build executable JAR
 tasks.register("buildCli") {
-    dependsOn("bootJar")
+    dependsOn("bootJar", "appCdsArchive", slimJar)
     group = "build"
     description = "Builds the executable CLI JAR file"
     doLast {
@@ -270,5 +421,9 @@ tasks.register("buildCli") {
         println("\n🚀 Usage:")
         println("  java -jar build/libs/${project.name}-${project.version}.jar \"50,30,20,5000\"")
         println("  java -jar build/libs/${project.name}-${project.version}.jar --help")
+        println("\n🪶 Spring-free CLI, same flags and output:")
+        println("  java --add-modules jdk.incubator.vector -jar build/libs/${project.name}-${project.version}-slim.jar \"50,30,20,5000\"")
+        println("\n⚡ Fast startup (Spring AOT + AppCDS):")
+        println("  cd build/cds && java --add-modules jdk.incubator.vector -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar app.jar \"50,30,20,5000\"")
     }
 }
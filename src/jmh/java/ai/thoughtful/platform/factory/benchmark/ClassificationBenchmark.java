@@ -0,0 +1,81 @@
+package ai.thoughtful.platform.factory.benchmark;
+
+import ai.thoughtful.platform.factory.PackageClassification;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.arena.PackageCursor;
+import ai.thoughtful.platform.factory.batch.PackageBatchClassifier;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of classifying one package through each public entry point, and of a whole columnar batch or off-heap arena.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClassificationBenchmark {
+
+    @Benchmark
+    public EnumSet<PackageClassification> classifyPackage(PackageInputs inputs) {
+        return PackageClassification.classify(inputs.packages[inputs.next()]);
+    }
+
+    @Benchmark
+    public int classifyMask(PackageInputs inputs) {
+        int i = inputs.next();
+        return PackageClassification.classifyMask(inputs.widths[i], inputs.heights[i], inputs.lengths[i],
+                inputs.masses[i]);
+    }
+
+    @Benchmark
+    public StackType sortPackage(PackageInputs inputs) {
+        return StackType.sort(inputs.packages[inputs.next()]);
+    }
+
+    @Benchmark
+    public String sortPrimitives(PackageInputs inputs) {
+        int i = inputs.next();
+        return StackType.sort(inputs.widths[i], inputs.heights[i], inputs.lengths[i], inputs.masses[i]);
+    }
+
+    @Benchmark
+    public StackType classifyPrimitives(PackageInputs inputs) {
+        int i = inputs.next();
+        return StackType.classify(inputs.widths[i], inputs.heights[i], inputs.lengths[i], inputs.masses[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PackageInputs.SIZE)
+    public byte[] classifyBatch(PackageInputs inputs) {
+        PackageBatchClassifier.classify(inputs.batch, inputs.ordinals);
+        return inputs.ordinals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PackageInputs.SIZE)
+    public int classifyArenaCursor(PackageInputs inputs) {
+        ClassificationRules rules = RuleEngine.current();
+        PackageCursor cursor = inputs.arena.cursor();
+        int rejected = 0;
+        while (cursor.next()) {
+            if (cursor.classify(rules) == StackType.REJECTED) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PackageInputs.SIZE)
+    public Map<StackType, Long> countArena(PackageInputs inputs) {
+        return inputs.arena.counts(RuleEngine.current());
+    }
+}
@@ -0,0 +1,41 @@
+package ai.thoughtful.platform.factory.benchmark;
+
+import ai.thoughtful.platform.factory.cli.PackageInputParser;
+import ai.thoughtful.platform.factory.manifest.ManifestRowParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the CLI parsing paths: the String-based single-package parser and the byte-level manifest parser.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CliParsingBenchmark {
+
+    @Benchmark
+    public String classifyLine(PackageInputs inputs) {
+        return PackageInputParser.classify(inputs.lines[inputs.next()]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PackageInputs.SIZE)
+    public long parseManifest(PackageInputs inputs, Blackhole blackhole) throws IOException {
+        ManifestRowParser parser = new ManifestRowParser();
+        ByteBuffer manifest = ByteBuffer.wrap(inputs.manifest);
+        parser.parse(manifest, 0, manifest.limit(), true, (width, height, length, mass) -> {
+            blackhole.consume(width);
+            blackhole.consume(height);
+            blackhole.consume(length);
+            blackhole.consume(mass);
+        });
+        return parser.getLineNumber();
+    }
+}
@@ -0,0 +1,35 @@
+package ai.thoughtful.platform.factory.benchmark;
+
+import ai.thoughtful.platform.factory.model.Package;
+import ai.thoughtful.platform.factory.model.PackageFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building Package records through the factory.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PackageFactoryBenchmark {
+
+    @Benchmark
+    public Package make(PackageInputs inputs) {
+        int i = inputs.next();
+        return PackageFactory.make(inputs.widths[i], inputs.heights[i], inputs.lengths[i], inputs.masses[i]);
+    }
+
+    @Benchmark
+    public Package builder(PackageInputs inputs) {
+        int i = inputs.next();
+        return PackageFactory.builder()
+                .withWidthInCm(inputs.widths[i])
+                .withHeightInCm(inputs.heights[i])
+                .withLengthInCm(inputs.lengths[i])
+                .withMassInGrams(inputs.masses[i])
+                .build();
+    }
+}
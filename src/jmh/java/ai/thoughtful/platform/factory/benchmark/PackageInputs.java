@@ -0,0 +1,110 @@
+package ai.thoughtful.platform.factory.benchmark;
+
+import ai.thoughtful.platform.factory.arena.PackageArena;
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.model.Package;
+import ai.thoughtful.platform.factory.model.PackageFactory;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Benchmark inputs as primitives, records, off-heap slots, CLI lines and a whole manifest.
+ *
+ * The "realistic" mix is dominated by standard warehouse boxes with some bulky and heavy ones. The "adversarial"
+ * mix sits on the classification thresholds, uses extreme values and CLI lines that need the slow parsing paths
+ * (blanks, exponents, long mantissas), so branch prediction and fast paths get no help.
+ */
+@State(Scope.Thread)
+public class PackageInputs {
+
+    /**
+     * Number of distinct packages, a power of two so that the cursor wraps with a mask.
+     */
+    public static final int SIZE = 4096;
+
+    private static final int[] THRESHOLD_SIDES = {1, 99, 100, 101, 149, 150, 151, 1000, Integer.MAX_VALUE};
+    private static final String[] THRESHOLD_MASSES = {
+            "19999.999999", "20000", "20000.000001", "0.001", "2e4", "1.7976931348623157E308",
+            "19999.99999999999999999999", " 15000.5 "
+    };
+
+    @Param({"realistic", "adversarial"})
+    public String mix;
+
+    public final int[] widths = new int[SIZE];
+    public final int[] heights = new int[SIZE];
+    public final int[] lengths = new int[SIZE];
+    public final double[] masses = new double[SIZE];
+    public final Package[] packages = new Package[SIZE];
+    public final String[] lines = new String[SIZE];
+    public final PackageBatch batch = new PackageBatch(SIZE);
+    public final byte[] ordinals = new byte[SIZE];
+    public final PackageArena arena = PackageArena.allocateDirect(SIZE);
+    public byte[] manifest;
+
+    private int cursor;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < SIZE; i++) {
+            String line = "realistic".equals(mix) ? realisticLine(random) : adversarialLine(random);
+            String[] parts = line.split(",");
+            widths[i] = Integer.parseInt(parts[0].trim());
+            heights[i] = Integer.parseInt(parts[1].trim());
+            lengths[i] = Integer.parseInt(parts[2].trim());
+            masses[i] = Double.parseDouble(parts[3].trim());
+            packages[i] = PackageFactory.make(widths[i], heights[i], lengths[i], masses[i]);
+            batch.add(widths[i], heights[i], lengths[i], masses[i]);
+            arena.add(widths[i], heights[i], lengths[i], masses[i]);
+            lines[i] = line;
+            content.append(line).append(i % 7 == 0 && !"realistic".equals(mix) ? "\r\n" : "\n");
+        }
+        manifest = content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return index of the next package, cycling through all of them
+     */
+    public int next() {
+        cursor = (cursor + 1) & (SIZE - 1);
+        return cursor;
+    }
+
+    private static String realisticLine(Random random) {
+        int kind = random.nextInt(100);
+        int width = 5 + random.nextInt(75);
+        int height = 5 + random.nextInt(75);
+        int length = 5 + random.nextInt(75);
+        int mass = 100 + random.nextInt(15000);
+        if (kind < 6) {
+            // Bulky by one side
+            length = 150 + random.nextInt(100);
+        } else if (kind < 10) {
+            // Heavy
+            mass = 20000 + random.nextInt(20000);
+        } else if (kind < 11) {
+            // Bulky and heavy
+            width = 100 + random.nextInt(100);
+            height = 100 + random.nextInt(100);
+            length = 100 + random.nextInt(100);
+            mass = 20000 + random.nextInt(20000);
+        }
+        return width + "," + height + "," + length + "," + mass + "." + random.nextInt(10);
+    }
+
+    private static String adversarialLine(Random random) {
+        int width = THRESHOLD_SIDES[random.nextInt(THRESHOLD_SIDES.length)];
+        int height = THRESHOLD_SIDES[random.nextInt(THRESHOLD_SIDES.length)];
+        int length = THRESHOLD_SIDES[random.nextInt(THRESHOLD_SIDES.length)];
+        String mass = THRESHOLD_MASSES[random.nextInt(THRESHOLD_MASSES.length)];
+        return " " + width + " ,+" + height + ",\t" + length + "," + mass;
+    }
+}
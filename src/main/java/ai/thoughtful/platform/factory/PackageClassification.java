@@ -2,9 +2,9 @@ package ai.thoughtful.platform.factory;
 
 import ai.thoughtful.platform.factory.model.Package;
 import ai.thoughtful.platform.factory.model.PackageDimension;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
 
 import java.util.EnumSet;
-import java.util.Set;
 
 public enum PackageClassification {
     // A package is bulky if its volume (Width x Height x Length) is greater than or equal to 1,000,000 cm³
@@ -14,21 +14,52 @@ public enum PackageClassification {
     // when its mass is greater or equal to 20 kg.
     HEAVY;
 
-    private static final int BULKY_LIMIT = 1000000;
-    private static final int HEAVY_MASS_LIMIT = 20000;
+    // Default limits, see ClassificationRules for the limits in effect
+    public static final int BULKY_LIMIT = 1000000;
+    public static final int BULKY_SIDE_LIMIT = 150;
+    public static final int HEAVY_MASS_LIMIT = 20000;
+
+    /**
+     * Bit of this classification in the masks returned by {@link #classifyMask(int, int, int, double)}.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
 
     public static EnumSet<PackageClassification> classify(Package packageUnit) {
-        PackageDimension dimension = packageUnit.dimension();
-        Set<PackageClassification> classifications = EnumSet.noneOf(PackageClassification.class);
-        if (dimension.getVolume() >= BULKY_LIMIT ||
-                dimension.length() >= 150 || dimension.height() >= 150 || dimension.width() >= 150) {
-            classifications.add(BULKY);
+        int mask = classifyMask(packageUnit);
+        EnumSet<PackageClassification> classifications = EnumSet.noneOf(PackageClassification.class);
+        for (PackageClassification classification : values()) {
+            if ((mask & classification.mask()) != 0) {
+                classifications.add(classification);
+            }
         }
+        return classifications;
+    }
 
-        if (packageUnit.mass() >= HEAVY_MASS_LIMIT) {
-            classifications.add(HEAVY);
-        }
+    /**
+     * Classifies a package into a bit mask of {@link #mask()} values, without allocating.
+     *
+     * @param packageUnit package to classify
+     * @return combination of the classification masks, 0 when the package has no classification
+     */
+    public static int classifyMask(Package packageUnit) {
+        PackageDimension dimension = packageUnit.dimension();
+        return classifyMask(dimension.width(), dimension.height(), dimension.length(), packageUnit.mass());
+    }
 
-        return EnumSet.copyOf(classifications);
+    /**
+     * Classifies already validated measurements into a bit mask of {@link #mask()} values, without allocating.
+     * Gives the same answers as {@link #classify(Package)}, including the int arithmetic of
+     * {@link PackageDimension#getVolume()}. Applies the limits of {@link RuleEngine#current()}.
+     *
+     * @param width box width in cm
+     * @param height box height in cm
+     * @param length box length in cm
+     * @param mass box mass in grams
+     * @return combination of the classification masks, 0 when the package has no classification
+     */
+    public static int classifyMask(int width, int height, int length, double mass) {
+        return RuleEngine.current().classifyMask(width, height, length, mass);
     }
 }
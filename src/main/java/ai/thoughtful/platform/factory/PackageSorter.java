@@ -0,0 +1,26 @@
+package ai.thoughtful.platform.factory;
+
+/**
+ * Sorts packages given as primitives into their stack.
+ *
+ * Implementations apply the same validation and give the same answers as
+ * {@link StackType#classify(int, int, int, double)}, which is the {@link #DIRECT} sorter.
+ */
+@FunctionalInterface
+public interface PackageSorter {
+
+    /**
+     * Sorter classifying every package from scratch.
+     */
+    PackageSorter DIRECT = StackType::classify;
+
+    /**
+     * @param width box width in cm
+     * @param height box height in cm
+     * @param length box length in cm
+     * @param mass box mass in grams
+     * @return the stack of the package
+     * @throws IllegalArgumentException if any dimension or the mass is not positive
+     */
+    StackType sort(int width, int height, int length, double mass);
+}
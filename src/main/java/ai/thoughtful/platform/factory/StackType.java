@@ -1,9 +1,8 @@
 package ai.thoughtful.platform.factory;
 
 import ai.thoughtful.platform.factory.model.Package;
-import ai.thoughtful.platform.factory.model.PackageFactory;
-
-import java.util.EnumSet;
+import ai.thoughtful.platform.factory.model.PackageDimension;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
 
 public enum StackType {
 
@@ -15,26 +14,40 @@ public enum StackType {
     REJECTED;
 
     public static StackType sort(Package pkg) {
-        EnumSet<PackageClassification> pkgClassification = PackageClassification.classify(pkg);
-
-        // If there's a single classification, then it's special (either heavy or bulky)
-        if (pkgClassification.size() == 1) {
-            return StackType.SPECIAL;
+        PackageDimension dimension = pkg.dimension();
+        return RuleEngine.current().classify(dimension.width(), dimension.height(), dimension.length(), pkg.mass());
+    }
 
-        } else if (pkgClassification.size() > 1) {
-            // If it's bulky and heavy, then just reject
-            EnumSet<PackageClassification> rejectSet = EnumSet.of(PackageClassification.BULKY, PackageClassification.HEAVY);
-            if (rejectSet.containsAll(pkgClassification)) {
-                return StackType.REJECTED;
-            }
-        }
+    public static String sort(int width, int height, int length, double mass) {
+        return classify(width, height, length, mass).name();
+    }
 
-        // Since the set is empty, there's no classification
-        return STANDARD;
+    /**
+     * Sorts a package given as primitives, without allocating.
+     * Applies the same validation and gives the same answers as {@link #sort(Package)} on
+     * {@code PackageFactory.make(width, height, length, mass)}.
+     *
+     * @param width box width in cm
+     * @param height box height in cm
+     * @param length box length in cm
+     * @param mass box mass in grams
+     * @return the stack of the package
+     * @throws IllegalArgumentException if any dimension or the mass is not positive
+     */
+    public static StackType classify(int width, int height, int length, double mass) {
+        PackageDimension.checkDimensions(height, width, length);
+        Package.checkMass(mass);
+        return RuleEngine.current().classify(width, height, length, mass);
     }
 
-    public static String sort(int width, int height, int length, double mass) {
-        Package pkg = PackageFactory.make(width, height, length, mass);
-        return StackType.sort(pkg).name();
+    /**
+     * Maps a mask from {@link PackageClassification#classifyMask(int, int, int, double)} to its stack with the
+     * rules in effect: by default BULKY and HEAVY are REJECTED, either one is SPECIAL and none is STANDARD.
+     *
+     * @param classificationMask combination of classification masks
+     * @return the stack of a package with those classifications
+     */
+    public static StackType fromClassificationMask(int classificationMask) {
+        return RuleEngine.current().stackType(classificationMask);
     }
 }
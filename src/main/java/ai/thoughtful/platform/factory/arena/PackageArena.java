@@ -0,0 +1,314 @@
+package ai.thoughtful.platform.factory.arena;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.batch.PackageBatchClassifier;
+import ai.thoughtful.platform.factory.manifest.ManifestReader;
+import ai.thoughtful.platform.factory.model.Package;
+import ai.thoughtful.platform.factory.model.PackageDimension;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeWriter;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Off-heap store of packages in fixed-width slots, for manifests too large to hold as {@link Package} records.
+ *
+ * Each package takes {@value #SLOT_SIZE} bytes, little-endian: width, height and length as ints, then the mass
+ * as a double. Slots live in segments of {@code slotsPerSegment} slots, either direct buffers allocated as the
+ * arena grows or regions of a memory-mapped file. A billion packages take 20 GB outside the heap, where the
+ * {@link Package} and {@link PackageDimension} records and their references take 52 GB of heap with compressed
+ * references, and more without. Direct segments count against {@code -XX:MaxDirectMemorySize}, mapped ones only
+ * against the page cache.
+ *
+ * Packages are validated on {@link #add(int, int, int, double)} like the {@link Package} and
+ * {@link PackageDimension} records, so an arena only ever holds valid packages. They are read through
+ * {@link PackageCursor}, which classifies a slot in place and materializes a {@link Package} only on request.
+ *
+ * Adding is not thread-safe. Once filled, an arena can be read by any number of threads with a cursor each.
+ */
+public final class PackageArena implements Closeable {
+
+    /**
+     * Bytes per package.
+     */
+    public static final int SLOT_SIZE = 20;
+
+    /**
+     * Default number of slots per segment, 20 MB.
+     */
+    public static final int DEFAULT_SLOTS_PER_SEGMENT = 1 << 20;
+
+    static final int WIDTH_OFFSET = 0;
+    static final int HEIGHT_OFFSET = 4;
+    static final int LENGTH_OFFSET = 8;
+    static final int MASS_OFFSET = 12;
+
+    private static final int BATCH_SIZE = 4096;
+
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final int segmentShift;
+    private final int segmentMask;
+    private final FileChannel channel;
+    private long size;
+    private boolean closed;
+
+    private PackageArena(int slotsPerSegment, FileChannel channel) {
+        if (slotsPerSegment <= 0 || Integer.bitCount(slotsPerSegment) != 1
+                || (long) slotsPerSegment * SLOT_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Slots per segment must be a power of two of at most 2 GB: " + slotsPerSegment);
+        }
+        this.segmentShift = Integer.numberOfTrailingZeros(slotsPerSegment);
+        this.segmentMask = slotsPerSegment - 1;
+        this.channel = channel;
+    }
+
+    /**
+     * Creates an empty arena in direct buffers of {@link #DEFAULT_SLOTS_PER_SEGMENT} slots.
+     */
+    public static PackageArena allocateDirect() {
+        return allocateDirect(DEFAULT_SLOTS_PER_SEGMENT);
+    }
+
+    /**
+     * Creates an empty arena in direct buffers, released by the garbage collector once the arena is closed.
+     *
+     * @param slotsPerSegment packages per direct buffer, a power of two
+     */
+    public static PackageArena allocateDirect(int slotsPerSegment) {
+        return new PackageArena(slotsPerSegment, null);
+    }
+
+    /**
+     * Creates an empty arena mapped to a file, replacing its content.
+     *
+     * The file grows a segment at a time and is trimmed to the packages on {@link #close()}.
+     *
+     * @param path file holding the slots
+     * @param slotsPerSegment packages per mapped region, a power of two
+     * @throws IOException if the file cannot be created
+     */
+    public static PackageArena create(Path path, int slotsPerSegment) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new PackageArena(slotsPerSegment, channel);
+    }
+
+    /**
+     * Maps the packages stored by an arena created with {@link #create(Path, int)}; more can be added.
+     *
+     * Zeroed slots at the end of the file, left by a process that stopped before closing its arena, are not
+     * packages and are ignored.
+     *
+     * @param path file holding the slots
+     * @param slotsPerSegment packages per mapped region, a power of two
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalArgumentException if the file size is not a whole number of slots
+     */
+    public static PackageArena open(Path path, int slotsPerSegment) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long fileSize = channel.size();
+            if (fileSize % SLOT_SIZE != 0) {
+                throw new IllegalArgumentException("Not a package arena: " + fileSize + " bytes is not a multiple of "
+                        + SLOT_SIZE);
+            }
+            PackageArena arena = new PackageArena(slotsPerSegment, channel);
+            long slots = fileSize / SLOT_SIZE;
+            while ((long) arena.segments.size() << arena.segmentShift < slots) {
+                arena.segments.add(arena.map(arena.segments.size()));
+            }
+            // A valid package never has a zero width
+            while (slots > 0 && arena.segment(slots - 1).getInt(arena.offset(slots - 1) + WIDTH_OFFSET) == 0) {
+                slots--;
+            }
+            arena.size = slots;
+            return arena;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a package.
+     *
+     * @param width box width in cm
+     * @param height box height in cm
+     * @param length box length in cm
+     * @param mass box mass in grams
+     * @return index of the package
+     * @throws IllegalArgumentException if any dimension or the mass is not positive
+     * @throws IOException if a mapped arena cannot grow its file
+     */
+    public long add(int width, int height, int length, double mass) throws IOException {
+        PackageDimension.checkDimensions(height, width, length);
+        Package.checkMass(mass);
+        checkOpen();
+        long index = size;
+        int segmentIndex = (int) (index >>> segmentShift);
+        if (segmentIndex == segments.size()) {
+            segments.add(channel == null ? allocate() : map(segmentIndex));
+        }
+        ByteBuffer segment = segments.get(segmentIndex);
+        int offset = offset(index);
+        segment.putInt(offset + WIDTH_OFFSET, width);
+        segment.putInt(offset + HEIGHT_OFFSET, height);
+        segment.putInt(offset + LENGTH_OFFSET, length);
+        segment.putDouble(offset + MASS_OFFSET, mass);
+        size = index + 1;
+        return index;
+    }
+
+    /**
+     * Appends a package.
+     *
+     * @return index of the package
+     * @throws IOException if a mapped arena cannot grow its file
+     */
+    public long add(Package pkg) throws IOException {
+        PackageDimension dimension = pkg.dimension();
+        return add(dimension.width(), dimension.height(), dimension.length(), pkg.mass());
+    }
+
+    /**
+     * Appends every row of a manifest.
+     *
+     * @return number of rows added
+     * @throws IllegalArgumentException if a line is invalid; the rows before it are added
+     * @throws IOException if reading fails or a mapped arena cannot grow its file
+     */
+    public long addAll(ManifestReader manifest) throws IOException {
+        return manifest.read(this::add);
+    }
+
+    /**
+     * @return number of packages
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return a cursor before the first package
+     */
+    public PackageCursor cursor() {
+        checkOpen();
+        return new PackageCursor(this);
+    }
+
+    /**
+     * Classifies every package, a batch at a time, and writes the results in package order.
+     *
+     * @param rules rules applied to every package
+     * @param output destination of the results
+     * @throws IOException if the results cannot be written
+     */
+    public void classify(ClassificationRules rules, PackedStackTypeWriter output) throws IOException {
+        checkOpen();
+        PackageBatch batch = new PackageBatch(BATCH_SIZE);
+        byte[] ordinals = new byte[BATCH_SIZE];
+        for (long index = 0; index < size; index = (index | segmentMask) + 1) {
+            ByteBuffer segment = segment(index);
+            int end = (int) Math.min(size - index, segmentMask + 1) * SLOT_SIZE;
+            for (int offset = 0; offset < end; offset += SLOT_SIZE) {
+                batch.add(segment.getInt(offset + WIDTH_OFFSET), segment.getInt(offset + HEIGHT_OFFSET),
+                        segment.getInt(offset + LENGTH_OFFSET), segment.getDouble(offset + MASS_OFFSET));
+                if (batch.isFull()) {
+                    PackageBatchClassifier.classify(batch, ordinals, rules);
+                    output.write(ordinals, 0, batch.size());
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            PackageBatchClassifier.classify(batch, ordinals, rules);
+            output.write(ordinals, 0, batch.size());
+        }
+    }
+
+    /**
+     * Counts the packages of each stack, without allocating per package.
+     *
+     * @param rules rules applied to every package
+     * @return number of packages of every stack
+     */
+    public Map<StackType, Long> counts(ClassificationRules rules) {
+        checkOpen();
+        long[] counts = new long[StackType.values().length];
+        for (long index = 0; index < size; index = (index | segmentMask) + 1) {
+            ByteBuffer segment = segment(index);
+            int end = (int) Math.min(size - index, segmentMask + 1) * SLOT_SIZE;
+            for (int offset = 0; offset < end; offset += SLOT_SIZE) {
+                int mask = rules.classifyMask(segment.getInt(offset + WIDTH_OFFSET),
+                        segment.getInt(offset + HEIGHT_OFFSET), segment.getInt(offset + LENGTH_OFFSET),
+                        segment.getDouble(offset + MASS_OFFSET));
+                counts[rules.stackType(mask).ordinal()]++;
+            }
+        }
+        Map<StackType, Long> result = new EnumMap<>(StackType.class);
+        for (StackType stackType : StackType.values()) {
+            result.put(stackType, counts[stackType.ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * Releases the segments; a mapped arena forces its packages to disk and trims its file to them.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (channel != null) {
+            try (channel) {
+                for (ByteBuffer segment : segments) {
+                    ((MappedByteBuffer) segment).force();
+                }
+                channel.truncate(size * SLOT_SIZE);
+                channel.force(true);
+            }
+        }
+        segments.clear();
+    }
+
+    ByteBuffer segment(long index) {
+        return segments.get((int) (index >>> segmentShift));
+    }
+
+    int offset(long index) {
+        return (int) (index & segmentMask) * SLOT_SIZE;
+    }
+
+    void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Package arena is closed");
+        }
+    }
+
+    private ByteBuffer allocate() {
+        return ByteBuffer.allocateDirect((segmentMask + 1) * SLOT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private ByteBuffer map(int segmentIndex) throws IOException {
+        long segmentSize = (long) (segmentMask + 1) * SLOT_SIZE;
+        return channel.map(FileChannel.MapMode.READ_WRITE, segmentIndex * segmentSize, segmentSize)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
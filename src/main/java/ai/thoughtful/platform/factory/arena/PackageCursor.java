@@ -0,0 +1,114 @@
+package ai.thoughtful.platform.factory.arena;
+
+import ai.thoughtful.platform.factory.PackageClassification;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.model.Package;
+import ai.thoughtful.platform.factory.model.PackageDimension;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Movable view of one slot of a {@link PackageArena}, a flyweight standing for any of its packages.
+ *
+ * Moving and reading never allocate, so a single cursor walks a billion packages without garbage; the
+ * {@link Package} record is only created by {@link #toPackage()}. A cursor is not thread-safe; threads reading
+ * the same arena use a cursor each.
+ */
+public final class PackageCursor {
+
+    private final PackageArena arena;
+    private ByteBuffer segment;
+    private int offset;
+    private long index = -1;
+
+    PackageCursor(PackageArena arena) {
+        this.arena = arena;
+    }
+
+    /**
+     * Moves to the next package.
+     *
+     * @return false, staying in place, when there is no next package
+     */
+    public boolean next() {
+        if (index + 1 >= arena.size()) {
+            return false;
+        }
+        moveTo(index + 1);
+        return true;
+    }
+
+    /**
+     * Moves to a package.
+     *
+     * @param index index of the package
+     * @return this cursor
+     * @throws IndexOutOfBoundsException if there is no such package
+     */
+    public PackageCursor moveTo(long index) {
+        arena.checkOpen();
+        if (index < 0 || index >= arena.size()) {
+            throw new IndexOutOfBoundsException("Package " + index + " of " + arena.size());
+        }
+        int offset = arena.offset(index);
+        if (segment == null || offset == 0 || index != this.index + 1) {
+            segment = arena.segment(index);
+        }
+        this.offset = offset;
+        this.index = index;
+        return this;
+    }
+
+    /**
+     * @return index of the current package, -1 before the first one
+     */
+    public long index() {
+        return index;
+    }
+
+    public int width() {
+        return segment().getInt(offset + PackageArena.WIDTH_OFFSET);
+    }
+
+    public int height() {
+        return segment().getInt(offset + PackageArena.HEIGHT_OFFSET);
+    }
+
+    public int length() {
+        return segment().getInt(offset + PackageArena.LENGTH_OFFSET);
+    }
+
+    public double mass() {
+        return segment().getDouble(offset + PackageArena.MASS_OFFSET);
+    }
+
+    /**
+     * Classifies the current package into a bit mask of {@link PackageClassification#mask()} values.
+     */
+    public int classifyMask(ClassificationRules rules) {
+        return rules.classifyMask(width(), height(), length(), mass());
+    }
+
+    /**
+     * Classifies the current package, with the same answers as {@link StackType#sort(Package)} on
+     * {@link #toPackage()} under the same rules.
+     */
+    public StackType classify(ClassificationRules rules) {
+        return rules.stackType(classifyMask(rules));
+    }
+
+    /**
+     * @return a new record with the measurements of the current package
+     */
+    public Package toPackage() {
+        return new Package(new PackageDimension(height(), width(), length()), mass());
+    }
+
+    private ByteBuffer segment() {
+        if (index < 0) {
+            throw new IllegalStateException("Cursor is before the first package");
+        }
+        return segment;
+    }
+}
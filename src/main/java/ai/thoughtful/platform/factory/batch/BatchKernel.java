@@ -0,0 +1,21 @@
+package ai.thoughtful.platform.factory.batch;
+
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+
+/**
+ * Classifies columns of validated packages into StackType ordinals.
+ */
+interface BatchKernel {
+
+    /**
+     * @param rules rules applied to the whole batch
+     * @param widths box widths in cm
+     * @param heights box heights in cm
+     * @param lengths box lengths in cm
+     * @param masses box masses in grams
+     * @param size number of packages to classify, from index 0
+     * @param ordinals destination of the StackType ordinals
+     */
+    void classify(ClassificationRules rules, int[] widths, int[] heights, int[] lengths, double[] masses, int size,
+                  byte[] ordinals);
+}
@@ -0,0 +1,118 @@
+package ai.thoughtful.platform.factory.batch;
+
+import ai.thoughtful.platform.factory.model.Package;
+import ai.thoughtful.platform.factory.model.PackageDimension;
+
+/**
+ * Columnar (struct-of-arrays) batch of packages: parallel width, height, length and mass arrays.
+ *
+ * Packages are validated on {@link #add(int, int, int, double)} with the same rules as the {@link Package} and
+ * {@link PackageDimension} records, so a batch only ever holds valid packages. A batch is reused through
+ * {@link #clear()} and is not thread-safe.
+ */
+public class PackageBatch {
+
+    private final int[] widths;
+    private final int[] heights;
+    private final int[] lengths;
+    private final double[] masses;
+    private int size;
+
+    /**
+     * @param capacity maximum number of packages in the batch
+     */
+    public PackageBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Batch capacity must be positive");
+        }
+        this.widths = new int[capacity];
+        this.heights = new int[capacity];
+        this.lengths = new int[capacity];
+        this.masses = new double[capacity];
+    }
+
+    /**
+     * Appends a package to the batch.
+     *
+     * @param width box width in cm
+     * @param height box height in cm
+     * @param length box length in cm
+     * @param mass box mass in grams
+     * @throws IllegalArgumentException if any dimension or the mass is not positive
+     * @throws IllegalStateException if the batch is full
+     */
+    public void add(int width, int height, int length, double mass) {
+        PackageDimension.checkDimensions(height, width, length);
+        Package.checkMass(mass);
+        if (size == widths.length) {
+            throw new IllegalStateException("Batch is full: " + size + " packages");
+        }
+        widths[size] = width;
+        heights[size] = height;
+        lengths[size] = length;
+        masses[size] = mass;
+        size++;
+    }
+
+    /**
+     * Empties the batch, keeping its arrays for reuse.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return widths.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == widths.length;
+    }
+
+    public int width(int index) {
+        return widths[checkIndex(index)];
+    }
+
+    public int height(int index) {
+        return heights[checkIndex(index)];
+    }
+
+    public int length(int index) {
+        return lengths[checkIndex(index)];
+    }
+
+    public double mass(int index) {
+        return masses[checkIndex(index)];
+    }
+
+    int[] widths() {
+        return widths;
+    }
+
+    int[] heights() {
+        return heights;
+    }
+
+    int[] lengths() {
+        return lengths;
+    }
+
+    double[] masses() {
+        return masses;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of batch size " + size);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,70 @@
+package ai.thoughtful.platform.factory.batch;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
+
+/**
+ * Classifies a whole {@link PackageBatch} into {@link StackType} ordinals.
+ *
+ * Uses SIMD lanes through the incubating Vector API when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}, and a scalar loop otherwise. Both give the same answers as
+ * {@link StackType#sort(ai.thoughtful.platform.factory.model.Package)}.
+ */
+public final class PackageBatchClassifier {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * System property forcing the scalar kernel, for comparisons and troubleshooting.
+     */
+    public static final String SCALAR_PROPERTY = "packages.batch.scalar";
+
+    private static final BatchKernel KERNEL = selectKernel();
+
+    private PackageBatchClassifier() {}
+
+    /**
+     * Classifies every package of the batch with the rules in effect.
+     *
+     * @param batch packages to classify
+     * @param ordinals destination of the {@link StackType} ordinals, at least {@code batch.size()} long
+     */
+    public static void classify(PackageBatch batch, byte[] ordinals) {
+        classify(batch, ordinals, RuleEngine.current());
+    }
+
+    /**
+     * Classifies every package of the batch.
+     *
+     * @param batch packages to classify
+     * @param ordinals destination of the {@link StackType} ordinals, at least {@code batch.size()} long
+     * @param rules rules applied to the whole batch
+     */
+    public static void classify(PackageBatch batch, byte[] ordinals, ClassificationRules rules) {
+        if (ordinals.length < batch.size()) {
+            throw new IllegalArgumentException(
+                    "Ordinals array too small: " + ordinals.length + " for " + batch.size() + " packages");
+        }
+        KERNEL.classify(rules, batch.widths(), batch.heights(), batch.lengths(), batch.masses(), batch.size(),
+                ordinals);
+    }
+
+    /**
+     * @return whether batches are classified with SIMD lanes
+     */
+    public static boolean isVectorized() {
+        return KERNEL instanceof VectorBatchKernel;
+    }
+
+    private static BatchKernel selectKernel() {
+        if (!Boolean.getBoolean(SCALAR_PROPERTY) && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return new VectorBatchKernel();
+            } catch (LinkageError e) {
+                // The Vector API is not usable on this JVM, fall back to the scalar kernel
+            }
+        }
+        return new ScalarBatchKernel();
+    }
+}
@@ -0,0 +1,17 @@
+package ai.thoughtful.platform.factory.batch;
+
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+
+/**
+ * Portable kernel classifying one package at a time, used when the Vector API is not available.
+ */
+class ScalarBatchKernel implements BatchKernel {
+
+    @Override
+    public void classify(ClassificationRules rules, int[] widths, int[] heights, int[] lengths, double[] masses,
+                         int size, byte[] ordinals) {
+        for (int i = 0; i < size; i++) {
+            ordinals[i] = (byte) rules.classify(widths[i], heights[i], lengths[i], masses[i]).ordinal();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ai.thoughtful.platform.factory.batch;
+
+import ai.thoughtful.platform.factory.PackageClassification;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernel applying the BULKY and HEAVY rules of a {@link ClassificationRules} snapshot to whole SIMD lanes with the
+ * incubating Vector API.
+ *
+ * Masses use the preferred double species; dimensions use the int species with the same lane count, so that the
+ * HEAVY lane mask can be combined with the BULKY one. The volume is multiplied lane-wise with the same int
+ * wrap-around as {@link ai.thoughtful.platform.factory.model.PackageDimension#getVolume()}.
+ */
+class VectorBatchKernel implements BatchKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+    // At most 8 double lanes (512 bits), so the ordinals always fit the smallest byte shape
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+    private static final VectorMask<Byte> STORE_MASK = BYTES.indexInRange(0, INTS.length());
+
+    private static final int BULKY = PackageClassification.BULKY.mask();
+    private static final int HEAVY = PackageClassification.HEAVY.mask();
+
+    @Override
+    public void classify(ClassificationRules rules, int[] widths, int[] heights, int[] lengths, double[] masses,
+                         int size, byte[] ordinals) {
+        int volumeLimit = rules.bulkyVolumeLimit();
+        int sideLimit = rules.bulkySideLimit();
+        double massLimit = rules.heavyMassLimit();
+        int none = rules.stackType(0).ordinal();
+        int bulkyOnly = rules.stackType(BULKY).ordinal();
+        int heavyOnly = rules.stackType(HEAVY).ordinal();
+        int bulkyAndHeavy = rules.stackType(BULKY | HEAVY).ordinal();
+
+        int lanes = INTS.length();
+        int bound = INTS.loopBound(size);
+        int i = 0;
+        for (; i < bound; i += lanes) {
+            IntVector width = IntVector.fromArray(INTS, widths, i);
+            IntVector height = IntVector.fromArray(INTS, heights, i);
+            IntVector length = IntVector.fromArray(INTS, lengths, i);
+            DoubleVector mass = DoubleVector.fromArray(DOUBLES, masses, i);
+
+            VectorMask<Integer> bulky = width.mul(length).mul(height)
+                    .compare(VectorOperators.GE, volumeLimit)
+                    .or(length.compare(VectorOperators.GE, sideLimit))
+                    .or(height.compare(VectorOperators.GE, sideLimit))
+                    .or(width.compare(VectorOperators.GE, sideLimit));
+            VectorMask<Integer> heavy = mass
+                    .compare(VectorOperators.GE, massLimit)
+                    .cast(INTS);
+
+            IntVector ordinal = IntVector.broadcast(INTS, none)
+                    .blend(bulkyOnly, bulky.andNot(heavy))
+                    .blend(heavyOnly, heavy.andNot(bulky))
+                    .blend(bulkyAndHeavy, bulky.and(heavy));
+            ((ByteVector) ordinal.convertShape(VectorOperators.I2B, BYTES, 0))
+                    .intoArray(ordinals, i, STORE_MASK);
+        }
+
+        for (; i < size; i++) {
+            ordinals[i] = (byte) rules.classify(widths[i], heights[i], lengths[i], masses[i]).ordinal();
+        }
+    }
+}
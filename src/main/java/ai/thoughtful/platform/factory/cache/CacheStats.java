@@ -0,0 +1,24 @@
+package ai.thoughtful.platform.factory.cache;
+
+/**
+ * Counters of a {@link PackageShapeCache}.
+ *
+ * @param hits lookups answered from the cache
+ * @param misses lookups classified from scratch
+ * @param evictions shapes replaced by more frequent ones
+ * @param rejections missed shapes not admitted because they were less frequent than the cached ones
+ */
+public record CacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        long rejections
+) {
+    /**
+     * @return share of the lookups answered from the cache, 0 before the first lookup
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
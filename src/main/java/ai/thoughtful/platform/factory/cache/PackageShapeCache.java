@@ -0,0 +1,238 @@
+package ai.thoughtful.platform.factory.cache;
+
+import ai.thoughtful.platform.factory.PackageSorter;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.model.Package;
+import ai.thoughtful.platform.factory.model.PackageDimension;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the stacks of repeated package shapes, such as the box sizes of common SKUs.
+ *
+ * Shapes are looked up by their exact primitive values (dimensions and the bits of the mass) in a 4-way
+ * set-associative table, without boxing or allocating on a hit. A full set admits a new shape only when a
+ * frequency sketch has seen it more often than the least frequent shape of the set (TinyLFU admission), so
+ * one-off packages do not flush the hot shapes. The sketch is halved periodically to follow changing traffic.
+ *
+ * Entries remember the {@link ClassificationRules} they were computed with and are ignored once other rules are
+ * installed. The cache is thread-safe: entries are immutable and races only cost a few extra misses.
+ */
+public class PackageShapeCache implements PackageSorter {
+
+    /**
+     * Default number of cached shapes.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    private static final int WAYS = 4;
+
+    private final Entry[] entries;
+    private final int setMask;
+    private final FrequencySketch sketch;
+    private final Interner<PackageDimension> dimensions = Interners.newWeakInterner();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public PackageShapeCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity maximum number of cached shapes, rounded up to a power of two
+     */
+    public PackageShapeCache(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS) * 2 - 1);
+        this.entries = new Entry[sets * WAYS];
+        this.setMask = sets - 1;
+        this.sketch = new FrequencySketch(entries.length);
+    }
+
+    /**
+     * Sorts a package, from the cache when its shape was seen before.
+     */
+    @Override
+    public StackType sort(int width, int height, int length, double mass) {
+        PackageDimension.checkDimensions(height, width, length);
+        Package.checkMass(mass);
+
+        ClassificationRules rules = RuleEngine.current();
+        long massBits = Double.doubleToRawLongBits(mass);
+        int hash = hash(width, height, length, massBits);
+        int set = (hash & setMask) * WAYS;
+        sketch.increment(hash);
+
+        for (int way = set; way < set + WAYS; way++) {
+            Entry entry = entries[way];
+            if (entry != null && entry.rules == rules && entry.matches(width, height, length, massBits)) {
+                hits.increment();
+                return entry.stackType;
+            }
+        }
+
+        misses.increment();
+        StackType stackType = rules.classify(width, height, length, mass);
+        admit(set, new Entry(hash, width, height, length, massBits, rules, stackType));
+        return stackType;
+    }
+
+    /**
+     * Returns the canonical instance of a dimension, so that packages held in memory share their dimensions.
+     * Instances are held weakly and collected once no package uses them.
+     *
+     * @return a dimension equal to the given one
+     */
+    public PackageDimension intern(PackageDimension dimension) {
+        return dimensions.intern(dimension);
+    }
+
+    /**
+     * Creates a package whose dimension is interned.
+     *
+     * @throws IllegalArgumentException if any dimension or the mass is not positive
+     */
+    public Package makePackage(int width, int height, int length, double mass) {
+        return new Package(intern(new PackageDimension(height, width, length)), mass);
+    }
+
+    /**
+     * @return a snapshot of the hit, miss and eviction counters
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), rejections.sum());
+    }
+
+    /**
+     * @return maximum number of cached shapes
+     */
+    public int capacity() {
+        return entries.length;
+    }
+
+    private void admit(int set, Entry candidate) {
+        int victim = -1;
+        int victimFrequency = Integer.MAX_VALUE;
+        for (int way = set; way < set + WAYS; way++) {
+            Entry entry = entries[way];
+            if (entry == null || entry.rules != candidate.rules
+                    || entry.matches(candidate.width, candidate.height, candidate.length, candidate.massBits)) {
+                // Free, outdated or same shape
+                entries[way] = candidate;
+                return;
+            }
+            int frequency = sketch.frequency(entry.hash);
+            if (frequency < victimFrequency) {
+                victim = way;
+                victimFrequency = frequency;
+            }
+        }
+
+        if (sketch.frequency(candidate.hash) > victimFrequency) {
+            entries[victim] = candidate;
+            evictions.increment();
+        } else {
+            rejections.increment();
+        }
+    }
+
+    private static int hash(int width, int height, int length, long massBits) {
+        long hash = massBits;
+        hash = hash * 31 + width;
+        hash = hash * 31 + height;
+        hash = hash * 31 + length;
+        // Final mix of MurmurHash3
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    private static final class Entry {
+
+        private final int hash;
+        private final int width;
+        private final int height;
+        private final int length;
+        private final long massBits;
+        private final ClassificationRules rules;
+        private final StackType stackType;
+
+        Entry(int hash, int width, int height, int length, long massBits,
+              ClassificationRules rules, StackType stackType) {
+            this.hash = hash;
+            this.width = width;
+            this.height = height;
+            this.length = length;
+            this.massBits = massBits;
+            this.rules = rules;
+            this.stackType = stackType;
+        }
+
+        boolean matches(int width, int height, int length, long massBits) {
+            return this.width == width && this.height == height && this.length == length
+                    && this.massBits == massBits;
+        }
+    }
+
+    /**
+     * Approximate access counts of shapes: a count-min sketch of four rows of 4-bit counters (one byte each, for
+     * simplicity), halved after every ten accesses per cached shape.
+     */
+    private static final class FrequencySketch {
+
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9e3779b9, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f};
+
+        private final byte[] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int accesses;
+
+        FrequencySketch(int capacity) {
+            this.counters = new byte[Math.max(64, capacity * 8)];
+            this.mask = counters.length - 1;
+            this.sampleSize = 10 * capacity;
+        }
+
+        void increment(int hash) {
+            for (int seed : SEEDS) {
+                int index = index(hash, seed);
+                if (counters[index] < MAX_COUNT) {
+                    counters[index]++;
+                }
+            }
+            // Racy on purpose: a lost update only delays the aging
+            if (++accesses >= sampleSize) {
+                accesses = 0;
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>= 1;
+                }
+            }
+        }
+
+        int frequency(int hash) {
+            int frequency = MAX_COUNT;
+            for (int seed : SEEDS) {
+                frequency = Math.min(frequency, counters[index(hash, seed)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int seed) {
+            int mixed = (hash ^ seed) * seed;
+            return (mixed ^ (mixed >>> 16)) & mask;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ai.thoughtful.platform.factory.checkpoint;
+
+import ai.thoughtful.platform.factory.StackType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Progress of {@link CheckpointedBatchClassifier}: a consistent point where every line of the manifest before
+ * inputOffset has its result in the results file before outputOffset.
+ *
+ * Stored as a properties file that is replaced atomically, see {@link CheckpointFiles}.
+ *
+ * @param inputSize size of the manifest file, to tell it apart from another manifest on resume
+ * @param inputOffset position after the last classified line, in the uncompressed manifest
+ * @param lines number of classified lines
+ * @param outputOffset size of the results file
+ * @param packages number of classified packages per stack type
+ */
+public record BatchCheckpoint(
+        long inputSize,
+        long inputOffset,
+        long lines,
+        long outputOffset,
+        Map<StackType, Long> packages
+) {
+
+    private static final String INPUT_SIZE = "input.size";
+    private static final String INPUT_OFFSET = "input.offset";
+    private static final String LINES = "lines";
+    private static final String OUTPUT_OFFSET = "output.offset";
+    private static final String PACKAGES_PREFIX = "packages.";
+
+    /**
+     * Checkpoint of a run that has not classified anything yet.
+     */
+    public static final BatchCheckpoint EMPTY = new BatchCheckpoint(-1, 0, 0, 0, Map.of());
+
+    public BatchCheckpoint {
+        Map<StackType, Long> counts = new EnumMap<>(StackType.class);
+        for (StackType stackType : StackType.values()) {
+            counts.put(stackType, packages.getOrDefault(stackType, 0L));
+        }
+        packages = Map.copyOf(counts);
+    }
+
+    /**
+     * @return number of classified packages of a stack type
+     */
+    public long packages(StackType stackType) {
+        return packages.get(stackType);
+    }
+
+    /**
+     * Loads a checkpoint.
+     *
+     * @param path checkpoint file
+     * @return the checkpoint, or {@link #EMPTY} when the file does not exist yet
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a batch checkpoint
+     */
+    public static BatchCheckpoint load(Path path) throws IOException {
+        Properties properties = CheckpointFiles.load(path);
+        if (properties == null) {
+            return EMPTY;
+        }
+
+        Map<StackType, Long> packages = new EnumMap<>(StackType.class);
+        for (StackType stackType : StackType.values()) {
+            packages.put(stackType, CheckpointFiles.longValueOf(properties, PACKAGES_PREFIX + stackType.name()));
+        }
+        return new BatchCheckpoint(
+                CheckpointFiles.longValueOf(properties, INPUT_SIZE),
+                CheckpointFiles.longValueOf(properties, INPUT_OFFSET),
+                CheckpointFiles.longValueOf(properties, LINES),
+                CheckpointFiles.longValueOf(properties, OUTPUT_OFFSET),
+                packages);
+    }
+
+    /**
+     * Replaces the checkpoint file with this checkpoint, durably.
+     *
+     * @param path checkpoint file
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void store(Path path) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(INPUT_SIZE, Long.toString(inputSize));
+        properties.setProperty(INPUT_OFFSET, Long.toString(inputOffset));
+        properties.setProperty(LINES, Long.toString(lines));
+        properties.setProperty(OUTPUT_OFFSET, Long.toString(outputOffset));
+        for (StackType stackType : StackType.values()) {
+            properties.setProperty(PACKAGES_PREFIX + stackType.name(), Long.toString(packages(stackType)));
+        }
+        CheckpointFiles.store(properties, path, "Batch checkpoint");
+    }
+}
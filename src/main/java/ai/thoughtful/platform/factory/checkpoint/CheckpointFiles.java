@@ -0,0 +1,85 @@
+package ai.thoughtful.platform.factory.checkpoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+
+/**
+ * Checkpoints stored as properties files that are replaced atomically: the new content is written to a temporary
+ * file, forced to disk and renamed over the previous checkpoint, so a crash leaves either the old or the new one.
+ */
+public final class CheckpointFiles {
+
+    private CheckpointFiles() {}
+
+    /**
+     * @param path checkpoint file
+     * @return the stored properties, or null when the file does not exist yet
+     * @throws IOException if the file cannot be read
+     */
+    public static Properties load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(path)) {
+            properties.load(input);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        return properties;
+    }
+
+    /**
+     * Replaces the checkpoint file with the properties, durably.
+     *
+     * @param path checkpoint file
+     * @param comment first line of the file
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public static void store(Properties properties, Path path, String comment) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                OutputStream output = Channels.newOutputStream(channel);
+                properties.store(output, comment);
+                output.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        forceDirectory(directory);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the entry is missing or not a number
+     */
+    public static long longValueOf(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing checkpoint entry: " + key);
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + key + ": " + value);
+        }
+    }
+
+    // Makes the rename durable; not every platform can open a directory, which then keeps the rename in its cache
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package ai.thoughtful.platform.factory.checkpoint;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.gzip.ParallelGzipInputStream;
+import ai.thoughtful.platform.factory.manifest.ManifestClassifier;
+import ai.thoughtful.platform.factory.manifest.ParallelManifestClassifier;
+import ai.thoughtful.platform.factory.manifest.StreamManifestReader;
+import ai.thoughtful.platform.factory.metrics.ClassificationMetrics;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Classifies a manifest file into a results file, storing a {@link BatchCheckpoint} periodically so that a run
+ * stopped at any point can be resumed and still produce the same results file, byte for byte.
+ *
+ * The manifest is read as a stream, inflating gzip-compressed files, and cut into segments after the first "\n"
+ * past every {@value #DEFAULT_SEGMENT_SIZE} bytes. Each segment is classified by a {@link ManifestClassifier}, or
+ * a {@link ParallelManifestClassifier} with several threads, and its results flushed. Once the interval has
+ * elapsed, the results are forced to disk before the checkpoint is replaced, so a checkpoint never covers results
+ * that a crash could lose. A resumed run truncates the results written after the checkpoint, skips the classified
+ * part of the manifest and numbers its lines after it, so errors still carry their line number in the manifest.
+ */
+public final class CheckpointedBatchClassifier {
+
+    /**
+     * Default time between two checkpoints.
+     */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(10);
+
+    /**
+     * Default number of manifest bytes between two consistent points.
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    // Bytes read at once while looking for the end of a segment, which are pushed back past it
+    private static final int SCAN_SIZE = 1 << 16;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int threads;
+    private final ClassificationMetrics metrics;
+    private final Path checkpointFile;
+    private final long intervalNanos;
+    private final long segmentSize;
+
+    /**
+     * @param threads number of classification threads, 1 for the sequential classifier
+     * @param metrics destination of the package counters, or null
+     * @param checkpointFile file storing the progress
+     */
+    public CheckpointedBatchClassifier(int threads, ClassificationMetrics metrics, Path checkpointFile) {
+        this(threads, metrics, checkpointFile, DEFAULT_INTERVAL, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param threads number of classification threads, 1 for the sequential classifier
+     * @param metrics destination of the package counters, or null
+     * @param checkpointFile file storing the progress
+     * @param interval time between two checkpoints, zero to store one after every segment
+     * @param segmentSize number of manifest bytes between two consistent points
+     */
+    public CheckpointedBatchClassifier(int threads, ClassificationMetrics metrics, Path checkpointFile,
+                                       Duration interval, long segmentSize) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        if (interval.isNegative() || segmentSize <= 0) {
+            throw new IllegalArgumentException("Interval must not be negative and segment size must be positive");
+        }
+        this.threads = threads;
+        this.metrics = metrics != null ? metrics : new ClassificationMetrics();
+        this.checkpointFile = Objects.requireNonNull(checkpointFile, "checkpointFile");
+        this.intervalNanos = interval.toNanos();
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Classifies the manifest from a checkpoint on, one result line per line, storing a last checkpoint at the end.
+     *
+     * @param input manifest file, possibly gzip-compressed
+     * @param output results file; replaced, or truncated to the checkpoint when resuming
+     * @param start checkpoint to resume from, or {@link BatchCheckpoint#EMPTY} to classify the whole manifest
+     * @return checkpoint of the whole manifest
+     * @throws IllegalArgumentException if a line is invalid, or if the files do not match the checkpoint
+     * @throws IOException if reading, writing or storing a checkpoint fails
+     */
+    public BatchCheckpoint classify(Path input, Path output, BatchCheckpoint start) throws IOException {
+        long inputSize = Files.size(input);
+        if (start != BatchCheckpoint.EMPTY && start.inputSize() != inputSize) {
+            throw new IllegalArgumentException("The manifest " + input + " is not the one of the checkpoint");
+        }
+        Map<StackType, Long> before = packages();
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             InputStream manifest = ParallelGzipInputStream.decompressing(Files.newInputStream(input),
+                     ParallelGzipInputStream.DEFAULT_THREADS)) {
+            if (channel.size() < start.outputOffset()) {
+                throw new IllegalArgumentException("The results " + output + " are shorter than the checkpoint");
+            }
+            // Results written after the checkpoint belong to lines classified again
+            channel.truncate(start.outputOffset());
+            channel.position(start.outputOffset());
+            manifest.skipNBytes(start.inputOffset());
+            OutputStream results = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            PushbackInputStream remaining = new PushbackInputStream(manifest, SCAN_SIZE);
+
+            BatchCheckpoint progress = start;
+            long lastCheckpoint = System.nanoTime();
+            while (!isEnd(remaining)) {
+                Segment segment = new Segment(remaining, segmentSize);
+                long lines = classify(segment, results, progress.lines());
+                progress = new BatchCheckpoint(inputSize, progress.inputOffset() + segment.length,
+                        progress.lines() + lines, channel.position(), packagesSince(start, before));
+                if (System.nanoTime() - lastCheckpoint >= intervalNanos) {
+                    checkpoint(channel, progress);
+                    lastCheckpoint = System.nanoTime();
+                }
+            }
+            checkpoint(channel, progress);
+            return progress;
+        }
+    }
+
+    private long classify(InputStream segment, OutputStream results, long linesBefore) throws IOException {
+        if (threads > 1) {
+            return new ParallelManifestClassifier(threads, ParallelManifestClassifier.DEFAULT_CHUNK_SIZE, metrics)
+                    .classify(segment, results, linesBefore);
+        }
+        return new ManifestClassifier(ManifestClassifier.DEFAULT_BATCH_SIZE, metrics).classify(
+                new StreamManifestReader(segment, StreamManifestReader.DEFAULT_CHUNK_SIZE, linesBefore), results);
+    }
+
+    private void checkpoint(FileChannel channel, BatchCheckpoint progress) throws IOException {
+        channel.force(false);
+        progress.store(checkpointFile);
+    }
+
+    private static boolean isEnd(PushbackInputStream input) throws IOException {
+        int next = input.read();
+        if (next < 0) {
+            return true;
+        }
+        input.unread(next);
+        return false;
+    }
+
+    private Map<StackType, Long> packages() {
+        Map<StackType, Long> packages = new EnumMap<>(StackType.class);
+        for (StackType stackType : StackType.values()) {
+            packages.put(stackType, metrics.getPackages(stackType));
+        }
+        return packages;
+    }
+
+    private Map<StackType, Long> packagesSince(BatchCheckpoint start, Map<StackType, Long> before) {
+        Map<StackType, Long> packages = new EnumMap<>(StackType.class);
+        for (StackType stackType : StackType.values()) {
+            packages.put(stackType, start.packages(stackType) + metrics.getPackages(stackType) - before.get(stackType));
+        }
+        return packages;
+    }
+
+    /**
+     * Next segment of the manifest: at least limit bytes, then up to and including the next "\n", or the rest of
+     * the manifest. Lines ending with a lone "\r" only end a segment once a "\n" follows.
+     */
+    private static final class Segment extends InputStream {
+
+        private final PushbackInputStream input;
+        private long remaining;
+        private long length;
+        private boolean ended;
+
+        Segment(PushbackInputStream input, long limit) {
+            this.input = input;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, bytes.length);
+            if (len == 0) {
+                return 0;
+            }
+            if (ended) {
+                return -1;
+            }
+            int count;
+            if (remaining > 0) {
+                count = input.read(bytes, off, (int) Math.min(len, remaining));
+                if (count < 0) {
+                    ended = true;
+                    return -1;
+                }
+                remaining -= count;
+                ended = remaining == 0 && bytes[off + count - 1] == '\n';
+            } else {
+                count = input.read(bytes, off, Math.min(len, SCAN_SIZE));
+                if (count < 0) {
+                    ended = true;
+                    return -1;
+                }
+                for (int i = off; i < off + count; i++) {
+                    if (bytes[i] == '\n') {
+                        input.unread(bytes, i + 1, off + count - i - 1);
+                        count = i + 1 - off;
+                        ended = true;
+                        break;
+                    }
+                }
+            }
+            length += count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package ai.thoughtful.platform.factory.cli;
+
+import ai.thoughtful.platform.factory.stats.StatisticsRecorder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line options of the package classifier.
+ *
+ * Supports a single measurement ("width,height,length,mass"), a batch manifest through
+ * "--input &lt;file|-&gt;" with an optional "--output &lt;file&gt;", "--threads &lt;n&gt;" or "--pipeline", and
+ * "--format packed", with invalid rows moved to "--quarantine &lt;file&gt;" under an optional
+ * "--max-error-rate &lt;fraction&gt;", and progress stored in "--checkpoint &lt;file&gt;" for "--resume", or the HTTP
+ * server through
+ * "--serve" with an optional "--port &lt;port&gt;" and "--tcp-port &lt;port&gt;" for the binary protocol.
+ * A manifest can also be classified by a remote binary server with "--connect &lt;host:port&gt;".
+ * Growing files are followed with "--follow &lt;file&gt;" (repeatable) and an optional "--checkpoint &lt;file&gt;".
+ * Manifests dropped into a directory are classified with "--watch &lt;dir&gt;", "--threads &lt;n&gt;" of them at once,
+ * into the "--output &lt;dir&gt;" directory.
+ * Packed results are turned back into text lines with "--decode &lt;file&gt;".
+ * Gzip-compressed manifests are inflated, and outputs whose name ends with ".gz" are compressed.
+ * Local batches, servers and followed files record package statistics with "--stats", counting the packages
+ * within "--near-limit &lt;percent&gt;" of the limits.
+ * Every mode accepts "--rules &lt;file&gt;" with site-specific classification rules and
+ * "--metrics-file &lt;file&gt;" for periodic metrics reports.
+ */
+public final class CliOptions {
+
+    /**
+     * Input or output path denoting the standard streams.
+     */
+    public static final String STANDARD_STREAM = "-";
+
+    /**
+     * Default port of the HTTP server.
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    private boolean help;
+    private String measurement;
+    private String input;
+    private String output;
+    private boolean serve;
+    private int port = DEFAULT_PORT;
+    private int tcpPort = -1;
+    private String connect;
+    private Integer threads;
+    private boolean pipeline;
+    private String rules;
+    private int shapeCache;
+    private String metricsFile;
+    private final List<String> follow = new ArrayList<>();
+    private String checkpoint;
+    private boolean resume;
+    private String watch;
+    private boolean packed;
+    private String decode;
+    private boolean stats;
+    private Double nearLimit;
+    private String quarantine;
+    private Double maxErrorRate;
+
+    private CliOptions() {}
+
+    /**
+     * Parses the command-line arguments.
+     *
+     * @param args raw command-line arguments
+     * @return parsed options
+     * @throws IllegalArgumentException if a flag is unknown or misses its value
+     */
+    public static CliOptions parse(String... args) {
+        CliOptions options = new CliOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--help", "-h" -> options.help = true;
+                case "--input", "-i" -> options.input = valueOf(args, ++i, arg);
+                case "--output", "-o" -> options.output = valueOf(args, ++i, arg);
+                case "--serve" -> options.serve = true;
+                case "--port" -> options.port = intValueOf(args, ++i, arg);
+                case "--tcp-port" -> options.tcpPort = intValueOf(args, ++i, arg);
+                case "--connect" -> options.connect = valueOf(args, ++i, arg);
+                case "--threads" -> options.threads = intValueOf(args, ++i, arg);
+                case "--pipeline" -> options.pipeline = true;
+                case "--rules" -> options.rules = valueOf(args, ++i, arg);
+                case "--shape-cache" -> options.shapeCache = intValueOf(args, ++i, arg);
+                case "--metrics-file" -> options.metricsFile = valueOf(args, ++i, arg);
+                case "--follow", "-F" -> options.follow.add(valueOf(args, ++i, arg));
+                case "--checkpoint" -> options.checkpoint = valueOf(args, ++i, arg);
+                case "--resume" -> options.resume = true;
+                case "--watch", "-W" -> options.watch = valueOf(args, ++i, arg);
+                case "--format" -> options.packed = isPacked(valueOf(args, ++i, arg));
+                case "--decode" -> options.decode = valueOf(args, ++i, arg);
+                case "--stats" -> options.stats = true;
+                case "--near-limit" -> options.nearLimit = doubleValueOf(args, ++i, arg);
+                case "--quarantine" -> options.quarantine = valueOf(args, ++i, arg);
+                case "--max-error-rate" -> options.maxErrorRate = doubleValueOf(args, ++i, arg);
+                case STANDARD_STREAM -> options.input = STANDARD_STREAM;
+                default -> {
+                    if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                    if (options.measurement != null) {
+                        throw new IllegalArgumentException("Only one package measurement can be given: " + arg);
+                    }
+                    options.measurement = arg;
+                }
+            }
+        }
+        if ((options.input != null ? 1 : 0) + (options.measurement != null ? 1 : 0) + (options.serve ? 1 : 0)
+                + (options.isFollow() ? 1 : 0) + (options.watch != null ? 1 : 0) + (options.decode != null ? 1 : 0) > 1) {
+            throw new IllegalArgumentException(
+                    "Use only one of a package measurement, --input, --serve, --follow, --watch or --decode");
+        }
+        if (options.packed && !(options.watch != null || (options.input != null && options.connect == null))) {
+            throw new IllegalArgumentException("--format packed requires a local --input or --watch");
+        }
+        if (options.stats && !(options.serve || options.isFollow()
+                || (options.input != null && options.connect == null))) {
+            throw new IllegalArgumentException("--stats requires a local --input, --serve or --follow");
+        }
+        if (options.nearLimit != null && (!options.stats || !(options.nearLimit >= 0 && options.nearLimit < 100))) {
+            throw new IllegalArgumentException("--near-limit requires --stats and a percentage from 0 to 100");
+        }
+        if (options.checkpoint != null && !options.isFollow() && !options.isLocalFileBatch()) {
+            throw new IllegalArgumentException(
+                    "--checkpoint requires --follow, or a local --input file and an --output file");
+        }
+        if (options.checkpoint != null && options.input != null && (options.pipeline || options.packed
+                || options.quarantine != null || options.output.endsWith(".gz"))) {
+            throw new IllegalArgumentException(
+                    "--checkpoint with --input does not support --pipeline, --format packed, --quarantine or .gz output");
+        }
+        if (options.resume && (options.checkpoint == null || options.input == null)) {
+            throw new IllegalArgumentException("--resume requires --input and --checkpoint");
+        }
+        if (options.tcpPort >= 0 && !options.serve) {
+            throw new IllegalArgumentException("--tcp-port requires --serve");
+        }
+        if (options.connect != null && options.input == null) {
+            throw new IllegalArgumentException("--connect requires --input");
+        }
+        if (options.shapeCache < 0 || (options.shapeCache > 0 && !options.serve)) {
+            throw new IllegalArgumentException("--shape-cache requires --serve and a positive size");
+        }
+        if (options.threads != null && options.threads <= 0) {
+            throw new IllegalArgumentException("--threads must be positive");
+        }
+        if (options.getThreads() > 1 && options.watch == null && (options.input == null || options.connect != null)) {
+            throw new IllegalArgumentException("--threads requires a local --input or --watch");
+        }
+        if (options.pipeline && (options.input == null || options.connect != null || options.getThreads() > 1)) {
+            throw new IllegalArgumentException("--pipeline requires a local --input without --threads");
+        }
+        if (options.quarantine != null && (options.input == null || options.connect != null || options.pipeline)) {
+            throw new IllegalArgumentException("--quarantine requires a local --input without --pipeline");
+        }
+        if (options.maxErrorRate != null && (options.quarantine == null
+                || !(options.maxErrorRate >= 0 && options.maxErrorRate <= 1))) {
+            throw new IllegalArgumentException("--max-error-rate requires --quarantine and a fraction from 0 to 1");
+        }
+        return options;
+    }
+
+    private boolean isLocalFileBatch() {
+        return input != null && !STANDARD_STREAM.equals(input) && connect == null
+                && output != null && !STANDARD_STREAM.equals(output);
+    }
+
+    private static boolean isPacked(String format) {
+        return switch (format) {
+            case "text" -> false;
+            case "packed" -> true;
+            default -> throw new IllegalArgumentException("Unknown output format: " + format);
+        };
+    }
+
+    private static String valueOf(String[] args, int index, String flag) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + flag);
+        }
+        return args[index];
+    }
+
+    private static int intValueOf(String[] args, int index, String flag) {
+        String value = valueOf(args, index, flag);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + flag + ": " + value);
+        }
+    }
+
+    private static double doubleValueOf(String[] args, int index, String flag) {
+        String value = valueOf(args, index, flag);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + flag + ": " + value);
+        }
+    }
+
+    public boolean isHelp() {
+        return help;
+    }
+
+    public boolean isBatch() {
+        return input != null;
+    }
+
+    public String getMeasurement() {
+        return measurement;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public boolean isServe() {
+        return serve;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return port of the binary TCP server, or -1 when it is not enabled
+     */
+    public int getTcpPort() {
+        return tcpPort;
+    }
+
+    /**
+     * @return "host:port" of a remote binary server classifying the manifest, or null to classify locally
+     */
+    public String getConnect() {
+        return connect;
+    }
+
+    /**
+     * @return number of threads classifying the manifest, 1 for the sequential batch mode
+     */
+    public int getThreads() {
+        return getThreads(1);
+    }
+
+    /**
+     * @param defaultThreads number of threads when "--threads" is not given
+     * @return number of threads given with "--threads", or the default
+     */
+    public int getThreads(int defaultThreads) {
+        return threads == null ? defaultThreads : threads;
+    }
+
+    /**
+     * @return whether the manifest is classified by a pipeline of stages, each on its own thread
+     */
+    public boolean isPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * @return path of the file receiving the invalid rows of the manifest, or null to stop at the first one
+     */
+    public String getQuarantine() {
+        return quarantine;
+    }
+
+    /**
+     * @return largest fraction of invalid rows before the manifest is aborted, or null without limit
+     */
+    public Double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    /**
+     * @return path of the classification rules properties file, or null for the default rules
+     */
+    public String getRules() {
+        return rules;
+    }
+
+    /**
+     * @return number of package shapes cached by the servers, 0 without cache
+     */
+    public int getShapeCache() {
+        return shapeCache;
+    }
+
+    /**
+     * @return whether growing files are followed and classified as lines are appended
+     */
+    public boolean isFollow() {
+        return !follow.isEmpty();
+    }
+
+    /**
+     * @return followed files, in command-line order
+     */
+    public List<String> getFollow() {
+        return List.copyOf(follow);
+    }
+
+    /**
+     * @return path of the file storing the progress of --follow or of a batch, or null to start from the beginning
+     */
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * @return whether a batch continues from its checkpoint instead of starting over
+     */
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * @return drop directory whose manifests are classified as they arrive, or null
+     */
+    public String getWatch() {
+        return watch;
+    }
+
+    /**
+     * @return whether the batch results are written 2 bits per package instead of text lines
+     */
+    public boolean isPacked() {
+        return packed;
+    }
+
+    /**
+     * @return path of a packed results file to decode into text lines, or null
+     */
+    public String getDecode() {
+        return decode;
+    }
+
+    /**
+     * @return whether package statistics are recorded
+     */
+    public boolean isStats() {
+        return stats;
+    }
+
+    /**
+     * @return distance to a limit, as a fraction of the limit, within which packages count as near it
+     */
+    public double getNearLimitFraction() {
+        return nearLimit == null ? StatisticsRecorder.DEFAULT_NEAR_LIMIT_FRACTION : nearLimit / 100;
+    }
+
+    /**
+     * @return path of the file receiving the metrics periodically, or null
+     */
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+}
@@ -0,0 +1,625 @@
+package ai.thoughtful.platform.factory.cli;
+
+import ai.thoughtful.platform.factory.PackageSorter;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.cache.PackageShapeCache;
+import ai.thoughtful.platform.factory.checkpoint.BatchCheckpoint;
+import ai.thoughtful.platform.factory.checkpoint.CheckpointedBatchClassifier;
+import ai.thoughtful.platform.factory.follow.TailClassifier;
+import ai.thoughtful.platform.factory.gzip.AsyncGzipOutputStream;
+import ai.thoughtful.platform.factory.gzip.ParallelGzipInputStream;
+import ai.thoughtful.platform.factory.manifest.InvalidRowHandler;
+import ai.thoughtful.platform.factory.manifest.ManifestClassifier;
+import ai.thoughtful.platform.factory.manifest.ManifestReader;
+import ai.thoughtful.platform.factory.manifest.ParallelManifestClassifier;
+import ai.thoughtful.platform.factory.manifest.PipelinedManifestClassifier;
+import ai.thoughtful.platform.factory.manifest.StreamManifestReader;
+import ai.thoughtful.platform.factory.metrics.ClassificationMetrics;
+import ai.thoughtful.platform.factory.metrics.InstrumentedSorter;
+import ai.thoughtful.platform.factory.metrics.MetricsFileReporter;
+import ai.thoughtful.platform.factory.model.PackageMeasurement;
+import ai.thoughtful.platform.factory.model.ParseResult;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeReader;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeWriter;
+import ai.thoughtful.platform.factory.quarantine.ErrorRateBreaker;
+import ai.thoughtful.platform.factory.quarantine.QuarantineWriter;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
+import ai.thoughtful.platform.factory.rules.RulesFileWatcher;
+import ai.thoughtful.platform.factory.server.BinaryClassificationClient;
+import ai.thoughtful.platform.factory.server.BinaryClassificationServer;
+import ai.thoughtful.platform.factory.server.ClassificationHttpServer;
+import ai.thoughtful.platform.factory.server.ServerMetrics;
+import ai.thoughtful.platform.factory.stats.StatisticsRecorder;
+import ai.thoughtful.platform.factory.watch.DropDirectoryClassifier;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Package classifier command-line interface, without Spring.
+ *
+ * Expected input format: "width,height,length,mass"
+ * Example: "50,30,20,5000" -> "STANDARD"
+ *
+ * Batch mode: "--input manifest.csv" (or "-" for stdin) classifies one package per line in a single process.
+ * Server mode: "--serve [--port 8080] [--tcp-port 9090]" keeps the JVM warm and classifies over HTTP and
+ * optionally over the binary TCP protocol.
+ *
+ * {@link #main(String[])} is the entry point of the slim jar, which starts in a fraction of the Spring Boot
+ * application time; {@link PackageClassifierRunner} runs the same interface inside Spring Boot.
+ */
+public final class PackageClassifierCli {
+
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    // Pre-encoded output lines, indexed by StackType ordinal
+    private static final byte[][] LINES = new byte[StackType.values().length][];
+
+    static {
+        for (StackType stackType : StackType.values()) {
+            LINES[stackType.ordinal()] = (stackType.name() + "\n").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private ClassificationMetrics metrics = new ClassificationMetrics();
+    private ServerMetrics serverMetrics = new ServerMetrics(metrics);
+
+    public static void main(String[] args) throws InterruptedException {
+        new PackageClassifierCli().run(args);
+    }
+
+    /**
+     * Runs the command line; exits the JVM with status 1 on errors.
+     *
+     * @param args raw command-line arguments
+     * @throws InterruptedException if the server mode is interrupted
+     */
+    public void run(String... args) throws InterruptedException {
+        if (args.length == 0) {
+            printUsage();
+            return;
+        }
+
+        CliOptions options;
+        try {
+            options = CliOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage();
+            System.exit(1);
+            return;
+        }
+
+        if (options.isHelp()) {
+            printHelp();
+            return;
+        }
+
+        if (options.getRules() != null) {
+            try {
+                installRules(options);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error: Cannot load rules from " + options.getRules() + ": " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        }
+
+        if (options.isStats()) {
+            metrics = new ClassificationMetrics(new StatisticsRecorder(options.getNearLimitFraction()));
+            serverMetrics = new ServerMetrics(metrics);
+        }
+
+        if (options.getMetricsFile() != null) {
+            startMetricsReporter(options);
+        }
+
+        if (options.isBatch()) {
+            runBatch(options);
+            return;
+        }
+
+        if (options.isServe()) {
+            runServer(options);
+            return;
+        }
+
+        if (options.isFollow()) {
+            runFollow(options);
+            return;
+        }
+
+        if (options.getWatch() != null) {
+            runWatch(options);
+            return;
+        }
+
+        if (options.getDecode() != null) {
+            runDecode(options);
+            return;
+        }
+
+        try {
+            ParseResult parsed = PackageInputParser.tryParse(options.getMeasurement());
+            if (!parsed.isValid()) {
+                metrics.recordParseError(parsed.error());
+                System.err.println("Error: " + parsed.error().message());
+                printUsage();
+                System.exit(1);
+                return;
+            }
+            PackageMeasurement measurement = parsed.measurement();
+            StackType stackType = new InstrumentedSorter(PackageSorter.DIRECT, metrics).sort(
+                    measurement.width(), measurement.height(), measurement.length(), measurement.mass());
+            System.out.println(stackType);
+        } catch (Exception e) {
+            System.err.println("Unexpected error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Classifies a whole manifest in this process, one package per input line and one result per output line.
+     *
+     * @param options parsed options with the input and the optional output
+     */
+    private void runBatch(CliOptions options) {
+        if (options.getCheckpoint() != null) {
+            runCheckpointedBatch(options);
+            return;
+        }
+        try (OutputStream output = openOutput(options.getOutput());
+             QuarantineWriter quarantine = options.getQuarantine() == null
+                     ? null : new QuarantineWriter(Path.of(options.getQuarantine()))) {
+            InvalidRowHandler invalidRows = quarantine;
+            ErrorRateBreaker breaker = null;
+            if (options.getMaxErrorRate() != null) {
+                breaker = new ErrorRateBreaker(options.getMaxErrorRate(), quarantine);
+                invalidRows = breaker;
+            }
+
+            long classified;
+            if (options.getConnect() != null) {
+                InetSocketAddress address = parseAddress(options.getConnect());
+                try (BinaryClassificationClient client = new BinaryClassificationClient(address)) {
+                    classified = client.classify(openInput(options.getInput()), output);
+                }
+            } else if (options.isPacked()) {
+                classified = runPackedBatch(options, output, invalidRows);
+            } else if (options.getThreads() > 1) {
+                classified = runParallelBatch(options, output, invalidRows);
+            } else if (options.isPipeline()) {
+                try (InputStream input = openStream(options.getInput())) {
+                    classified = pipelinedClassifier().classify(input, output);
+                }
+            } else {
+                classified = new ManifestClassifier(ManifestClassifier.DEFAULT_BATCH_SIZE, metrics, invalidRows)
+                        .classify(openInput(options.getInput()), output);
+            }
+            if (quarantine != null) {
+                reportQuarantine(quarantine, options.getQuarantine());
+            }
+            if (breaker != null) {
+                breaker.checkTotal(classified + breaker.getInvalidRows());
+            }
+            if (metrics.getStatistics() != null) {
+                // Results keep stdout to themselves
+                System.err.print(metrics.getStatistics().total().toReport());
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("Unexpected error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Classifies a manifest file into a results file, storing the progress periodically, and with --resume
+     * continues from the stored progress.
+     *
+     * @param options parsed options with the input, output and checkpoint files
+     */
+    private void runCheckpointedBatch(CliOptions options) {
+        Path checkpoint = Path.of(options.getCheckpoint());
+        try {
+            BatchCheckpoint start = options.isResume() ? BatchCheckpoint.load(checkpoint) : BatchCheckpoint.EMPTY;
+            if (start.lines() > 0) {
+                System.err.println("Resuming " + options.getInput() + " after line " + start.lines());
+            }
+            new CheckpointedBatchClassifier(options.getThreads(), metrics, checkpoint)
+                    .classify(Path.of(options.getInput()), Path.of(options.getOutput()), start);
+            if (metrics.getStatistics() != null) {
+                System.err.print(metrics.getStatistics().total().toReport());
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Error: Cannot classify " + options.getInput() + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes the metrics to a file periodically and once more when the JVM exits, including on errors.
+     *
+     * @param options parsed options with the metrics file
+     */
+    private void startMetricsReporter(CliOptions options) {
+        Supplier<String> report = options.isServe() ? serverMetrics::toPrometheusText : metrics::toPrometheusText;
+        MetricsFileReporter reporter = new MetricsFileReporter(
+                Path.of(options.getMetricsFile()), MetricsFileReporter.DEFAULT_INTERVAL, report);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                reporter.close();
+            } catch (IOException e) {
+                System.err.println("Error: Cannot write metrics to " + options.getMetricsFile() + ": "
+                        + e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Installs the rules file; servers, followed files and watched directories also reload it whenever it changes.
+     *
+     * @param options parsed options with the rules file
+     */
+    private static void installRules(CliOptions options) throws IOException {
+        Path rules = Path.of(options.getRules());
+        if (options.isServe() || options.isFollow() || options.getWatch() != null) {
+            RulesFileWatcher watcher = new RulesFileWatcher(rules);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    // Shutting down anyway
+                }
+            }));
+        } else {
+            RuleEngine.install(ClassificationRules.load(rules));
+        }
+    }
+
+    /**
+     * Follows growing files and classifies their new lines until the JVM shuts down.
+     *
+     * @param options parsed options with the followed files and the optional checkpoint and output
+     */
+    private void runFollow(CliOptions options) throws InterruptedException {
+        List<Path> files = options.getFollow().stream().map(Path::of).toList();
+        Path output = options.getOutput() == null || CliOptions.STANDARD_STREAM.equals(options.getOutput())
+                ? null : Path.of(options.getOutput());
+        Path checkpoint = options.getCheckpoint() == null ? null : Path.of(options.getCheckpoint());
+        try (TailClassifier classifier = new TailClassifier(files, output, checkpoint, metrics)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(classifier::close));
+            classifier.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Error: Cannot follow " + String.join(", ", options.getFollow()) + ": "
+                    + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Classifies the manifests dropped into a directory, several at once, until the JVM shuts down.
+     *
+     * @param options parsed options with the drop directory and the optional output directory and threads
+     */
+    private void runWatch(CliOptions options) throws InterruptedException {
+        Path output = options.getOutput() == null ? null : Path.of(options.getOutput());
+        try (DropDirectoryClassifier classifier = new DropDirectoryClassifier(Path.of(options.getWatch()), output,
+                options.getThreads(DropDirectoryClassifier.DEFAULT_THREADS), options.isPacked(), metrics)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(classifier::close));
+            classifier.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Error: Cannot watch " + options.getWatch() + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Classifies a manifest into packed results, 2 bits per package.
+     */
+    private long runPackedBatch(CliOptions options, OutputStream output, InvalidRowHandler invalidRows)
+            throws IOException {
+        PackedStackTypeWriter packed = new PackedStackTypeWriter(output);
+        try {
+            if (options.getThreads() > 1) {
+                ParallelManifestClassifier classifier = new ParallelManifestClassifier(
+                        options.getThreads(), ParallelManifestClassifier.DEFAULT_CHUNK_SIZE, metrics, invalidRows);
+                if (isMappable(options.getInput())) {
+                    return classifier.classify(Path.of(options.getInput()), packed);
+                }
+                try (InputStream input = openStream(options.getInput())) {
+                    return classifier.classify(input, packed);
+                }
+            } else if (options.isPipeline()) {
+                try (InputStream input = openStream(options.getInput())) {
+                    return pipelinedClassifier().classify(input, packed);
+                }
+            } else {
+                return new ManifestClassifier(ManifestClassifier.DEFAULT_BATCH_SIZE, metrics, invalidRows)
+                        .classify(openInput(options.getInput()), packed);
+            }
+        } finally {
+            // Rows before an invalid line stay readable
+            packed.finish();
+        }
+    }
+
+    /**
+     * Writes the packed results of a file as text lines, one stack type per package.
+     *
+     * @param options parsed options with the packed file and the optional output
+     */
+    private void runDecode(CliOptions options) {
+        try (OutputStream output = openOutput(options.getOutput())) {
+            PackedStackTypeReader reader = PackedStackTypeReader.open(Path.of(options.getDecode()));
+            for (long i = 0; i < reader.size(); i++) {
+                output.write(LINES[reader.get(i).ordinal()]);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Error: Cannot decode " + options.getDecode() + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Classifies a manifest on several threads, writing the results in input order.
+     */
+    private long runParallelBatch(CliOptions options, OutputStream output, InvalidRowHandler invalidRows)
+            throws IOException {
+        ParallelManifestClassifier classifier = new ParallelManifestClassifier(
+                options.getThreads(), ParallelManifestClassifier.DEFAULT_CHUNK_SIZE, metrics, invalidRows);
+        if (isMappable(options.getInput())) {
+            return classifier.classify(Path.of(options.getInput()), output);
+        }
+        try (InputStream input = openStream(options.getInput())) {
+            return classifier.classify(input, output);
+        }
+    }
+
+    /**
+     * Reports the invalid rows moved to the quarantine file, on stderr so that results keep stdout to themselves.
+     */
+    private static void reportQuarantine(QuarantineWriter quarantine, String file) {
+        if (quarantine.getQuarantined() > 0) {
+            System.err.println("Quarantined " + quarantine.getQuarantined() + " invalid rows to " + file);
+        }
+    }
+
+    private PipelinedManifestClassifier pipelinedClassifier() {
+        return new PipelinedManifestClassifier(PipelinedManifestClassifier.DEFAULT_CHUNK_SIZE,
+                PipelinedManifestClassifier.DEFAULT_SLOTS, metrics);
+    }
+
+    /**
+     * Serves classification over HTTP, and over the binary protocol when enabled, until the JVM shuts down.
+     *
+     * @param options parsed options with the ports
+     */
+    private void runServer(CliOptions options) throws InterruptedException {
+        PackageSorter sorter = PackageSorter.DIRECT;
+        if (options.getShapeCache() > 0) {
+            PackageShapeCache shapeCache = new PackageShapeCache(options.getShapeCache());
+            serverMetrics.registerShapeCache(shapeCache);
+            sorter = shapeCache;
+        }
+
+        ClassificationHttpServer server;
+        try {
+            server = new ClassificationHttpServer(new InetSocketAddress(options.getPort()), serverMetrics, sorter);
+        } catch (IOException e) {
+            System.err.println("Error: Cannot listen on port " + options.getPort() + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Package classification server listening on port " + server.getAddress().getPort());
+
+        if (options.getTcpPort() >= 0) {
+            BinaryClassificationServer binaryServer;
+            try {
+                binaryServer = new BinaryClassificationServer(
+                        new InetSocketAddress(options.getTcpPort()), serverMetrics, sorter);
+            } catch (IOException e) {
+                System.err.println("Error: Cannot listen on port " + options.getTcpPort() + ": " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(binaryServer::close));
+            System.out.println("Binary classification server listening on port "
+                    + binaryServer.getAddress().getPort());
+        }
+        Thread.currentThread().join();
+    }
+
+    private static InetSocketAddress parseAddress(String hostAndPort) {
+        int separator = hostAndPort.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Address must be host:port: " + hostAndPort);
+        }
+        try {
+            return new InetSocketAddress(hostAndPort.substring(0, separator),
+                    Integer.parseInt(hostAndPort.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Address must be host:port: " + hostAndPort);
+        }
+    }
+
+    private static ManifestReader openInput(String input) throws IOException {
+        if (CliOptions.STANDARD_STREAM.equals(input)) {
+            return new StreamManifestReader(openStream(input));
+        }
+        // Files are memory-mapped and parsed without intermediate Strings, unless they are gzip-compressed
+        return ManifestReader.open(Path.of(input));
+    }
+
+    /**
+     * Opens the input as a stream, inflating gzip-compressed data.
+     */
+    private static InputStream openStream(String input) throws IOException {
+        if (CliOptions.STANDARD_STREAM.equals(input)) {
+            // Keep System.in open for the caller
+            return ParallelGzipInputStream.decompressing(new FilterInputStream(System.in) {
+                @Override
+                public void close() {}
+            }, ParallelGzipInputStream.DEFAULT_THREADS);
+        }
+        return ParallelGzipInputStream.decompressing(Files.newInputStream(Path.of(input)),
+                ParallelGzipInputStream.DEFAULT_THREADS);
+    }
+
+    /**
+     * @return whether the input is a file to map rather than a stream
+     */
+    private static boolean isMappable(String input) throws IOException {
+        return !CliOptions.STANDARD_STREAM.equals(input) && !ParallelGzipInputStream.isGzip(Path.of(input));
+    }
+
+    private static OutputStream openOutput(String output) throws IOException {
+        if (output == null || CliOptions.STANDARD_STREAM.equals(output)) {
+            // Keep System.out open for the caller, only flush it on close
+            return new BufferedOutputStream(System.out, IO_BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+        if (output.endsWith(".gz")) {
+            // Compressed on its own thread, in blocks
+            return new AsyncGzipOutputStream(Files.newOutputStream(Path.of(output)));
+        }
+        return new BufferedOutputStream(Files.newOutputStream(Path.of(output)), IO_BUFFER_SIZE);
+    }
+
+    private void printUsage() {
+        System.out.println("Usage: java -jar package-classifier.jar \"width,height,length,mass\"");
+        System.out.println("       java -jar package-classifier.jar --input <manifest.csv|-> [--output <file>] [--threads <n>|--pipeline]");
+        System.out.println("       java -jar package-classifier.jar --serve [--port <port>] [--tcp-port <port>]");
+        System.out.println("       java -jar package-classifier.jar --follow <file> [--checkpoint <file>] [--output <file>]");
+        System.out.println("       java -jar package-classifier.jar --watch <dir> [--output <dir>] [--threads <n>]");
+        System.out.println("Example: java -jar package-classifier.jar \"50,30,20,5000\"");
+        System.out.println("Use --help for more information.");
+    }
+
+    private void printHelp() {
+        System.out.println("📦 Package Classification System");
+        System.out.println("================================");
+        System.out.println();
+        System.out.println("This tool classifies packages and determines their stack assignment based on");
+        System.out.println("dimensions and weight.");
+        System.out.println();
+        System.out.println("USAGE:");
+        System.out.println("  java -jar package-classifier.jar \"width,height,length,mass\"");
+        System.out.println("  java -jar package-classifier.jar --input <manifest.csv|-> [--output <file>] [--threads <n>|--pipeline]");
+        System.out.println("  java -jar package-classifier.jar --serve [--port <port>] [--tcp-port <port>]");
+        System.out.println("  java -jar package-classifier.jar --follow <file> [--checkpoint <file>] [--output <file>]");
+        System.out.println("  java -jar package-classifier.jar --watch <dir> [--output <dir>] [--threads <n>]");
+        System.out.println();
+        System.out.println("PARAMETERS:");
+        System.out.println("  width  - Package width in centimeters (positive integer)");
+        System.out.println("  height - Package height in centimeters (positive integer)");
+        System.out.println("  length - Package length in centimeters (positive integer)");
+        System.out.println("  mass   - Package mass in grams (positive number)");
+        System.out.println();
+        System.out.println("BATCH MODE:");
+        System.out.println("  --input, -i <file|->  Classify a manifest with one \"width,height,length,mass\" per line");
+        System.out.println("                        (\"-\" reads from stdin), writing one stack type per line;");
+        System.out.println("                        gzip-compressed input is inflated, block-gzipped in parallel");
+        System.out.println("  --output, -o <file>   Write the results to a file instead of stdout, compressed on");
+        System.out.println("                        another thread when the name ends with .gz");
+        System.out.println("  --threads <n>         Classify on n threads, results stay in input order");
+        System.out.println("  --pipeline            Parse, validate, classify and write on one thread each,");
+        System.out.println("                        results stay in input order");
+        System.out.println("  --connect <host:port> Classify the manifest on a binary TCP server instead of locally");
+        System.out.println("  --format <text|packed> Write text lines (default) or 2 bits per package after an 8-byte");
+        System.out.println("                        header, see --decode");
+        System.out.println("  --decode <file>       Write the packed results of a file as text lines");
+        System.out.println("  --quarantine <file>   Move invalid rows to a file as \"line,error,row\" and go on with");
+        System.out.println("                        the next row instead of stopping (not with --pipeline)");
+        System.out.println("  --max-error-rate <f>  With --quarantine, abort once more than a fraction f of the rows");
+        System.out.println("                        are invalid (checked from line 1000 and on the whole manifest)");
+        System.out.println("  --checkpoint <file>   With a manifest file and an --output file, store the progress");
+        System.out.println("                        durably every 10 seconds (not with --pipeline, --format packed,");
+        System.out.println("                        --quarantine or .gz output)");
+        System.out.println("  --resume              Continue after the progress stored in --checkpoint, producing");
+        System.out.println("                        the same results file as an uninterrupted run");
+        System.out.println();
+        System.out.println("FOLLOW MODE:");
+        System.out.println("  --follow, -F <file>   Follow a growing file like tail -F, across rotation, classifying");
+        System.out.println("                        lines as they are appended (repeatable, \"path:\" prefixes the");
+        System.out.println("                        results of several files; invalid lines answer INVALID)");
+        System.out.println("  --checkpoint <file>   Store the byte offsets durably and resume after them on restart");
+        System.out.println();
+        System.out.println("WATCH MODE:");
+        System.out.println("  --watch, -W <dir>     Classify the manifests dropped into a directory as they arrive,");
+        System.out.println("                        each into \"<name>.out\" (\".pkst\" with --format packed), written");
+        System.out.println("                        atomically; inputs move to \"done\" or, if invalid, \"failed\"");
+        System.out.println("  --output, -o <dir>    Directory of the results (default <dir>/results)");
+        System.out.println("  --threads <n>         Classify up to n manifests at once (default up to 4)");
+        System.out.println("                        Several instances may watch one directory: files are locked");
+        System.out.println();
+        System.out.println("SERVER MODE:");
+        System.out.println("  --serve               Serve classification over HTTP on virtual threads");
+        System.out.println("  --port <port>         Listening port (default 8080)");
+        System.out.println("  POST /classify        Body \"width,height,length,mass\", answers the stack type");
+        System.out.println("  POST /classify/bulk   NDJSON body of {\"width\":..,\"height\":..,\"length\":..,\"mass\":..}");
+        System.out.println("  GET  /metrics         Request, package and latency counters (Prometheus text)");
+        System.out.println("  --tcp-port <port>     Also serve the binary protocol for scanners: 28-byte requests");
+        System.out.println("                        (int32 width, height, length, float64 mass, int64 id) answered");
+        System.out.println("                        in order by 9-byte responses (int64 id, int8 stack type ordinal)");
+        System.out.println("  --shape-cache <n>     Cache the stacks of up to n repeated package shapes");
+        System.out.println();
+        System.out.println("METRICS:");
+        System.out.println("  --metrics-file <file> Write package counters and latency percentiles (Prometheus text)");
+        System.out.println("                        every 10 seconds and on exit, in every mode");
+        System.out.println("  --stats               Record volume, mass and longest side percentiles and the packages");
+        System.out.println("                        near the limits, over the run and the last 5 minutes; printed to");
+        System.out.println("                        stderr after a batch, in /metrics and --metrics-file otherwise");
+        System.out.println("  --near-limit <pct>    Distance to a limit counting as near it (default 5 percent)");
+        System.out.println();
+        System.out.println("OUTPUT:");
+        System.out.println("  STANDARD - Normal processing (not bulky, not heavy)");
+        System.out.println("  SPECIAL  - Special handling (bulky OR heavy, but not both)");
+        System.out.println("  REJECTED - Cannot process (both bulky AND heavy)");
+        System.out.println();
+        System.out.println("CLASSIFICATION RULES:");
+        System.out.println("  • BULKY: Any dimension ≥ 150cm OR volume ≥ 1,000,000 cm³");
+        System.out.println("  • HEAVY: Mass ≥ 20,000 grams (20 kg)");
+        System.out.println("  --rules <file>        Site limits and stacks from a properties file (bulky.volume.limit,");
+        System.out.println("                        bulky.side.limit, heavy.mass.limit, stack.none, stack.bulky,");
+        System.out.println("                        stack.heavy, stack.bulky-heavy); reloaded on change with --serve,");
+        System.out.println("                        --follow and --watch");
+        System.out.println();
+        System.out.println("EXAMPLES:");
+        System.out.println("  \"50,30,20,5000\"     -> STANDARD (normal size and weight)");
+        System.out.println("  \"150,30,20,5000\"    -> SPECIAL  (bulky by dimension)");
+        System.out.println("  \"50,30,20,25000\"    -> SPECIAL  (heavy package)");
+        System.out.println("  \"150,30,20,25000\"   -> REJECTED (both bulky and heavy)");
+        System.out.println("  \"100,100,100,15000\" -> SPECIAL  (bulky by volume: 1M cm³)");
+    }
+}
+
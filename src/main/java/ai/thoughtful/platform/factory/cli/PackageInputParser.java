@@ -0,0 +1,209 @@
+package ai.thoughtful.platform.factory.cli;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.model.PackageMeasurement;
+import ai.thoughtful.platform.factory.model.ParseResult;
+import ai.thoughtful.platform.factory.model.ValidationError;
+
+/**
+ * Parses package measurements in the CLI input format and classifies them.
+ *
+ * Expected input format: "width,height,length,mass"
+ * Example: "50,30,20,5000" -> "STANDARD"
+ *
+ * Shared by the single-package and the batch modes so that both apply the same validation rules.
+ * {@link #tryParse(String)} reports invalid input as a {@link ValidationError} instead of an exception.
+ */
+public final class PackageInputParser {
+
+    // Integer.parseInt would throw
+    private static final long NOT_AN_INT = Long.MIN_VALUE;
+
+    private PackageInputParser() {}
+
+    /**
+     * Classifies a package based on the input string format.
+     * 
+     * @param input comma-separated values: "width,height,length,mass"
+     * @return stack type as string (STANDARD, SPECIAL, or REJECTED)
+     * @throws IllegalArgumentException if input format is invalid
+     */
+    public static String classify(String input) {
+        PackageMeasurement measurement = parse(input);
+
+        // Use StackType.sort method to get classification
+        return StackType.sort(measurement.width(), measurement.height(), measurement.length(), measurement.mass());
+    }
+
+    /**
+     * Parses and validates a package measurement in the input string format.
+     *
+     * @param input comma-separated values: "width,height,length,mass"
+     * @return the validated measurement
+     * @throws IllegalArgumentException if input format is invalid
+     */
+    public static PackageMeasurement parse(String input) {
+        return tryParse(input).orThrow();
+    }
+
+    /**
+     * Parses and validates a package measurement without throwing, for inputs where bad rows are common.
+     * Accepts the same inputs as {@link #parse(String)}; only hexadecimal masses still go through an exception
+     * when invalid.
+     *
+     * @param input comma-separated values: "width,height,length,mass"
+     * @return the validated measurement, or the reason the input is invalid
+     */
+    public static ParseResult tryParse(String input) {
+        if (input == null || input.trim().isEmpty()) {
+            return ParseResult.invalid(ValidationError.EMPTY);
+        }
+
+        String[] parts = input.split(",");
+        if (parts.length != 4) {
+            return ParseResult.invalid(ValidationError.WRONG_FIELD_COUNT);
+        }
+
+        return tryParse(parts[0].trim(), parts[1].trim(), parts[2].trim(), parts[3].trim());
+    }
+
+    /**
+     * Parses and validates the separate fields of a package measurement without throwing, such as the members
+     * of a JSON package.
+     *
+     * @param widthField integer width, without surrounding whitespace
+     * @param heightField integer height, without surrounding whitespace
+     * @param lengthField integer length, without surrounding whitespace
+     * @param massField decimal mass, without surrounding whitespace
+     * @return the validated measurement, or the reason the fields are invalid
+     */
+    public static ParseResult tryParse(String widthField, String heightField, String lengthField, String massField) {
+        long width = parseInt(widthField);
+        long height = parseInt(heightField);
+        long length = parseInt(lengthField);
+        if (width == NOT_AN_INT || height == NOT_AN_INT || length == NOT_AN_INT || !isDouble(massField)) {
+            return ParseResult.invalid(ValidationError.NOT_A_NUMBER);
+        }
+        double mass = Double.parseDouble(massField);
+
+        ValidationError error = ValidationError.check((int) width, (int) height, (int) length, mass);
+        if (error != null) {
+            return ParseResult.invalid(error);
+        }
+        return ParseResult.valid(new PackageMeasurement((int) width, (int) height, (int) length, mass));
+    }
+
+    /**
+     * Applies the input validation rules to already parsed values.
+     *
+     * @param width box width in cm
+     * @param height box height in cm
+     * @param length box length in cm
+     * @param mass box mass in grams
+     * @throws IllegalArgumentException if a value is not positive or the mass is not finite
+     * @see ValidationError#check(int, int, int, double)
+     */
+    public static void validate(int width, int height, int length, double mass) {
+        ValidationError error = ValidationError.check(width, height, length, mass);
+        if (error != null) {
+            throw error.toException();
+        }
+    }
+
+    /**
+     * Parses an integer like {@link Integer#parseInt(String)}, including its non-ASCII digits.
+     *
+     * @return the value, or NOT_AN_INT when Integer.parseInt would throw
+     */
+    static long parseInt(String field) {
+        int length = field.length();
+        int position = 0;
+        boolean negative = false;
+        if (length > 0 && (field.charAt(0) == '-' || field.charAt(0) == '+')) {
+            negative = field.charAt(0) == '-';
+            position++;
+        }
+        if (position == length) {
+            return NOT_AN_INT;
+        }
+        long value = 0;
+        for (; position < length; position++) {
+            int digit = Character.digit(field.charAt(position), 10);
+            if (digit < 0) {
+                return NOT_AN_INT;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return NOT_AN_INT;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? NOT_AN_INT : value;
+    }
+
+    /**
+     * Tells whether {@link Double#parseDouble(String)} accepts a trimmed field: an optional sign, then NaN,
+     * Infinity, or ASCII digits with an optional point, exponent and float type suffix. Hexadecimal numbers are
+     * rare enough to be checked by parsing them.
+     */
+    static boolean isDouble(String field) {
+        int length = field.length();
+        int position = 0;
+        if (position < length && (field.charAt(position) == '-' || field.charAt(position) == '+')) {
+            position++;
+        }
+        if (field.startsWith("NaN", position)) {
+            return position + 3 == length;
+        }
+        if (field.startsWith("Infinity", position)) {
+            return position + 8 == length;
+        }
+        if (position + 1 < length && field.charAt(position) == '0'
+                && (field.charAt(position + 1) == 'x' || field.charAt(position + 1) == 'X')) {
+            try {
+                Double.parseDouble(field);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        int digits = 0;
+        while (position < length && isAsciiDigit(field.charAt(position))) {
+            position++;
+            digits++;
+        }
+        if (position < length && field.charAt(position) == '.') {
+            position++;
+            while (position < length && isAsciiDigit(field.charAt(position))) {
+                position++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (position < length && (field.charAt(position) == 'e' || field.charAt(position) == 'E')) {
+            position++;
+            if (position < length && (field.charAt(position) == '-' || field.charAt(position) == '+')) {
+                position++;
+            }
+            int exponentDigits = 0;
+            while (position < length && isAsciiDigit(field.charAt(position))) {
+                position++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        if (position < length && "fFdD".indexOf(field.charAt(position)) >= 0) {
+            position++;
+        }
+        return position == length;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
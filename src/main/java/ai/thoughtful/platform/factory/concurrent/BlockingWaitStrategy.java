@@ -0,0 +1,54 @@
+package ai.thoughtful.platform.factory.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Parks waiting threads on a condition until the ring buffer signals a change: no CPU while idle, at the cost of
+ * a lock on the wake-up path while threads wait.
+ *
+ * Signals only take the lock when a thread waits. A signal racing with a thread about to block can be missed, so
+ * waits are bounded by {@link #MAX_WAIT_NANOS} and the condition is checked again.
+ */
+public final class BlockingWaitStrategy implements WaitStrategy {
+
+    /**
+     * Longest time a thread blocks before checking its condition again.
+     */
+    public static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private volatile int waiters;
+
+    @Override
+    public void idle(int attempt, BooleanSupplier ready) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            waiters++;
+            try {
+                if (!ready.getAsBoolean()) {
+                    changed.awaitNanos(MAX_WAIT_NANOS);
+                }
+            } finally {
+                waiters--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void signal() {
+        if (waiters != 0) {
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
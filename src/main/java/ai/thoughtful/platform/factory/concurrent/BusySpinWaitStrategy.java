@@ -0,0 +1,17 @@
+package ai.thoughtful.platform.factory.concurrent;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins without ever giving up the core: the lowest latency, for threads pinned to cores of their own.
+ */
+public final class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public void idle(int attempt, BooleanSupplier ready) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        Thread.onSpinWait();
+    }
+}
@@ -0,0 +1,221 @@
+package ai.thoughtful.platform.factory.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue over a power-of-two array, for one consumer thread and one or several producers.
+ *
+ * Producers claim the slot at the tail, by a plain increment with {@link ProducerType#SINGLE} and a
+ * compare-and-set with {@link ProducerType#MULTI}, then publish their element into it with release semantics.
+ * The consumer takes the element at the head, clears the slot and releases the head, which frees the slot for the
+ * producers. An empty slot is null, so a claimed slot becomes visible to the consumer only once written, and
+ * nothing but the head and tail sequences is shared. Threads that cannot proceed wait with the
+ * {@link WaitStrategy}.
+ *
+ * @param <E> type of the elements
+ */
+public final class RingBuffer<E> {
+
+    /**
+     * Producers of a ring buffer.
+     */
+    public enum ProducerType {
+        /**
+         * A single thread offers elements, claiming slots without compare-and-set.
+         */
+        SINGLE,
+        /**
+         * Any number of threads offer elements concurrently.
+         */
+        MULTI
+    }
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private final Object[] slots;
+    private final int mask;
+    private final ProducerType producerType;
+    private final WaitStrategy waitStrategy;
+    // Next slot to consume, written by the consumer only
+    private final Sequence head = new Sequence();
+    // Next slot to claim
+    private final Sequence tail = new Sequence();
+    // Last head seen by the single producer, to read the head only when the buffer looks full
+    private long cachedHead;
+
+    private final BooleanSupplier readable = this::isReadable;
+    private final BooleanSupplier writable = this::isWritable;
+
+    /**
+     * @param capacity number of slots, a power of two
+     * @param producerType whether one or several threads offer elements
+     * @param waitStrategy how threads wait in {@link #put(Object)} and {@link #take()}
+     */
+    public RingBuffer(int capacity, ProducerType producerType, WaitStrategy waitStrategy) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.slots = new Object[capacity];
+        this.mask = capacity - 1;
+        this.producerType = Objects.requireNonNull(producerType, "producerType");
+        this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy");
+    }
+
+    /**
+     * Appends an element unless the buffer is full.
+     *
+     * @return whether the element was appended
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "element");
+        long claimed;
+        if (producerType == ProducerType.SINGLE) {
+            claimed = tail.getPlain();
+            if (claimed - cachedHead >= slots.length) {
+                cachedHead = head.getAcquire();
+                if (claimed - cachedHead >= slots.length) {
+                    return false;
+                }
+            }
+            SLOTS.setRelease(slots, (int) claimed & mask, element);
+            tail.setRelease(claimed + 1);
+        } else {
+            do {
+                claimed = tail.get();
+                if (claimed - head.getAcquire() >= slots.length) {
+                    return false;
+                }
+            } while (!tail.compareAndSet(claimed, claimed + 1));
+            SLOTS.setRelease(slots, (int) claimed & mask, element);
+        }
+        waitStrategy.signal();
+        return true;
+    }
+
+    /**
+     * Appends an element, waiting for a free slot.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void put(E element) throws InterruptedException {
+        for (int attempt = 0; !offer(element); attempt++) {
+            waitStrategy.idle(attempt, writable);
+        }
+    }
+
+    /**
+     * Takes the oldest element; only the consumer thread may call it.
+     *
+     * @return the element, or null when the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long next = head.getPlain();
+        int index = (int) next & mask;
+        E element = (E) SLOTS.getAcquire(slots, index);
+        if (element == null) {
+            return null;
+        }
+        SLOTS.set(slots, index, null);
+        head.setRelease(next + 1);
+        waitStrategy.signal();
+        return element;
+    }
+
+    /**
+     * Takes the oldest element, waiting for one; only the consumer thread may call it.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public E take() throws InterruptedException {
+        E element;
+        for (int attempt = 0; (element = poll()) == null; attempt++) {
+            waitStrategy.idle(attempt, readable);
+        }
+        return element;
+    }
+
+    /**
+     * Hands the available elements to a consumer, freeing their slots at once; only the consumer thread may call it.
+     *
+     * @param consumer receiver of the elements, in order
+     * @param maxElements maximum number of elements to take
+     * @return number of elements taken
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(Consumer<? super E> consumer, int maxElements) {
+        long first = head.getPlain();
+        int count = 0;
+        try {
+            while (count < maxElements) {
+                int index = (int) (first + count) & mask;
+                E element = (E) SLOTS.getAcquire(slots, index);
+                if (element == null) {
+                    break;
+                }
+                SLOTS.set(slots, index, null);
+                count++;
+                consumer.accept(element);
+            }
+        } finally {
+            if (count != 0) {
+                head.setRelease(first + count);
+                waitStrategy.signal();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Wakes the threads waiting in {@link #put(Object)} or {@link #take()}, e.g. to let them notice a shutdown.
+     */
+    public void signal() {
+        waitStrategy.signal();
+    }
+
+    /**
+     * @return number of slots
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return number of elements, including slots claimed but not yet written; exact only when no thread is active
+     */
+    public int size() {
+        long consumed = head.get();
+        long claimed = tail.get();
+        return (int) Math.max(0, Math.min(slots.length, claimed - consumed));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return number of elements appended since creation
+     */
+    public long offered() {
+        return tail.get();
+    }
+
+    /**
+     * @return number of elements taken since creation
+     */
+    public long consumed() {
+        return head.get();
+    }
+
+    private boolean isReadable() {
+        return SLOTS.getAcquire(slots, (int) head.getPlain() & mask) != null;
+    }
+
+    private boolean isWritable() {
+        return tail.get() - head.getAcquire() < slots.length;
+    }
+}
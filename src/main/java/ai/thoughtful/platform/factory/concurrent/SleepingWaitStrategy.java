@@ -0,0 +1,49 @@
+package ai.thoughtful.platform.factory.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins, then yields, then sleeps between checks: little CPU when idle, at the cost of up to the sleep time of
+ * latency after a pause.
+ */
+public final class SleepingWaitStrategy implements WaitStrategy {
+
+    /**
+     * Default sleep between two checks once spinning and yielding gave up.
+     */
+    public static final long DEFAULT_SLEEP_NANOS = 100_000;
+
+    private static final int SPINS = 100;
+    private static final int YIELDS = 200;
+
+    private final long sleepNanos;
+
+    public SleepingWaitStrategy() {
+        this(DEFAULT_SLEEP_NANOS);
+    }
+
+    /**
+     * @param sleepNanos sleep between two checks once spinning and yielding gave up
+     */
+    public SleepingWaitStrategy(long sleepNanos) {
+        if (sleepNanos <= 0) {
+            throw new IllegalArgumentException("Sleep time must be positive");
+        }
+        this.sleepNanos = sleepNanos;
+    }
+
+    @Override
+    public void idle(int attempt, BooleanSupplier ready) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else if (attempt < YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(sleepNanos);
+        }
+    }
+}
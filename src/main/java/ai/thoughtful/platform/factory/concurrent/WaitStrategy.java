@@ -0,0 +1,27 @@
+package ai.thoughtful.platform.factory.concurrent;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * How a thread waits for a {@link RingBuffer}: a consumer for an element, a producer for a free slot.
+ *
+ * Strategies trade latency for CPU: {@link BusySpinWaitStrategy} answers fastest but burns a core per waiting
+ * thread, {@link YieldingWaitStrategy} and {@link SleepingWaitStrategy} back off further and further, and
+ * {@link BlockingWaitStrategy} parks until signalled. Spinning only pays off with a core per waiting thread.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Waits a little; called in a loop until the condition holds.
+     *
+     * @param attempt number of earlier calls for the same condition, 0 on the first call
+     * @param ready condition being waited for, checked again by strategies that block before blocking
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    void idle(int attempt, BooleanSupplier ready) throws InterruptedException;
+
+    /**
+     * Wakes the threads blocked in {@link #idle(int, BooleanSupplier)} after a change of the ring buffer.
+     */
+    default void signal() {}
+}
@@ -0,0 +1,23 @@
+package ai.thoughtful.platform.factory.concurrent;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins briefly, then yields the core to other threads between checks.
+ */
+public final class YieldingWaitStrategy implements WaitStrategy {
+
+    private static final int SPINS = 100;
+
+    @Override
+    public void idle(int attempt, BooleanSupplier ready) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+}
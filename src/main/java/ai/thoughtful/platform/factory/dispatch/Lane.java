@@ -0,0 +1,152 @@
+package ai.thoughtful.platform.factory.dispatch;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.concurrent.RingBuffer;
+import ai.thoughtful.platform.factory.concurrent.WaitStrategy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue of the packages of one stack, consumed by a single thread.
+ *
+ * Producers and the consumer only share the ring buffer of the lane, so a full or slow lane never holds up
+ * another one. Once the lane is closed, producers are refused and {@link #take()} returns the remaining
+ * packages, including the ones of producers that were appending while the lane closed, then null.
+ *
+ * @param <T> type of the dispatched packages
+ */
+public final class Lane<T> {
+
+    private final StackType stackType;
+    private final RingBuffer<T> ring;
+    private final WaitStrategy waitStrategy;
+    private final LongAdder rejected = new LongAdder();
+    // Producers between their check that the lane is open and the end of their append
+    private final AtomicInteger appending = new AtomicInteger();
+    private final BooleanSupplier takeable;
+    private final BooleanSupplier puttable;
+    private volatile boolean closed;
+
+    Lane(StackType stackType, int capacity, RingBuffer.ProducerType producerType, WaitStrategy waitStrategy) {
+        this.stackType = stackType;
+        this.ring = new RingBuffer<>(capacity, producerType, waitStrategy);
+        this.waitStrategy = waitStrategy;
+        this.takeable = () -> closed || !ring.isEmpty();
+        this.puttable = () -> closed || ring.size() < ring.capacity();
+    }
+
+    public StackType stackType() {
+        return stackType;
+    }
+
+    /**
+     * Appends a package unless the lane is full, in which case the package counts as rejected.
+     *
+     * @return whether the package was appended
+     * @throws IllegalStateException if the lane is closed
+     */
+    public boolean offer(T item) {
+        if (tryAppend(item)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Appends a package, waiting for room in this lane only.
+     *
+     * @throws IllegalStateException if the lane is closed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void put(T item) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            if (tryAppend(item)) {
+                return;
+            }
+            waitStrategy.idle(attempt, puttable);
+        }
+    }
+
+    /**
+     * Takes the oldest package; only the consumer thread may call it.
+     *
+     * @return the package, or null when the lane is empty
+     */
+    public T poll() {
+        return ring.poll();
+    }
+
+    /**
+     * Takes the oldest package, waiting for one; only the consumer thread may call it.
+     *
+     * @return the package, or null once the lane is closed and empty
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T take() throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            T item = ring.poll();
+            if (item != null) {
+                return item;
+            }
+            if (closed) {
+                if (isDrained()) {
+                    return null;
+                }
+                // A producer claimed a slot before the lane closed and is about to publish its package
+                Thread.onSpinWait();
+                continue;
+            }
+            waitStrategy.idle(attempt, takeable);
+        }
+    }
+
+    /**
+     * Hands the waiting packages to a consumer; only the consumer thread may call it.
+     *
+     * @return number of packages taken
+     */
+    public int drainTo(Consumer<? super T> consumer, int maxItems) {
+        return ring.drainTo(consumer, maxItems);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public LaneStats stats() {
+        // Read the consumer side first so that the snapshot never shows more packages out than in
+        long dequeued = ring.consumed();
+        long enqueued = ring.offered();
+        return new LaneStats(stackType, ring.capacity(), (int) Math.min(ring.capacity(), enqueued - dequeued),
+                enqueued, dequeued, rejected.sum(), System.nanoTime());
+    }
+
+    void close() {
+        closed = true;
+        ring.signal();
+    }
+
+    private boolean tryAppend(T item) {
+        appending.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The " + stackType + " lane is closed");
+            }
+            return ring.offer(item);
+        } finally {
+            appending.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return whether every package appended to the closed lane was taken
+     */
+    private boolean isDrained() {
+        // No producer can start appending any more, so once none is appending the claimed slots are final
+        return appending.get() == 0 && ring.consumed() == ring.offered();
+    }
+}
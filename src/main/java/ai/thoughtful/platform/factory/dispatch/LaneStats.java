@@ -0,0 +1,40 @@
+package ai.thoughtful.platform.factory.dispatch;
+
+import ai.thoughtful.platform.factory.StackType;
+
+/**
+ * Snapshot of the counters of a dispatch lane.
+ *
+ * @param stackType stack the lane carries
+ * @param capacity number of packages the lane holds at most
+ * @param occupancy number of packages waiting in the lane
+ * @param enqueued number of packages accepted by the lane since its creation
+ * @param dequeued number of packages taken from the lane since its creation
+ * @param rejected number of packages refused because the lane was full
+ * @param nanoTime {@link System#nanoTime()} when the snapshot was taken
+ */
+public record LaneStats(StackType stackType, int capacity, int occupancy, long enqueued, long dequeued,
+                        long rejected, long nanoTime) {
+
+    /**
+     * @return fraction of the capacity in use, between 0 and 1
+     */
+    public double occupancyRatio() {
+        return (double) occupancy / capacity;
+    }
+
+    /**
+     * Packages taken from the lane per second between an earlier snapshot and this one.
+     *
+     * @param earlier snapshot of the same lane
+     * @return the throughput, 0 when no time elapsed
+     */
+    public double throughputSince(LaneStats earlier) {
+        if (earlier.stackType != stackType) {
+            throw new IllegalArgumentException("Cannot compare the " + stackType + " lane with the "
+                    + earlier.stackType + " lane");
+        }
+        long elapsed = nanoTime - earlier.nanoTime;
+        return elapsed <= 0 ? 0 : (dequeued - earlier.dequeued) * 1e9 / elapsed;
+    }
+}
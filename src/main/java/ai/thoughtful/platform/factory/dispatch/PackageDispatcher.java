@@ -0,0 +1,205 @@
+package ai.thoughtful.platform.factory.dispatch;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.concurrent.RingBuffer;
+import ai.thoughtful.platform.factory.concurrent.SleepingWaitStrategy;
+import ai.thoughtful.platform.factory.concurrent.WaitStrategy;
+import ai.thoughtful.platform.factory.model.Package;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Routes classified packages into one bounded {@link Lane} per {@link StackType}, for the diverter controllers
+ * consuming each stack.
+ *
+ * Every lane has its own ring buffer and wait strategy, so a slow REJECTED handler fills the REJECTED lane
+ * only: {@link #offer(Object)} refuses packages of a full lane without waiting, and {@link #put(Object)} waits
+ * for room in the lane of the package only. Each lane is consumed by a single thread, either a handler started
+ * with {@link #startHandler(StackType, Consumer)} or a thread of the caller.
+ *
+ * @param <T> type of the dispatched packages
+ */
+public final class PackageDispatcher<T> implements AutoCloseable {
+
+    /**
+     * Default number of packages a lane holds.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final StackType[] STACK_TYPES = StackType.values();
+    // Packages a handler takes from its lane before releasing their slots
+    private static final int HANDLER_BATCH = 256;
+
+    private final Function<? super T, StackType> router;
+    private final Map<StackType, Lane<T>> lanes = new EnumMap<>(StackType.class);
+    private final Map<StackType, Thread> handlers = new EnumMap<>(StackType.class);
+
+    private PackageDispatcher(Function<? super T, StackType> router, int capacity,
+                              RingBuffer.ProducerType producerType, Supplier<? extends WaitStrategy> waitStrategies) {
+        this.router = Objects.requireNonNull(router, "router");
+        for (StackType stackType : STACK_TYPES) {
+            lanes.put(stackType, new Lane<>(stackType, capacity, producerType,
+                    Objects.requireNonNull(waitStrategies.get(), "waitStrategy")));
+        }
+    }
+
+    /**
+     * Dispatcher of packages sorted with {@link StackType#sort(Package)}, accepting packages from any thread.
+     */
+    public static PackageDispatcher<Package> ofPackages() {
+        return of(StackType::sort, DEFAULT_CAPACITY, RingBuffer.ProducerType.MULTI, SleepingWaitStrategy::new);
+    }
+
+    /**
+     * @param router stack of a package
+     * @param capacity number of packages a lane holds, a power of two
+     * @param producerType {@link RingBuffer.ProducerType#SINGLE} when a single thread dispatches packages
+     * @param waitStrategies wait strategy of each lane, called once per lane
+     */
+    public static <T> PackageDispatcher<T> of(Function<? super T, StackType> router, int capacity,
+                                              RingBuffer.ProducerType producerType,
+                                              Supplier<? extends WaitStrategy> waitStrategies) {
+        return new PackageDispatcher<>(router, capacity, producerType, waitStrategies);
+    }
+
+    /**
+     * Appends a package to the lane of its stack unless that lane is full.
+     *
+     * @return whether the package was appended
+     * @throws IllegalStateException if the dispatcher is closed
+     */
+    public boolean offer(T item) {
+        return offer(router.apply(item), item);
+    }
+
+    /**
+     * Appends a package already classified to the lane of its stack unless that lane is full.
+     *
+     * @return whether the package was appended
+     * @throws IllegalStateException if the dispatcher is closed
+     */
+    public boolean offer(StackType stackType, T item) {
+        return lane(stackType).offer(item);
+    }
+
+    /**
+     * Appends a package to the lane of its stack, waiting for room in that lane.
+     *
+     * @throws IllegalStateException if the dispatcher is closed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void put(T item) throws InterruptedException {
+        lane(router.apply(item)).put(item);
+    }
+
+    public Lane<T> lane(StackType stackType) {
+        return lanes.get(Objects.requireNonNull(stackType, "stackType"));
+    }
+
+    /**
+     * Consumes a lane on a daemon thread until the dispatcher is closed and the lane is empty.
+     * Exceptions thrown by the handler are reported on stderr and the handler goes on with the next package.
+     *
+     * @throws IllegalStateException if the lane already has a handler
+     */
+    public synchronized void startHandler(StackType stackType, Consumer<? super T> handler) {
+        Objects.requireNonNull(handler, "handler");
+        Lane<T> lane = lane(stackType);
+        if (handlers.containsKey(stackType)) {
+            throw new IllegalStateException("The " + stackType + " lane already has a handler");
+        }
+        Consumer<T> guarded = item -> {
+            try {
+                handler.accept(item);
+            } catch (RuntimeException e) {
+                System.err.println("Error: Cannot handle a " + stackType + " package: " + e.getMessage());
+            }
+        };
+        handlers.put(stackType, Thread.ofPlatform().name("dispatch-" + stackType.name().toLowerCase()).daemon()
+                .start(() -> consume(lane, guarded)));
+    }
+
+    /**
+     * @return snapshot of every lane, in {@link StackType} order
+     */
+    public Map<StackType, LaneStats> stats() {
+        Map<StackType, LaneStats> stats = new EnumMap<>(StackType.class);
+        for (Lane<T> lane : lanes.values()) {
+            stats.put(lane.stackType(), lane.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Appends the lane counters in the Prometheus text exposition format.
+     */
+    public void appendPrometheusText(StringBuilder text) {
+        Map<StackType, LaneStats> stats = stats();
+        appendFamily(text, stats, "package_dispatch_lane_capacity", "gauge", LaneStats::capacity);
+        appendFamily(text, stats, "package_dispatch_lane_occupancy", "gauge", LaneStats::occupancy);
+        appendFamily(text, stats, "package_dispatch_enqueued_total", "counter", LaneStats::enqueued);
+        appendFamily(text, stats, "package_dispatch_dequeued_total", "counter", LaneStats::dequeued);
+        appendFamily(text, stats, "package_dispatch_rejected_total", "counter", LaneStats::rejected);
+    }
+
+    /**
+     * Refuses further packages and waits for the handlers to consume their lanes.
+     * Lanes without a handler keep their packages for {@link Lane#poll()}.
+     */
+    @Override
+    public void close() {
+        List<Thread> running;
+        synchronized (this) {
+            for (Lane<T> lane : lanes.values()) {
+                lane.close();
+            }
+            running = new ArrayList<>(handlers.values());
+        }
+        boolean interrupted = false;
+        for (Thread handler : running) {
+            while (true) {
+                try {
+                    handler.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> void consume(Lane<T> lane, Consumer<T> handler) {
+        try {
+            while (true) {
+                if (lane.drainTo(handler, HANDLER_BATCH) == 0) {
+                    T item = lane.take();
+                    if (item == null) {
+                        return;
+                    }
+                    handler.accept(item);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void appendFamily(StringBuilder text, Map<StackType, LaneStats> stats, String name, String type,
+                                     Function<LaneStats, Number> value) {
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        for (LaneStats lane : stats.values()) {
+            text.append(name).append("{stack_type=\"").append(lane.stackType().name()).append("\"} ")
+                    .append(value.apply(lane)).append('\n');
+        }
+    }
+}
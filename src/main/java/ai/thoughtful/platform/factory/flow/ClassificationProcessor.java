@@ -0,0 +1,350 @@
+package ai.thoughtful.platform.factory.flow;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.batch.PackageBatchClassifier;
+import ai.thoughtful.platform.factory.model.Package;
+import ai.thoughtful.platform.factory.model.PackageDimension;
+import ai.thoughtful.platform.factory.model.PackageMeasurement;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Classifies a stream of packages published through {@link Flow}, with backpressure on both sides.
+ *
+ * The processor requests at most its buffer size from the upstream publisher and requests more only as the
+ * subscriber consumes results, so a fast publisher cannot outgrow a slow subscriber: at most {@code bufferSize}
+ * packages are held in memory. Results are delivered on the executor, in publishing order. Packages waiting
+ * for demand are classified together with {@link PackageBatchClassifier}, which gives the same answers as
+ * {@link StackType#sort(Package)} with the rules of {@link RuleEngine#current()}.
+ *
+ * An invalid measurement, like a non-positive dimension, cancels the upstream subscription and signals an
+ * IllegalArgumentException after the results of the packages before it; the message carries its 1-based
+ * position in the stream. A subscriber throwing from onNext cancels the upstream subscription too and receives
+ * its own exception through onError. The processor accepts a single subscriber.
+ *
+ * @param <T> type of the published packages
+ */
+public final class ClassificationProcessor<T> implements Flow.Processor<T, ClassifiedPackage<T>> {
+
+    /**
+     * Default number of packages classified together.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private static final StackType[] STACK_TYPES = StackType.values();
+
+    private final Executor executor;
+    private final int batchSize;
+    private final int replenishThreshold;
+    private final RowAdapter<T> adapter;
+    private final ArrayBlockingQueue<T> queue;
+
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+    private final AtomicReference<Flow.Subscriber<? super ClassifiedPackage<T>>> downstream = new AtomicReference<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+
+    // Only accessed by the drain loop, which never runs concurrently with itself
+    private final PackageBatch batch;
+    private final byte[] ordinals;
+    private final Object[] items;
+    private long position;
+    private int consumed;
+    private boolean terminated;
+
+    /**
+     * Adds the measurements of a published package to a batch.
+     */
+    private interface RowAdapter<T> {
+
+        /**
+         * @throws IllegalArgumentException if the package is invalid
+         */
+        void add(PackageBatch batch, T item);
+    }
+
+    private ClassificationProcessor(Executor executor, int bufferSize, int batchSize, RowAdapter<T> adapter) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.batchSize = Math.min(batchSize, bufferSize);
+        this.replenishThreshold = Math.max(1, bufferSize - (bufferSize >> 2));
+        this.adapter = adapter;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.batch = new PackageBatch(this.batchSize);
+        this.ordinals = new byte[this.batchSize];
+        this.items = new Object[this.batchSize];
+    }
+
+    /**
+     * Creates a processor of raw measurements, delivering on the common pool with the default buffer size.
+     */
+    public static ClassificationProcessor<PackageMeasurement> ofMeasurements() {
+        return ofMeasurements(ForkJoinPool.commonPool(), Flow.defaultBufferSize(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a processor of raw measurements, validated like {@link StackType#classify(int, int, int, double)}.
+     *
+     * @param executor executor delivering the results
+     * @param bufferSize maximum number of packages held by the processor
+     * @param batchSize maximum number of packages classified together
+     */
+    public static ClassificationProcessor<PackageMeasurement> ofMeasurements(Executor executor, int bufferSize,
+                                                                            int batchSize) {
+        return new ClassificationProcessor<>(executor, bufferSize, batchSize, (batch, measurement) -> {
+            PackageDimension.checkDimensions(measurement.height(), measurement.width(), measurement.length());
+            Package.checkMass(measurement.mass());
+            batch.add(measurement.width(), measurement.height(), measurement.length(), measurement.mass());
+        });
+    }
+
+    /**
+     * Creates a processor of packages, delivering on the common pool with the default buffer size.
+     */
+    public static ClassificationProcessor<Package> ofPackages() {
+        return ofPackages(ForkJoinPool.commonPool(), Flow.defaultBufferSize(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a processor of packages, which are valid by construction.
+     *
+     * @param executor executor delivering the results
+     * @param bufferSize maximum number of packages held by the processor
+     * @param batchSize maximum number of packages classified together
+     */
+    public static ClassificationProcessor<Package> ofPackages(Executor executor, int bufferSize, int batchSize) {
+        return new ClassificationProcessor<>(executor, bufferSize, batchSize, (batch, pkg) -> {
+            PackageDimension dimension = pkg.dimension();
+            batch.add(dimension.width(), dimension.height(), dimension.length(), pkg.mass());
+        });
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ClassifiedPackage<T>> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("ClassificationProcessor allows only one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    fail(new IllegalArgumentException("Requested demand must be positive: " + n));
+                    return;
+                }
+                demand.getAndAccumulate(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+                schedule();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                cancelUpstream();
+                schedule();
+            }
+        });
+        schedule();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+        if (!upstream.compareAndSet(null, subscription) || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(queue.remainingCapacity());
+    }
+
+    @Override
+    public void onNext(T item) {
+        Objects.requireNonNull(item, "item");
+        if (done || cancelled) {
+            return;
+        }
+        if (!queue.offer(item)) {
+            fail(new IllegalStateException("Publisher exceeded the requested demand"));
+            return;
+        }
+        schedule();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable, "throwable");
+        if (error == null) {
+            error = throwable;
+        }
+        done = true;
+        schedule();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        schedule();
+    }
+
+    private void fail(Throwable throwable) {
+        cancelUpstream();
+        onError(throwable);
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription = upstream.get();
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private void schedule() {
+        if (wip.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super ClassifiedPackage<T>> subscriber = downstream.get();
+            if (subscriber != null && !terminated) {
+                emit(subscriber);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void emit(Flow.Subscriber<? super ClassifiedPackage<T>> subscriber) {
+        long requested = demand.get();
+        long emitted = 0;
+        while (true) {
+            if (cancelled) {
+                terminate();
+                return;
+            }
+            if (error != null) {
+                terminate();
+                subscriber.onError(error);
+                return;
+            }
+            // Read before polling: once done, an empty queue stays empty
+            boolean finished = done;
+            int count = emitted == requested ? 0 : poll((int) Math.min(requested - emitted, batchSize));
+            if (count == 0) {
+                if (finished && queue.isEmpty()) {
+                    terminate();
+                    subscriber.onComplete();
+                    return;
+                }
+                break;
+            }
+
+            PackageBatchClassifier.classify(batch, ordinals, RuleEngine.current());
+            for (int i = 0; i < batch.size(); i++) {
+                @SuppressWarnings("unchecked")
+                T item = (T) items[i];
+                items[i] = null;
+                try {
+                    subscriber.onNext(new ClassifiedPackage<>(item, STACK_TYPES[ordinals[i]]));
+                } catch (Throwable t) {
+                    // A subscriber throwing from onNext has cancelled its subscription (Reactive Streams 2.13)
+                    subscriberFailed(subscriber, t);
+                    return;
+                }
+            }
+            emitted += batch.size();
+            batch.clear();
+            request(count);
+        }
+        if (emitted != 0 && requested != Long.MAX_VALUE) {
+            demand.addAndGet(-emitted);
+        }
+    }
+
+    /**
+     * Moves up to {@code limit} valid packages from the queue into the batch.
+     *
+     * @return number of packages taken from the queue, including an invalid one ending the batch
+     */
+    private int poll(int limit) {
+        int count = 0;
+        while (count < limit) {
+            T item = queue.poll();
+            if (item == null) {
+                break;
+            }
+            count++;
+            position++;
+            try {
+                adapter.add(batch, item);
+            } catch (IllegalArgumentException e) {
+                // Packages before the invalid one are still delivered
+                fail(new IllegalArgumentException("Item " + position + ": " + e.getMessage(), e));
+                break;
+            }
+            items[batch.size() - 1] = item;
+        }
+        return count;
+    }
+
+    /**
+     * Requests as many packages from upstream as were consumed, once enough of the buffer is free.
+     */
+    private void request(int count) {
+        consumed += count;
+        if (consumed >= replenishThreshold) {
+            Flow.Subscription subscription = upstream.get();
+            if (subscription != null && !done) {
+                subscription.request(consumed);
+            }
+            consumed = 0;
+        }
+    }
+
+    private void subscriberFailed(Flow.Subscriber<? super ClassifiedPackage<T>> subscriber, Throwable failure) {
+        cancelled = true;
+        cancelUpstream();
+        terminate();
+        try {
+            subscriber.onError(failure);
+        } catch (Throwable ignored) {
+            // Nothing more can be told to a broken subscriber, and the drain loop must still end
+        }
+    }
+
+    private void terminate() {
+        terminated = true;
+        queue.clear();
+        batch.clear();
+        Arrays.fill(items, null);
+    }
+}
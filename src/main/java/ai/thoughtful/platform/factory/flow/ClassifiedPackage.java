@@ -0,0 +1,16 @@
+package ai.thoughtful.platform.factory.flow;
+
+import ai.thoughtful.platform.factory.StackType;
+
+/**
+ * A package published by {@link ClassificationProcessor} together with its stack.
+ *
+ * @param item the package as received from the upstream publisher
+ * @param stackType the stack of the package
+ * @param <T> type of the published packages
+ */
+public record ClassifiedPackage<T>(
+        T item,
+        StackType stackType
+) {
+}
@@ -0,0 +1,97 @@
+package ai.thoughtful.platform.factory.follow;
+
+import ai.thoughtful.platform.factory.checkpoint.CheckpointFiles;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Progress of {@link TailClassifier}: how far each followed file was classified and how long the output was.
+ *
+ * Stored as a properties file that is replaced atomically, see {@link CheckpointFiles}.
+ *
+ * @param outputOffset size of the output file when the checkpoint was taken, 0 for the standard output
+ * @param files state of each followed file, by path
+ */
+public record FollowCheckpoint(
+        long outputOffset,
+        Map<String, FileState> files
+) {
+
+    private static final String OUTPUT_OFFSET = "output.offset";
+    private static final String FILE_PREFIX = "file.";
+
+    /**
+     * Checkpoint of a run that has not classified anything yet.
+     */
+    public static final FollowCheckpoint EMPTY = new FollowCheckpoint(0, Map.of());
+
+    public FollowCheckpoint {
+        files = Map.copyOf(files);
+    }
+
+    /**
+     * Classified part of a followed file.
+     *
+     * @param fileKey identity of the file, see {@link java.nio.file.attribute.BasicFileAttributes#fileKey()},
+     *                or null when the file system has none
+     * @param offset position after the last classified line
+     * @param lines number of classified lines
+     */
+    public record FileState(
+            String fileKey,
+            long offset,
+            long lines
+    ) {
+    }
+
+    /**
+     * Loads a checkpoint.
+     *
+     * @param path checkpoint file
+     * @return the checkpoint, or {@link #EMPTY} when the file does not exist yet
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a checkpoint
+     */
+    public static FollowCheckpoint load(Path path) throws IOException {
+        Properties properties = CheckpointFiles.load(path);
+        if (properties == null) {
+            return EMPTY;
+        }
+
+        Map<String, FileState> files = new LinkedHashMap<>();
+        for (int index = 0; properties.containsKey(FILE_PREFIX + index + ".path"); index++) {
+            String prefix = FILE_PREFIX + index;
+            files.put(properties.getProperty(prefix + ".path"), new FileState(
+                    properties.getProperty(prefix + ".key"),
+                    CheckpointFiles.longValueOf(properties, prefix + ".offset"),
+                    CheckpointFiles.longValueOf(properties, prefix + ".lines")));
+        }
+        return new FollowCheckpoint(CheckpointFiles.longValueOf(properties, OUTPUT_OFFSET), files);
+    }
+
+    /**
+     * Replaces the checkpoint file with this checkpoint, durably.
+     *
+     * @param path checkpoint file
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void store(Path path) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(OUTPUT_OFFSET, Long.toString(outputOffset));
+        int index = 0;
+        for (Map.Entry<String, FileState> file : files.entrySet()) {
+            String prefix = FILE_PREFIX + index++;
+            properties.setProperty(prefix + ".path", file.getKey());
+            if (file.getValue().fileKey() != null) {
+                properties.setProperty(prefix + ".key", file.getValue().fileKey());
+            }
+            properties.setProperty(prefix + ".offset", Long.toString(file.getValue().offset()));
+            properties.setProperty(prefix + ".lines", Long.toString(file.getValue().lines()));
+        }
+        CheckpointFiles.store(properties, path, "Tail-follow checkpoint");
+    }
+}
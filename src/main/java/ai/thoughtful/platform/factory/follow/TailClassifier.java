@@ -0,0 +1,508 @@
+package ai.thoughtful.platform.factory.follow;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.batch.PackageBatchClassifier;
+import ai.thoughtful.platform.factory.manifest.InvalidRowHandler;
+import ai.thoughtful.platform.factory.manifest.ManifestRowParser;
+import ai.thoughtful.platform.factory.manifest.RowHandler;
+import ai.thoughtful.platform.factory.metrics.ClassificationMetrics;
+import ai.thoughtful.platform.factory.model.ValidationError;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows growing manifest files, like {@code tail -F}, and classifies every line as it is appended.
+ *
+ * Each complete line in the "width,height,length,mass" format produces one output line with its stack type;
+ * an invalid line produces "INVALID" and an error on stderr instead of stopping, since the files keep growing.
+ * When several files are followed, output lines are prefixed with "path:". A file that is renamed or replaced
+ * (rotation) is read to its end before its successor is followed from the start; a truncated file is followed
+ * again from the start.
+ *
+ * With a checkpoint file, the progress is stored durably every second and when the classifier stops, and a
+ * restart resumes after the last checkpointed line. While following, the checkpoints are forced to disk by a
+ * background thread, so appends keep being classified within milliseconds. Output written after that checkpoint
+ * is truncated from an output file on restart, so every line is classified exactly once; on the standard output
+ * those lines are repeated instead.
+ *
+ * Appends are noticed through a {@link WatchService}, polled every {@value #IDLE_POLL_MILLIS} ms for file
+ * systems without change events. Not thread-safe, except for {@link #close()}.
+ */
+public final class TailClassifier implements AutoCloseable {
+
+    /**
+     * Default interval between two checkpoints while lines keep coming.
+     */
+    public static final Duration DEFAULT_CHECKPOINT_INTERVAL = Duration.ofSeconds(1);
+
+    static final long IDLE_POLL_MILLIS = 100;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int BATCH_SIZE = 1024;
+    private static final byte[][] LINES = new byte[StackType.values().length][];
+    private static final byte[] INVALID_LINE = "INVALID\n".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        for (StackType stackType : StackType.values()) {
+            LINES[stackType.ordinal()] = (stackType.name() + "\n").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final List<FollowedFile> files = new ArrayList<>();
+    private final Path checkpointFile;
+    private final FileChannel outputChannel;
+    private final OutputStream output;
+    private final ClassificationMetrics metrics;
+    private final WatchService watchService;
+    private final long checkpointIntervalNanos;
+    private final PackageBatch batch = new PackageBatch(BATCH_SIZE);
+    private final byte[] ordinals = new byte[BATCH_SIZE];
+    private final RowHandler rowHandler = (width, height, length, mass) -> {
+        batch.add(width, height, length, mass);
+        if (batch.isFull()) {
+            writeBatch();
+        }
+    };
+    private final InvalidRowHandler invalidRowHandler = this::writeInvalidRow;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final ExecutorService checkpointWriter;
+
+    private FollowedFile current;
+    private boolean dirty;
+    private Future<?> pendingCheckpoint;
+    private long lastCheckpoint = System.nanoTime();
+    private volatile boolean running;
+    private volatile boolean closed;
+
+    /**
+     * State of one followed path and of the file currently open under it.
+     */
+    private static final class FollowedFile {
+
+        final Path path;
+        final byte[] prefix;
+        FileChannel channel;
+        Object fileKey;
+        long position;
+        ManifestRowParser parser = new ManifestRowParser();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        FollowedFile(Path path, byte[] prefix) {
+            this.path = path;
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * @param paths files to follow; they do not need to exist yet
+     * @param outputFile destination of the stack types, or null for the standard output
+     * @param checkpointFile file storing the progress, or null to classify the files from the start
+     * @param metrics destination of the package counters, or null
+     * @throws IOException if the checkpoint or the output cannot be opened
+     */
+    public TailClassifier(List<Path> paths, Path outputFile, Path checkpointFile, ClassificationMetrics metrics)
+            throws IOException {
+        this(paths, outputFile, checkpointFile, metrics, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * @param paths files to follow; they do not need to exist yet
+     * @param outputFile destination of the stack types, or null for the standard output
+     * @param checkpointFile file storing the progress, or null to classify the files from the start
+     * @param metrics destination of the package counters, or null
+     * @param checkpointInterval interval between two checkpoints while lines keep coming
+     * @throws IOException if the checkpoint or the output cannot be opened
+     */
+    public TailClassifier(List<Path> paths, Path outputFile, Path checkpointFile, ClassificationMetrics metrics,
+                          Duration checkpointInterval) throws IOException {
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("At least one file must be followed");
+        }
+        this.checkpointFile = checkpointFile;
+        this.metrics = metrics;
+        this.checkpointIntervalNanos = checkpointInterval.toNanos();
+
+        FollowCheckpoint checkpoint = checkpointFile == null ? FollowCheckpoint.EMPTY
+                : FollowCheckpoint.load(checkpointFile);
+        Set<Path> directories = new LinkedHashSet<>();
+        for (Path path : paths) {
+            Path absolute = path.toAbsolutePath().normalize();
+            byte[] prefix = paths.size() == 1 ? new byte[0]
+                    : (path + ":").getBytes(StandardCharsets.UTF_8);
+            FollowedFile file = new FollowedFile(absolute, prefix);
+            resume(file, checkpoint.files().get(absolute.toString()));
+            files.add(file);
+            directories.add(absolute.getParent());
+        }
+
+        if (outputFile == null) {
+            this.outputChannel = null;
+            this.output = new BufferedOutputStream(System.out, BUFFER_SIZE);
+        } else {
+            this.outputChannel = FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // Output written after the checkpoint belongs to lines classified again
+            outputChannel.truncate(checkpoint.outputOffset());
+            outputChannel.position(outputChannel.size());
+            this.output = new BufferedOutputStream(Channels.newOutputStream(outputChannel), BUFFER_SIZE);
+        }
+
+        this.checkpointWriter = checkpointFile == null ? null : Executors.newSingleThreadExecutor(
+                runnable -> Thread.ofPlatform().name("follow-checkpoint").daemon().unstarted(runnable));
+        this.watchService = FileSystems.getDefault().newWatchService();
+        for (Path directory : directories) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+    }
+
+    /**
+     * Follows the files until {@link #close()} is called, then stores a last checkpoint.
+     *
+     * @throws IOException if a file cannot be read or the output or the checkpoint cannot be written
+     * @throws InterruptedException if the thread is interrupted while waiting for new lines
+     */
+    public void run() throws IOException, InterruptedException {
+        running = true;
+        try {
+            while (!closed) {
+                long lines = poll();
+                if (dirty && System.nanoTime() - lastCheckpoint >= checkpointIntervalNanos) {
+                    checkpointInBackground();
+                }
+                if (lines == 0 && !closed) {
+                    awaitChanges();
+                }
+            }
+        } finally {
+            try {
+                checkpoint();
+            } finally {
+                release();
+                stopped.countDown();
+            }
+        }
+    }
+
+    /**
+     * Classifies the lines appended since the last poll and flushes their results.
+     *
+     * @return number of classified lines, including invalid ones
+     * @throws IOException if a file cannot be read or the output cannot be written
+     */
+    public long poll() throws IOException {
+        long lines = 0;
+        for (FollowedFile file : files) {
+            lines += poll(file);
+        }
+        if (lines > 0) {
+            output.flush();
+            dirty = true;
+        }
+        return lines;
+    }
+
+    /**
+     * Stores the progress, after forcing the results written so far to disk.
+     *
+     * @throws IOException if the output or the checkpoint cannot be written
+     */
+    public void checkpoint() throws IOException {
+        output.flush();
+        if (checkpointFile == null) {
+            dirty = false;
+            return;
+        }
+        awaitPendingCheckpoint();
+        store(snapshot());
+    }
+
+    /**
+     * Takes a checkpoint and forces it to disk on the checkpoint thread, unless the previous one is still
+     * being written.
+     */
+    private void checkpointInBackground() throws IOException {
+        if (checkpointFile == null) {
+            dirty = false;
+            return;
+        }
+        if (pendingCheckpoint != null) {
+            if (!pendingCheckpoint.isDone()) {
+                return;
+            }
+            awaitPendingCheckpoint();
+        }
+        output.flush();
+        FollowCheckpoint snapshot = snapshot();
+        pendingCheckpoint = checkpointWriter.submit(() -> {
+            store(snapshot);
+            return null;
+        });
+    }
+
+    private FollowCheckpoint snapshot() throws IOException {
+        Map<String, FollowCheckpoint.FileState> states = new LinkedHashMap<>();
+        for (FollowedFile file : files) {
+            states.put(file.path.toString(), new FollowCheckpoint.FileState(
+                    file.fileKey == null ? null : file.fileKey.toString(), file.position,
+                    file.parser.getLineNumber()));
+        }
+        dirty = false;
+        lastCheckpoint = System.nanoTime();
+        return new FollowCheckpoint(outputChannel == null ? 0 : outputChannel.position(), states);
+    }
+
+    // The results of the checkpointed lines reach the disk before the checkpoint does
+    private void store(FollowCheckpoint checkpoint) throws IOException {
+        if (outputChannel != null) {
+            outputChannel.force(false);
+        }
+        checkpoint.store(checkpointFile);
+    }
+
+    private void awaitPendingCheckpoint() throws IOException {
+        if (pendingCheckpoint == null) {
+            return;
+        }
+        try {
+            pendingCheckpoint.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the checkpoint");
+        } finally {
+            pendingCheckpoint = null;
+        }
+    }
+
+    /**
+     * Stops {@link #run()} and waits for its last checkpoint, or releases the files if it is not running.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (!running) {
+            release();
+            return;
+        }
+        try {
+            stopped.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void resume(FollowedFile file, FollowCheckpoint.FileState state) throws IOException {
+        if (state == null) {
+            return;
+        }
+        BasicFileAttributes attributes = attributes(file.path);
+        if (attributes == null || attributes.size() < state.offset()
+                || !Objects.equals(keyOf(attributes), state.fileKey())) {
+            // Rotated or truncated while stopped: the successor is followed from the start
+            return;
+        }
+        open(file);
+        file.position = state.offset();
+        file.parser = new ManifestRowParser(state.lines());
+    }
+
+    private long poll(FollowedFile file) throws IOException {
+        BasicFileAttributes attributes = attributes(file.path);
+        long lines = 0;
+        if (file.channel != null) {
+            if (attributes == null || (file.fileKey != null && !file.fileKey.equals(attributes.fileKey()))) {
+                // Rotated: finish the previous file, including a last line without terminator
+                lines += read(file, true);
+                file.channel.close();
+                file.channel = null;
+            } else if (attributes.size() < file.position) {
+                file.position = 0;
+                file.parser = new ManifestRowParser();
+            }
+        }
+        if (file.channel == null && attributes != null) {
+            open(file);
+            file.position = 0;
+            file.parser = new ManifestRowParser();
+        }
+        if (file.channel != null) {
+            lines += read(file, false);
+        }
+        return lines;
+    }
+
+    private void open(FollowedFile file) throws IOException {
+        try {
+            file.channel = FileChannel.open(file.path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        BasicFileAttributes attributes = attributes(file.path);
+        file.fileKey = attributes == null ? null : attributes.fileKey();
+    }
+
+    /**
+     * Classifies the complete lines after the file position.
+     *
+     * @param endOfFile whether the file no longer grows, so that a last unterminated line is complete
+     */
+    private long read(FollowedFile file, boolean endOfFile) throws IOException {
+        current = file;
+        long linesBefore = file.parser.getLineNumber();
+        while (true) {
+            ByteBuffer buffer = file.buffer;
+            buffer.clear();
+            int read = file.channel.read(buffer, file.position);
+            if (read <= 0) {
+                break;
+            }
+            int end = buffer.position();
+            boolean lastRead = endOfFile && file.position + end >= file.channel.size();
+            int consumed = parseLines(file, buffer, end, lastRead);
+            file.position += consumed;
+            if (consumed == 0) {
+                if (end < buffer.capacity()) {
+                    break;
+                }
+                // A line longer than the buffer
+                file.buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+        writeBatch();
+        return file.parser.getLineNumber() - linesBefore;
+    }
+
+    private int parseLines(FollowedFile file, ByteBuffer buffer, int end, boolean endOfFile) throws IOException {
+        int lineStart = 0;
+        for (int position = 0; position < end; position++) {
+            if (buffer.get(position) == '\n') {
+                parseLine(file, buffer, lineStart, position + 1, false);
+                lineStart = position + 1;
+            }
+        }
+        if (endOfFile && lineStart < end) {
+            parseLine(file, buffer, lineStart, end, true);
+            lineStart = end;
+        }
+        return lineStart;
+    }
+
+    private void parseLine(FollowedFile file, ByteBuffer buffer, int start, int end, boolean endOfFile)
+            throws IOException {
+        file.parser.parse(buffer, start, end, endOfFile, rowHandler, invalidRowHandler);
+    }
+
+    private boolean writeInvalidRow(long lineNumber, ValidationError error, String line) throws IOException {
+        // Results before the invalid line keep their order
+        writeBatch();
+        if (metrics != null) {
+            metrics.recordParseError(error);
+        }
+        output.write(current.prefix);
+        output.write(INVALID_LINE);
+        System.err.println("Error: " + current.path + ": Line " + lineNumber + ": " + error.message());
+        return true;
+    }
+
+    private void writeBatch() throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ClassificationRules rules = RuleEngine.current();
+        PackageBatchClassifier.classify(batch, ordinals, rules);
+        if (metrics != null) {
+            metrics.recordBatch(batch, ordinals, rules);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            output.write(current.prefix);
+            output.write(LINES[ordinals[i]]);
+        }
+        batch.clear();
+    }
+
+    private void awaitChanges() throws InterruptedException {
+        WatchKey key = watchService.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        while (key != null) {
+            key.pollEvents();
+            key.reset();
+            key = watchService.poll();
+        }
+    }
+
+    private synchronized void release() {
+        for (FollowedFile file : files) {
+            closeQuietly(file.channel);
+            file.channel = null;
+        }
+        closeQuietly(watchService);
+        if (checkpointWriter != null) {
+            checkpointWriter.shutdown();
+        }
+        try {
+            output.flush();
+        } catch (IOException e) {
+            // Released anyway
+        }
+        closeQuietly(outputChannel);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Released anyway
+        }
+    }
+
+    private static BasicFileAttributes attributes(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static String keyOf(BasicFileAttributes attributes) {
+        return attributes.fileKey() == null ? null : attributes.fileKey().toString();
+    }
+}
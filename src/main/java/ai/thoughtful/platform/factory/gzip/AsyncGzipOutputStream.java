@@ -0,0 +1,277 @@
+package ai.thoughtful.platform.factory.gzip;
+
+import ai.thoughtful.platform.factory.concurrent.RingBuffer;
+import ai.thoughtful.platform.factory.concurrent.SleepingWaitStrategy;
+import ai.thoughtful.platform.factory.concurrent.WaitStrategy;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses into block-gzipped (BGZF) data on a background thread, so that the thread writing the results only
+ * copies bytes into blocks and hands full blocks over.
+ *
+ * Blocks go through a bounded {@link RingBuffer} to the compressing thread, which deflates each of them into a
+ * gzip member carrying its own size and appends the BGZF end-of-file member on close. The result is ordinary gzip
+ * data for gunzip and zcat, which {@link ParallelGzipInputStream} also inflates in parallel. Compressed blocks come
+ * back through a second ring to be filled again, and the writing thread only waits once a whole ring of blocks is
+ * waiting for the compressor.
+ */
+public final class AsyncGzipOutputStream extends OutputStream {
+
+    /**
+     * Default number of blocks waiting to be compressed.
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final OutputStream output;
+    private final int level;
+    // Sleeps rather than blocks, so that handing a block over never takes a lock
+    private final WaitStrategy waitStrategy = new SleepingWaitStrategy();
+    private final RingBuffer<Block> blocks;
+    private final RingBuffer<byte[]> spare;
+    private final BooleanSupplier writable;
+    private final BooleanSupplier takeable;
+    private final Thread compressor;
+
+    // Owned by the writing thread
+    private byte[] buffer = new byte[Bgzf.MAX_INPUT_SIZE];
+    private int count;
+    private boolean finished;
+
+    // Set by the compressor thread, read after it ended or to stop waiting for it
+    private volatile IOException failure;
+
+    private volatile boolean closed;
+
+    public AsyncGzipOutputStream(OutputStream output) {
+        this(output, Deflater.DEFAULT_COMPRESSION, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param output destination of the compressed data, closed by {@link #close()}
+     * @param level {@link Deflater} compression level
+     * @param capacity number of blocks waiting to be compressed before the writing thread waits, a power of two
+     */
+    public AsyncGzipOutputStream(OutputStream output, int level, int capacity) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.output = Objects.requireNonNull(output, "output");
+        this.level = level;
+        this.blocks = new RingBuffer<>(capacity, RingBuffer.ProducerType.SINGLE, waitStrategy);
+        this.spare = new RingBuffer<>(capacity, RingBuffer.ProducerType.SINGLE, waitStrategy);
+        this.writable = () -> failure != null || blocks.size() < blocks.capacity();
+        this.takeable = () -> closed || !blocks.isEmpty();
+        this.compressor = Thread.ofPlatform().name("gzip-compressor").daemon().start(this::compress);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            handOver(false);
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, bytes.length);
+        ensureOpen();
+        while (len > 0) {
+            if (count == buffer.length) {
+                handOver(false);
+            }
+            int copied = Math.min(len, buffer.length - count);
+            System.arraycopy(bytes, off, buffer, count, copied);
+            count += copied;
+            off += copied;
+            len -= copied;
+        }
+    }
+
+    /**
+     * Hands the pending bytes over to be compressed and written through, without waiting for the compressor.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        handOver(true);
+    }
+
+    /**
+     * Compresses the pending bytes, writes the end-of-file member and closes the output.
+     *
+     * @throws IOException if compressing or writing a block or closing the output failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (finished) {
+            return;
+        }
+        try {
+            if (count > 0 && failure == null) {
+                handOver(false);
+            }
+        } finally {
+            finished = true;
+            closed = true;
+            blocks.signal();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    compressor.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                output.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (finished) {
+            throw new IOException("Stream closed");
+        }
+        if (failure != null) {
+            throw failed();
+        }
+    }
+
+    /**
+     * @return the failure of the compressor for the writing thread, distinct from the one close throws
+     */
+    private IOException failed() {
+        return new IOException(failure.getMessage(), failure);
+    }
+
+    private void handOver(boolean flush) throws IOException {
+        Block block = new Block(buffer, count, flush);
+        for (int attempt = 0; !blocks.offer(block); attempt++) {
+            if (failure != null) {
+                throw failed();
+            }
+            try {
+                waitStrategy.idle(attempt, writable);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the gzip compressor");
+            }
+        }
+        byte[] recycled = spare.poll();
+        buffer = recycled != null ? recycled : new byte[Bgzf.MAX_INPUT_SIZE];
+        count = 0;
+    }
+
+    private void compress() {
+        Deflater deflater = new Deflater(level, true);
+        Deflater storing = null;
+        CRC32 crc = new CRC32();
+        byte[] member = new byte[Bgzf.MAX_BLOCK_SIZE];
+        try {
+            for (int attempt = 0; ; ) {
+                // Read before polling, so that every block handed over before close is seen
+                boolean last = closed;
+                Block block = blocks.poll();
+                if (block == null) {
+                    if (last) {
+                        output.write(Bgzf.EOF_BLOCK);
+                        output.flush();
+                        return;
+                    }
+                    waitStrategy.idle(attempt++, takeable);
+                    continue;
+                }
+                attempt = 0;
+                if (block.length() > 0) {
+                    int size = deflate(deflater, block, member);
+                    if (size < 0) {
+                        // Incompressible: stored blocks always fit
+                        if (storing == null) {
+                            storing = new Deflater(Deflater.NO_COMPRESSION, true);
+                        }
+                        size = deflate(storing, block, member);
+                    }
+                    crc.reset();
+                    crc.update(block.data(), 0, block.length());
+                    int blockSize = Bgzf.HEADER_SIZE + size + Bgzf.TRAILER_SIZE;
+                    Bgzf.writeHeader(member, blockSize);
+                    Bgzf.writeInt(member, blockSize - 8, (int) crc.getValue());
+                    Bgzf.writeInt(member, blockSize - 4, block.length());
+                    output.write(member, 0, blockSize);
+                }
+                if (block.flush()) {
+                    output.flush();
+                }
+                spare.offer(block.data());
+            }
+        } catch (IOException e) {
+            failure = e;
+            drainAfterFailure();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            deflater.end();
+            if (storing != null) {
+                storing.end();
+            }
+        }
+    }
+
+    /**
+     * @return size of the deflate data, or -1 if it does not fit in a member
+     */
+    private static int deflate(Deflater deflater, Block block, byte[] member) {
+        deflater.reset();
+        deflater.setInput(block.data(), 0, block.length());
+        deflater.finish();
+        int capacity = member.length - Bgzf.HEADER_SIZE - Bgzf.TRAILER_SIZE;
+        int size = deflater.deflate(member, Bgzf.HEADER_SIZE, capacity);
+        return deflater.finished() ? size : -1;
+    }
+
+    /**
+     * Takes the blocks without compressing them, so that the writing thread notices the failure instead of
+     * waiting for room.
+     */
+    private void drainAfterFailure() {
+        try {
+            for (int attempt = 0; ; ) {
+                boolean last = closed;
+                if (blocks.poll() != null) {
+                    attempt = 0;
+                } else if (last) {
+                    return;
+                } else {
+                    waitStrategy.idle(attempt++, takeable);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Uncompressed bytes waiting to be compressed, and whether the output is flushed after them.
+     */
+    private record Block(byte[] data, int length, boolean flush) {}
+}
@@ -0,0 +1,119 @@
+package ai.thoughtful.platform.factory.gzip;
+
+/**
+ * Layout of block-gzipped (BGZF) data: gzip members of at most 64 KiB whose header carries the size of the
+ * member in a "BC" extra subfield, so that members can be split off without inflating them.
+ */
+final class Bgzf {
+
+    static final int ID1 = 0x1f;
+    static final int ID2 = 0x8b;
+    static final int CM_DEFLATE = 8;
+    static final int FLG_FEXTRA = 4;
+
+    /**
+     * Fixed part of a gzip header, up to and including XLEN.
+     */
+    static final int FIXED_HEADER_SIZE = 12;
+
+    /**
+     * Header of a member with the "BC" subfield only, as written here.
+     */
+    static final int HEADER_SIZE = 18;
+
+    /**
+     * CRC32 and ISIZE after the deflate data.
+     */
+    static final int TRAILER_SIZE = 8;
+
+    static final int MAX_BLOCK_SIZE = 1 << 16;
+
+    /**
+     * Uncompressed bytes per written member: even stored uncompressed, they fit in {@link #MAX_BLOCK_SIZE}.
+     */
+    static final int MAX_INPUT_SIZE = 0xff00;
+
+    /**
+     * Empty member ending BGZF data, telling truncated files apart from complete ones.
+     */
+    static final byte[] EOF_BLOCK = {
+            0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0, 0x1b, 0,
+            3, 0, 0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private Bgzf() {}
+
+    /**
+     * @return whether the bytes start with the gzip magic number
+     */
+    static boolean isGzipMagic(byte[] bytes) {
+        return bytes.length >= 2 && (bytes[0] & 0xff) == ID1 && (bytes[1] & 0xff) == ID2;
+    }
+
+    /**
+     * @param header first {@link #FIXED_HEADER_SIZE} bytes of a member
+     * @return whether the member has an extra field and no other optional header field, as BGZF members do
+     */
+    static boolean isBlockHeader(byte[] header) {
+        return header.length == FIXED_HEADER_SIZE && isGzipMagic(header)
+                && header[2] == CM_DEFLATE && header[3] == FLG_FEXTRA;
+    }
+
+    /**
+     * @param extra extra field of a member header
+     * @return total size of the member from its "BC" subfield, or -1 without one
+     */
+    static int blockSize(byte[] extra) {
+        int position = 0;
+        while (position + 4 <= extra.length) {
+            int length = readShort(extra, position + 2);
+            if (extra[position] == 'B' && extra[position + 1] == 'C' && length == 2 && position + 6 <= extra.length) {
+                return readShort(extra, position + 4) + 1;
+            }
+            position += 4 + length;
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the header of a member with a "BC" subfield.
+     *
+     * @param blockSize total size of the member, header and trailer included
+     */
+    static void writeHeader(byte[] member, int blockSize) {
+        member[0] = (byte) ID1;
+        member[1] = (byte) ID2;
+        member[2] = CM_DEFLATE;
+        member[3] = FLG_FEXTRA;
+        // No modification time, no extra flags, unknown operating system
+        member[4] = 0;
+        member[5] = 0;
+        member[6] = 0;
+        member[7] = 0;
+        member[8] = 0;
+        member[9] = (byte) 0xff;
+        writeShort(member, 10, 6);
+        member[12] = 'B';
+        member[13] = 'C';
+        writeShort(member, 14, 2);
+        writeShort(member, 16, blockSize - 1);
+    }
+
+    static int readShort(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8;
+    }
+
+    static int readInt(byte[] bytes, int offset) {
+        return readShort(bytes, offset) | readShort(bytes, offset + 2) << 16;
+    }
+
+    static void writeShort(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+    }
+
+    static void writeInt(byte[] bytes, int offset, int value) {
+        writeShort(bytes, offset, value);
+        writeShort(bytes, offset + 2, value >>> 16);
+    }
+}
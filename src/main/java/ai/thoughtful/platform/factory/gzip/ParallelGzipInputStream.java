@@ -0,0 +1,274 @@
+package ai.thoughtful.platform.factory.gzip;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses gzip data, inflating block-gzipped (BGZF) members on several threads while the caller reads the
+ * members before them, in order.
+ *
+ * BGZF, as written by bgzip and {@link AsyncGzipOutputStream}, is a series of gzip members of at most 64 KiB whose
+ * headers carry their compressed size, so the reading thread only splits the compressed bytes into groups of
+ * members. A pool of daemon threads inflates the groups, up to twice as many as threads ahead of the reader, and
+ * checks the CRC and length of each member. Other gzip data, including concatenated members without their size,
+ * can only be split by inflating it: from the first such member on, the rest is decompressed on the reading thread
+ * by a {@link GZIPInputStream}. BGZF data must end with the empty end-of-file member, so that a file truncated
+ * between two members is not taken for a complete one.
+ */
+public final class ParallelGzipInputStream extends InputStream {
+
+    /**
+     * Default number of inflating threads.
+     */
+    public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
+    // Uncompressed bytes inflated by one task, so that a task outweighs its hand-over
+    static final int GROUP_SIZE = 1 << 20;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final BufferedInputStream compressed;
+    private final ExecutorService inflaters;
+    private final ArrayDeque<Future<byte[]>> groups = new ArrayDeque<>();
+    private final int readAhead;
+
+    // Offset of the next member in the compressed data, for error messages
+    private long offset;
+    private byte[] current = EMPTY;
+    private int position;
+    private boolean endOfMembers;
+    // Whether the last BGZF member read was empty, like the end-of-file block
+    private boolean lastMemberEmpty;
+    private boolean missingEndOfFile;
+    // Rest of the data after the BGZF members, or null
+    private InputStream sequential;
+
+    public ParallelGzipInputStream(InputStream compressed) {
+        this(compressed, DEFAULT_THREADS);
+    }
+
+    /**
+     * @param compressed gzip data, closed by {@link #close()}
+     * @param threads number of inflating threads
+     */
+    public ParallelGzipInputStream(InputStream compressed, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.compressed = new BufferedInputStream(compressed, BUFFER_SIZE);
+        this.readAhead = 2 * threads;
+        AtomicInteger inflaterCount = new AtomicInteger();
+        this.inflaters = Executors.newFixedThreadPool(threads, runnable -> Thread.ofPlatform()
+                .name("gzip-inflater-" + inflaterCount.incrementAndGet()).daemon().unstarted(runnable));
+    }
+
+    /**
+     * @return whether the file starts with the gzip magic number
+     */
+    public static boolean isGzip(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return Bgzf.isGzipMagic(input.readNBytes(2));
+        }
+    }
+
+    /**
+     * Decompresses a stream if it starts with the gzip magic number, e.g. for stdin.
+     *
+     * @param input gzip data or uncompressed data, closed with the returned stream
+     * @param threads number of inflating threads
+     * @return the uncompressed data
+     */
+    public static InputStream decompressing(InputStream input, int threads) throws IOException {
+        PushbackInputStream peekable = new PushbackInputStream(input, 2);
+        byte[] magic = peekable.readNBytes(2);
+        peekable.unread(magic);
+        return Bgzf.isGzipMagic(magic) ? new ParallelGzipInputStream(peekable, threads) : peekable;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, bytes.length);
+        if (len == 0) {
+            return 0;
+        }
+        while (position == current.length) {
+            if (!nextGroup()) {
+                return sequential == null ? -1 : sequential.read(bytes, off, len);
+            }
+        }
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current, position, bytes, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Future<byte[]> group : groups) {
+            group.cancel(false);
+        }
+        groups.clear();
+        inflaters.shutdownNow();
+        compressed.close();
+    }
+
+    private boolean nextGroup() throws IOException {
+        schedule();
+        Future<byte[]> group = groups.poll();
+        if (group == null) {
+            // Nothing left to inflate in parallel
+            inflaters.shutdown();
+            if (missingEndOfFile) {
+                throw new EOFException("Missing BGZF end-of-file block at offset " + offset
+                        + ", the gzip data may be truncated");
+            }
+            return false;
+        }
+        try {
+            current = group.get();
+            position = 0;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while inflating gzip data");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException failure) {
+                throw failure;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void schedule() throws IOException {
+        while (!endOfMembers && groups.size() < readAhead) {
+            List<Member> members = new ArrayList<>();
+            int size = 0;
+            Member member;
+            while (size < GROUP_SIZE && (member = readMember()) != null) {
+                members.add(member);
+                size += member.size();
+            }
+            if (!members.isEmpty()) {
+                int groupSize = size;
+                groups.add(inflaters.submit(() -> inflate(members, groupSize)));
+            }
+        }
+    }
+
+    /**
+     * Splits the next BGZF member off the compressed data.
+     *
+     * @return the member, or null at the end of the data or before a member of another kind
+     */
+    private Member readMember() throws IOException {
+        compressed.mark(Bgzf.FIXED_HEADER_SIZE + 0xffff);
+        byte[] header = compressed.readNBytes(Bgzf.FIXED_HEADER_SIZE);
+        if (header.length == 0) {
+            endOfMembers = true;
+            missingEndOfFile = offset > 0 && !lastMemberEmpty;
+            return null;
+        }
+        byte[] extra = Bgzf.isBlockHeader(header)
+                ? compressed.readNBytes(Bgzf.readShort(header, Bgzf.FIXED_HEADER_SIZE - 2)) : EMPTY;
+        int blockSize = Bgzf.blockSize(extra);
+        if (blockSize < 0) {
+            compressed.reset();
+            endOfMembers = true;
+            sequential = new GZIPInputStream(compressed, BUFFER_SIZE);
+            return null;
+        }
+
+        int dataSize = blockSize - Bgzf.FIXED_HEADER_SIZE - extra.length;
+        if (dataSize < Bgzf.TRAILER_SIZE) {
+            throw new ZipException("Corrupt gzip block at offset " + offset);
+        }
+        byte[] data = compressed.readNBytes(dataSize);
+        if (data.length < dataSize) {
+            throw new EOFException("Unexpected end of gzip data at offset " + offset);
+        }
+        int size = Bgzf.readInt(data, dataSize - 4);
+        if (size < 0 || size > Bgzf.MAX_BLOCK_SIZE) {
+            throw new ZipException("Corrupt gzip block at offset " + offset);
+        }
+        Member member = new Member(offset, data, size);
+        offset += blockSize;
+        lastMemberEmpty = size == 0;
+        return member;
+    }
+
+    private static byte[] inflate(List<Member> members, int size) throws ZipException {
+        byte[] output = new byte[size];
+        byte[] overflow = new byte[1];
+        Inflater inflater = new Inflater(true);
+        CRC32 crc = new CRC32();
+        try {
+            int position = 0;
+            for (Member member : members) {
+                inflater.reset();
+                inflater.setInput(member.data(), 0, member.data().length - Bgzf.TRAILER_SIZE);
+                int inflated = 0;
+                try {
+                    while (!inflater.finished() && inflated < member.size()) {
+                        int count = inflater.inflate(output, position + inflated, member.size() - inflated);
+                        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            break;
+                        }
+                        inflated += count;
+                    }
+                    // The end of the deflate data may follow the last byte
+                    if (!inflater.finished() && inflater.inflate(overflow) != 0) {
+                        throw corrupt(member);
+                    }
+                } catch (DataFormatException e) {
+                    throw corrupt(member);
+                }
+                crc.reset();
+                crc.update(output, position, inflated);
+                if (!inflater.finished() || inflated != member.size()
+                        || (int) crc.getValue() != Bgzf.readInt(member.data(), member.data().length - 8)) {
+                    throw corrupt(member);
+                }
+                position += inflated;
+            }
+            return output;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ZipException corrupt(Member member) {
+        return new ZipException("Corrupt gzip block at offset " + member.offset());
+    }
+
+    /**
+     * Compressed member: deflate data and trailer, with the uncompressed size from the trailer.
+     */
+    private record Member(long offset, byte[] data, int size) {}
+}
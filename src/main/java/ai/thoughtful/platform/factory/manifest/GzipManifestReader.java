@@ -0,0 +1,40 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import ai.thoughtful.platform.factory.gzip.ParallelGzipInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads a gzip-compressed manifest file, inflating block-gzipped files on several threads ahead of the parser.
+ */
+public class GzipManifestReader implements ManifestReader {
+
+    private final Path path;
+    private final int threads;
+
+    public GzipManifestReader(Path path) {
+        this(path, ParallelGzipInputStream.DEFAULT_THREADS);
+    }
+
+    /**
+     * @param path gzip-compressed manifest file
+     * @param threads number of inflating threads
+     */
+    public GzipManifestReader(Path path, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.path = path;
+        this.threads = threads;
+    }
+
+    @Override
+    public long read(RowHandler handler, InvalidRowHandler invalidRows) throws IOException {
+        try (InputStream input = new ParallelGzipInputStream(Files.newInputStream(path), threads)) {
+            return new StreamManifestReader(input).read(handler, invalidRows);
+        }
+    }
+}
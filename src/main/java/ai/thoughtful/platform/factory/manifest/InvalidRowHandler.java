@@ -0,0 +1,24 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import ai.thoughtful.platform.factory.model.ValidationError;
+
+import java.io.IOException;
+
+/**
+ * Receives the invalid rows of a manifest instead of an exception, in input order along with the valid rows.
+ */
+@FunctionalInterface
+public interface InvalidRowHandler {
+
+    /**
+     * Handles one invalid manifest row.
+     *
+     * @param lineNumber 1-based line number of the row
+     * @param error reason the row is invalid
+     * @param line text of the row, without its line terminator
+     * @return whether to go on with the next row; false stops the manifest with an IllegalArgumentException
+     *         carrying the line number, like a manifest read without this handler
+     * @throws IOException if the handler fails to record the row
+     */
+    boolean onInvalidRow(long lineNumber, ValidationError error, String line) throws IOException;
+}
@@ -0,0 +1,166 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.batch.PackageBatchClassifier;
+import ai.thoughtful.platform.factory.metrics.ClassificationMetrics;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeWriter;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams a manifest of packages through the classifier in a single process.
+ *
+ * Each input line uses the CLI format "width,height,length,mass" and produces exactly one output line
+ * with the stack type (STANDARD, SPECIAL, or REJECTED), in input order, or one entry of packed results with
+ * {@link PackedStackTypeWriter}. Rows are collected into columnar batches and classified with
+ * {@link PackageBatchClassifier}. An {@link InvalidRowHandler} may take the invalid rows out of the manifest,
+ * in which case they have no result and the classification goes on with the next row.
+ */
+public class ManifestClassifier {
+
+    /**
+     * Default number of rows classified together.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    // Pre-encoded output lines, indexed by StackType ordinal
+    static final byte[][] LINES = new byte[StackType.values().length][];
+
+    static {
+        for (StackType stackType : StackType.values()) {
+            LINES[stackType.ordinal()] = (stackType.name() + "\n").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final int batchSize;
+    private final ClassificationMetrics metrics;
+    private final InvalidRowHandler invalidRows;
+
+    /**
+     * Destination of the StackType ordinals of a classified batch.
+     */
+    @FunctionalInterface
+    private interface ResultWriter {
+        void write(byte[] ordinals, int count) throws IOException;
+    }
+
+    public ManifestClassifier() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchSize number of rows classified together
+     */
+    public ManifestClassifier(int batchSize) {
+        this(batchSize, null);
+    }
+
+    /**
+     * @param batchSize number of rows classified together
+     * @param metrics destination of the package counters, or null
+     */
+    public ManifestClassifier(int batchSize, ClassificationMetrics metrics) {
+        this(batchSize, metrics, null);
+    }
+
+    /**
+     * @param batchSize number of rows classified together
+     * @param metrics destination of the package counters, or null
+     * @param invalidRows receiver of the invalid rows, deciding whether to go on, or null to stop at the first one
+     */
+    public ManifestClassifier(int batchSize, ClassificationMetrics metrics, InvalidRowHandler invalidRows) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+        this.metrics = metrics;
+        this.invalidRows = invalidRows;
+    }
+
+    /**
+     * Classifies every row of the manifest, writing one result per line.
+     *
+     * @param input manifest rows
+     * @param output destination of the stack types, one per line; should be buffered
+     * @return number of classified packages
+     * @throws IllegalArgumentException if a line is invalid and not taken by the invalid row handler; the message
+     *         carries its 1-based line number
+     * @throws IOException if reading or writing fails
+     */
+    public long classify(ManifestReader input, OutputStream output) throws IOException {
+        return classify(input, (ordinals, count) -> {
+            for (int i = 0; i < count; i++) {
+                output.write(LINES[ordinals[i]]);
+            }
+        }, output);
+    }
+
+    /**
+     * Classifies every row of the manifest into packed results.
+     *
+     * @param input manifest rows
+     * @param output destination of the stack types; finishing it is left to the caller
+     * @return number of classified packages
+     * @throws IllegalArgumentException if a line is invalid and not taken by the invalid row handler; the message
+     *         carries its 1-based line number
+     * @throws IOException if reading or writing fails
+     */
+    public long classify(ManifestReader input, PackedStackTypeWriter output) throws IOException {
+        return classify(input, (ordinals, count) -> output.write(ordinals, 0, count), output);
+    }
+
+    private long classify(ManifestReader input, ResultWriter writer, Flushable output) throws IOException {
+        PackageBatch batch = new PackageBatch(batchSize);
+        byte[] ordinals = new byte[batchSize];
+        // Invalid rows taken out of the manifest, and whether the last one stopped it
+        long[] skipped = new long[1];
+        boolean[] stopped = new boolean[1];
+        try {
+            long lines = input.read((width, height, length, mass) -> {
+                batch.add(width, height, length, mass);
+                if (batch.isFull()) {
+                    writeBatch(batch, ordinals, writer);
+                }
+            }, (lineNumber, error, line) -> {
+                if (metrics != null) {
+                    metrics.recordParseError(error);
+                }
+                stopped[0] = true;
+                if (invalidRows == null || !invalidRows.onInvalidRow(lineNumber, error, line)) {
+                    return false;
+                }
+                stopped[0] = false;
+                skipped[0]++;
+                return true;
+            });
+            writeBatch(batch, ordinals, writer);
+            return lines - skipped[0];
+        } catch (IllegalArgumentException e) {
+            if (metrics != null && !stopped[0]) {
+                // A line too long for the reader
+                metrics.recordParseError();
+            }
+            // Rows before the invalid line are still delivered
+            writeBatch(batch, ordinals, writer);
+            throw e;
+        } finally {
+            output.flush();
+        }
+    }
+
+    private void writeBatch(PackageBatch batch, byte[] ordinals, ResultWriter writer) throws IOException {
+        ClassificationRules rules = RuleEngine.current();
+        PackageBatchClassifier.classify(batch, ordinals, rules);
+        if (metrics != null) {
+            metrics.recordBatch(batch, ordinals, rules);
+        }
+        writer.write(ordinals, batch.size());
+        batch.clear();
+    }
+}
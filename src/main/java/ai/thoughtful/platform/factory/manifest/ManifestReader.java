@@ -0,0 +1,46 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import ai.thoughtful.platform.factory.gzip.ParallelGzipInputStream;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Source of manifest rows in the CLI format "width,height,length,mass", one package per line.
+ */
+public interface ManifestReader {
+
+    /**
+     * Reader of a manifest file: gzip-compressed files, whatever their name, are inflated and others mapped.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    static ManifestReader open(Path path) throws IOException {
+        return ParallelGzipInputStream.isGzip(path) ? new GzipManifestReader(path) : new MappedManifestReader(path);
+    }
+
+    /**
+     * Reads the whole manifest, handing every row to the handler in input order.
+     *
+     * @param handler receiver of the validated rows
+     * @return number of rows read
+     * @throws IllegalArgumentException if a line is invalid; the message carries its 1-based line number
+     * @throws IOException if reading fails or the handler fails
+     */
+    default long read(RowHandler handler) throws IOException {
+        return read(handler, null);
+    }
+
+    /**
+     * Reads the whole manifest, handing every valid row to the handler and every invalid one to invalidRows,
+     * both in input order.
+     *
+     * @param handler receiver of the validated rows
+     * @param invalidRows receiver of the invalid rows, or null to stop at the first one with an exception
+     * @return number of lines read, valid or not
+     * @throws IllegalArgumentException if a line is invalid and not taken by invalidRows, or too long; the
+     *         message carries its 1-based line number
+     * @throws IOException if reading fails or a handler fails
+     */
+    long read(RowHandler handler, InvalidRowHandler invalidRows) throws IOException;
+}
@@ -0,0 +1,338 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import ai.thoughtful.platform.factory.cli.PackageInputParser;
+import ai.thoughtful.platform.factory.model.ParseResult;
+import ai.thoughtful.platform.factory.model.ValidationError;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses manifest lines straight from bytes into primitives, without intermediate Strings.
+ *
+ * Lines end with "\n", "\r" or "\r\n", like {@link java.io.BufferedReader#readLine()}. The common shape of a row
+ * (ASCII digits with an optional sign, a decimal mass with an optional exponent) is parsed without allocating.
+ * Every other line, including all invalid ones, falls back to {@link PackageInputParser#tryParse(String)}, so the
+ * accepted values and the error messages are identical to the single-package mode. Invalid lines either stop the
+ * parse with an exception or go to an {@link InvalidRowHandler} without any.
+ *
+ * A parser keeps the line count across calls and is not thread-safe.
+ */
+public final class ManifestRowParser {
+
+    private static final long NOT_PARSED = Long.MIN_VALUE;
+    private static final int MAX_INT_DIGITS = 10;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final int MAX_EXPONENT_DIGITS = 3;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    // Powers of ten that are exact doubles, see Clinger's fast path
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final boolean validate;
+    private long lineNumber;
+
+    // Position of the next byte to parse within the current line
+    private int cursor;
+
+    public ManifestRowParser() {
+        this(0);
+    }
+
+    /**
+     * Creates a parser continuing a manifest, e.g. a file followed from a checkpoint.
+     *
+     * @param linesBefore number of lines already parsed; the next line is numbered linesBefore + 1
+     */
+    public ManifestRowParser(long linesBefore) {
+        this(linesBefore, true);
+    }
+
+    /**
+     * Creates a parser that may leave the validation of the values to a later stage.
+     *
+     * @param linesBefore number of lines already parsed; the next line is numbered linesBefore + 1
+     * @param validate whether to apply {@link PackageInputParser#validate(int, int, int, double)}; without it,
+     *                 rows in the common shape reach the handler as parsed, even with non-positive values, while
+     *                 the other rows are still validated by the fallback
+     */
+    public ManifestRowParser(long linesBefore, boolean validate) {
+        if (linesBefore < 0) {
+            throw new IllegalArgumentException("Line count must not be negative");
+        }
+        this.lineNumber = linesBefore;
+        this.validate = validate;
+    }
+
+    /**
+     * Parses all complete lines of the given range.
+     *
+     * @param buffer bytes of the manifest, accessed with absolute positions
+     * @param from first byte to parse
+     * @param to end of the range (exclusive)
+     * @param endOfInput whether the range ends the manifest, so that a last unterminated line is complete
+     * @param handler receiver of the parsed rows
+     * @return position after the last consumed line; bytes from there on belong to an incomplete line
+     * @throws IllegalArgumentException if a line is invalid; the message carries its 1-based line number
+     * @throws IOException if the handler fails
+     */
+    public int parse(ByteBuffer buffer, int from, int to, boolean endOfInput, RowHandler handler) throws IOException {
+        return parse(buffer, from, to, endOfInput, handler, null);
+    }
+
+    /**
+     * Parses all complete lines of the given range, handing the invalid ones to a handler.
+     *
+     * @param buffer bytes of the manifest, accessed with absolute positions
+     * @param from first byte to parse
+     * @param to end of the range (exclusive)
+     * @param endOfInput whether the range ends the manifest, so that a last unterminated line is complete
+     * @param handler receiver of the parsed rows
+     * @param invalidRows receiver of the invalid rows, or null to stop at the first one with an exception
+     * @return position after the last consumed line; bytes from there on belong to an incomplete line
+     * @throws IllegalArgumentException if a line is invalid and not taken by the handler; the message carries
+     *         its 1-based line number
+     * @throws IOException if a handler fails
+     */
+    public int parse(ByteBuffer buffer, int from, int to, boolean endOfInput, RowHandler handler,
+                     InvalidRowHandler invalidRows) throws IOException {
+        int lineStart = from;
+        int position = from;
+        while (position < to) {
+            byte current = buffer.get(position);
+            if (current != '\n' && current != '\r') {
+                position++;
+                continue;
+            }
+
+            int next = position + 1;
+            if (current == '\r') {
+                if (next == to) {
+                    if (!endOfInput) {
+                        // A following '\n' may start the next range
+                        return lineStart;
+                    }
+                } else if (buffer.get(next) == '\n') {
+                    next++;
+                }
+            }
+            parseLine(buffer, lineStart, position, handler, invalidRows);
+            lineStart = next;
+            position = next;
+        }
+
+        if (endOfInput && lineStart < to) {
+            parseLine(buffer, lineStart, to, handler, invalidRows);
+            return to;
+        }
+        return lineStart;
+    }
+
+    /**
+     * @return number of lines parsed so far
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    private void parseLine(ByteBuffer buffer, int start, int end, RowHandler handler, InvalidRowHandler invalidRows)
+            throws IOException {
+        lineNumber++;
+        cursor = start;
+
+        long width = parseDimension(buffer, end);
+        long height = width == NOT_PARSED ? NOT_PARSED : parseDimension(buffer, end);
+        long length = height == NOT_PARSED ? NOT_PARSED : parseDimension(buffer, end);
+        double mass = length == NOT_PARSED ? Double.NaN : parseMass(buffer, end);
+
+        if (Double.isNaN(mass)) {
+            parseFallback(buffer, start, end, handler, invalidRows);
+            return;
+        }
+
+        if (validate) {
+            ValidationError error = ValidationError.check((int) width, (int) height, (int) length, mass);
+            if (error != null) {
+                invalidRow(buffer, start, end, error, invalidRows);
+                return;
+            }
+        }
+        handler.onRow((int) width, (int) height, (int) length, mass);
+    }
+
+    private void parseFallback(ByteBuffer buffer, int start, int end, RowHandler handler,
+                               InvalidRowHandler invalidRows) throws IOException {
+        ParseResult result = PackageInputParser.tryParse(text(buffer, start, end));
+        if (!result.isValid()) {
+            invalidRow(buffer, start, end, result.error(), invalidRows);
+            return;
+        }
+        handler.onRow(result.measurement().width(), result.measurement().height(), result.measurement().length(),
+                result.measurement().mass());
+    }
+
+    private void invalidRow(ByteBuffer buffer, int start, int end, ValidationError error,
+                            InvalidRowHandler invalidRows) throws IOException {
+        if (invalidRows == null || !invalidRows.onInvalidRow(lineNumber, error, text(buffer, start, end))) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + error.message(), error.toException());
+        }
+    }
+
+    private static String text(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses an integer field followed by a comma, like {@code Integer.parseInt(field.trim())}.
+     *
+     * @return the value, or NOT_PARSED when the field needs the fallback path
+     */
+    private long parseDimension(ByteBuffer buffer, int end) {
+        int position = skipBlanks(buffer, cursor, end);
+        boolean negative = false;
+        if (position < end) {
+            byte sign = buffer.get(position);
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                position++;
+            }
+        }
+
+        long value = 0;
+        int digits = 0;
+        while (position < end) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            value = value * 10 + digit;
+            digits++;
+            position++;
+        }
+        if (digits == 0 || digits > MAX_INT_DIGITS) {
+            return NOT_PARSED;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return NOT_PARSED;
+        }
+
+        position = skipBlanks(buffer, position, end);
+        if (position == end || buffer.get(position) != ',') {
+            return NOT_PARSED;
+        }
+        cursor = position + 1;
+        return value;
+    }
+
+    /**
+     * Parses the last field as a decimal number, like {@code Double.parseDouble(field.trim())}.
+     *
+     * Only mantissas of up to 2^53 scaled by at most 10^22 are handled here: both factors are exact doubles,
+     * so one multiplication or division is correctly rounded and matches {@code Double.parseDouble}.
+     *
+     * @return the value, or NaN when the field needs the fallback path
+     */
+    private double parseMass(ByteBuffer buffer, int end) {
+        int position = skipBlanks(buffer, cursor, end);
+        boolean negative = false;
+        if (position < end) {
+            byte sign = buffer.get(position);
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                position++;
+            }
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        while (position < end) {
+            byte current = buffer.get(position);
+            if (current == '.' && !fraction) {
+                fraction = true;
+                position++;
+                continue;
+            }
+            int digit = current - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            digits++;
+            if (fraction) {
+                fractionDigits++;
+            }
+            if (mantissa != 0 || digit != 0) {
+                if (++significantDigits > MAX_MANTISSA_DIGITS) {
+                    return Double.NaN;
+                }
+                mantissa = mantissa * 10 + digit;
+            }
+            position++;
+        }
+        if (digits == 0 || mantissa > MAX_EXACT_MANTISSA) {
+            return Double.NaN;
+        }
+
+        int exponent = 0;
+        if (position < end && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+                negativeExponent = buffer.get(position) == '-';
+                position++;
+            }
+            int exponentDigits = 0;
+            while (position < end) {
+                int digit = buffer.get(position) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                exponent = exponent * 10 + digit;
+                exponentDigits++;
+                position++;
+            }
+            if (exponentDigits == 0 || exponentDigits > MAX_EXPONENT_DIGITS) {
+                return Double.NaN;
+            }
+            exponent = negativeExponent ? -exponent : exponent;
+        }
+
+        if (skipBlanks(buffer, position, end) != end) {
+            return Double.NaN;
+        }
+
+        int scale = exponent - fractionDigits;
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (scale >= 0 && scale < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[scale];
+        } else if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+        } else {
+            return Double.NaN;
+        }
+        return negative ? -value : value;
+    }
+
+    // Same characters as String.trim(): every byte up to and including the space
+    private static int skipBlanks(ByteBuffer buffer, int position, int end) {
+        while (position < end) {
+            byte current = buffer.get(position);
+            if (current < 0 || current > ' ') {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+}
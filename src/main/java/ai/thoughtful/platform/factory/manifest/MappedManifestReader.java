@@ -0,0 +1,62 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a manifest file through memory-mapped windows, parsing rows directly from the mapped bytes.
+ *
+ * Files of any size are mapped window by window, so ingestion is bound by I/O rather than by allocation.
+ * A line split by the end of a window is parsed again at the start of the next one.
+ */
+public class MappedManifestReader implements ManifestReader {
+
+    /**
+     * Default size of a mapped window, in bytes.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private final Path path;
+    private final int windowSize;
+
+    public MappedManifestReader(Path path) {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param path manifest file
+     * @param windowSize size of each mapped window, which also bounds the length of a line
+     */
+    public MappedManifestReader(Path path, int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        this.path = path;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public long read(RowHandler handler, InvalidRowHandler invalidRows) throws IOException {
+        ManifestRowParser parser = new ManifestRowParser();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(windowSize, size - position);
+                boolean lastWindow = position + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int consumed = parser.parse(window, 0, length, lastWindow, handler, invalidRows);
+                if (consumed == 0 && !lastWindow) {
+                    throw new IllegalArgumentException("Line " + (parser.getLineNumber() + 1)
+                            + ": Line exceeds the maximum length of " + windowSize + " bytes");
+                }
+                position += consumed;
+            }
+        }
+        return parser.getLineNumber();
+    }
+}
@@ -0,0 +1,525 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.batch.PackageBatchClassifier;
+import ai.thoughtful.platform.factory.metrics.ClassificationMetrics;
+import ai.thoughtful.platform.factory.model.ValidationError;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeWriter;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Classifies a manifest on several threads while writing the results in input order.
+ *
+ * A splitter thread cuts the input into chunks that end on a line terminator. Each chunk is parsed, classified
+ * and encoded by a worker of a {@link ForkJoinPool}, and the calling thread writes the encoded chunks in input
+ * order. At most twice as many chunks as threads are in flight, which bounds the memory of the reorder buffer.
+ *
+ * The output, including the line number and message of the first invalid line, is identical to
+ * {@link ManifestClassifier}, as text lines or packed with {@link PackedStackTypeWriter}. Lines are limited to the
+ * chunk size. An {@link InvalidRowHandler} receives the invalid rows on the calling thread, in input order with
+ * their line numbers in the manifest, as with {@link ManifestClassifier}.
+ */
+public class ParallelManifestClassifier {
+
+    /**
+     * Default size of a chunk, in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+    private static final Chunk END = new Chunk(null, null);
+
+    private final int threads;
+    private final int chunkSize;
+    private final ClassificationMetrics metrics;
+    private final InvalidRowHandler invalidRows;
+
+    public ParallelManifestClassifier(int threads) {
+        this(threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param threads number of worker threads
+     * @param chunkSize size of the chunks handed to the workers, which also bounds the length of a line
+     */
+    public ParallelManifestClassifier(int threads, int chunkSize) {
+        this(threads, chunkSize, null);
+    }
+
+    /**
+     * @param threads number of worker threads
+     * @param chunkSize size of the chunks handed to the workers, which also bounds the length of a line
+     * @param metrics destination of the package counters, or null
+     */
+    public ParallelManifestClassifier(int threads, int chunkSize, ClassificationMetrics metrics) {
+        this(threads, chunkSize, metrics, null);
+    }
+
+    /**
+     * @param threads number of worker threads
+     * @param chunkSize size of the chunks handed to the workers, which also bounds the length of a line
+     * @param metrics destination of the package counters, or null
+     * @param invalidRows receiver of the invalid rows, deciding whether to go on, or null to stop at the first one
+     */
+    public ParallelManifestClassifier(int threads, int chunkSize, ClassificationMetrics metrics,
+                                      InvalidRowHandler invalidRows) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.metrics = metrics;
+        this.invalidRows = invalidRows;
+    }
+
+    /**
+     * Classifies a manifest file, mapping it chunk by chunk.
+     *
+     * @param path manifest file
+     * @param output destination of the stack types, one per line
+     * @return number of classified packages
+     * @throws IllegalArgumentException if a line is invalid and not taken by the invalid row handler; the message
+     *         carries its 1-based line number
+     * @throws IOException if reading or writing fails
+     */
+    public long classify(Path path, OutputStream output) throws IOException {
+        return classify(path, new Run(output));
+    }
+
+    /**
+     * Classifies a manifest file, mapping it chunk by chunk, into packed results.
+     *
+     * @param path manifest file
+     * @param output destination of the stack types; finishing it is left to the caller
+     * @return number of classified packages
+     * @throws IllegalArgumentException if a line is invalid and not taken by the invalid row handler; the message
+     *         carries its 1-based line number
+     * @throws IOException if reading or writing fails
+     */
+    public long classify(Path path, PackedStackTypeWriter output) throws IOException {
+        return classify(path, new Run(output));
+    }
+
+    /**
+     * Classifies a manifest stream, such as stdin, reading it chunk by chunk into recycled buffers.
+     *
+     * @param input manifest stream, not closed by the classifier
+     * @param output destination of the stack types, one per line
+     * @return number of classified packages
+     * @throws IllegalArgumentException if a line is invalid and not taken by the invalid row handler; the message
+     *         carries its 1-based line number
+     * @throws IOException if reading or writing fails
+     */
+    public long classify(InputStream input, OutputStream output) throws IOException {
+        return classify(input, new Run(output));
+    }
+
+    /**
+     * Classifies a part of a manifest stream, numbering its lines after the ones before it.
+     *
+     * @param input manifest stream starting at the beginning of a line, not closed by the classifier
+     * @param output destination of the stack types, one per line
+     * @param linesBefore number of manifest lines before the stream, counted in the line numbers of errors
+     * @return number of classified packages
+     * @throws IllegalArgumentException if a line is invalid and not taken by the invalid row handler; the message
+     *         carries its 1-based line number in the whole manifest
+     * @throws IOException if reading or writing fails
+     */
+    public long classify(InputStream input, OutputStream output, long linesBefore) throws IOException {
+        if (linesBefore < 0) {
+            throw new IllegalArgumentException("Lines before must not be negative");
+        }
+        return classify(input, new Run(output, linesBefore));
+    }
+
+    /**
+     * Classifies a manifest stream, such as stdin, into packed results.
+     *
+     * @param input manifest stream, not closed by the classifier
+     * @param output destination of the stack types; finishing it is left to the caller
+     * @return number of classified packages
+     * @throws IllegalArgumentException if a line is invalid and not taken by the invalid row handler; the message
+     *         carries its 1-based line number
+     * @throws IOException if reading or writing fails
+     */
+    public long classify(InputStream input, PackedStackTypeWriter output) throws IOException {
+        return classify(input, new Run(output));
+    }
+
+    private long classify(Path path, Run classification) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return classification.execute(run -> {
+                long size = channel.size();
+                long position = 0;
+                while (position < size) {
+                    int length = (int) Math.min(chunkSize, size - position);
+                    ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                    int end = position + length == size ? length : chunkEnd(window, length);
+                    if (end == 0) {
+                        run.lineTooLong();
+                        return;
+                    }
+                    run.submit(window, end, null);
+                    position += end;
+                }
+            });
+        }
+    }
+
+    private long classify(InputStream input, Run classification) throws IOException {
+        return classification.execute(run -> {
+            byte[] chunk = run.takeBuffer();
+            int filled = 0;
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                int read = input.read(chunk, filled, chunk.length - filled);
+                endOfInput = read < 0;
+                if (!endOfInput) {
+                    filled += read;
+                    if (filled < chunk.length) {
+                        continue;
+                    }
+                }
+
+                int end = endOfInput ? filled : chunkEnd(ByteBuffer.wrap(chunk), filled);
+                if (end == 0) {
+                    if (!endOfInput) {
+                        run.lineTooLong();
+                    }
+                    return;
+                }
+                // Keep the incomplete last line for the next chunk
+                byte[] next = endOfInput ? null : run.takeBuffer();
+                if (next != null) {
+                    System.arraycopy(chunk, end, next, 0, filled - end);
+                }
+                run.submit(ByteBuffer.wrap(chunk), end, chunk);
+                chunk = next;
+                filled -= end;
+            }
+        });
+    }
+
+    /**
+     * Finds the end of the last complete line, where a final "\r" may still be followed by "\n".
+     *
+     * @return position after the last line terminator, or 0 if there is none
+     */
+    static int chunkEnd(ByteBuffer buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            byte current = buffer.get(i);
+            if (current == '\n' || (current == '\r' && i < length - 1)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parses, classifies and encodes a chunk of complete lines.
+     *
+     * @param packed whether to keep the StackType ordinals rather than text lines
+     */
+    private ChunkResult classifyChunk(ByteBuffer buffer, int end, boolean packed) throws IOException {
+        ManifestRowParser parser = new ManifestRowParser();
+        PackageBatch batch = new PackageBatch(ManifestClassifier.DEFAULT_BATCH_SIZE);
+        byte[] ordinals = new byte[batch.capacity()];
+        ChunkOutput output = new ChunkOutput(end, packed);
+        ValidationError[] reason = new ValidationError[1];
+        // With a handler, the writer hands it the invalid rows, whose line numbers are relative to the chunk
+        List<InvalidRow> skipped = new ArrayList<>();
+        try {
+            parser.parse(buffer, 0, end, true, (width, height, length, mass) -> {
+                batch.add(width, height, length, mass);
+                if (batch.isFull()) {
+                    output.write(batch, ordinals);
+                }
+            }, (lineNumber, error, line) -> {
+                if (invalidRows != null) {
+                    skipped.add(new InvalidRow(lineNumber, error, line));
+                    return true;
+                }
+                reason[0] = error;
+                return false;
+            });
+            output.write(batch, ordinals);
+            return new ChunkResult(output.bytes, output.size, parser.getLineNumber(), null, null, skipped);
+        } catch (IllegalArgumentException e) {
+            // Rows before the invalid line are still delivered
+            output.write(batch, ordinals);
+            return new ChunkResult(output.bytes, output.size, parser.getLineNumber(), e, reason[0], skipped);
+        }
+    }
+
+    private final class ChunkOutput {
+
+        private final boolean packed;
+        private byte[] bytes;
+        private int size;
+
+        ChunkOutput(int inputLength, boolean packed) {
+            this.packed = packed;
+            // Rows take at least 8 input bytes ("1,1,1,1\n") for at most 9 output bytes, or 1 ordinal
+            this.bytes = new byte[Math.max(16, packed ? inputLength / 8 : inputLength + inputLength / 8)];
+        }
+
+        void write(PackageBatch batch, byte[] ordinals) {
+            ClassificationRules rules = RuleEngine.current();
+            PackageBatchClassifier.classify(batch, ordinals, rules);
+            if (metrics != null) {
+                metrics.recordBatch(batch, ordinals, rules);
+            }
+            if (packed) {
+                if (size + batch.size() > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + batch.size()));
+                }
+                System.arraycopy(ordinals, 0, bytes, size, batch.size());
+                size += batch.size();
+                batch.clear();
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                byte[] line = ManifestClassifier.LINES[ordinals[i]];
+                if (size + line.length > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                System.arraycopy(line, 0, bytes, size, line.length);
+                size += line.length;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writer of the encoded chunks, in input order.
+     */
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(byte[] output, int length) throws IOException;
+    }
+
+    /**
+     * Outcome of a chunk: its encoded output (text lines or StackType ordinals), its line count and the error of its
+     * first invalid line, whose line number is relative to the chunk, with its reason unless the line is too long,
+     * and the invalid rows taken out of the chunk for the invalid row handler.
+     */
+    private record ChunkResult(byte[] output, int outputLength, long lines, IllegalArgumentException error,
+                               ValidationError errorCode, List<InvalidRow> invalidRows) {}
+
+    /**
+     * Invalid row of a chunk, numbered within the chunk.
+     */
+    private record InvalidRow(long lineNumber, ValidationError error, String line) {}
+
+    /**
+     * Chunk in flight, with the buffer to recycle once written.
+     */
+    private record Chunk(Future<ChunkResult> result, byte[] buffer) {}
+
+    @FunctionalInterface
+    private interface Splitter {
+        void split(Run run) throws IOException, InterruptedException;
+    }
+
+    /**
+     * State of one classification: the workers, the ordered queue of chunks in flight and the recycled buffers.
+     */
+    private final class Run {
+
+        private final ChunkWriter writer;
+        private final Flushable output;
+        private final boolean packed;
+        private final long linesBefore;
+        private final ForkJoinPool workers = new ForkJoinPool(threads);
+        private final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(2 * threads);
+        // One more buffer than chunks in flight for the splitter, and one for the chunk being written
+        private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(2 * threads + 2);
+        private int allocatedBuffers;
+
+        Run(OutputStream output) {
+            this(output, 0);
+        }
+
+        Run(OutputStream output, long linesBefore) {
+            this.writer = (bytes, length) -> output.write(bytes, 0, length);
+            this.output = output;
+            this.packed = false;
+            this.linesBefore = linesBefore;
+        }
+
+        Run(PackedStackTypeWriter output) {
+            this.writer = (ordinals, length) -> output.write(ordinals, 0, length);
+            this.output = output;
+            this.packed = true;
+            this.linesBefore = 0;
+        }
+
+        long execute(Splitter splitter) throws IOException {
+            Thread splitterThread = Thread.ofPlatform().name("manifest-splitter").daemon().start(() -> {
+                try {
+                    splitter.split(this);
+                    chunks.put(END);
+                } catch (InterruptedException e) {
+                    // The writer gave up
+                } catch (Exception e) {
+                    try {
+                        chunks.put(new Chunk(CompletableFuture.failedFuture(e), null));
+                    } catch (InterruptedException interrupted) {
+                        // The writer gave up
+                    }
+                }
+            });
+            try {
+                return writeInOrder();
+            } finally {
+                splitterThread.interrupt();
+                workers.shutdownNow();
+                output.flush();
+            }
+        }
+
+        private long writeInOrder() throws IOException {
+            long lines = linesBefore;
+            long skipped = 0;
+            while (true) {
+                Chunk chunk = take();
+                if (chunk == END) {
+                    return lines - linesBefore - skipped;
+                }
+                ChunkResult result = await(chunk.result());
+                handInvalidRows(result, lines);
+                writer.write(result.output(), result.outputLength());
+                if (result.error() != null) {
+                    if (metrics != null && result.errorCode() != null) {
+                        metrics.recordParseError(result.errorCode());
+                    } else if (metrics != null) {
+                        metrics.recordParseError();
+                    }
+                    // The parser numbers lines within the chunk, keep only the reason
+                    Throwable reason = result.error().getCause() != null ? result.error().getCause() : result.error();
+                    throw new IllegalArgumentException(
+                            "Line " + (lines + result.lines()) + ": " + reason.getMessage(), reason);
+                }
+                lines += result.lines();
+                skipped += result.invalidRows().size();
+                if (chunk.buffer() != null) {
+                    buffers.offer(chunk.buffer());
+                }
+            }
+        }
+
+        /**
+         * Hands the invalid rows of a chunk to the handler; when it stops the manifest, writes the results of the
+         * rows before the stopping one first.
+         */
+        private void handInvalidRows(ChunkResult result, long linesBefore) throws IOException {
+            List<InvalidRow> rows = result.invalidRows();
+            for (int i = 0; i < rows.size(); i++) {
+                InvalidRow row = rows.get(i);
+                long lineNumber = linesBefore + row.lineNumber();
+                if (metrics != null) {
+                    metrics.recordParseError(row.error());
+                }
+                // Results of the valid rows before this one
+                int validBefore = (int) (row.lineNumber() - 1 - i);
+                boolean next;
+                try {
+                    next = invalidRows.onInvalidRow(lineNumber, row.error(), row.line());
+                } catch (RuntimeException | IOException e) {
+                    writeFirstResults(result, validBefore);
+                    throw e;
+                }
+                if (!next) {
+                    writeFirstResults(result, validBefore);
+                    throw new IllegalArgumentException("Line " + lineNumber + ": " + row.error().message(),
+                            row.error().toException());
+                }
+            }
+        }
+
+        private void writeFirstResults(ChunkResult result, int count) throws IOException {
+            if (packed) {
+                writer.write(result.output(), count);
+                return;
+            }
+            int length = 0;
+            for (int lines = 0; lines < count; length++) {
+                if (result.output()[length] == '\n') {
+                    lines++;
+                }
+            }
+            writer.write(result.output(), length);
+        }
+
+        void submit(ByteBuffer buffer, int end, byte[] recycled) throws InterruptedException {
+            chunks.put(new Chunk(workers.submit(() -> classifyChunk(buffer, end, packed)), recycled));
+        }
+
+        void lineTooLong() throws InterruptedException {
+            IllegalArgumentException error = new IllegalArgumentException(
+                    "Line exceeds the maximum length of " + chunkSize + " bytes");
+            ChunkResult result = new ChunkResult(new byte[0], 0, 1, error, null, List.of());
+            chunks.put(new Chunk(CompletableFuture.completedFuture(result), null));
+        }
+
+        byte[] takeBuffer() throws InterruptedException {
+            byte[] buffer = buffers.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+            if (allocatedBuffers < 2 * threads + 2) {
+                allocatedBuffers++;
+                return new byte[chunkSize];
+            }
+            return buffers.take();
+        }
+
+        private Chunk take() throws IOException {
+            try {
+                return chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while classifying the manifest", e);
+            }
+        }
+
+        private ChunkResult await(Future<ChunkResult> result) throws IOException {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while classifying the manifest", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                }
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IOException(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.batch.PackageBatchClassifier;
+import ai.thoughtful.platform.factory.concurrent.BlockingWaitStrategy;
+import ai.thoughtful.platform.factory.concurrent.Sequence;
+import ai.thoughtful.platform.factory.concurrent.WaitStrategy;
+import ai.thoughtful.platform.factory.metrics.ClassificationMetrics;
+import ai.thoughtful.platform.factory.model.ValidationError;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeWriter;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Classifies a manifest through a pipeline of stages, each on its own thread, over a ring of preallocated slots.
+ *
+ * The calling thread reads chunks of complete lines into the slots. Four stages then work on every slot in turn:
+ * parse turns the bytes into primitives, validate applies the input rules and fills a {@link PackageBatch} with
+ * the {@code Package} and {@code PackageDimension} rules, classify runs {@link PackageBatchClassifier}, and emit
+ * writes the results. Each stage publishes its progress in a {@link Sequence} that gates the next stage, and the
+ * reader reuses a slot once emitted, so the slots are allocated once per run and stages run concurrently on
+ * different chunks. A stage that finds several slots ready handles them all before publishing.
+ *
+ * Slots flow through every stage in order, so the output, including the line number and message of the first
+ * invalid line, is identical to {@link ManifestClassifier}, as text lines or packed with
+ * {@link PackedStackTypeWriter}. Lines are limited to the chunk size.
+ */
+public class PipelinedManifestClassifier {
+
+    /**
+     * Default size of a chunk, in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Default number of slots in the ring.
+     */
+    public static final int DEFAULT_SLOTS = 8;
+
+    // Stages in pipeline order; a stage that stops the run halts the stages before it
+    private static final int READ = 0;
+    private static final int PARSE = 1;
+    private static final int VALIDATE = 2;
+    private static final int CLASSIFY = 3;
+    private static final int EMIT = 4;
+    private static final String[] STAGE_NAMES = {"read", "parse", "validate", "classify", "emit"};
+
+    // Rows take at least 8 input bytes ("1,1,1,1\n"), or 7 for the last line
+    private static final int MIN_ROW_BYTES = 8;
+    // Longest text line: "STANDARD\n" and "REJECTED\n"
+    private static final int MAX_LINE_BYTES = 9;
+
+    private final int chunkSize;
+    private final int slots;
+    private final ClassificationMetrics metrics;
+    private final Supplier<? extends WaitStrategy> waitStrategies;
+
+    public PipelinedManifestClassifier() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_SLOTS, null);
+    }
+
+    /**
+     * @param chunkSize size of the chunks read into the slots, which also bounds the length of a line
+     * @param slots number of slots in the ring, a power of two
+     * @param metrics destination of the package counters, or null
+     */
+    public PipelinedManifestClassifier(int chunkSize, int slots, ClassificationMetrics metrics) {
+        this(chunkSize, slots, metrics, BlockingWaitStrategy::new);
+    }
+
+    /**
+     * @param chunkSize size of the chunks read into the slots, which also bounds the length of a line
+     * @param slots number of slots in the ring, a power of two
+     * @param metrics destination of the package counters, or null
+     * @param waitStrategies how the stages wait for each other, called once per run
+     */
+    public PipelinedManifestClassifier(int chunkSize, int slots, ClassificationMetrics metrics,
+                                       Supplier<? extends WaitStrategy> waitStrategies) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        if (slots <= 0 || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Slot count must be a power of two: " + slots);
+        }
+        this.chunkSize = chunkSize;
+        this.slots = slots;
+        this.metrics = metrics;
+        this.waitStrategies = waitStrategies;
+    }
+
+    /**
+     * Classifies a manifest stream, writing one result per line.
+     *
+     * @param input manifest stream, not closed by the classifier
+     * @param output destination of the stack types, one per line
+     * @return number of classified packages
+     * @throws IllegalArgumentException if a line is invalid; the message carries its 1-based line number
+     * @throws IOException if reading or writing fails
+     */
+    public long classify(InputStream input, OutputStream output) throws IOException {
+        return new Run(slot -> {
+            int size = 0;
+            byte[] bytes = slot.output;
+            for (int i = 0; i < slot.batch.size(); i++) {
+                byte[] line = ManifestClassifier.LINES[slot.ordinals[i]];
+                System.arraycopy(line, 0, bytes, size, line.length);
+                size += line.length;
+            }
+            output.write(bytes, 0, size);
+        }, output).execute(input);
+    }
+
+    /**
+     * Classifies a manifest stream into packed results.
+     *
+     * @param input manifest stream, not closed by the classifier
+     * @param output destination of the stack types; finishing it is left to the caller
+     * @return number of classified packages
+     * @throws IllegalArgumentException if a line is invalid; the message carries its 1-based line number
+     * @throws IOException if reading or writing fails
+     */
+    public long classify(InputStream input, PackedStackTypeWriter output) throws IOException {
+        return new Run(slot -> output.write(slot.ordinals, 0, slot.batch.size()), output).execute(input);
+    }
+
+    /**
+     * Event of the ring: a chunk of lines and what every stage made of it.
+     */
+    private final class Slot {
+
+        // Read
+        final byte[] input = new byte[chunkSize];
+        final ByteBuffer inputBuffer = ByteBuffer.wrap(input);
+        int inputLength;
+        boolean tooLong;
+        // Parse
+        final int[] widths;
+        final int[] heights;
+        final int[] lengths;
+        final double[] masses;
+        int parsed;
+        long linesBefore;
+        // Validate and classify
+        final PackageBatch batch;
+        final byte[] ordinals;
+        // Emit
+        final byte[] output;
+        // Set by the reader at the end of the input, or by the stage that found the first invalid line
+        boolean last;
+        IllegalArgumentException error;
+        // Reason of the invalid line, null when it is too long
+        ValidationError errorCode;
+
+        Slot() {
+            int rows = chunkSize / MIN_ROW_BYTES + 1;
+            widths = new int[rows];
+            heights = new int[rows];
+            lengths = new int[rows];
+            masses = new double[rows];
+            batch = new PackageBatch(rows);
+            ordinals = new byte[rows];
+            output = new byte[rows * MAX_LINE_BYTES];
+        }
+    }
+
+    /**
+     * Work of a stage on one slot.
+     */
+    @FunctionalInterface
+    private interface SlotHandler {
+        void handle(Slot slot) throws IOException;
+    }
+
+    /**
+     * State of one classification: the slots, the progress of every stage and the outcome.
+     */
+    private final class Run {
+
+        private final Slot[] ring = new Slot[slots];
+        private final int mask = slots - 1;
+        private final WaitStrategy waitStrategy = waitStrategies.get();
+        // Number of slots each stage is done with, by stage
+        private final Sequence[] progress = new Sequence[EMIT + 1];
+        private final SlotHandler emitter;
+        private final Flushable output;
+
+        // Stages before this one stop: the run failed, or a later stage found an invalid line
+        private volatile int haltedBelow;
+        private volatile Throwable failure;
+
+        // Owned by the parse stage
+        private final ManifestRowParser parser = new ManifestRowParser(0, false);
+        private Slot parsing;
+        private final RowHandler parsedRow = (width, height, length, mass) -> {
+            Slot slot = parsing;
+            int row = slot.parsed++;
+            slot.widths[row] = width;
+            slot.heights[row] = height;
+            slot.lengths[row] = length;
+            slot.masses[row] = mass;
+        };
+        private final InvalidRowHandler invalidRow = (lineNumber, error, line) -> {
+            parsing.errorCode = error;
+            return false;
+        };
+        // Owned by the emit stage, read after it ended
+        private long emitted;
+        private IllegalArgumentException lineError;
+        private ValidationError lineErrorCode;
+
+        Run(SlotHandler emitter, Flushable output) {
+            for (int i = 0; i < ring.length; i++) {
+                ring[i] = new Slot();
+            }
+            for (int i = 0; i < progress.length; i++) {
+                progress[i] = new Sequence();
+            }
+            this.emitter = emitter;
+            this.output = output;
+        }
+
+        long execute(InputStream input) throws IOException {
+            Thread[] threads = {
+                    start(PARSE, this::parse), start(VALIDATE, this::validate),
+                    start(CLASSIFY, this::classify), start(EMIT, this::emit)
+            };
+            try {
+                read(input);
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+            }
+            try {
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                fail(e);
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while classifying the manifest", e);
+            } finally {
+                output.flush();
+            }
+
+            Throwable cause = failure;
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            if (lineError != null) {
+                if (metrics != null && lineErrorCode != null) {
+                    metrics.recordParseError(lineErrorCode);
+                } else if (metrics != null) {
+                    metrics.recordParseError();
+                }
+                throw lineError;
+            }
+            return emitted;
+        }
+
+        /**
+         * Fills the slots with chunks of complete lines, keeping the incomplete last line for the next chunk.
+         */
+        private void read(InputStream input) throws IOException {
+            byte[] carry = new byte[chunkSize];
+            int carried = 0;
+            Sequence emittedSlots = progress[EMIT];
+            BooleanSupplier free = () -> progress[READ].getPlain() - emittedSlots.getAcquire() < ring.length
+                    || haltedBelow > READ;
+            for (long sequence = 0; ; sequence++) {
+                for (int attempt = 0; sequence - emittedSlots.getAcquire() >= ring.length; attempt++) {
+                    if (haltedBelow > READ) {
+                        return;
+                    }
+                    idle(attempt, free);
+                }
+                Slot slot = ring[(int) sequence & mask];
+                System.arraycopy(carry, 0, slot.input, 0, carried);
+                int filled = carried;
+                boolean endOfInput = false;
+                while (filled < chunkSize) {
+                    int read = input.read(slot.input, filled, chunkSize - filled);
+                    if (read < 0) {
+                        endOfInput = true;
+                        break;
+                    }
+                    filled += read;
+                }
+                int end = endOfInput ? filled : ParallelManifestClassifier.chunkEnd(slot.inputBuffer, filled);
+                carried = filled - end;
+                System.arraycopy(slot.input, end, carry, 0, carried);
+                slot.inputLength = end;
+                slot.tooLong = !endOfInput && end == 0;
+                slot.last = endOfInput || slot.tooLong;
+                publish(READ, sequence + 1);
+                if (slot.last) {
+                    return;
+                }
+            }
+        }
+
+        private void parse(Slot slot) throws IOException {
+            slot.parsed = 0;
+            slot.error = null;
+            slot.errorCode = null;
+            slot.linesBefore = parser.getLineNumber();
+            if (slot.tooLong) {
+                slot.error = new IllegalArgumentException("Line " + (slot.linesBefore + 1)
+                        + ": Line exceeds the maximum length of " + chunkSize + " bytes");
+                return;
+            }
+            parsing = slot;
+            try {
+                parser.parse(slot.inputBuffer, 0, slot.inputLength, true, parsedRow, invalidRow);
+            } catch (IllegalArgumentException e) {
+                stopAt(PARSE, slot, e);
+            }
+        }
+
+        private void validate(Slot slot) {
+            PackageBatch batch = slot.batch;
+            batch.clear();
+            for (int i = 0; i < slot.parsed; i++) {
+                ValidationError error = ValidationError.check(slot.widths[i], slot.heights[i], slot.lengths[i],
+                        slot.masses[i]);
+                if (error != null) {
+                    // Comes before any parse error of the slot
+                    slot.errorCode = error;
+                    stopAt(VALIDATE, slot, new IllegalArgumentException(
+                            "Line " + (slot.linesBefore + i + 1) + ": " + error.message(), error.toException()));
+                    return;
+                }
+                batch.add(slot.widths[i], slot.heights[i], slot.lengths[i], slot.masses[i]);
+            }
+        }
+
+        private void classify(Slot slot) {
+            ClassificationRules rules = RuleEngine.current();
+            PackageBatchClassifier.classify(slot.batch, slot.ordinals, rules);
+            if (metrics != null) {
+                metrics.recordBatch(slot.batch, slot.ordinals, rules);
+            }
+        }
+
+        private void emit(Slot slot) throws IOException {
+            emitter.handle(slot);
+            emitted += slot.batch.size();
+            if (slot.error != null) {
+                lineError = slot.error;
+                lineErrorCode = slot.errorCode;
+            }
+        }
+
+        private void stopAt(int stage, Slot slot, IllegalArgumentException error) {
+            slot.error = error;
+            slot.last = true;
+            halt(stage);
+        }
+
+        private Thread start(int stage, SlotHandler handler) {
+            return Thread.ofPlatform().name("manifest-" + STAGE_NAMES[stage]).daemon().start(() -> {
+                try {
+                    runStage(stage, handler);
+                } catch (Throwable e) {
+                    fail(e);
+                }
+            });
+        }
+
+        /**
+         * Handles every slot the previous stage is done with, up to the last one.
+         */
+        private void runStage(int stage, SlotHandler handler) throws IOException, InterruptedException {
+            Sequence upstream = progress[stage - 1];
+            Sequence done = progress[stage];
+            BooleanSupplier ready = () -> upstream.getAcquire() > done.getPlain() || haltedBelow > stage;
+            long next = 0;
+            while (true) {
+                long available;
+                for (int attempt = 0; (available = upstream.getAcquire()) <= next; attempt++) {
+                    if (haltedBelow > stage) {
+                        return;
+                    }
+                    waitStrategy.idle(attempt, ready);
+                }
+                for (; next < available; next++) {
+                    Slot slot = ring[(int) next & mask];
+                    handler.handle(slot);
+                    if (slot.last) {
+                        publish(stage, next + 1);
+                        return;
+                    }
+                }
+                publish(stage, next);
+            }
+        }
+
+        private void publish(int stage, long slotsDone) {
+            progress[stage].setRelease(slotsDone);
+            waitStrategy.signal();
+        }
+
+        private void idle(int attempt, BooleanSupplier ready) throws IOException {
+            try {
+                waitStrategy.idle(attempt, ready);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while classifying the manifest", e);
+            }
+        }
+
+        private synchronized void halt(int stage) {
+            haltedBelow = Math.max(haltedBelow, stage);
+            waitStrategy.signal();
+        }
+
+        private void fail(Throwable e) {
+            synchronized (this) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            halt(EMIT + 1);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import java.io.IOException;
+
+/**
+ * Receives the validated rows of a manifest as primitives, in input order.
+ */
+@FunctionalInterface
+public interface RowHandler {
+
+    /**
+     * Handles one validated manifest row.
+     *
+     * @param width box width in cm
+     * @param height box height in cm
+     * @param length box length in cm
+     * @param mass box mass in grams
+     * @throws IOException if the handler fails to write its result
+     */
+    void onRow(int width, int height, int length, double mass) throws IOException;
+}
@@ -0,0 +1,72 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a manifest from a stream, such as stdin, in fixed-size chunks parsed directly from the bytes.
+ */
+public class StreamManifestReader implements ManifestReader {
+
+    /**
+     * Default size of a chunk, in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final InputStream input;
+    private final int chunkSize;
+    private final long linesBefore;
+
+    public StreamManifestReader(InputStream input) {
+        this(input, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param input manifest stream, not closed by the reader
+     * @param chunkSize size of the read buffer, which also bounds the length of a line
+     */
+    public StreamManifestReader(InputStream input, int chunkSize) {
+        this(input, chunkSize, 0);
+    }
+
+    /**
+     * @param input manifest stream, not closed by the reader
+     * @param chunkSize size of the read buffer, which also bounds the length of a line
+     * @param linesBefore number of lines before the stream, counted in the line numbers of errors
+     */
+    public StreamManifestReader(InputStream input, int chunkSize, long linesBefore) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.input = input;
+        this.chunkSize = chunkSize;
+        this.linesBefore = linesBefore;
+    }
+
+    @Override
+    public long read(RowHandler handler, InvalidRowHandler invalidRows) throws IOException {
+        ManifestRowParser parser = new ManifestRowParser(linesBefore);
+        byte[] chunk = new byte[chunkSize];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        int filled = 0;
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            int read = input.read(chunk, filled, chunk.length - filled);
+            endOfInput = read < 0;
+            if (!endOfInput) {
+                filled += read;
+            }
+
+            int consumed = parser.parse(buffer, 0, filled, endOfInput, handler, invalidRows);
+            if (consumed == 0 && filled == chunk.length) {
+                throw new IllegalArgumentException("Line " + (parser.getLineNumber() + 1)
+                        + ": Line exceeds the maximum length of " + chunkSize + " bytes");
+            }
+            // Keep the incomplete last line for the next read
+            System.arraycopy(chunk, consumed, chunk, 0, filled - consumed);
+            filled -= consumed;
+        }
+        return parser.getLineNumber() - linesBefore;
+    }
+}
@@ -0,0 +1,198 @@
+package ai.thoughtful.platform.factory.metrics;
+
+import ai.thoughtful.platform.factory.PackageClassification;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.model.ValidationError;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import ai.thoughtful.platform.factory.stats.StatisticsRecorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of classified packages per {@link StackType} and per {@link PackageClassification}, parse errors per
+ * {@link ValidationError}, and sort latencies per {@link StackType}, and optionally the distributions of a
+ * {@link StatisticsRecorder}.
+ *
+ * All counters are {@link LongAdder}s, so recording stays cheap when many threads classify at once.
+ */
+public class ClassificationMetrics {
+
+    private static final StackType[] STACK_TYPES = StackType.values();
+    private static final PackageClassification[] CLASSIFICATIONS = PackageClassification.values();
+    private static final ValidationError[] VALIDATION_ERRORS = ValidationError.values();
+
+    private final LongAdder[] stackTypes = new LongAdder[STACK_TYPES.length];
+    private final LongAdder[] classifications = new LongAdder[CLASSIFICATIONS.length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[STACK_TYPES.length];
+    private final LongAdder parseErrors = new LongAdder();
+    private final LongAdder[] validationErrors = new LongAdder[VALIDATION_ERRORS.length];
+    private final StatisticsRecorder statistics;
+
+    public ClassificationMetrics() {
+        this(null);
+    }
+
+    /**
+     * @param statistics recorder of the package statistics, or null to count packages only
+     */
+    public ClassificationMetrics(StatisticsRecorder statistics) {
+        this.statistics = statistics;
+        for (int i = 0; i < STACK_TYPES.length; i++) {
+            stackTypes[i] = new LongAdder();
+            latencies[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < CLASSIFICATIONS.length; i++) {
+            classifications[i] = new LongAdder();
+        }
+        for (int i = 0; i < VALIDATION_ERRORS.length; i++) {
+            validationErrors[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one sorted package.
+     *
+     * @param classificationMask classifications of the package, see {@link PackageClassification#mask()}
+     * @param stackType stack of the package
+     * @param latencyNanos time spent sorting it
+     */
+    public void recordSort(int classificationMask, StackType stackType, long latencyNanos) {
+        stackTypes[stackType.ordinal()].increment();
+        recordClassifications(classificationMask, 1);
+        latencies[stackType.ordinal()].record(latencyNanos);
+    }
+
+    /**
+     * Records one sorted package with its measurements, which also feed the statistics.
+     *
+     * @param rules rules the package was sorted with
+     * @param stackType stack of the package
+     * @param latencyNanos time spent sorting it
+     */
+    public void recordSort(int width, int height, int length, double mass, ClassificationRules rules,
+                           StackType stackType, long latencyNanos) {
+        recordSort(rules.classifyMask(width, height, length, mass), stackType, latencyNanos);
+        if (statistics != null) {
+            statistics.record(width, height, length, mass, rules);
+        }
+    }
+
+    /**
+     * Records the packages of a classified batch, without latencies.
+     *
+     * @param batch classified packages
+     * @param ordinals their {@link StackType} ordinals
+     * @param rules rules the batch was classified with
+     */
+    public void recordBatch(PackageBatch batch, byte[] ordinals, ClassificationRules rules) {
+        int[] stackCounts = new int[STACK_TYPES.length];
+        int[] maskCounts = new int[1 << CLASSIFICATIONS.length];
+        for (int i = 0; i < batch.size(); i++) {
+            stackCounts[ordinals[i]]++;
+            maskCounts[rules.classifyMask(batch.width(i), batch.height(i), batch.length(i), batch.mass(i))]++;
+        }
+        for (int i = 0; i < stackCounts.length; i++) {
+            stackTypes[i].add(stackCounts[i]);
+        }
+        for (int mask = 1; mask < maskCounts.length; mask++) {
+            recordClassifications(mask, maskCounts[mask]);
+        }
+        if (statistics != null) {
+            statistics.recordBatch(batch, ordinals, rules);
+        }
+    }
+
+    /**
+     * Records a package that could not be parsed or validated.
+     */
+    public void recordParseError() {
+        parseErrors.increment();
+    }
+
+    /**
+     * Records a package that could not be parsed or validated, with the reason.
+     */
+    public void recordParseError(ValidationError error) {
+        parseErrors.increment();
+        validationErrors[error.ordinal()].increment();
+    }
+
+    public long getPackages(StackType stackType) {
+        return stackTypes[stackType.ordinal()].sum();
+    }
+
+    public long getPackages(PackageClassification classification) {
+        return classifications[classification.ordinal()].sum();
+    }
+
+    /**
+     * @return all parse errors, including those recorded without a reason, such as overlong lines
+     */
+    public long getParseErrors() {
+        return parseErrors.sum();
+    }
+
+    public long getParseErrors(ValidationError error) {
+        return validationErrors[error.ordinal()].sum();
+    }
+
+    /**
+     * @return recorder of the package statistics, or null when they are not recorded
+     */
+    public StatisticsRecorder getStatistics() {
+        return statistics;
+    }
+
+    public LatencyHistogram.Snapshot getLatencies(StackType stackType) {
+        return latencies[stackType.ordinal()].snapshot();
+    }
+
+    /**
+     * Appends the counters, the latency summaries and the statistics in the Prometheus text exposition format.
+     */
+    public void appendPrometheusText(StringBuilder text) {
+        text.append("# TYPE package_classifier_packages_total counter\n");
+        for (StackType stackType : STACK_TYPES) {
+            text.append("package_classifier_packages_total{stack_type=\"").append(stackType.name()).append("\"} ")
+                    .append(getPackages(stackType)).append('\n');
+        }
+        text.append("# TYPE package_classifier_classifications_total counter\n");
+        for (PackageClassification classification : CLASSIFICATIONS) {
+            text.append("package_classifier_classifications_total{classification=\"").append(classification.name())
+                    .append("\"} ").append(getPackages(classification)).append('\n');
+        }
+        text.append("# TYPE package_classifier_parse_errors_total counter\n")
+                .append("package_classifier_parse_errors_total ").append(getParseErrors()).append('\n')
+                .append("# TYPE package_classifier_validation_errors_total counter\n");
+        for (ValidationError error : VALIDATION_ERRORS) {
+            text.append("package_classifier_validation_errors_total{error=\"").append(error.name()).append("\"} ")
+                    .append(getParseErrors(error)).append('\n');
+        }
+        text.append("# TYPE package_classifier_sort_latency_seconds summary\n");
+        for (StackType stackType : STACK_TYPES) {
+            getLatencies(stackType).appendPrometheusSummary(text, "package_classifier_sort_latency_seconds",
+                    "stack_type=\"" + stackType.name() + "\"");
+        }
+        if (statistics != null) {
+            statistics.appendPrometheusText(text);
+        }
+    }
+
+    /**
+     * @return the counters in the Prometheus text exposition format
+     */
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+        appendPrometheusText(text);
+        return text.toString();
+    }
+
+    private void recordClassifications(int classificationMask, long count) {
+        for (PackageClassification classification : CLASSIFICATIONS) {
+            if ((classificationMask & classification.mask()) != 0) {
+                classifications[classification.ordinal()].add(count);
+            }
+        }
+    }
+}
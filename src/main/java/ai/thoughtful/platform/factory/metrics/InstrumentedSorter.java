@@ -0,0 +1,52 @@
+package ai.thoughtful.platform.factory.metrics;
+
+import ai.thoughtful.platform.factory.PackageSorter;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.model.ValidationError;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
+
+/**
+ * Sorter recording the stack, the classifications and the latency of every package sorted by another sorter.
+ */
+public class InstrumentedSorter implements PackageSorter {
+
+    private final PackageSorter delegate;
+    private final ClassificationMetrics metrics;
+
+    /**
+     * @param delegate sorter doing the work, such as {@link PackageSorter#DIRECT} or a shape cache
+     * @param metrics destination of the measurements
+     */
+    public InstrumentedSorter(PackageSorter delegate, ClassificationMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sorts a package; invalid packages count as parse errors.
+     */
+    @Override
+    public StackType sort(int width, int height, int length, double mass) {
+        long start = System.nanoTime();
+        StackType stackType;
+        try {
+            stackType = delegate.sort(width, height, length, mass);
+        } catch (IllegalArgumentException e) {
+            ValidationError error = ValidationError.check(width, height, length, mass);
+            if (error != null) {
+                metrics.recordParseError(error);
+            } else {
+                metrics.recordParseError();
+            }
+            throw e;
+        }
+        long latency = System.nanoTime() - start;
+        // The latency covers the sort only, not the bookkeeping of the classifications and statistics
+        metrics.recordSort(width, height, length, mass, RuleEngine.current(), stackType, latency);
+        return stackType;
+    }
+
+    public ClassificationMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,143 @@
+package ai.thoughtful.platform.factory.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of latencies in nanoseconds with log-linear buckets, in the style of HdrHistogram.
+ *
+ * Values below 64 ns have their own bucket; above, every power of two is split into 32 buckets, so a reported
+ * percentile is at most about 3% above the recorded value. Values from about 18 minutes (2^40 ns) on share the
+ * last bucket. Every bucket is a {@link LongAdder}, so concurrent recording does not contend.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_TRACKABLE = (1L << 40) - 1;
+    private static final int BUCKETS = index(MAX_TRACKABLE) + 1;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param nanos latency to record, negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[index(Math.min(value, MAX_TRACKABLE))].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return a copy of the current counts, for consistent percentiles
+     */
+    public Snapshot snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            count += snapshot[i];
+        }
+        return new Snapshot(snapshot, count, sum.sum(), max.get());
+    }
+
+    private static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    // Highest value of a bucket
+    private static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - (long) shift * SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Immutable copy of a histogram.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * @param quantile quantile between 0 and 1, such as 0.99
+         * @return the highest latency of the bucket holding the quantile, capped by the maximum; 0 when empty
+         */
+        public long valueAt(double quantile) {
+            if (quantile < 0 || quantile > 1) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1");
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), max);
+                }
+            }
+            return 0;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        /**
+         * @return sum of the recorded latencies, in nanoseconds
+         */
+        public long sum() {
+            return sum;
+        }
+
+        /**
+         * @return highest recorded latency, in nanoseconds
+         */
+        public long max() {
+            return max;
+        }
+
+        /**
+         * Appends the snapshot as a Prometheus summary with the p50, p99 and p999 quantiles, in seconds.
+         *
+         * @param text destination
+         * @param name metric name
+         * @param labels labels without braces, such as {@code stack_type="STANDARD"}, or an empty string
+         */
+        public void appendPrometheusSummary(StringBuilder text, String name, String labels) {
+            String separator = labels.isEmpty() ? "" : labels + ",";
+            for (double quantile : new double[]{0.5, 0.99, 0.999}) {
+                text.append(name).append('{').append(separator).append("quantile=\"").append(quantile).append("\"} ")
+                        .append(valueAt(quantile) / 1e9).append('\n');
+            }
+            String suffixLabels = labels.isEmpty() ? "" : "{" + labels + "}";
+            text.append(name).append("_sum").append(suffixLabels).append(' ').append(sum / 1e9).append('\n')
+                    .append(name).append("_count").append(suffixLabels).append(' ').append(count).append('\n');
+        }
+    }
+}
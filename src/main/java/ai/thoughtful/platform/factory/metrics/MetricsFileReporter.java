@@ -0,0 +1,79 @@
+package ai.thoughtful.platform.factory.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Periodically writes metrics in the Prometheus text format to a local file, for example for the node exporter
+ * textfile collector.
+ *
+ * The file is replaced atomically, so readers never see a partial report. A last report is written on close.
+ */
+public final class MetricsFileReporter implements AutoCloseable {
+
+    /**
+     * Default time between two reports.
+     */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(10);
+
+    private final Path file;
+    private final Supplier<String> report;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Starts reporting.
+     *
+     * @param file destination file
+     * @param interval time between two reports
+     * @param report supplier of the report text
+     */
+    public MetricsFileReporter(Path file, Duration interval, Supplier<String> report) {
+        this.file = file.toAbsolutePath();
+        this.report = report;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                runnable -> Thread.ofPlatform().name("metrics-reporter").daemon().unstarted(runnable));
+        scheduler.scheduleAtFixedRate(this::writeQuietly, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a report now.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void write() throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temporary, report.get(), StandardCharsets.UTF_8);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stops reporting and writes a last report.
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        write();
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException e) {
+            System.err.println("Error: Cannot write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+}
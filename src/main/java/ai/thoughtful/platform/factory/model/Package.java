@@ -13,6 +13,15 @@ public record Package(
     public Package {
         Preconditions.checkNotNull(dimension,
                 "Can't create a package without dimension");
+        checkMass(mass);
+    }
+
+    /**
+     * Validates a mass without creating a Package.
+     *
+     * @throws IllegalArgumentException if the mass is not positive
+     */
+    public static void checkMass(double mass) {
         Preconditions.checkArgument(mass > 0,
                 "Can't create package with invalid mass");
     }
@@ -8,9 +8,19 @@ public record PackageDimension(
         int length
 ) {
     public PackageDimension {
+        checkDimensions(height, width, length);
+    }
+
+    /**
+     * Validates dimensions without creating a PackageDimension.
+     *
+     * @throws IllegalArgumentException if any dimension is not positive
+     */
+    public static void checkDimensions(int height, int width, int length) {
         Preconditions.checkArgument(width > 0 && height > 0 && length > 0,
                 "Can't create package with invalid dimensions");
     }
+
     public int getVolume() {
         return width * length * height;
     }
@@ -0,0 +1,13 @@
+package ai.thoughtful.platform.factory.model;
+
+public record PackageMeasurement(
+        // The width of the package in cm
+        int width,
+        // The height of the package in cm
+        int height,
+        // The length of the package in cm
+        int length,
+        // The mass of the package in grams
+        double mass
+) {
+}
@@ -0,0 +1,44 @@
+package ai.thoughtful.platform.factory.model;
+
+/**
+ * Outcome of parsing a package measurement without exceptions: the measurement, or the reason it is invalid.
+ *
+ * @param measurement the validated measurement, or null when invalid
+ * @param error the reason the input is invalid, or null when valid
+ */
+public record ParseResult(PackageMeasurement measurement, ValidationError error) {
+
+    private static final ParseResult[] INVALID = new ParseResult[ValidationError.values().length];
+
+    static {
+        for (ValidationError error : ValidationError.values()) {
+            INVALID[error.ordinal()] = new ParseResult(null, error);
+        }
+    }
+
+    public static ParseResult valid(PackageMeasurement measurement) {
+        return new ParseResult(measurement, null);
+    }
+
+    /**
+     * @return the shared result of an input with this error
+     */
+    public static ParseResult invalid(ValidationError error) {
+        return INVALID[error.ordinal()];
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * @return the measurement
+     * @throws IllegalArgumentException with the message of the error when the input is invalid
+     */
+    public PackageMeasurement orThrow() {
+        if (error != null) {
+            throw error.toException();
+        }
+        return measurement;
+    }
+}
@@ -0,0 +1,57 @@
+package ai.thoughtful.platform.factory.model;
+
+/**
+ * Reason a package measurement is rejected, reported without throwing on the hot paths of the batch and server
+ * modes. The messages are the ones of the exceptions thrown by the parsing and validation API.
+ */
+public enum ValidationError {
+
+    // the input line or body is blank
+    EMPTY("Input cannot be empty"),
+    // the input does not have exactly width, height, length and mass
+    WRONG_FIELD_COUNT("Input must have exactly 4 comma-separated values: width,height,length,mass"),
+    // a dimension is not an integer or the mass is not a number
+    NOT_A_NUMBER("All values must be valid numbers. Width, height, and length must be integers, mass can be decimal."),
+    // a dimension or the mass is zero or negative
+    NON_POSITIVE("All dimensions and mass must be positive values"),
+    // the mass is NaN or infinite
+    NON_FINITE("Mass must be a finite number"),
+    // a JSON package is not a flat object with the four members
+    MALFORMED_JSON("Package must be a JSON object with numeric width, height, length and mass");
+
+    private final String message;
+
+    ValidationError(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Applies the input validation rules to already parsed values.
+     *
+     * @param width box width in cm
+     * @param height box height in cm
+     * @param length box length in cm
+     * @param mass box mass in grams
+     * @return the first rule the values break, or null when they are valid
+     */
+    public static ValidationError check(int width, int height, int length, double mass) {
+        if (width <= 0 || height <= 0 || length <= 0 || mass <= 0) {
+            return NON_POSITIVE;
+        }
+        if (!Double.isFinite(mass)) {
+            return NON_FINITE;
+        }
+        return null;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    /**
+     * @return the exception the throwing API reports for this error
+     */
+    public IllegalArgumentException toException() {
+        return new IllegalArgumentException(message);
+    }
+}
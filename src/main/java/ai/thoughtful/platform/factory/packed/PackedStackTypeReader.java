@@ -0,0 +1,180 @@
+package ai.thoughtful.platform.factory.packed;
+
+import ai.thoughtful.platform.factory.StackType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Reads classification results in the {@link PackedStackTypes} format, e.g. from a memory-mapped file.
+ *
+ * Counting works a byte (four packages) at a time through lookup tables, without decoding single packages.
+ * Instances are immutable and thread-safe.
+ */
+public final class PackedStackTypeReader {
+
+    private static final StackType[] STACK_TYPES = StackType.values();
+
+    // Number of entries of each StackType in each byte value, pads match none
+    private static final byte[][] COUNTS = new byte[STACK_TYPES.length][256];
+
+    static {
+        for (int value = 0; value < 256; value++) {
+            for (int entry = 0; entry < PackedStackTypes.PACKAGES_PER_BYTE; entry++) {
+                int ordinal = (value >>> (2 * entry)) & PackedStackTypes.MASK;
+                if (ordinal < STACK_TYPES.length) {
+                    COUNTS[ordinal][value]++;
+                }
+            }
+        }
+    }
+
+    private final ByteBuffer data;
+    private final long size;
+
+    private PackedStackTypeReader(ByteBuffer data) {
+        this.data = data;
+        this.size = countPackages(data);
+    }
+
+    /**
+     * Memory-maps a packed results file.
+     *
+     * @param path file written by {@link PackedStackTypeWriter}
+     * @return reader of the file
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalArgumentException if the file is not packed results
+     */
+    public static PackedStackTypeReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Packed results larger than 2 GB are not supported: " + path);
+            }
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param buffer packed results from the header on, between its position and limit
+     * @return reader of the buffer
+     * @throws IllegalArgumentException if the buffer does not hold packed results
+     */
+    public static PackedStackTypeReader of(ByteBuffer buffer) {
+        ByteBuffer packed = buffer.slice();
+        if (packed.remaining() < PackedStackTypes.HEADER_SIZE) {
+            throw new IllegalArgumentException("Not packed results: missing header");
+        }
+        for (int i = 0; i < PackedStackTypes.MAGIC.length; i++) {
+            if (packed.get(i) != PackedStackTypes.MAGIC[i]) {
+                throw new IllegalArgumentException("Not packed results: invalid magic");
+            }
+        }
+        if (packed.get(4) != PackedStackTypes.VERSION) {
+            throw new IllegalArgumentException("Unsupported packed results version: " + packed.get(4));
+        }
+        if (packed.get(5) != PackedStackTypes.BITS_PER_PACKAGE) {
+            throw new IllegalArgumentException("Unsupported bits per package: " + packed.get(5));
+        }
+        return new PackedStackTypeReader(packed.slice(PackedStackTypes.HEADER_SIZE,
+                packed.remaining() - PackedStackTypes.HEADER_SIZE));
+    }
+
+    /**
+     * @return number of packages
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @param index index of a package, in classification order
+     * @return the stack of the package
+     * @throws IndexOutOfBoundsException if there is no such package
+     */
+    public StackType get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Package " + index + " of " + size);
+        }
+        int value = data.get((int) (index / PackedStackTypes.PACKAGES_PER_BYTE));
+        int ordinal = (value >>> (2 * (int) (index % PackedStackTypes.PACKAGES_PER_BYTE))) & PackedStackTypes.MASK;
+        if (ordinal >= STACK_TYPES.length) {
+            throw new IllegalArgumentException("Corrupt packed results at package " + index);
+        }
+        return STACK_TYPES[ordinal];
+    }
+
+    /**
+     * @return number of packages with the given stack
+     */
+    public long count(StackType stackType) {
+        byte[] counts = COUNTS[stackType.ordinal()];
+        long count = 0;
+        for (int i = 0; i < data.limit(); i++) {
+            count += counts[data.get(i) & 0xFF];
+        }
+        return count;
+    }
+
+    /**
+     * @return number of packages of every stack, in one pass
+     */
+    public Map<StackType, Long> counts() {
+        long[] counts = new long[STACK_TYPES.length];
+        for (int i = 0; i < data.limit(); i++) {
+            int value = data.get(i) & 0xFF;
+            for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+                counts[ordinal] += COUNTS[ordinal][value];
+            }
+        }
+        Map<StackType, Long> result = new EnumMap<>(StackType.class);
+        for (StackType stackType : STACK_TYPES) {
+            result.put(stackType, counts[stackType.ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * Reports the index of every package with the given stack, in order, skipping the bytes without any.
+     *
+     * @param stackType stack to filter on
+     * @param consumer receiver of the package indexes
+     */
+    public void forEachIndexOf(StackType stackType, LongConsumer consumer) {
+        byte[] counts = COUNTS[stackType.ordinal()];
+        int ordinal = stackType.ordinal();
+        for (int i = 0; i < data.limit(); i++) {
+            int value = data.get(i) & 0xFF;
+            if (counts[value] == 0) {
+                continue;
+            }
+            for (int entry = 0; entry < PackedStackTypes.PACKAGES_PER_BYTE; entry++) {
+                if (((value >>> (2 * entry)) & PackedStackTypes.MASK) == ordinal) {
+                    consumer.accept((long) i * PackedStackTypes.PACKAGES_PER_BYTE + entry);
+                }
+            }
+        }
+    }
+
+    private static long countPackages(ByteBuffer data) {
+        int bytes = data.limit();
+        if (bytes == 0) {
+            return 0;
+        }
+        // Only the last byte may end with pads
+        int last = data.get(bytes - 1) & 0xFF;
+        int pads = 0;
+        for (int entry = PackedStackTypes.PACKAGES_PER_BYTE - 1; entry > 0; entry--) {
+            if (((last >>> (2 * entry)) & PackedStackTypes.MASK) != PackedStackTypes.PAD) {
+                break;
+            }
+            pads++;
+        }
+        return (long) bytes * PackedStackTypes.PACKAGES_PER_BYTE - pads;
+    }
+}
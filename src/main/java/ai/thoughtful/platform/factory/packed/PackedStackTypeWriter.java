@@ -0,0 +1,158 @@
+package ai.thoughtful.platform.factory.packed;
+
+import ai.thoughtful.platform.factory.StackType;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes classification results in the {@link PackedStackTypes} format.
+ *
+ * The header is written on creation and the last, partially filled byte by {@link #finish()} or
+ * {@link #close()}, so a stream missing them is incomplete. Not thread-safe.
+ */
+public final class PackedStackTypeWriter implements Flushable, Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final OutputStream output;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int buffered;
+    // Entries of the byte being filled, from the least significant bits
+    private int pending;
+    private int pendingCount;
+    private long count;
+    private boolean finished;
+
+    /**
+     * @param output destination of the header and the packed results
+     * @throws IOException if the header cannot be written
+     */
+    public PackedStackTypeWriter(OutputStream output) throws IOException {
+        this.output = output;
+        output.write(PackedStackTypes.header());
+    }
+
+    /**
+     * Appends the result of one package.
+     */
+    public void write(StackType stackType) throws IOException {
+        append(stackType.ordinal());
+    }
+
+    /**
+     * Appends the results of several packages.
+     *
+     * @param ordinals {@link StackType} ordinals
+     * @param offset index of the first ordinal
+     * @param length number of ordinals
+     */
+    public void write(byte[] ordinals, int offset, int length) throws IOException {
+        checkNotFinished();
+        int index = offset;
+        int end = offset + length;
+        // Complete the current byte, then pack four ordinals per byte
+        while (index < end && pendingCount != 0) {
+            append(ordinals[index++]);
+        }
+        while (end - index >= PackedStackTypes.PACKAGES_PER_BYTE) {
+            if (buffered == buffer.length) {
+                drain();
+            }
+            buffer[buffered++] = (byte) (ordinal(ordinals[index])
+                    | ordinal(ordinals[index + 1]) << 2
+                    | ordinal(ordinals[index + 2]) << 4
+                    | ordinal(ordinals[index + 3]) << 6);
+            index += PackedStackTypes.PACKAGES_PER_BYTE;
+            count += PackedStackTypes.PACKAGES_PER_BYTE;
+        }
+        while (index < end) {
+            append(ordinals[index++]);
+        }
+    }
+
+    /**
+     * @return number of packages written
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Writes the buffered bytes, except the byte still being filled.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        output.flush();
+    }
+
+    /**
+     * Completes the results: pads and writes the last byte, then flushes, without closing the stream.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (pendingCount != 0) {
+            while (pendingCount < PackedStackTypes.PACKAGES_PER_BYTE) {
+                pending |= PackedStackTypes.PAD << (2 * pendingCount++);
+            }
+            appendByte();
+        }
+        flush();
+    }
+
+    /**
+     * Completes the results and closes the stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            output.close();
+        }
+    }
+
+    private void append(int ordinal) throws IOException {
+        checkNotFinished();
+        pending |= ordinal(ordinal) << (2 * pendingCount++);
+        count++;
+        if (pendingCount == PackedStackTypes.PACKAGES_PER_BYTE) {
+            appendByte();
+        }
+    }
+
+    private void appendByte() throws IOException {
+        if (buffered == buffer.length) {
+            drain();
+        }
+        buffer[buffered++] = (byte) pending;
+        pending = 0;
+        pendingCount = 0;
+    }
+
+    private void drain() throws IOException {
+        if (buffered != 0) {
+            output.write(buffer, 0, buffered);
+            buffered = 0;
+        }
+    }
+
+    private void checkNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("Packed results are already finished");
+        }
+    }
+
+    private static int ordinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= PackedStackTypes.PAD) {
+            throw new IllegalArgumentException("Not a StackType ordinal: " + ordinal);
+        }
+        return ordinal;
+    }
+}
@@ -0,0 +1,55 @@
+package ai.thoughtful.platform.factory.packed;
+
+import ai.thoughtful.platform.factory.StackType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary format of classification results: 2 bits per package instead of a text line.
+ *
+ * Layout: an 8-byte header with the magic "PKST", the format version, the bits per package and two zero bytes,
+ * then the {@link StackType} ordinals of the packages in order, four per byte starting from the least significant
+ * bits. Unused entries of the last byte hold {@link #PAD}, which is no StackType ordinal, so the package count
+ * follows from the file size without a count in the header and the results can be streamed.
+ */
+public final class PackedStackTypes {
+
+    /**
+     * First bytes of every packed results file.
+     */
+    public static final byte[] MAGIC = "PKST".getBytes(StandardCharsets.US_ASCII);
+
+    public static final byte VERSION = 1;
+
+    public static final byte BITS_PER_PACKAGE = 2;
+
+    public static final int HEADER_SIZE = 8;
+
+    public static final int PACKAGES_PER_BYTE = 8 / BITS_PER_PACKAGE;
+
+    /**
+     * Value of the unused entries of the last byte.
+     */
+    public static final int PAD = 3;
+
+    static final int MASK = (1 << BITS_PER_PACKAGE) - 1;
+
+    static {
+        if (StackType.values().length > PAD) {
+            throw new ExceptionInInitializerError("StackType ordinals no longer fit in " + BITS_PER_PACKAGE + " bits");
+        }
+    }
+
+    private PackedStackTypes() {}
+
+    /**
+     * @return the header of a packed results file
+     */
+    static byte[] header() {
+        byte[] header = new byte[HEADER_SIZE];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[4] = VERSION;
+        header[5] = BITS_PER_PACKAGE;
+        return header;
+    }
+}
@@ -0,0 +1,92 @@
+package ai.thoughtful.platform.factory.quarantine;
+
+import ai.thoughtful.platform.factory.manifest.InvalidRowHandler;
+import ai.thoughtful.platform.factory.model.ValidationError;
+
+import java.io.IOException;
+
+/**
+ * Aborts a manifest once its invalid rows pass a fraction of the lines read, handing the invalid rows before
+ * that to another handler, such as a {@link QuarantineWriter}.
+ *
+ * A few bad rows at the start of a manifest must not abort it, so the rate is only enforced once
+ * {@link #DEFAULT_MIN_LINES} lines were read, and once more on the whole manifest by {@link #checkTotal(long)}.
+ */
+public final class ErrorRateBreaker implements InvalidRowHandler {
+
+    /**
+     * Default number of lines read before the rate is enforced.
+     */
+    public static final long DEFAULT_MIN_LINES = 1000;
+
+    private final double maxErrorRate;
+    private final long minLines;
+    private final InvalidRowHandler delegate;
+    private long invalidRows;
+
+    /**
+     * @param maxErrorRate largest fraction of invalid lines, from 0 to 1
+     * @param delegate receiver of the invalid rows while the rate holds
+     */
+    public ErrorRateBreaker(double maxErrorRate, InvalidRowHandler delegate) {
+        this(maxErrorRate, DEFAULT_MIN_LINES, delegate);
+    }
+
+    /**
+     * @param maxErrorRate largest fraction of invalid lines, from 0 to 1
+     * @param minLines number of lines read before the rate is enforced
+     * @param delegate receiver of the invalid rows while the rate holds
+     */
+    public ErrorRateBreaker(double maxErrorRate, long minLines, InvalidRowHandler delegate) {
+        if (!(maxErrorRate >= 0 && maxErrorRate <= 1)) {
+            throw new IllegalArgumentException("Maximum error rate must be from 0 to 1: " + maxErrorRate);
+        }
+        if (minLines < 0) {
+            throw new IllegalArgumentException("Minimum line count must not be negative");
+        }
+        this.maxErrorRate = maxErrorRate;
+        this.minLines = minLines;
+        this.delegate = delegate;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the invalid rows pass the maximum rate; the message carries the line
+     *         number
+     */
+    @Override
+    public boolean onInvalidRow(long lineNumber, ValidationError error, String line) throws IOException {
+        invalidRows++;
+        if (lineNumber >= minLines && exceeded(lineNumber)) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + tripped(lineNumber));
+        }
+        return delegate.onInvalidRow(lineNumber, error, line);
+    }
+
+    /**
+     * Applies the rate to a whole manifest, whatever its length.
+     *
+     * @param lines number of lines of the manifest
+     * @throws IllegalArgumentException if the invalid rows pass the maximum rate
+     */
+    public void checkTotal(long lines) {
+        if (exceeded(lines)) {
+            throw new IllegalArgumentException(tripped(lines));
+        }
+    }
+
+    /**
+     * @return number of invalid rows seen so far
+     */
+    public long getInvalidRows() {
+        return invalidRows;
+    }
+
+    private boolean exceeded(long lines) {
+        return invalidRows > maxErrorRate * lines;
+    }
+
+    private String tripped(long lines) {
+        return "Invalid rows exceed the maximum error rate of " + maxErrorRate + " (" + invalidRows + " of "
+                + lines + " lines)";
+    }
+}
@@ -0,0 +1,192 @@
+package ai.thoughtful.platform.factory.quarantine;
+
+import ai.thoughtful.platform.factory.concurrent.RingBuffer;
+import ai.thoughtful.platform.factory.concurrent.SleepingWaitStrategy;
+import ai.thoughtful.platform.factory.concurrent.WaitStrategy;
+import ai.thoughtful.platform.factory.manifest.InvalidRowHandler;
+import ai.thoughtful.platform.factory.model.ValidationError;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Dead-letter output of a manifest: writes every invalid row as "line,error,row" on a background thread, so
+ * that the classification goes on with the next row.
+ *
+ * Rows go through a bounded {@link RingBuffer} and a {@link BufferedWriter}, so the classification thread only
+ * waits for the disk when the writer falls a whole ring behind: a dead-letter file never loses a row. The row is
+ * the last field, so it may contain commas itself.
+ */
+public final class QuarantineWriter implements InvalidRowHandler, AutoCloseable {
+
+    /**
+     * Default number of rows waiting to be written.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    // Rows the writer thread takes from the ring before releasing their slots
+    private static final int DRAIN_BATCH = 256;
+
+    private final RingBuffer<QuarantinedRow> rows;
+    // Sleeps rather than blocks, so that offering a row never takes a lock
+    private final WaitStrategy waitStrategy = new SleepingWaitStrategy();
+    private final BooleanSupplier takeable;
+    private final BooleanSupplier puttable;
+    private final Writer output;
+    private final Consumer<QuarantinedRow> writeRow = this::write;
+    private final Thread writer;
+
+    // Owned by the classification thread
+    private long quarantined;
+
+    // Owned by the writer thread, read after it ended
+    private IOException failure;
+
+    private volatile boolean closed;
+
+    /**
+     * Starts writing to a file, replacing it.
+     *
+     * @param file destination of the invalid rows
+     * @throws IOException if the file cannot be created
+     */
+    public QuarantineWriter(Path file) throws IOException {
+        this(Files.newOutputStream(file), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts writing to a stream.
+     *
+     * @param output destination of the invalid rows, closed by {@link #close()}
+     * @param capacity number of rows waiting to be written before {@link #onInvalidRow} waits, a power of two
+     */
+    public QuarantineWriter(OutputStream output, int capacity) {
+        this.rows = new RingBuffer<>(capacity, RingBuffer.ProducerType.SINGLE, waitStrategy);
+        this.takeable = () -> closed || !rows.isEmpty();
+        this.puttable = () -> rows.size() < rows.capacity();
+        this.output = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        this.writer = Thread.ofPlatform().name("quarantine-writer").daemon().start(this::drain);
+    }
+
+    /**
+     * Queues an invalid row for the quarantine file, waiting for room when the writer is a whole ring behind;
+     * only one thread may call it.
+     *
+     * @return true, the classification goes on with the next row
+     * @throws IOException if the writer thread stopped, or if interrupted while waiting
+     */
+    @Override
+    public boolean onInvalidRow(long lineNumber, ValidationError error, String line) throws IOException {
+        QuarantinedRow row = new QuarantinedRow(lineNumber, error, line);
+        try {
+            for (int attempt = 0; !rows.offer(row); attempt++) {
+                if (!writer.isAlive()) {
+                    throw new IOException("The quarantine writer stopped", failure);
+                }
+                waitStrategy.idle(attempt, puttable);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while quarantining line " + lineNumber);
+        }
+        quarantined++;
+        return true;
+    }
+
+    /**
+     * @return number of rows queued for the file
+     */
+    public long getQuarantined() {
+        return quarantined;
+    }
+
+    /**
+     * Writes the waiting rows and closes the output.
+     *
+     * @throws IOException if writing a row or closing the output failed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        boolean interrupted = false;
+        while (true) {
+            try {
+                writer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            output.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int attempt = 0; ; attempt++) {
+                if (rows.drainTo(writeRow, DRAIN_BATCH) > 0) {
+                    attempt = 0;
+                    continue;
+                }
+                if (closed) {
+                    // Rows offered before close are visible now
+                    if (rows.drainTo(writeRow, Integer.MAX_VALUE) == 0) {
+                        return;
+                    }
+                    continue;
+                }
+                if (attempt == 0 && failure == null) {
+                    // Idle: let the rows written so far reach the file
+                    output.flush();
+                }
+                waitStrategy.idle(attempt, takeable);
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(QuarantinedRow row) {
+        if (failure != null) {
+            // The output failed; drain the ring without writing so that close reports the first error
+            return;
+        }
+        try {
+            output.write(Long.toString(row.lineNumber()));
+            output.write(',');
+            output.write(row.error().name());
+            output.write(',');
+            output.write(row.line());
+            output.write('\n');
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Invalid row waiting to be written.
+     */
+    private record QuarantinedRow(long lineNumber, ValidationError error, String line) {}
+}
@@ -0,0 +1,198 @@
+package ai.thoughtful.platform.factory.rules;
+
+import ai.thoughtful.platform.factory.PackageClassification;
+import ai.thoughtful.platform.factory.StackType;
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Immutable set of classification rules: the BULKY and HEAVY thresholds and the stack of every combination of
+ * classifications.
+ *
+ * Rules are loaded from a properties file; missing keys keep their default value:
+ * <pre>
+ * bulky.volume.limit=1000000
+ * bulky.side.limit=150
+ * heavy.mass.limit=20000
+ * stack.none=STANDARD
+ * stack.bulky=SPECIAL
+ * stack.heavy=SPECIAL
+ * stack.bulky-heavy=REJECTED
+ * </pre>
+ *
+ * @param bulkyVolumeLimit volume in cm³ from which a package is bulky
+ * @param bulkySideLimit dimension in cm from which a package is bulky
+ * @param heavyMassLimit mass in grams from which a package is heavy
+ * @param noneStack stack of packages neither bulky nor heavy
+ * @param bulkyStack stack of packages bulky but not heavy
+ * @param heavyStack stack of packages heavy but not bulky
+ * @param bulkyHeavyStack stack of packages both bulky and heavy
+ */
+public record ClassificationRules(
+        int bulkyVolumeLimit,
+        int bulkySideLimit,
+        double heavyMassLimit,
+        StackType noneStack,
+        StackType bulkyStack,
+        StackType heavyStack,
+        StackType bulkyHeavyStack
+) {
+    /**
+     * Rules of {@link PackageClassification} and {@link StackType} without a configuration.
+     */
+    public static final ClassificationRules DEFAULT = new ClassificationRules(
+            PackageClassification.BULKY_LIMIT, PackageClassification.BULKY_SIDE_LIMIT,
+            PackageClassification.HEAVY_MASS_LIMIT,
+            StackType.STANDARD, StackType.SPECIAL, StackType.SPECIAL, StackType.REJECTED);
+
+    public static final String BULKY_VOLUME_LIMIT = "bulky.volume.limit";
+    public static final String BULKY_SIDE_LIMIT = "bulky.side.limit";
+    public static final String HEAVY_MASS_LIMIT = "heavy.mass.limit";
+    public static final String NONE_STACK = "stack.none";
+    public static final String BULKY_STACK = "stack.bulky";
+    public static final String HEAVY_STACK = "stack.heavy";
+    public static final String BULKY_HEAVY_STACK = "stack.bulky-heavy";
+
+    private static final Set<String> KEYS = Set.of(BULKY_VOLUME_LIMIT, BULKY_SIDE_LIMIT, HEAVY_MASS_LIMIT,
+            NONE_STACK, BULKY_STACK, HEAVY_STACK, BULKY_HEAVY_STACK);
+
+    private static final int BULKY = PackageClassification.BULKY.mask();
+    private static final int HEAVY = PackageClassification.HEAVY.mask();
+
+    public ClassificationRules {
+        Preconditions.checkArgument(bulkyVolumeLimit > 0 && bulkySideLimit > 0,
+                "Bulky limits must be positive");
+        Preconditions.checkArgument(heavyMassLimit > 0 && Double.isFinite(heavyMassLimit),
+                "Heavy mass limit must be a positive finite number");
+        Preconditions.checkArgument(noneStack != null && bulkyStack != null && heavyStack != null
+                && bulkyHeavyStack != null, "Every combination of classifications needs a stack");
+    }
+
+    /**
+     * Loads rules from a properties file.
+     *
+     * @param file properties file
+     * @return the rules, with defaults for missing keys
+     * @throws IllegalArgumentException if a key is unknown or a value is invalid
+     * @throws IOException if the file cannot be read
+     */
+    public static ClassificationRules load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Creates rules from properties.
+     *
+     * @param properties rule values, see the class documentation for the keys
+     * @return the rules, with defaults for missing keys
+     * @throws IllegalArgumentException if a key is unknown or a value is invalid
+     */
+    public static ClassificationRules fromProperties(Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            if (!KEYS.contains(key)) {
+                throw new IllegalArgumentException("Unknown rule: " + key);
+            }
+        }
+        return new ClassificationRules(
+                intValue(properties, BULKY_VOLUME_LIMIT, DEFAULT.bulkyVolumeLimit),
+                intValue(properties, BULKY_SIDE_LIMIT, DEFAULT.bulkySideLimit),
+                doubleValue(properties, HEAVY_MASS_LIMIT, DEFAULT.heavyMassLimit),
+                stackValue(properties, NONE_STACK, DEFAULT.noneStack),
+                stackValue(properties, BULKY_STACK, DEFAULT.bulkyStack),
+                stackValue(properties, HEAVY_STACK, DEFAULT.heavyStack),
+                stackValue(properties, BULKY_HEAVY_STACK, DEFAULT.bulkyHeavyStack));
+    }
+
+    /**
+     * Classifies already validated measurements into a bit mask of {@link PackageClassification#mask()} values,
+     * with the int volume arithmetic of {@link ai.thoughtful.platform.factory.model.PackageDimension#getVolume()}.
+     *
+     * @return combination of the classification masks, 0 when the package has no classification
+     */
+    public int classifyMask(int width, int height, int length, double mass) {
+        int mask = 0;
+        if (width * length * height >= bulkyVolumeLimit ||
+                length >= bulkySideLimit || height >= bulkySideLimit || width >= bulkySideLimit) {
+            mask |= BULKY;
+        }
+
+        if (mass >= heavyMassLimit) {
+            mask |= HEAVY;
+        }
+
+        return mask;
+    }
+
+    /**
+     * @param classificationMask combination of classification masks
+     * @return the stack of a package with those classifications
+     */
+    public StackType stackType(int classificationMask) {
+        if (classificationMask == (BULKY | HEAVY)) {
+            return bulkyHeavyStack;
+        }
+        if (classificationMask == BULKY) {
+            return bulkyStack;
+        }
+        if (classificationMask == HEAVY) {
+            return heavyStack;
+        }
+        return noneStack;
+    }
+
+    /**
+     * Classifies already validated measurements, without allocating.
+     *
+     * @return the stack of the package
+     */
+    public StackType classify(int width, int height, int length, double mass) {
+        return stackType(classifyMask(width, height, length, mass));
+    }
+
+    private static int intValue(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + key + ": " + value);
+        }
+    }
+
+    private static double doubleValue(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + key + ": " + value);
+        }
+    }
+
+    private static StackType stackValue(Properties properties, String key, StackType defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return StackType.valueOf(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid stack type for " + key + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ai.thoughtful.platform.factory.rules;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the classification rules in effect for the whole process.
+ *
+ * Rules are swapped atomically: a classification reads the current {@link ClassificationRules} once and applies
+ * that immutable snapshot to the end, so in-flight classifications never see a mix of old and new rules and never
+ * wait for a swap.
+ */
+public final class RuleEngine {
+
+    private static final AtomicReference<ClassificationRules> CURRENT =
+            new AtomicReference<>(ClassificationRules.DEFAULT);
+
+    private RuleEngine() {}
+
+    /**
+     * @return the rules in effect
+     */
+    public static ClassificationRules current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Replaces the rules in effect for every following classification.
+     *
+     * @param rules new rules
+     * @return the replaced rules
+     */
+    public static ClassificationRules install(ClassificationRules rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules cannot be null");
+        }
+        return CURRENT.getAndSet(rules);
+    }
+
+    /**
+     * Restores the {@link ClassificationRules#DEFAULT default rules}.
+     */
+    public static void reset() {
+        CURRENT.set(ClassificationRules.DEFAULT);
+    }
+}
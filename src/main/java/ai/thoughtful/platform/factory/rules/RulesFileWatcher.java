@@ -0,0 +1,91 @@
+package ai.thoughtful.platform.factory.rules;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Installs the rules of a properties file and installs them again whenever the file changes.
+ *
+ * Both in-place edits and atomic replacements (write a temporary file, then rename it) are picked up; atomic
+ * replacements are preferred, as an in-place edit may be read before it is complete. A file that cannot be loaded
+ * is reported on stderr and the rules in effect are kept.
+ */
+public class RulesFileWatcher implements AutoCloseable {
+
+    // Lets an editor finish writing before the file is read
+    private static final long SETTLE_MILLIS = 100;
+
+    private final Path file;
+    private final WatchService watchService;
+    private final Thread thread;
+    private final AtomicLong failedReloads = new AtomicLong();
+
+    /**
+     * Loads and installs the rules, then starts watching the file.
+     *
+     * @param file rules properties file
+     * @throws IllegalArgumentException if the rules are invalid
+     * @throws IOException if the file cannot be read or watched
+     */
+    public RulesFileWatcher(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        RuleEngine.install(ClassificationRules.load(this.file));
+
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = Thread.ofPlatform().name("rules-watcher").daemon().start(this::watch);
+    }
+
+    /**
+     * @return number of changes of the file that could not be loaded, the rules in effect being kept
+     */
+    public long getFailedReloads() {
+        return failedReloads.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= file.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    Thread.sleep(SETTLE_MILLIS);
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private void reload() {
+        try {
+            ClassificationRules rules = ClassificationRules.load(file);
+            if (!rules.equals(RuleEngine.install(rules))) {
+                System.err.println("Reloaded classification rules from " + file + ": " + rules);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: Cannot reload rules from " + file + ", keeping the current rules: "
+                    + e.getMessage());
+            failedReloads.incrementAndGet();
+        }
+    }
+}
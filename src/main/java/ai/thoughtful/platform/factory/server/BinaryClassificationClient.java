@@ -0,0 +1,155 @@
+package ai.thoughtful.platform.factory.server;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.manifest.ManifestReader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Client of the {@link BinaryClassificationServer}, for tests and local tooling.
+ *
+ * Requests are buffered and pipelined: call {@link #send} any number of times, then {@link #flush()}, and read the
+ * responses in request order with {@link #receive()}. Sending and receiving may happen on two different threads,
+ * which keeps both directions of the connection flowing for large pipelines.
+ */
+public class BinaryClassificationClient implements AutoCloseable {
+
+    private static final int BUFFERED_FRAMES = 4096;
+    private static final byte[] INVALID_LINE = "INVALID\n".getBytes(StandardCharsets.US_ASCII);
+
+    // Pre-encoded output lines, indexed by StackType ordinal
+    private static final byte[][] LINES = new byte[StackType.values().length][];
+
+    static {
+        for (StackType stackType : StackType.values()) {
+            LINES[stackType.ordinal()] = (stackType.name() + "\n").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final SocketChannel channel;
+    private final ByteBuffer requests = ByteBuffer.allocateDirect(BUFFERED_FRAMES * BinaryProtocol.REQUEST_SIZE);
+    private final ByteBuffer responses = ByteBuffer.allocateDirect(BUFFERED_FRAMES * BinaryProtocol.RESPONSE_SIZE);
+
+    public BinaryClassificationClient(InetSocketAddress address) throws IOException {
+        this.channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+        responses.flip();
+    }
+
+    /**
+     * Buffers a request, writing the buffer to the connection when it is full.
+     */
+    public void send(long correlationId, int width, int height, int length, double mass) throws IOException {
+        if (requests.remaining() < BinaryProtocol.REQUEST_SIZE) {
+            flush();
+        }
+        BinaryProtocol.writeRequest(requests, correlationId, width, height, length, mass);
+    }
+
+    /**
+     * Writes all buffered requests to the connection.
+     */
+    public void flush() throws IOException {
+        requests.flip();
+        while (requests.hasRemaining()) {
+            channel.write(requests);
+        }
+        requests.clear();
+    }
+
+    /**
+     * Blocks until the next response arrives.
+     *
+     * @return the next response, in request order
+     * @throws EOFException if the server closed the connection
+     */
+    public BinaryProtocol.Response receive() throws IOException {
+        while (responses.remaining() < BinaryProtocol.RESPONSE_SIZE) {
+            responses.compact();
+            int read = channel.read(responses);
+            responses.flip();
+            if (read < 0) {
+                throw new EOFException("Server closed the connection");
+            }
+        }
+        return BinaryProtocol.Response.read(responses);
+    }
+
+    /**
+     * Classifies a whole manifest remotely, writing one result per line like the local batch mode.
+     *
+     * Rows are pipelined with a running row count (1 for the first row read, 2 for the second...) as correlation id
+     * while a virtual thread receives the responses, so the number of requests in flight is only bounded by the
+     * socket buffers. The connection cannot be reused afterwards.
+     *
+     * @param input manifest rows
+     * @param output destination of the stack types, one per line; should be buffered
+     * @return number of classified packages
+     * @throws IllegalArgumentException if a line is invalid; rows before it are still written
+     * @throws IOException if the connection, reading or writing fails
+     */
+    public long classify(ManifestReader input, OutputStream output) throws IOException {
+        FutureTask<Long> receiver = new FutureTask<>(() -> {
+            long received = 0;
+            try {
+                while (true) {
+                    BinaryProtocol.Response response = receive();
+                    output.write(response.isValid() ? LINES[response.stackType().ordinal()] : INVALID_LINE);
+                    received++;
+                }
+            } catch (EOFException e) {
+                return received;
+            }
+        });
+        Thread.ofVirtual().name("binary-client-receiver").start(receiver);
+
+        long[] sent = new long[1];
+        try {
+            input.read((width, height, length, mass) -> send(++sent[0], width, height, length, mass));
+        } finally {
+            // Let the server answer everything sent so far, then close the connection
+            shutdownOutput();
+            long received = awaitReceiver(receiver);
+            output.flush();
+            if (received != sent[0]) {
+                throw new IOException("Received " + received + " responses for " + sent[0] + " requests");
+            }
+        }
+        return sent[0];
+    }
+
+    private static long awaitReceiver(FutureTask<Long> receiver) throws IOException {
+        try {
+            return receiver.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while receiving responses", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("Receiving responses failed", e.getCause());
+        }
+    }
+
+    /**
+     * Signals the server that no more requests follow, while responses can still be received.
+     */
+    public void shutdownOutput() throws IOException {
+        flush();
+        channel.shutdownOutput();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
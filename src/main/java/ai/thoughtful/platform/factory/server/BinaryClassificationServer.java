@@ -0,0 +1,126 @@
+package ai.thoughtful.platform.factory.server;
+
+import ai.thoughtful.platform.factory.PackageSorter;
+import ai.thoughtful.platform.factory.model.ValidationError;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * TCP server speaking the {@link BinaryProtocol} for high-rate dimensioning scanners.
+ *
+ * Each connection runs on its own virtual thread with blocking channel I/O. Every read drains all complete
+ * request frames from the buffer and answers them with a single write, so pipelined requests are classified
+ * in batches and answered in order.
+ */
+public class BinaryClassificationServer implements AutoCloseable {
+
+    private static final int FRAMES_PER_READ = 4096;
+
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService executor;
+    private final ServerMetrics metrics;
+    private final PackageSorter sorter;
+
+    /**
+     * Starts the server, classifying every package from scratch.
+     *
+     * @param address address to bind, port 0 picks a free port
+     * @param metrics counters updated by the server
+     * @throws IOException if the address cannot be bound
+     */
+    public BinaryClassificationServer(InetSocketAddress address, ServerMetrics metrics) throws IOException {
+        this(address, metrics, PackageSorter.DIRECT);
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @param address address to bind, port 0 picks a free port
+     * @param metrics counters updated by the server
+     * @param sorter sorter of the valid packages, such as a shape cache
+     * @throws IOException if the address cannot be bound
+     */
+    public BinaryClassificationServer(InetSocketAddress address, ServerMetrics metrics, PackageSorter sorter)
+            throws IOException {
+        this.metrics = metrics;
+        this.sorter = metrics.instrument(sorter);
+        this.serverChannel = ServerSocketChannel.open().bind(address);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        executor.execute(this::acceptConnections);
+    }
+
+    /**
+     * @return the bound address, with the actual port
+     */
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException("Server is closed", e);
+        }
+    }
+
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        executor.shutdownNow();
+    }
+
+    private void acceptConnections() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel connection = serverChannel.accept();
+                executor.execute(() -> serve(connection));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Cannot accept connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        ByteBuffer requests = ByteBuffer.allocateDirect(FRAMES_PER_READ * BinaryProtocol.REQUEST_SIZE);
+        ByteBuffer responses = ByteBuffer.allocateDirect(FRAMES_PER_READ * BinaryProtocol.RESPONSE_SIZE);
+        try (connection) {
+            connection.socket().setTcpNoDelay(true);
+            while (connection.read(requests) >= 0) {
+                long start = System.nanoTime();
+                requests.flip();
+                while (requests.remaining() >= BinaryProtocol.REQUEST_SIZE) {
+                    ValidationError error = BinaryProtocol.handleRequest(requests, responses, sorter);
+                    if (error != null) {
+                        metrics.recordInvalidPackage(error);
+                    }
+                    // One request per frame, like the HTTP server, waiting since the read
+                    metrics.recordRequest(System.nanoTime() - start, false);
+                }
+                // Keep a partial frame for the next read
+                requests.compact();
+
+                responses.flip();
+                while (responses.hasRemaining()) {
+                    connection.write(responses);
+                }
+                responses.clear();
+            }
+        } catch (IOException e) {
+            // The scanner disconnected
+        }
+    }
+}
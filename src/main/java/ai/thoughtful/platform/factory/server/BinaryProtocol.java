@@ -0,0 +1,96 @@
+package ai.thoughtful.platform.factory.server;
+
+import ai.thoughtful.platform.factory.PackageSorter;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.model.ValidationError;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-width binary frames of the scanner TCP protocol, all big-endian.
+ *
+ * Request (28 bytes): int32 width (cm), int32 height (cm), int32 length (cm), float64 mass (g),
+ * int64 correlation id.
+ * Response (9 bytes): int64 correlation id, int8 StackType ordinal or {@link #INVALID}.
+ *
+ * Requests may be pipelined: a client can send any number of frames before reading the responses, which come
+ * back in request order.
+ */
+public final class BinaryProtocol {
+
+    public static final int REQUEST_SIZE = 3 * Integer.BYTES + Double.BYTES + Long.BYTES;
+    public static final int RESPONSE_SIZE = Long.BYTES + Byte.BYTES;
+
+    /**
+     * Status of a response whose request has a non-positive dimension or a non-positive or non-finite mass.
+     */
+    public static final byte INVALID = -1;
+
+    private static final StackType[] STACK_TYPES = StackType.values();
+
+    private BinaryProtocol() {}
+
+    public static void writeRequest(ByteBuffer buffer, long correlationId,
+                                    int width, int height, int length, double mass) {
+        buffer.putInt(width).putInt(height).putInt(length).putDouble(mass).putLong(correlationId);
+    }
+
+    public static void writeResponse(ByteBuffer buffer, long correlationId, byte status) {
+        buffer.putLong(correlationId).put(status);
+    }
+
+    /**
+     * Classifies the request at the buffer position, applying the CLI validation rules without throwing.
+     *
+     * @param buffer buffer positioned at a complete request, advanced past it
+     * @param response destination of the response frame
+     * @param sorter sorter of the valid packages
+     * @return null when the package was classified, otherwise the reason the request is invalid
+     */
+    public static ValidationError handleRequest(ByteBuffer buffer, ByteBuffer response, PackageSorter sorter) {
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        int length = buffer.getInt();
+        double mass = buffer.getDouble();
+        long correlationId = buffer.getLong();
+
+        ValidationError error = ValidationError.check(width, height, length, mass);
+        if (error != null) {
+            writeResponse(response, correlationId, INVALID);
+            return error;
+        }
+        StackType stackType = sorter.sort(width, height, length, mass);
+        writeResponse(response, correlationId, (byte) stackType.ordinal());
+        return null;
+    }
+
+    /**
+     * Decoded response frame.
+     *
+     * @param correlationId id of the request
+     * @param stackType classification, or null when the request was invalid
+     */
+    public record Response(long correlationId, StackType stackType) {
+
+        /**
+         * @throws IOException if the status is neither a StackType ordinal nor {@link #INVALID}, e.g. from a
+         *         corrupt stream or a newer server
+         */
+        public static Response read(ByteBuffer buffer) throws IOException {
+            long correlationId = buffer.getLong();
+            byte status = buffer.get();
+            if (status == INVALID) {
+                return new Response(correlationId, null);
+            }
+            if (status < 0 || status >= STACK_TYPES.length) {
+                throw new IOException("Unknown status " + status + " in the response to request " + correlationId);
+            }
+            return new Response(correlationId, STACK_TYPES[status]);
+        }
+
+        public boolean isValid() {
+            return stackType != null;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package ai.thoughtful.platform.factory.server;
+
+import ai.thoughtful.platform.factory.PackageSorter;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.cli.PackageInputParser;
+import ai.thoughtful.platform.factory.model.PackageMeasurement;
+import ai.thoughtful.platform.factory.model.ParseResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running HTTP classification service keeping the JVM warm, with every exchange handled on its own
+ * virtual thread.
+ *
+ * Endpoints:
+ * - POST /classify with a "width,height,length,mass" body, or GET /classify?package=width,height,length,mass:
+ *   answers the stack type as text/plain
+ * - POST /classify/bulk with an NDJSON body of {"width":..,"height":..,"length":..,"mass":..} objects:
+ *   streams one {"stackType":".."} or {"error":".."} line per input line, in order
+ * - GET /metrics: request, package and latency counters in the Prometheus text format
+ * - GET /health: liveness probe
+ *
+ * Other paths, including longer ones like /classify/foo, answer 404. An error after a response status was sent
+ * drops the connection, so that the client never mistakes a truncated body for a complete one.
+ */
+public class ClassificationHttpServer implements AutoCloseable {
+
+    private static final String TEXT = "text/plain; charset=utf-8";
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ServerMetrics metrics;
+    private final PackageSorter sorter;
+
+    /**
+     * Starts the server, classifying every package from scratch.
+     *
+     * @param address address to bind, port 0 picks a free port
+     * @param metrics counters updated by the server
+     * @throws IOException if the address cannot be bound
+     */
+    public ClassificationHttpServer(InetSocketAddress address, ServerMetrics metrics) throws IOException {
+        this(address, metrics, PackageSorter.DIRECT);
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @param address address to bind, port 0 picks a free port
+     * @param metrics counters updated by the server
+     * @param sorter sorter of the valid packages, such as a shape cache
+     * @throws IOException if the address cannot be bound
+     */
+    public ClassificationHttpServer(InetSocketAddress address, ServerMetrics metrics, PackageSorter sorter)
+            throws IOException {
+        this.metrics = metrics;
+        this.sorter = metrics.instrument(sorter);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        route("/classify/bulk", this::classifyBulk);
+        route("/classify", this::classifyOne);
+        route("/metrics", this::metrics);
+        route("/health", this::health);
+        server.start();
+    }
+
+    /**
+     * @return the bound address, with the actual port
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    /**
+     * Serves a path exactly: the server matches contexts by prefix, so "/classifyX" would reach "/classify".
+     */
+    private void route(String path, Handler handler) {
+        server.createContext(path, exchange -> handle(exchange, path.equals(exchange.getRequestURI().getPath())
+                ? handler : ClassificationHttpServer::notFound));
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        long start = System.nanoTime();
+        int status = 500;
+        boolean aborted = false;
+        try {
+            status = handler.handle(exchange);
+        } catch (RuntimeException e) {
+            if (exchange.getResponseCode() < 0) {
+                send(exchange, 500, TEXT, "Unexpected error: " + e.getMessage() + "\n");
+            } else {
+                // The status is already sent: only dropping the connection tells the client the body is incomplete
+                aborted = true;
+                System.err.println("Error: Aborted the response to " + exchange.getRequestURI().getPath() + ": "
+                        + e.getMessage());
+                throw new IOException("Response aborted", e);
+            }
+        } finally {
+            if (!aborted) {
+                exchange.close();
+            }
+            metrics.recordRequest(System.nanoTime() - start, status >= 400);
+        }
+    }
+
+    private int classifyOne(HttpExchange exchange) throws IOException {
+        String input;
+        if ("POST".equals(exchange.getRequestMethod())) {
+            input = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).strip();
+        } else if ("GET".equals(exchange.getRequestMethod())) {
+            input = queryParameter(exchange.getRequestURI(), "package");
+        } else {
+            return send(exchange, 405, TEXT, "Use GET or POST\n");
+        }
+
+        ParseResult parsed = PackageInputParser.tryParse(input);
+        if (!parsed.isValid()) {
+            metrics.recordInvalidPackage(parsed.error());
+            return send(exchange, 400, TEXT, "Error: " + parsed.error().message() + "\n");
+        }
+        return send(exchange, 200, TEXT, classify(parsed.measurement()).name() + "\n");
+    }
+
+    private int classifyBulk(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            return send(exchange, 405, TEXT, "Use POST with an NDJSON body\n");
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", NDJSON);
+        // Length 0 streams the response with chunked encoding while the body is still being read
+        exchange.sendResponseHeaders(200, 0);
+        BufferedReader body = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+        // Closed only on success, since closing ends the chunked body as if it were complete
+        Writer response = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = body.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            ParseResult parsed = JsonPackageParser.tryParse(line);
+            if (parsed.isValid()) {
+                response.write("{\"stackType\":\"" + classify(parsed.measurement()).name() + "\"}\n");
+            } else {
+                metrics.recordInvalidPackage(parsed.error());
+                response.write("{\"error\":\"" + escape(parsed.error().message()) + "\"}\n");
+            }
+        }
+        response.close();
+        return 200;
+    }
+
+    private int metrics(HttpExchange exchange) throws IOException {
+        return send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", metrics.toPrometheusText());
+    }
+
+    private int health(HttpExchange exchange) throws IOException {
+        return send(exchange, 200, TEXT, "OK\n");
+    }
+
+    private static int notFound(HttpExchange exchange) throws IOException {
+        return send(exchange, 404, TEXT, "Not found\n");
+    }
+
+    private StackType classify(PackageMeasurement measurement) {
+        return sorter.sort(measurement.width(), measurement.height(), measurement.length(), measurement.mass());
+    }
+
+    private static int send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream response = exchange.getResponseBody()) {
+            response.write(bytes);
+        }
+        return status;
+    }
+
+    private static String queryParameter(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && parameter.substring(0, separator).equals(name)) {
+                return URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static String escape(String message) {
+        return message.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        /**
+         * @return the response status
+         */
+        int handle(HttpExchange exchange) throws IOException;
+    }
+}
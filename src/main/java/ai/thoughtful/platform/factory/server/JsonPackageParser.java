@@ -0,0 +1,158 @@
+package ai.thoughtful.platform.factory.server;
+
+import ai.thoughtful.platform.factory.cli.PackageInputParser;
+import ai.thoughtful.platform.factory.model.PackageMeasurement;
+import ai.thoughtful.platform.factory.model.ParseResult;
+import ai.thoughtful.platform.factory.model.ValidationError;
+
+/**
+ * Parses a package measurement from a flat JSON object, as used by the NDJSON bulk endpoint.
+ *
+ * Example: {"width": 50, "height": 30, "length": 20, "mass": 5000}
+ *
+ * Dimensions must be integers and the mass a number; other members (numbers, strings, booleans or null) are
+ * ignored. The values go through the same validation as the CLI input. Malformed objects are reported as
+ * {@link ValidationError#MALFORMED_JSON} without throwing, so a bulk body full of bad lines stays cheap.
+ */
+public final class JsonPackageParser {
+
+    // Returned by peek() and next() past the end of the JSON
+    private static final int END = -1;
+
+    private final String json;
+    private int position;
+
+    private JsonPackageParser(String json) {
+        this.json = json;
+    }
+
+    /**
+     * Parses and validates one JSON package.
+     *
+     * @param json flat JSON object
+     * @return the validated measurement
+     * @throws IllegalArgumentException if the JSON is malformed or the package is invalid
+     */
+    public static PackageMeasurement parse(String json) {
+        return tryParse(json).orThrow();
+    }
+
+    /**
+     * Parses and validates one JSON package without throwing.
+     *
+     * @param json flat JSON object
+     * @return the validated measurement, or the reason the JSON or the package is invalid
+     */
+    public static ParseResult tryParse(String json) {
+        return new JsonPackageParser(json).parseObject();
+    }
+
+    private ParseResult parseObject() {
+        String width = null;
+        String height = null;
+        String length = null;
+        String mass = null;
+
+        if (next() != '{') {
+            return ParseResult.invalid(ValidationError.MALFORMED_JSON);
+        }
+        if (peek() == '}') {
+            position++;
+        } else {
+            while (true) {
+                String key = parseString();
+                if (key == null || next() != ':') {
+                    return ParseResult.invalid(ValidationError.MALFORMED_JSON);
+                }
+                String value = parseValue();
+                if (value == null) {
+                    return ParseResult.invalid(ValidationError.MALFORMED_JSON);
+                }
+                switch (key) {
+                    case "width" -> width = value;
+                    case "height" -> height = value;
+                    case "length" -> length = value;
+                    case "mass" -> mass = value;
+                    default -> {
+                        // Other members are ignored
+                    }
+                }
+                int next = next();
+                if (next == '}') {
+                    break;
+                }
+                if (next != ',') {
+                    return ParseResult.invalid(ValidationError.MALFORMED_JSON);
+                }
+            }
+        }
+        skipWhitespace();
+        if (position != json.length() || width == null || height == null || length == null || mass == null) {
+            return ParseResult.invalid(ValidationError.MALFORMED_JSON);
+        }
+        return PackageInputParser.tryParse(width, height, length, mass);
+    }
+
+    /**
+     * @return the raw value, "" for a string value, or null when malformed
+     */
+    private String parseValue() {
+        int first = peek();
+        if (first == '"') {
+            return parseString() == null ? null : "";
+        }
+        int start = position;
+        while (position < json.length()) {
+            char current = json.charAt(position);
+            if (current == ',' || current == '}' || Character.isWhitespace(current)) {
+                break;
+            }
+            position++;
+        }
+        if (start == position) {
+            return null;
+        }
+        return json.substring(start, position);
+    }
+
+    /**
+     * @return the string, or null when malformed
+     */
+    private String parseString() {
+        if (next() != '"') {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        while (position < json.length()) {
+            char current = json.charAt(position++);
+            if (current == '"') {
+                return value.toString();
+            }
+            if (current == '\\' && position < json.length()) {
+                current = json.charAt(position++);
+            }
+            value.append(current);
+        }
+        return null;
+    }
+
+    private int next() {
+        int current = peek();
+        position++;
+        return current;
+    }
+
+    private int peek() {
+        skipWhitespace();
+        if (position >= json.length()) {
+            return END;
+        }
+        return json.charAt(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ai.thoughtful.platform.factory.server;
+
+import ai.thoughtful.platform.factory.PackageSorter;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.cache.CacheStats;
+import ai.thoughtful.platform.factory.cache.PackageShapeCache;
+import ai.thoughtful.platform.factory.metrics.ClassificationMetrics;
+import ai.thoughtful.platform.factory.metrics.InstrumentedSorter;
+import ai.thoughtful.platform.factory.metrics.LatencyHistogram;
+import ai.thoughtful.platform.factory.model.ValidationError;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counters and latencies of the classification servers, along with their {@link ClassificationMetrics},
+ * cheap under concurrent updates.
+ */
+public class ServerMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LatencyHistogram requestLatencies = new LatencyHistogram();
+    private final ClassificationMetrics classification;
+    private volatile PackageShapeCache shapeCache;
+
+    public ServerMetrics() {
+        this(new ClassificationMetrics());
+    }
+
+    /**
+     * @param classification destination of the package counters, possibly shared with other entry points
+     */
+    public ServerMetrics(ClassificationMetrics classification) {
+        this.classification = classification;
+    }
+
+    /**
+     * Records a handled request.
+     *
+     * @param latencyNanos time spent handling the request
+     * @param failed whether the request was answered with an error status
+     */
+    public void recordRequest(long latencyNanos, boolean failed) {
+        requests.increment();
+        if (failed) {
+            failedRequests.increment();
+        }
+        requestLatencies.record(latencyNanos);
+    }
+
+    public void recordInvalidPackage(ValidationError error) {
+        classification.recordParseError(error);
+    }
+
+    /**
+     * @param sorter sorter of the valid packages
+     * @return a sorter recording every package into these metrics
+     */
+    public PackageSorter instrument(PackageSorter sorter) {
+        return new InstrumentedSorter(sorter, classification);
+    }
+
+    /**
+     * Exports the counters of a shape cache along with the server counters.
+     */
+    public void registerShapeCache(PackageShapeCache shapeCache) {
+        this.shapeCache = shapeCache;
+    }
+
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getPackages(StackType stackType) {
+        return classification.getPackages(stackType);
+    }
+
+    public long getInvalidPackages() {
+        return classification.getParseErrors();
+    }
+
+    public ClassificationMetrics getClassification() {
+        return classification;
+    }
+
+    /**
+     * @return the counters in the Prometheus text exposition format
+     */
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+        text.append("# TYPE package_classifier_requests_total counter\n")
+                .append("package_classifier_requests_total ").append(requests.sum()).append('\n')
+                .append("# TYPE package_classifier_failed_requests_total counter\n")
+                .append("package_classifier_failed_requests_total ").append(failedRequests.sum()).append('\n');
+        classification.appendPrometheusText(text);
+
+        LatencyHistogram.Snapshot latencies = requestLatencies.snapshot();
+        text.append("# TYPE package_classifier_request_latency_seconds summary\n");
+        latencies.appendPrometheusSummary(text, "package_classifier_request_latency_seconds", "");
+        text.append("# TYPE package_classifier_request_latency_max_seconds gauge\n")
+                .append("package_classifier_request_latency_max_seconds ").append(latencies.max() / 1e9).append('\n');
+
+        PackageShapeCache cache = shapeCache;
+        if (cache != null) {
+            CacheStats stats = cache.stats();
+            text.append("# TYPE package_classifier_shape_cache_hits_total counter\n")
+                    .append("package_classifier_shape_cache_hits_total ").append(stats.hits()).append('\n')
+                    .append("# TYPE package_classifier_shape_cache_misses_total counter\n")
+                    .append("package_classifier_shape_cache_misses_total ").append(stats.misses()).append('\n')
+                    .append("# TYPE package_classifier_shape_cache_evictions_total counter\n")
+                    .append("package_classifier_shape_cache_evictions_total ").append(stats.evictions()).append('\n');
+        }
+        return text.toString();
+    }
+}
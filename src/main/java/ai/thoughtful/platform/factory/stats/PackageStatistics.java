@@ -0,0 +1,306 @@
+package ai.thoughtful.platform.factory.stats;
+
+import ai.thoughtful.platform.factory.PackageClassification;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * One-pass aggregate of classified packages: counts per {@link StackType} and {@link PackageClassification},
+ * distributions of the volume, the mass and the longest side, and the number of packages near the limits.
+ *
+ * A package is near a limit of the {@link ClassificationRules} it was classified with when its longest side,
+ * volume or mass is within {@code nearLimitFraction} of the side, volume or mass limit, on either side of it.
+ * The volume is the exact product of the dimensions, not the int arithmetic of the rules.
+ *
+ * Memory does not grow with the number of packages, and statistics of the same near-limit fraction merge by
+ * adding their counters and buckets, so each worker can aggregate its own packages. Not thread-safe, see
+ * {@link StatisticsRecorder} for concurrent recording.
+ */
+public final class PackageStatistics {
+
+    private static final StackType[] STACK_TYPES = StackType.values();
+    private static final PackageClassification[] CLASSIFICATIONS = PackageClassification.values();
+
+    private final double nearLimitFraction;
+    private final long[] stackTypes = new long[STACK_TYPES.length];
+    private final long[] classifications = new long[CLASSIFICATIONS.length];
+    private final QuantileSketch volumes = new QuantileSketch();
+    private final QuantileSketch masses = new QuantileSketch();
+    private final QuantileSketch longestSides = new QuantileSketch();
+    private long nearSideLimit;
+    private long nearVolumeLimit;
+    private long nearMassLimit;
+
+    /**
+     * @param nearLimitFraction distance to a limit, as a fraction of the limit, within which packages are near it
+     */
+    public PackageStatistics(double nearLimitFraction) {
+        if (!(nearLimitFraction >= 0 && nearLimitFraction < 1)) {
+            throw new IllegalArgumentException("Near-limit fraction must be between 0 and 1: " + nearLimitFraction);
+        }
+        this.nearLimitFraction = nearLimitFraction;
+    }
+
+    /**
+     * Records one valid package.
+     *
+     * @param rules rules the package is classified with
+     */
+    public void record(int width, int height, int length, double mass, ClassificationRules rules) {
+        int mask = rules.classifyMask(width, height, length, mass);
+        record(width, height, length, mass, mask, rules.stackType(mask), rules);
+    }
+
+    /**
+     * Records the packages of a classified batch.
+     *
+     * @param batch classified packages
+     * @param ordinals their {@link StackType} ordinals
+     * @param rules rules the batch was classified with
+     */
+    public void recordBatch(PackageBatch batch, byte[] ordinals, ClassificationRules rules) {
+        int[] maskCounts = new int[1 << CLASSIFICATIONS.length];
+        for (int i = 0; i < batch.size(); i++) {
+            int width = batch.width(i);
+            int height = batch.height(i);
+            int length = batch.length(i);
+            double mass = batch.mass(i);
+            stackTypes[ordinals[i]]++;
+            maskCounts[rules.classifyMask(width, height, length, mass)]++;
+            recordMeasurements(width, height, length, mass, rules);
+        }
+        for (int mask = 1; mask < maskCounts.length; mask++) {
+            recordClassifications(mask, maskCounts[mask]);
+        }
+    }
+
+    private void record(int width, int height, int length, double mass, int mask, StackType stackType,
+                        ClassificationRules rules) {
+        stackTypes[stackType.ordinal()]++;
+        recordClassifications(mask, 1);
+        recordMeasurements(width, height, length, mass, rules);
+    }
+
+    private void recordClassifications(int mask, long count) {
+        for (PackageClassification classification : CLASSIFICATIONS) {
+            if ((mask & classification.mask()) != 0) {
+                classifications[classification.ordinal()] += count;
+            }
+        }
+    }
+
+    private void recordMeasurements(int width, int height, int length, double mass, ClassificationRules rules) {
+        double volume = (double) width * height * length;
+        int longestSide = Math.max(width, Math.max(height, length));
+        volumes.record(volume);
+        masses.record(mass);
+        longestSides.record(longestSide);
+        if (isNear(longestSide, rules.bulkySideLimit())) {
+            nearSideLimit++;
+        }
+        if (isNear(volume, rules.bulkyVolumeLimit())) {
+            nearVolumeLimit++;
+        }
+        if (isNear(mass, rules.heavyMassLimit())) {
+            nearMassLimit++;
+        }
+    }
+
+    private boolean isNear(double value, double limit) {
+        return Math.abs(value - limit) <= nearLimitFraction * limit;
+    }
+
+    /**
+     * Adds the packages of other statistics to these.
+     *
+     * @throws IllegalArgumentException if the other statistics use another near-limit fraction
+     */
+    public void merge(PackageStatistics other) {
+        if (other.nearLimitFraction != nearLimitFraction) {
+            throw new IllegalArgumentException("Cannot merge statistics with near-limit fractions "
+                    + nearLimitFraction + " and " + other.nearLimitFraction);
+        }
+        for (int i = 0; i < stackTypes.length; i++) {
+            stackTypes[i] += other.stackTypes[i];
+        }
+        for (int i = 0; i < classifications.length; i++) {
+            classifications[i] += other.classifications[i];
+        }
+        volumes.merge(other.volumes);
+        masses.merge(other.masses);
+        longestSides.merge(other.longestSides);
+        nearSideLimit += other.nearSideLimit;
+        nearVolumeLimit += other.nearVolumeLimit;
+        nearMassLimit += other.nearMassLimit;
+    }
+
+    /**
+     * Forgets every package, keeping the allocated buckets for reuse.
+     */
+    public void reset() {
+        Arrays.fill(stackTypes, 0);
+        Arrays.fill(classifications, 0);
+        volumes.reset();
+        masses.reset();
+        longestSides.reset();
+        nearSideLimit = 0;
+        nearVolumeLimit = 0;
+        nearMassLimit = 0;
+    }
+
+    public double getNearLimitFraction() {
+        return nearLimitFraction;
+    }
+
+    /**
+     * @return number of recorded packages
+     */
+    public long getPackages() {
+        return volumes.count();
+    }
+
+    public long getPackages(StackType stackType) {
+        return stackTypes[stackType.ordinal()];
+    }
+
+    public long getPackages(PackageClassification classification) {
+        return classifications[classification.ordinal()];
+    }
+
+    /**
+     * @return distribution of the volumes, in cm³
+     */
+    public QuantileSketch getVolumes() {
+        return volumes;
+    }
+
+    /**
+     * @return distribution of the masses, in grams
+     */
+    public QuantileSketch getMasses() {
+        return masses;
+    }
+
+    /**
+     * @return distribution of the longest sides, in cm
+     */
+    public QuantileSketch getLongestSides() {
+        return longestSides;
+    }
+
+    /**
+     * @return number of packages whose longest side is near the bulky side limit
+     */
+    public long getNearSideLimit() {
+        return nearSideLimit;
+    }
+
+    /**
+     * @return number of packages whose volume is near the bulky volume limit
+     */
+    public long getNearVolumeLimit() {
+        return nearVolumeLimit;
+    }
+
+    /**
+     * @return number of packages whose mass is near the heavy mass limit
+     */
+    public long getNearMassLimit() {
+        return nearMassLimit;
+    }
+
+    /**
+     * Appends statistics as Prometheus gauges and summaries, every metric family once.
+     *
+     * @param text destination
+     * @param windows statistics by value of their {@code window} label, such as "total" or "300s"
+     */
+    public static void appendPrometheusText(StringBuilder text, Map<String, PackageStatistics> windows) {
+        text.append("# TYPE package_statistics_packages gauge\n");
+        windows.forEach((window, statistics) -> {
+            for (StackType stackType : STACK_TYPES) {
+                text.append("package_statistics_packages{window=\"").append(window).append("\",stack_type=\"")
+                        .append(stackType.name()).append("\"} ").append(statistics.getPackages(stackType))
+                        .append('\n');
+            }
+        });
+        text.append("# TYPE package_statistics_classifications gauge\n");
+        windows.forEach((window, statistics) -> {
+            for (PackageClassification classification : CLASSIFICATIONS) {
+                text.append("package_statistics_classifications{window=\"").append(window)
+                        .append("\",classification=\"").append(classification.name()).append("\"} ")
+                        .append(statistics.getPackages(classification)).append('\n');
+            }
+        });
+        text.append("# TYPE package_statistics_near_limit gauge\n");
+        windows.forEach((window, statistics) -> {
+            statistics.appendNearLimit(text, window, "side", statistics.nearSideLimit);
+            statistics.appendNearLimit(text, window, "volume", statistics.nearVolumeLimit);
+            statistics.appendNearLimit(text, window, "mass", statistics.nearMassLimit);
+        });
+        appendSummaries(text, "package_statistics_volume_cm3", windows, PackageStatistics::getVolumes);
+        appendSummaries(text, "package_statistics_mass_grams", windows, PackageStatistics::getMasses);
+        appendSummaries(text, "package_statistics_longest_side_cm", windows, PackageStatistics::getLongestSides);
+    }
+
+    private void appendNearLimit(StringBuilder text, String window, String limit, long count) {
+        text.append("package_statistics_near_limit{window=\"").append(window).append("\",limit=\"").append(limit)
+                .append("\",fraction=\"").append(nearLimitFraction).append("\"} ").append(count).append('\n');
+    }
+
+    private static void appendSummaries(StringBuilder text, String name, Map<String, PackageStatistics> windows,
+                                        Function<PackageStatistics, QuantileSketch> distribution) {
+        text.append("# TYPE ").append(name).append(" summary\n");
+        windows.forEach((window, statistics) -> {
+            QuantileSketch sketch = distribution.apply(statistics);
+            for (double quantile : new double[]{0.5, 0.9, 0.99}) {
+                text.append(name).append("{window=\"").append(window).append("\",quantile=\"").append(quantile)
+                        .append("\"} ").append(sketch.valueAt(quantile)).append('\n');
+            }
+            text.append(name).append("_sum{window=\"").append(window).append("\"} ").append(sketch.sum())
+                    .append('\n')
+                    .append(name).append("_count{window=\"").append(window).append("\"} ").append(sketch.count())
+                    .append('\n');
+        });
+    }
+
+    /**
+     * @return a human-readable report of the statistics
+     */
+    public String toReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("Packages: ").append(getPackages());
+        String separator = " (";
+        for (StackType stackType : STACK_TYPES) {
+            report.append(separator).append(stackType.name()).append(' ').append(getPackages(stackType));
+            separator = ", ";
+        }
+        report.append(")\n");
+        for (PackageClassification classification : CLASSIFICATIONS) {
+            report.append(classification.name()).append(": ").append(getPackages(classification)).append('\n');
+        }
+        appendDistribution(report, "Volume (cm3)", volumes);
+        appendDistribution(report, "Mass (g)", masses);
+        appendDistribution(report, "Longest side (cm)", longestSides);
+        report.append(String.format(Locale.ROOT, "Within %s%% of the limits: side %d, volume %d, mass %d%n",
+                formatPercent(nearLimitFraction), nearSideLimit, nearVolumeLimit, nearMassLimit));
+        return report.toString();
+    }
+
+    private static void appendDistribution(StringBuilder report, String name, QuantileSketch sketch) {
+        report.append(String.format(Locale.ROOT, "%s: min %.6g, p50 %.6g, p90 %.6g, p99 %.6g, max %.6g, mean %.6g%n",
+                name, sketch.min(), sketch.valueAt(0.5), sketch.valueAt(0.9), sketch.valueAt(0.99), sketch.max(),
+                sketch.mean()));
+    }
+
+    private static String formatPercent(double fraction) {
+        double percent = fraction * 100;
+        return percent == Math.rint(percent) ? Long.toString((long) percent) : Double.toString(percent);
+    }
+}
@@ -0,0 +1,177 @@
+package ai.thoughtful.platform.factory.stats;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch of positive values with a bounded relative error, in the style of DDSketch.
+ *
+ * Every power of two is split into 64 linear buckets, indexed from the exponent and the top
+ * mantissa bits of the value without computing a logarithm. A reported quantile is the middle of its bucket,
+ * at most about 0.8% away from the recorded value. Values below 2^-32 and from 2^96 on share the first and
+ * last bucket, which bounds the memory to about 66 KB; only the range of buckets seen so far is allocated, a few
+ * KB for typical masses and volumes.
+ *
+ * Sketches merge by adding their buckets, so partial sketches of parallel workers combine into the sketch of the
+ * whole stream. Not thread-safe.
+ */
+public final class QuantileSketch {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = -32;
+    private static final int MAX_EXPONENT = 95;
+    private static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+    private static final int MANTISSA_SHIFT = 52 - SUB_BUCKET_BITS;
+
+    // Buckets from index offset on
+    private long[] counts = new long[0];
+    private int offset;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param value positive value to record
+     */
+    public void record(double value) {
+        int index = index(value);
+        if (index < offset || index >= offset + counts.length) {
+            grow(index, index);
+        }
+        counts[index - offset]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the values of another sketch to this one.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        int first = other.offset;
+        int last = other.offset + other.counts.length - 1;
+        if (first < offset || last >= offset + counts.length) {
+            grow(first, last);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[first - offset + i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Forgets every value, keeping the allocated buckets for reuse.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * @param quantile quantile between 0 and 1, such as 0.99
+     * @return the middle of the bucket holding the quantile, within the recorded minimum and maximum, which are
+     *         exact; 0 when empty
+     */
+    public double valueAt(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        // The lowest and highest values are known exactly
+        if (rank == 1) {
+            return min;
+        }
+        if (rank == count) {
+            return max;
+        }
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(Math.max(middleValue(offset + i), min), max);
+            }
+        }
+        return max;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double sum() {
+        return sum;
+    }
+
+    /**
+     * @return mean of the recorded values, 0 when empty
+     */
+    public double mean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * @return lowest recorded value, 0 when empty
+     */
+    public double min() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * @return highest recorded value, 0 when empty
+     */
+    public double max() {
+        return count == 0 ? 0 : max;
+    }
+
+    static int index(double value) {
+        if (!(value > 0)) {
+            throw new IllegalArgumentException("Sketched values must be positive: " + value);
+        }
+        int exponent = Math.getExponent(value);
+        if (exponent < MIN_EXPONENT) {
+            return 0;
+        }
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (Double.doubleToRawLongBits(value) >>> MANTISSA_SHIFT) & (SUB_BUCKETS - 1);
+        return (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    private static double middleValue(int index) {
+        int exponent = index / SUB_BUCKETS + MIN_EXPONENT;
+        double subBucket = index % SUB_BUCKETS;
+        return Math.scalb(1 + (subBucket + 0.5) / SUB_BUCKETS, exponent);
+    }
+
+    // Extends the allocated range to cover the buckets first to last, with a power of two of slack on each side
+    private void grow(int first, int last) {
+        int from = Math.max(0, first - SUB_BUCKETS);
+        int to = Math.min(BUCKETS - 1, last + SUB_BUCKETS);
+        long[] grown;
+        if (counts.length == 0) {
+            grown = new long[to - from + 1];
+        } else {
+            from = Math.min(from, offset);
+            to = Math.max(to, offset + counts.length - 1);
+            grown = new long[to - from + 1];
+            System.arraycopy(counts, 0, grown, offset - from, counts.length);
+        }
+        counts = grown;
+        offset = from;
+    }
+}
@@ -0,0 +1,183 @@
+package ai.thoughtful.platform.factory.stats;
+
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe recorder of {@link PackageStatistics}, over the whole run and over sliding time windows.
+ *
+ * Time is split into slots; the recorder keeps the statistics of the last {@code slots} slots, so a window of
+ * up to {@code slots * slotDuration} is the merge of its slots, and older slots are folded into the running
+ * total. Threads record into one of several stripes, each with its own lock and slots, picked from the thread
+ * id: parallel workers rarely contend, and reading merges the stripes.
+ */
+public class StatisticsRecorder {
+
+    /**
+     * Default distance to a limit within which packages are near it, 5% of the limit.
+     */
+    public static final double DEFAULT_NEAR_LIMIT_FRACTION = 0.05;
+
+    /**
+     * Default duration of a slot.
+     */
+    public static final Duration DEFAULT_SLOT_DURATION = Duration.ofSeconds(1);
+
+    /**
+     * Default number of slots, a 5-minute window with the default slot duration.
+     */
+    public static final int DEFAULT_SLOTS = 300;
+
+    private final double nearLimitFraction;
+    private final long slotNanos;
+    private final int slots;
+    private final LongSupplier clock;
+    private final Stripe[] stripes;
+
+    public StatisticsRecorder() {
+        this(DEFAULT_NEAR_LIMIT_FRACTION);
+    }
+
+    /**
+     * @param nearLimitFraction distance to a limit, as a fraction of the limit, within which packages are near it
+     */
+    public StatisticsRecorder(double nearLimitFraction) {
+        this(nearLimitFraction, DEFAULT_SLOT_DURATION, DEFAULT_SLOTS, System::nanoTime);
+    }
+
+    /**
+     * @param nearLimitFraction distance to a limit, as a fraction of the limit, within which packages are near it
+     * @param slotDuration duration of a slot, the resolution of the windows
+     * @param slots number of slots kept, the longest window
+     * @param clock source of {@link System#nanoTime()}-like timestamps
+     */
+    public StatisticsRecorder(double nearLimitFraction, Duration slotDuration, int slots, LongSupplier clock) {
+        if (slotDuration.isNegative() || slotDuration.isZero() || slots <= 0) {
+            throw new IllegalArgumentException("Slot duration and number of slots must be positive");
+        }
+        this.nearLimitFraction = nearLimitFraction;
+        this.slotNanos = slotDuration.toNanos();
+        this.slots = slots;
+        this.clock = clock;
+        int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Records one valid package.
+     *
+     * @param rules rules the package is classified with
+     */
+    public void record(int width, int height, int length, double mass, ClassificationRules rules) {
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            stripe.current(clock.getAsLong()).record(width, height, length, mass, rules);
+        }
+    }
+
+    /**
+     * Records the packages of a classified batch.
+     *
+     * @param batch classified packages
+     * @param ordinals their {@link ai.thoughtful.platform.factory.StackType} ordinals
+     * @param rules rules the batch was classified with
+     */
+    public void recordBatch(PackageBatch batch, byte[] ordinals, ClassificationRules rules) {
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            stripe.current(clock.getAsLong()).recordBatch(batch, ordinals, rules);
+        }
+    }
+
+    /**
+     * @return statistics of every package recorded so far
+     */
+    public PackageStatistics total() {
+        PackageStatistics total = new PackageStatistics(nearLimitFraction);
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total.merge(stripe.retired);
+                for (PackageStatistics slot : stripe.slots) {
+                    if (slot != null) {
+                        total.merge(slot);
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @param window duration of the window, rounded up to whole slots and capped by the number of slots
+     * @return statistics of the packages recorded in the window ending now
+     */
+    public PackageStatistics window(Duration window) {
+        long slotCount = Math.min(slots, Math.max(1, (window.toNanos() + slotNanos - 1) / slotNanos));
+        long current = Math.floorDiv(clock.getAsLong(), slotNanos);
+        PackageStatistics statistics = new PackageStatistics(nearLimitFraction);
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (int i = 0; i < slots; i++) {
+                    if (stripe.slots[i] != null && stripe.epochs[i] > current - slotCount
+                            && stripe.epochs[i] <= current) {
+                        statistics.merge(stripe.slots[i]);
+                    }
+                }
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * @return duration of the longest window
+     */
+    public Duration maxWindow() {
+        return Duration.ofNanos(slotNanos * slots);
+    }
+
+    /**
+     * Appends the statistics of the whole run and of the longest window in the Prometheus text format.
+     */
+    public void appendPrometheusText(StringBuilder text) {
+        Map<String, PackageStatistics> windows = new LinkedHashMap<>();
+        windows.put("total", total());
+        windows.put(maxWindow().toSeconds() + "s", window(maxWindow()));
+        PackageStatistics.appendPrometheusText(text, windows);
+    }
+
+    private Stripe stripe() {
+        return stripes[(int) Thread.currentThread().threadId() & (stripes.length - 1)];
+    }
+
+    private final class Stripe {
+
+        private final PackageStatistics retired = new PackageStatistics(nearLimitFraction);
+        private final PackageStatistics[] slots = new PackageStatistics[StatisticsRecorder.this.slots];
+        private final long[] epochs = new long[StatisticsRecorder.this.slots];
+
+        // Statistics of the slot of the timestamp, folding the slot it replaces into the retired statistics
+        private PackageStatistics current(long nanos) {
+            long epoch = Math.floorDiv(nanos, slotNanos);
+            int index = (int) Math.floorMod(epoch, (long) slots.length);
+            PackageStatistics slot = slots[index];
+            if (slot == null) {
+                slot = new PackageStatistics(nearLimitFraction);
+                slots[index] = slot;
+                epochs[index] = epoch;
+            } else if (epochs[index] != epoch) {
+                retired.merge(slot);
+                slot.reset();
+                epochs[index] = epoch;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package ai.thoughtful.platform.factory.watch;
+
+import ai.thoughtful.platform.factory.gzip.ParallelGzipInputStream;
+import ai.thoughtful.platform.factory.manifest.ManifestClassifier;
+import ai.thoughtful.platform.factory.manifest.ManifestReader;
+import ai.thoughtful.platform.factory.manifest.StreamManifestReader;
+import ai.thoughtful.platform.factory.metrics.ClassificationMetrics;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classifies the manifest files dropped into a directory, several files at once, until closed.
+ *
+ * New files are noticed through a {@link WatchService}, and the directory is scanned again every
+ * {@value #RESCAN_MILLIS} ms for file systems without change events and for files another instance gave up.
+ * Each manifest is classified by one worker of a fixed pool into "name.out", or "name.pkst" for packed results,
+ * in the output directory; gzip-compressed manifests are inflated on the way. The results are written to a
+ * hidden temporary file, forced to disk and renamed, so readers never see a partial output. The manifest is then
+ * moved to "done", or to "failed" when it holds an invalid line, with the error on stderr.
+ *
+ * A worker holds an exclusive {@link FileLock} on the manifest from before it is read until it is moved, so
+ * several instances watching the same directory on one host never classify the same manifest. The manifest is
+ * read through the locked channel, and the file key of its path is compared with the locked file before every
+ * move, so a new manifest dropped under the name of one already moved away is left for a later scan. Files are
+ * expected to be dropped whole, e.g. written under another name and renamed: names starting with "." or ending
+ * with ".tmp" or ".part" are ignored. A manifest interrupted by a stop stays in the directory and is classified
+ * again on the next start.
+ */
+public final class DropDirectoryClassifier implements AutoCloseable {
+
+    /**
+     * Default number of manifests classified at once.
+     */
+    public static final int DEFAULT_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Subdirectory receiving the classified manifests.
+     */
+    public static final String DONE_DIRECTORY = "done";
+
+    /**
+     * Subdirectory receiving the manifests with an invalid line.
+     */
+    public static final String FAILED_DIRECTORY = "failed";
+
+    /**
+     * Default subdirectory receiving the results.
+     */
+    public static final String RESULTS_DIRECTORY = "results";
+
+    static final long RESCAN_MILLIS = 1000;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path directory;
+    private final Path outputDirectory;
+    private final Path doneDirectory;
+    private final Path failedDirectory;
+    private final boolean packed;
+    private final ClassificationMetrics metrics;
+    private final ExecutorService workers;
+    private final WatchService watchService;
+    // Manifests submitted to the workers and not handled yet
+    private final Set<Path> claimed = ConcurrentHashMap.newKeySet();
+    private final LongAdder classified = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private volatile boolean running;
+    private volatile boolean closed;
+
+    /**
+     * @param directory drop directory of the manifests
+     * @param outputDirectory destination of the results, or null for "results" in the drop directory
+     * @param threads number of manifests classified at once
+     * @param packed whether to write packed results rather than text lines
+     * @param metrics destination of the package counters, or null
+     * @throws IOException if the subdirectories cannot be created or the directory cannot be watched
+     */
+    public DropDirectoryClassifier(Path directory, Path outputDirectory, int threads, boolean packed,
+                                   ClassificationMetrics metrics) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.directory = directory.toAbsolutePath().normalize();
+        if (!Files.isDirectory(this.directory)) {
+            throw new IllegalArgumentException("Not a directory: " + directory);
+        }
+        this.outputDirectory = Files.createDirectories(
+                outputDirectory == null ? this.directory.resolve(RESULTS_DIRECTORY) : outputDirectory);
+        this.doneDirectory = Files.createDirectories(this.directory.resolve(DONE_DIRECTORY));
+        this.failedDirectory = Files.createDirectories(this.directory.resolve(FAILED_DIRECTORY));
+        this.packed = packed;
+        this.metrics = metrics;
+
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> Thread.ofPlatform()
+                .name("watch-worker-" + workerCount.incrementAndGet()).daemon().unstarted(runnable));
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+    }
+
+    /**
+     * Classifies the manifests of the directory as they arrive, until {@link #close()} is called.
+     *
+     * @throws IOException if the directory cannot be listed
+     * @throws InterruptedException if the thread is interrupted while waiting for new files
+     */
+    public void run() throws IOException, InterruptedException {
+        running = true;
+        try {
+            while (!closed) {
+                for (Path file : claimNew()) {
+                    try {
+                        workers.execute(() -> handle(file));
+                    } catch (RejectedExecutionException e) {
+                        // Closed meanwhile, the manifest stays for the next start
+                        claimed.remove(file);
+                    }
+                }
+                awaitChanges();
+            }
+        } finally {
+            release();
+            stopped.countDown();
+        }
+    }
+
+    /**
+     * Classifies the manifests currently in the directory and waits for them, e.g. to empty it once.
+     *
+     * @return number of manifests handed to the workers, including those another instance was classifying
+     * @throws IOException if the directory cannot be listed
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public int drain() throws IOException, InterruptedException {
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (Path file : claimNew()) {
+            tasks.add(Executors.callable(() -> handle(file)));
+        }
+        workers.invokeAll(tasks);
+        return tasks.size();
+    }
+
+    /**
+     * @return number of manifests classified and moved to "done"
+     */
+    public long getClassified() {
+        return classified.sum();
+    }
+
+    /**
+     * @return number of manifests moved to "failed"
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Stops {@link #run()} and waits for the manifests being classified, or releases the workers if it is not
+     * running. Manifests not started yet stay in the directory.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (!running) {
+            release();
+            return;
+        }
+        try {
+            stopped.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Names of dropped manifests; hidden and partial files are left alone.
+     */
+    static boolean isManifest(Path file) {
+        String name = file.getFileName().toString();
+        return !name.startsWith(".") && !name.endsWith(".tmp") && !name.endsWith(".part")
+                && Files.isRegularFile(file);
+    }
+
+    private List<Path> claimNew() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path file : entries) {
+                if (isManifest(file) && claimed.add(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private void handle(Path file) {
+        boolean retry = true;
+        try {
+            if (!closed) {
+                classify(file);
+            }
+        } catch (IOException e) {
+            // Not retried before a restart, so that a full disk does not keep failing every rescan
+            retry = false;
+            System.err.println("Error: Cannot classify " + file + ": " + e.getMessage());
+        } finally {
+            if (retry) {
+                claimed.remove(file);
+            }
+        }
+    }
+
+    private void classify(Path file) throws IOException {
+        try {
+            // Identity of the file the channel opens, unless the path is replaced meanwhile
+            Object fileKey = fileKey(file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 FileLock lock = tryLock(channel)) {
+                if (lock == null || !isLockedFile(file, fileKey)) {
+                    // Another instance is classifying the manifest, or already moved it
+                    return;
+                }
+                classify(file, fileKey, channel);
+            }
+        } catch (NoSuchFileException e) {
+            // Moved by another instance between the listing and the lock
+        }
+    }
+
+    /**
+     * Classifies the locked manifest, read through its channel, and moves it once its results are published.
+     * The path is checked again before every move, so a manifest dropped under the same name is left alone.
+     */
+    private void classify(Path file, Object fileKey, FileChannel channel) throws IOException {
+        String name = file.getFileName().toString();
+        Path temporary = outputDirectory.resolve("." + name + ".tmp");
+        try {
+            writeResults(channel, temporary);
+        } catch (IllegalArgumentException e) {
+            Files.deleteIfExists(temporary);
+            if (isLockedFile(file, fileKey)) {
+                Files.move(file, failedDirectory.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+            }
+            failed.increment();
+            System.err.println("Error: " + file + ": " + e.getMessage());
+            return;
+        }
+        if (!isLockedFile(file, fileKey)) {
+            // Moved by another instance, whose results stand
+            Files.deleteIfExists(temporary);
+            return;
+        }
+        Files.move(temporary, outputDirectory.resolve(name + (packed ? ".pkst" : ".out")),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // Still locked, so another instance cannot start on the manifest before it is gone
+        Files.move(file, doneDirectory.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+        classified.increment();
+    }
+
+    private void writeResults(FileChannel manifest, Path temporary) throws IOException {
+        // Closing the manifest stream must keep the channel, and its lock, open
+        InputStream unclosed = new FilterInputStream(Channels.newInputStream(manifest)) {
+            @Override
+            public void close() {}
+        };
+        try (InputStream input = ParallelGzipInputStream.decompressing(unclosed,
+                ParallelGzipInputStream.DEFAULT_THREADS);
+             FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ManifestReader reader = new StreamManifestReader(input);
+            OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            ManifestClassifier classifier = new ManifestClassifier(ManifestClassifier.DEFAULT_BATCH_SIZE, metrics);
+            if (packed) {
+                PackedStackTypeWriter writer = new PackedStackTypeWriter(output);
+                classifier.classify(reader, writer);
+                writer.finish();
+            } else {
+                classifier.classify(reader, output);
+            }
+            output.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * @return whether the path still names the file whose identity was read before opening it
+     */
+    private static boolean isLockedFile(Path file, Object fileKey) throws IOException {
+        try {
+            return Objects.equals(fileKey(file), fileKey);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static Object fileKey(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another classifier of this JVM
+            return null;
+        }
+    }
+
+    private void awaitChanges() throws InterruptedException {
+        WatchKey key = watchService.poll(RESCAN_MILLIS, TimeUnit.MILLISECONDS);
+        while (key != null) {
+            key.pollEvents();
+            key.reset();
+            key = watchService.poll();
+        }
+    }
+
+    private synchronized void release() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Released anyway
+        }
+    }
+}
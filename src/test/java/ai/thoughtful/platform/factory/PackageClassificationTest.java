@@ -100,5 +100,44 @@ class PackageClassificationTest {
         }
     }
 
-}
+    @Nested
+    @DisplayName("Classification Mask Tests")
+    class ClassificationMaskTests {
+
+        @ParameterizedTest
+        @CsvSource({
+                "50, 50, 50, 10000, false, false",
+                "149, 10, 10, 5000, false, false",
+                "150, 10, 10, 5000, true, false",
+                "10, 150, 10, 5000, true, false",
+                "10, 10, 150, 5000, true, false",
+                "111, 99, 91, 5000, false, false",     // Volume 999,999
+                "100, 100, 100, 5000, true, false",    // Volume 1,000,000
+                "10, 10, 10, 19999.99, false, false",
+                "10, 10, 10, 20000, false, true",
+                "149, 111, 91, 19999.99, true, false", // Volume 1,505,049
+                "150, 150, 150, 25000, true, true"
+        })
+        @DisplayName("Should follow the baseline limits, with their boundaries")
+        void shouldFollowBaselineLimits(int width, int height, int length, double mass, boolean bulky,
+                                        boolean heavy) {
+            // Given
+            Package pkg = PackageFactory.make(width, height, length, mass);
+            EnumSet<PackageClassification> expected = EnumSet.noneOf(PackageClassification.class);
+            if (bulky) {
+                expected.add(PackageClassification.BULKY);
+            }
+            if (heavy) {
+                expected.add(PackageClassification.HEAVY);
+            }
+
+            // When
+            int mask = PackageClassification.classifyMask(width, height, length, mass);
 
+            // Then
+            assertEquals((bulky ? 1 : 0) | (heavy ? 2 : 0), mask);
+            assertEquals(mask, PackageClassification.classifyMask(pkg));
+            assertEquals(expected, PackageClassification.classify(pkg));
+        }
+    }
+}
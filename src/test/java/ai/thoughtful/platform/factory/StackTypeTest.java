@@ -13,6 +13,19 @@ import static org.junit.jupiter.api.Assertions.*;
 @DisplayName("StackType Tests")
 class StackTypeTest {
 
+    /**
+     * The default rules, written out independently of the classification masks: BULKY when the int volume is at
+     * least 1,000,000 cm³ or a side at least 150 cm, HEAVY from 20,000 g.
+     */
+    private static StackType baseline(int width, int height, int length, double mass) {
+        boolean bulky = width * height * length >= 1_000_000 || width >= 150 || height >= 150 || length >= 150;
+        boolean heavy = mass >= 20_000;
+        if (bulky && heavy) {
+            return StackType.REJECTED;
+        }
+        return bulky || heavy ? StackType.SPECIAL : StackType.STANDARD;
+    }
+
     @Nested
     @DisplayName("Standard Stack Tests")
     class StandardStackTests {
@@ -74,5 +87,73 @@ class StackTypeTest {
             assertEquals(StackType.REJECTED, result);
         }
     }
-}
 
+    @Nested
+    @DisplayName("Primitive Classification Tests")
+    class PrimitiveClassificationTests {
+
+        @Test
+        @DisplayName("Should follow the baseline rules for the primitive and record-based sorts")
+        void shouldFollowBaselineRules() {
+            // 111 x 99 x 91 = 999,999 and 100 x 100 x 100 = 1,000,000 straddle the volume limit
+            int[] sides = {1, 91, 99, 100, 111, 149, 150, 151, 1000, 1291, 65536, Integer.MAX_VALUE};
+            double[] masses = {0.1, 1, 19999, 19999.99, 20000, 20000.001, 25000, Double.MAX_VALUE,
+                    Double.POSITIVE_INFINITY};
+            for (int width : sides) {
+                for (int height : sides) {
+                    for (int length : sides) {
+                        for (double mass : masses) {
+                            // Given
+                            Package pkg = PackageFactory.make(width, height, length, mass);
+                            StackType expected = baseline(width, height, length, mass);
+                            String row = width + "," + height + "," + length + "," + mass;
+
+                            // When & Then
+                            assertEquals(expected, StackType.classify(width, height, length, mass), row);
+                            assertEquals(expected, StackType.sort(pkg), row);
+                        }
+                    }
+                }
+            }
+        }
+
+        @ParameterizedTest
+        @CsvSource({
+                "0, 10, 10, 5000",
+                "10, -1, 10, 5000",
+                "10, 10, 0, 5000",
+                "10, 10, 10, 0",
+                "10, 10, 10, -5",
+                "10, 10, 10, NaN"
+        })
+        @DisplayName("Should reject the same invalid packages as the factory")
+        void shouldRejectSameInvalidPackagesAsFactory(int width, int height, int length, double mass) {
+            // Given
+            IllegalArgumentException expected = assertThrows(IllegalArgumentException.class,
+                    () -> PackageFactory.make(width, height, length, mass));
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> StackType.classify(width, height, length, mass));
+
+            // Then
+            assertEquals(expected.getMessage(), exception.getMessage());
+        }
+
+        @ParameterizedTest
+        @CsvSource({
+                "0, STANDARD",
+                "1, SPECIAL",
+                "2, SPECIAL",
+                "3, REJECTED"
+        })
+        @DisplayName("Should map classification masks to stacks")
+        void shouldMapClassificationMasksToStacks(int mask, StackType expected) {
+            // When
+            StackType result = StackType.fromClassificationMask(mask);
+
+            // Then
+            assertEquals(expected, result);
+        }
+    }
+}
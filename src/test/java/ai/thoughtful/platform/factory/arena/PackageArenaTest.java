@@ -0,0 +1,202 @@
+package ai.thoughtful.platform.factory.arena;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.manifest.StreamManifestReader;
+import ai.thoughtful.platform.factory.model.Package;
+import ai.thoughtful.platform.factory.model.PackageFactory;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeReader;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeWriter;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PackageArena Tests")
+class PackageArenaTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Package[] randomPackages(int count) {
+        Random random = new Random(count);
+        Package[] packages = new Package[count];
+        for (int i = 0; i < count; i++) {
+            packages[i] = PackageFactory.make(1 + random.nextInt(200), 1 + random.nextInt(200),
+                    1 + random.nextInt(200), 1 + random.nextInt(30000) + random.nextDouble());
+        }
+        return packages;
+    }
+
+    private static void fill(PackageArena arena, Package[] packages) throws IOException {
+        for (Package pkg : packages) {
+            arena.add(pkg);
+        }
+    }
+
+    @Nested
+    @DisplayName("Storage Tests")
+    class StorageTests {
+
+        @Test
+        @DisplayName("Should read back every package across segments")
+        void shouldReadBackEveryPackageAcrossSegments() throws IOException {
+            // Given
+            Package[] packages = randomPackages(1000);
+
+            try (PackageArena arena = PackageArena.allocateDirect(64)) {
+                // When
+                fill(arena, packages);
+
+                // Then
+                assertEquals(packages.length, arena.size());
+                PackageCursor cursor = arena.cursor();
+                int index = 0;
+                while (cursor.next()) {
+                    assertEquals(index, cursor.index());
+                    assertEquals(packages[index++], cursor.toPackage());
+                }
+                assertEquals(packages.length, index);
+                assertEquals(packages[777], cursor.moveTo(777).toPackage());
+                assertEquals(packages[64], cursor.moveTo(64).toPackage());
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject invalid packages and slot sizes")
+        void shouldRejectInvalidPackagesAndSlotSizes() throws IOException {
+            // Given
+            try (PackageArena arena = PackageArena.allocateDirect(16)) {
+                // When & Then
+                assertThrows(IllegalArgumentException.class, () -> arena.add(0, 10, 10, 10));
+                assertThrows(IllegalArgumentException.class, () -> arena.add(10, 10, 10, -1));
+                assertEquals(0, arena.size());
+                assertThrows(IndexOutOfBoundsException.class, () -> arena.cursor().moveTo(0));
+            }
+            assertThrows(IllegalArgumentException.class, () -> PackageArena.allocateDirect(100));
+        }
+
+        @Test
+        @DisplayName("Should add the rows of a manifest")
+        void shouldAddRowsOfManifest() throws IOException {
+            // Given
+            byte[] manifest = "50,30,20,5000\n150,10,10,1000\n".getBytes(StandardCharsets.UTF_8);
+
+            try (PackageArena arena = PackageArena.allocateDirect()) {
+                // When
+                long rows = arena.addAll(new StreamManifestReader(new ByteArrayInputStream(manifest)));
+
+                // Then
+                assertEquals(2, rows);
+                PackageCursor cursor = arena.cursor().moveTo(1);
+                assertEquals(150, cursor.width());
+                assertEquals(10, cursor.height());
+                assertEquals(10, cursor.length());
+                assertEquals(1000.0, cursor.mass());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Classification Tests")
+    class ClassificationTests {
+
+        @Test
+        @DisplayName("Should classify slots like the Package records")
+        void shouldClassifySlotsLikePackageRecords() throws IOException {
+            // Given
+            Package[] packages = randomPackages(5000);
+            ClassificationRules rules = ClassificationRules.DEFAULT;
+
+            try (PackageArena arena = PackageArena.allocateDirect(1024)) {
+                fill(arena, packages);
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+                // When
+                try (PackedStackTypeWriter writer = new PackedStackTypeWriter(output)) {
+                    arena.classify(rules, writer);
+                }
+                Map<StackType, Long> counts = arena.counts(rules);
+
+                // Then
+                PackedStackTypeReader results = PackedStackTypeReader.of(ByteBuffer.wrap(output.toByteArray()));
+                assertEquals(packages.length, results.size());
+                PackageCursor cursor = arena.cursor();
+                for (int i = 0; i < packages.length; i++) {
+                    StackType expected = StackType.sort(packages[i]);
+                    assertEquals(expected, results.get(i));
+                    assertEquals(expected, cursor.moveTo(i).classify(rules));
+                }
+                assertEquals(results.counts(), counts);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Mapped File Tests")
+    class MappedFileTests {
+
+        @Test
+        @DisplayName("Should trim the file on close and reopen it for more packages")
+        void shouldTrimFileOnCloseAndReopen() throws IOException {
+            // Given
+            Path file = tempDir.resolve("packages.arena");
+            Package[] packages = randomPackages(300);
+
+            // When
+            try (PackageArena arena = PackageArena.create(file, 128)) {
+                fill(arena, Arrays.copyOf(packages, 200));
+            }
+            long trimmedSize = Files.size(file);
+            try (PackageArena arena = PackageArena.open(file, 64)) {
+                assertEquals(200, arena.size());
+                fill(arena, Arrays.copyOfRange(packages, 200, 300));
+            }
+
+            // Then
+            assertEquals(200L * PackageArena.SLOT_SIZE, trimmedSize);
+            assertEquals(300L * PackageArena.SLOT_SIZE, Files.size(file));
+            try (PackageArena arena = PackageArena.open(file, 1024)) {
+                PackageCursor cursor = arena.cursor();
+                for (int i = 0; i < packages.length; i++) {
+                    assertTrue(cursor.next());
+                    assertEquals(packages[i], cursor.toPackage());
+                }
+                assertFalse(cursor.next());
+            }
+        }
+
+        @Test
+        @DisplayName("Should ignore zeroed slots left by an unclosed arena")
+        void shouldIgnoreZeroedSlotsLeftByUnclosedArena() throws IOException {
+            // Given
+            Path file = tempDir.resolve("packages.arena");
+            try (PackageArena arena = PackageArena.create(file, 16)) {
+                fill(arena, randomPackages(5));
+            }
+            Files.write(file, new byte[11 * PackageArena.SLOT_SIZE], StandardOpenOption.APPEND);
+
+            // When
+            try (PackageArena arena = PackageArena.open(file, 16)) {
+                // Then
+                assertEquals(5, arena.size());
+            }
+            Files.write(file, new byte[3], StandardOpenOption.APPEND);
+            assertThrows(IllegalArgumentException.class, () -> PackageArena.open(file, 16));
+        }
+    }
+}
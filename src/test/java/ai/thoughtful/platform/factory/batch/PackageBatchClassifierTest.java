@@ -0,0 +1,157 @@
+package ai.thoughtful.platform.factory.batch;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PackageBatchClassifier Tests")
+class PackageBatchClassifierTest {
+
+    private static PackageBatch randomBatch(int size, long seed) {
+        Random random = new Random(seed);
+        int[] sides = {1, 99, 100, 101, 149, 150, 151, 2000, 65536, Integer.MAX_VALUE};
+        double[] masses = {0.1, 19999.999, 20000, 20000.001, Double.MAX_VALUE};
+        PackageBatch batch = new PackageBatch(size);
+        for (int i = 0; i < size; i++) {
+            boolean boundary = random.nextBoolean();
+            batch.add(
+                    boundary ? sides[random.nextInt(sides.length)] : 1 + random.nextInt(200),
+                    boundary ? sides[random.nextInt(sides.length)] : 1 + random.nextInt(200),
+                    boundary ? sides[random.nextInt(sides.length)] : 1 + random.nextInt(200),
+                    boundary ? masses[random.nextInt(masses.length)] : 0.5 + random.nextInt(40000));
+        }
+        return batch;
+    }
+
+    private static void assertSameAsStackTypeClassify(PackageBatch batch, byte[] ordinals) {
+        for (int i = 0; i < batch.size(); i++) {
+            StackType expected = StackType.classify(batch.width(i), batch.height(i), batch.length(i), batch.mass(i));
+            assertEquals(expected.ordinal(), ordinals[i], "package " + i);
+        }
+    }
+
+    @Nested
+    @DisplayName("Kernel Tests")
+    class KernelTests {
+
+        @Test
+        @DisplayName("Should classify batches like StackType with the selected kernel")
+        void shouldClassifyLikeStackType() {
+            // Given
+            PackageBatch batch = randomBatch(1000, 1);
+            byte[] ordinals = new byte[batch.size()];
+
+            // When
+            PackageBatchClassifier.classify(batch, ordinals);
+
+            // Then
+            assertSameAsStackTypeClassify(batch, ordinals);
+        }
+
+        @Test
+        @DisplayName("Should classify batches like StackType with the scalar kernel")
+        void shouldClassifyLikeStackTypeWithScalarKernel() {
+            // Given
+            PackageBatch batch = randomBatch(1000, 2);
+            byte[] ordinals = new byte[batch.size()];
+
+            // When
+            new ScalarBatchKernel().classify(ClassificationRules.DEFAULT, batch.widths(), batch.heights(),
+                    batch.lengths(), batch.masses(), batch.size(), ordinals);
+
+            // Then
+            assertSameAsStackTypeClassify(batch, ordinals);
+        }
+
+        @Test
+        @DisplayName("Should classify batches like StackType with the vector kernel, including the scalar tail")
+        void shouldClassifyLikeStackTypeWithVectorKernel() {
+            // Given
+            PackageBatch batch = randomBatch(1003, 3);
+            byte[] ordinals = new byte[batch.size()];
+
+            // When
+            new VectorBatchKernel().classify(ClassificationRules.DEFAULT, batch.widths(), batch.heights(),
+                    batch.lengths(), batch.masses(), batch.size(), ordinals);
+
+            // Then
+            assertSameAsStackTypeClassify(batch, ordinals);
+        }
+
+        @Test
+        @DisplayName("Should apply custom rules like the scalar kernel")
+        void shouldApplyCustomRulesLikeScalarKernel() {
+            // Given
+            ClassificationRules rules = new ClassificationRules(500_000, 120, 15_000.5,
+                    StackType.SPECIAL, StackType.STANDARD, StackType.REJECTED, StackType.REJECTED);
+            PackageBatch batch = randomBatch(1003, 4);
+            byte[] expected = new byte[batch.size()];
+            byte[] ordinals = new byte[batch.size()];
+
+            // When
+            new ScalarBatchKernel().classify(rules, batch.widths(), batch.heights(), batch.lengths(),
+                    batch.masses(), batch.size(), expected);
+            PackageBatchClassifier.classify(batch, ordinals, rules);
+
+            // Then
+            assertArrayEquals(expected, ordinals);
+            for (int i = 0; i < batch.size(); i++) {
+                StackType stackType = rules.classify(batch.width(i), batch.height(i), batch.length(i), batch.mass(i));
+                assertEquals(stackType.ordinal(), ordinals[i], "package " + i);
+            }
+        }
+
+        @Test
+        @DisplayName("Should not write past the batch size")
+        void shouldNotWritePastBatchSize() {
+            // Given
+            PackageBatch batch = new PackageBatch(16);
+            batch.add(150, 150, 150, 25000);
+            byte[] ordinals = {-1, -1, -1};
+
+            // When
+            PackageBatchClassifier.classify(batch, ordinals);
+
+            // Then
+            assertArrayEquals(new byte[]{(byte) StackType.REJECTED.ordinal(), -1, -1}, ordinals);
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Tests")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Should reject invalid packages like the records")
+        void shouldRejectInvalidPackages() {
+            // Given
+            PackageBatch batch = new PackageBatch(4);
+
+            // When / Then
+            assertThrows(IllegalArgumentException.class, () -> batch.add(0, 10, 10, 5000));
+            assertThrows(IllegalArgumentException.class, () -> batch.add(10, 10, 10, Double.NaN));
+            assertTrue(batch.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should refuse packages once full and accept them again after clear")
+        void shouldRefusePackagesOnceFull() {
+            // Given
+            PackageBatch batch = new PackageBatch(1);
+            batch.add(10, 10, 10, 5000);
+
+            // When / Then
+            assertThrows(IllegalStateException.class, () -> batch.add(10, 10, 10, 5000));
+            batch.clear();
+            batch.add(20, 10, 10, 5000);
+            assertEquals(20, batch.width(0));
+            assertThrows(IndexOutOfBoundsException.class, () -> batch.width(1));
+        }
+    }
+}
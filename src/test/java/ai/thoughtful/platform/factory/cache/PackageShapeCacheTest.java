@@ -0,0 +1,140 @@
+package ai.thoughtful.platform.factory.cache;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.model.Package;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import ai.thoughtful.platform.factory.rules.RuleEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PackageShapeCache Tests")
+class PackageShapeCacheTest {
+
+    @AfterEach
+    void resetRules() {
+        RuleEngine.reset();
+    }
+
+    @Nested
+    @DisplayName("Lookup Tests")
+    class LookupTests {
+
+        @Test
+        @DisplayName("Should sort like StackType and answer repeated shapes from the cache")
+        void shouldSortLikeStackTypeAndAnswerRepeatedShapesFromCache() {
+            // Given
+            PackageShapeCache cache = new PackageShapeCache(64);
+            Random random = new Random(1);
+
+            // When / Then
+            for (int i = 0; i < 10_000; i++) {
+                int width = 1 + random.nextInt(4) * 60;
+                int height = 1 + random.nextInt(4) * 40;
+                double mass = random.nextBoolean() ? 5000 : 25000;
+                assertEquals(StackType.classify(width, height, 20, mass), cache.sort(width, height, 20, mass));
+            }
+            CacheStats stats = cache.stats();
+            assertEquals(10_000, stats.hits() + stats.misses());
+            assertTrue(stats.hitRate() > 0.99, "hit rate " + stats.hitRate());
+        }
+
+        @Test
+        @DisplayName("Should validate packages like StackType")
+        void shouldValidatePackagesLikeStackType() {
+            // Given
+            PackageShapeCache cache = new PackageShapeCache(64);
+
+            // When / Then
+            assertThrows(IllegalArgumentException.class, () -> cache.sort(0, 30, 20, 5000));
+            assertThrows(IllegalArgumentException.class, () -> cache.sort(50, 30, 20, -1));
+            assertEquals(0, cache.stats().misses());
+        }
+
+        @Test
+        @DisplayName("Should ignore entries computed with previous rules")
+        void shouldIgnoreEntriesComputedWithPreviousRules() {
+            // Given
+            PackageShapeCache cache = new PackageShapeCache(64);
+            assertEquals(StackType.STANDARD, cache.sort(120, 30, 20, 5000));
+
+            // When
+            RuleEngine.install(new ClassificationRules(1_000_000, 120, 20000,
+                    StackType.STANDARD, StackType.SPECIAL, StackType.SPECIAL, StackType.REJECTED));
+
+            // Then
+            assertEquals(StackType.SPECIAL, cache.sort(120, 30, 20, 5000));
+            assertEquals(2, cache.stats().misses());
+        }
+    }
+
+    @Nested
+    @DisplayName("Eviction Tests")
+    class EvictionTests {
+
+        @Test
+        @DisplayName("Should keep frequent shapes when flooded with one-off shapes")
+        void shouldKeepFrequentShapesWhenFloodedWithOneOffShapes() {
+            // Given
+            PackageShapeCache cache = new PackageShapeCache(64);
+            for (int round = 0; round < 20; round++) {
+                hotRound(cache);
+            }
+            long hotHits = cache.stats().hits();
+            hotRound(cache);
+            hotHits = cache.stats().hits() - hotHits;
+
+            // When
+            for (int oneOff = 0; oneOff < 10_000; oneOff++) {
+                cache.sort(1000 + oneOff, 30, 20, 5000);
+                cache.sort(1 + oneOff % 16, 30, 20, 5000);
+            }
+            long hitsAfterFlood = cache.stats().hits();
+            hotRound(cache);
+
+            // Then
+            assertTrue(hotHits >= 12, "hot hits " + hotHits);
+            assertTrue(cache.stats().rejections() > 0);
+            assertEquals(hotHits, cache.stats().hits() - hitsAfterFlood);
+        }
+
+        private void hotRound(PackageShapeCache cache) {
+            for (int shape = 1; shape <= 16; shape++) {
+                cache.sort(shape, 30, 20, 5000);
+            }
+        }
+
+        @Test
+        @DisplayName("Should round the capacity up to whole sets")
+        void shouldRoundCapacityUpToWholeSets() {
+            assertEquals(4, new PackageShapeCache(1).capacity());
+            assertEquals(64, new PackageShapeCache(50).capacity());
+            assertThrows(IllegalArgumentException.class, () -> new PackageShapeCache(0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Interning Tests")
+    class InterningTests {
+
+        @Test
+        @DisplayName("Should share the dimension of packages with the same shape")
+        void shouldShareDimensionOfPackagesWithSameShape() {
+            // Given
+            PackageShapeCache cache = new PackageShapeCache();
+
+            // When
+            Package first = cache.makePackage(50, 30, 20, 5000);
+            Package second = cache.makePackage(50, 30, 20, 7000);
+
+            // Then
+            assertSame(first.dimension(), second.dimension());
+            assertEquals(7000, second.mass());
+        }
+    }
+}
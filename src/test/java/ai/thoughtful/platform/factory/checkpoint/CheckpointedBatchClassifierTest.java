@@ -0,0 +1,176 @@
+package ai.thoughtful.platform.factory.checkpoint;
+
+import ai.thoughtful.platform.factory.StackType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static ai.thoughtful.platform.factory.manifest.TestManifests.randomManifest;
+import static ai.thoughtful.platform.factory.manifest.TestManifests.sequential;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CheckpointedBatchClassifier Tests")
+class CheckpointedBatchClassifierTest {
+
+    // Small segments and a checkpoint after each of them
+    private static CheckpointedBatchClassifier classifier(int threads, Path checkpoint) {
+        return new CheckpointedBatchClassifier(threads, null, checkpoint, Duration.ZERO, 1_000);
+    }
+
+    @Nested
+    @DisplayName("Classification Tests")
+    class ClassificationTests {
+
+        @Test
+        @DisplayName("Should match the sequential classifier with one and several threads")
+        void shouldMatchSequentialClassifier() throws IOException {
+            for (int threads : new int[]{1, 3}) {
+                // Given
+                Path directory = Files.createTempDirectory("batch");
+                Path input = directory.resolve("manifest.csv");
+                Path results = directory.resolve("results.txt");
+                Path checkpoint = directory.resolve("results.checkpoint");
+                String manifest = randomManifest(5_000, 7);
+                Files.writeString(input, manifest);
+
+                // When
+                BatchCheckpoint done = classifier(threads, checkpoint).classify(input, results, BatchCheckpoint.EMPTY);
+
+                // Then
+                String expected = sequential(manifest);
+                assertEquals(expected, Files.readString(results));
+                assertEquals(5_000, done.lines());
+                assertEquals(Files.size(input), done.inputOffset());
+                assertEquals(expected.length(), done.outputOffset());
+                assertEquals(expected.split("\n").length, done.packages(StackType.STANDARD)
+                        + done.packages(StackType.SPECIAL) + done.packages(StackType.REJECTED));
+                assertEquals(done, BatchCheckpoint.load(checkpoint));
+            }
+        }
+
+        @Test
+        @DisplayName("Should replace the results of an earlier run when starting over")
+        void shouldReplaceEarlierResultsWhenStartingOver() throws IOException {
+            // Given
+            Path directory = Files.createTempDirectory("batch");
+            Path input = directory.resolve("manifest.csv");
+            Path results = directory.resolve("results.txt");
+            Files.writeString(input, "50,30,20,5000\n");
+            Files.writeString(results, "STANDARD\nSPECIAL\nREJECTED\n");
+
+            // When
+            classifier(1, directory.resolve("results.checkpoint")).classify(input, results, BatchCheckpoint.EMPTY);
+
+            // Then
+            assertEquals("STANDARD\n", Files.readString(results));
+        }
+    }
+
+    @Nested
+    @DisplayName("Resume Tests")
+    class ResumeTests {
+
+        @Test
+        @DisplayName("Should produce byte-identical results after resuming from a checkpoint")
+        void shouldProduceIdenticalResultsAfterResuming() throws IOException {
+            for (int threads : new int[]{1, 3}) {
+                // Given
+                Path directory = Files.createTempDirectory("batch");
+                Path input = directory.resolve("manifest.csv");
+                Path results = directory.resolve("results.txt");
+                Path checkpoint = directory.resolve("results.checkpoint");
+                // Ends with "\n", where a segment can start
+                String first = randomManifest(1_999, 11) + "50,30,20,5000\n";
+                String manifest = first + randomManifest(3_000, 13);
+                Files.writeString(input, manifest);
+                String expected = sequential(manifest);
+                String firstResults = sequential(first);
+                // Results past the checkpoint, as left by a crash
+                Files.writeString(results, firstResults + "STANDARD\nSPEC");
+                BatchCheckpoint start = new BatchCheckpoint(Files.size(input), first.length(), 2_000,
+                        firstResults.length(), Map.of(StackType.STANDARD, 2_000L));
+
+                // When
+                BatchCheckpoint done = classifier(threads, checkpoint).classify(input, results, start);
+
+                // Then
+                assertEquals(expected, Files.readString(results));
+                assertEquals(5_000, done.lines());
+                assertEquals(expected.length(), done.outputOffset());
+                assertEquals(2_000 + 3_000, done.packages(StackType.STANDARD)
+                        + done.packages(StackType.SPECIAL) + done.packages(StackType.REJECTED));
+            }
+        }
+
+        @Test
+        @DisplayName("Should report an invalid line with its line number in the whole manifest")
+        void shouldReportInvalidLineWithItsLineNumberInWholeManifest() throws IOException {
+            for (int threads : new int[]{1, 3}) {
+                // Given
+                Path directory = Files.createTempDirectory("batch");
+                Path input = directory.resolve("manifest.csv");
+                Path results = directory.resolve("results.txt");
+                String first = randomManifest(999, 17) + "50,30,20,5000\n";
+                Files.writeString(input, first + randomManifest(500, 19) + "50,0,20,5000\n");
+                Files.writeString(results, sequential(first));
+                BatchCheckpoint start = new BatchCheckpoint(Files.size(input), first.length(), 1_000,
+                        Files.size(results), Map.of());
+
+                // When
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                        () -> classifier(threads, directory.resolve("results.checkpoint"))
+                                .classify(input, results, start));
+
+                // Then
+                assertTrue(exception.getMessage().startsWith("Line 1501: "), exception.getMessage());
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject a manifest or results that do not match the checkpoint")
+        void shouldRejectFilesThatDoNotMatchCheckpoint() throws IOException {
+            // Given
+            Path directory = Files.createTempDirectory("batch");
+            Path input = directory.resolve("manifest.csv");
+            Path results = directory.resolve("results.txt");
+            Files.writeString(input, "50,30,20,5000\n50,30,20,5000\n");
+            Files.writeString(results, "");
+            CheckpointedBatchClassifier classifier = classifier(1, directory.resolve("results.checkpoint"));
+
+            // When & Then
+            assertThrows(IllegalArgumentException.class, () -> classifier.classify(input, results,
+                    new BatchCheckpoint(100, 14, 1, 0, Map.of())));
+            assertThrows(IllegalArgumentException.class, () -> classifier.classify(input, results,
+                    new BatchCheckpoint(Files.size(input), 14, 1, 9, Map.of())));
+        }
+    }
+
+    @Nested
+    @DisplayName("Checkpoint File Tests")
+    class CheckpointFileTests {
+
+        @Test
+        @DisplayName("Should store and load a checkpoint, and load a missing one as empty")
+        void shouldStoreAndLoadCheckpoint() throws IOException {
+            // Given
+            Path checkpoint = Files.createTempDirectory("batch").resolve("results.checkpoint");
+            BatchCheckpoint stored = new BatchCheckpoint(1_000, 700, 50, 400,
+                    Map.of(StackType.STANDARD, 30L, StackType.REJECTED, 20L));
+
+            // When
+            BatchCheckpoint missing = BatchCheckpoint.load(checkpoint);
+            stored.store(checkpoint);
+
+            // Then
+            assertEquals(BatchCheckpoint.EMPTY, missing);
+            assertEquals(stored, BatchCheckpoint.load(checkpoint));
+            assertEquals(0, BatchCheckpoint.load(checkpoint).packages(StackType.SPECIAL));
+        }
+    }
+}
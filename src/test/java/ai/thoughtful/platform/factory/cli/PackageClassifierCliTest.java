@@ -0,0 +1,84 @@
+package ai.thoughtful.platform.factory.cli;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PackageClassifierCli Tests")
+class PackageClassifierCliTest {
+
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private PrintStream originalOut;
+
+    @BeforeEach
+    void captureStdout() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(stdout, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void restoreStdout() {
+        System.setOut(originalOut);
+    }
+
+    private String output() {
+        return stdout.toString(StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    @DisplayName("Single Package Tests")
+    class SinglePackageTests {
+
+        @Test
+        @DisplayName("Should print the stack type of the measurement")
+        void shouldPrintStackTypeOfMeasurement() throws InterruptedException {
+            // When
+            PackageClassifierCli.main(new String[] {"150,30,20,25000"});
+
+            // Then
+            assertEquals("REJECTED" + System.lineSeparator(), output());
+        }
+
+        @Test
+        @DisplayName("Should print the usage without arguments")
+        void shouldPrintUsageWithoutArguments() throws InterruptedException {
+            // When
+            PackageClassifierCli.main(new String[0]);
+
+            // Then
+            assertTrue(output().startsWith("Usage: java -jar package-classifier.jar"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Mode Tests")
+    class BatchModeTests {
+
+        @Test
+        @DisplayName("Should classify a manifest file into the output file")
+        void shouldClassifyManifestFileIntoOutputFile() throws IOException, InterruptedException {
+            // Given
+            Path directory = Files.createTempDirectory("cli");
+            Path manifest = Files.writeString(directory.resolve("manifest.csv"), "50,30,20,5000\n150,30,20,5000\n");
+            Path results = directory.resolve("results.txt");
+
+            // When
+            PackageClassifierCli.main(new String[] {"--input", manifest.toString(), "--output", results.toString()});
+
+            // Then
+            assertEquals("STANDARD\nSPECIAL\n", Files.readString(results));
+            assertEquals("", output());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package ai.thoughtful.platform.factory.cli;
+
+import ai.thoughtful.platform.factory.model.ParseResult;
+import ai.thoughtful.platform.factory.model.ValidationError;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PackageInputParser Tests")
+class PackageInputParserTest {
+
+    @Nested
+    @DisplayName("Valid Input Tests")
+    class ValidInputTests {
+
+        @ParameterizedTest
+        @CsvSource(delimiter = '|', value = {
+                "50,30,20,5000        | STANDARD",
+                "' 50 , 30 , 20 , 5000.5 ' | STANDARD",
+                "150,30,20,5000       | SPECIAL",
+                "50,30,20,25000       | SPECIAL",
+                "150,30,20,25000      | REJECTED",
+                "100,100,100,15000    | SPECIAL",
+                "50,30,20,5000,       | STANDARD"
+        })
+        @DisplayName("Should classify well-formed measurements")
+        void shouldClassifyWellFormedMeasurements(String input, String expected) {
+            // When
+            String result = PackageInputParser.classify(input);
+
+            // Then
+            assertEquals(expected, result);
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid Input Tests")
+    class InvalidInputTests {
+
+        @Test
+        @DisplayName("Should reject empty input")
+        void shouldRejectEmptyInput() {
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> PackageInputParser.classify("   "));
+
+            // Then
+            assertEquals("Input cannot be empty", exception.getMessage());
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"50,30", "50,30,20,5000,1", ",,,,"})
+        @DisplayName("Should reject wrong number of values")
+        void shouldRejectWrongNumberOfValues(String input) {
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> PackageInputParser.classify(input));
+
+            // Then
+            assertTrue(exception.getMessage().startsWith("Input must have exactly 4 comma-separated values"));
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"abc,30,20,5000", "50.5,30,20,5000", "50,30,20,heavy"})
+        @DisplayName("Should reject values that are not numbers")
+        void shouldRejectValuesThatAreNotNumbers(String input) {
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> PackageInputParser.classify(input));
+
+            // Then
+            assertTrue(exception.getMessage().startsWith("All values must be valid numbers"));
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"-50,30,20,5000", "50,0,20,5000", "50,30,20,-1", "50,30,20,0"})
+        @DisplayName("Should reject non-positive values")
+        void shouldRejectNonPositiveValues(String input) {
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> PackageInputParser.classify(input));
+
+            // Then
+            assertEquals("All dimensions and mass must be positive values", exception.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should reject infinite mass")
+        void shouldRejectInfiniteMass() {
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> PackageInputParser.classify("50,30,20,Infinity"));
+
+            // Then
+            assertEquals("Mass must be a finite number", exception.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Error Code Tests")
+    class ErrorCodeTests {
+
+        @ParameterizedTest
+        @CsvSource(delimiter = '|', value = {
+                "''                    | EMPTY",
+                "50,30                 | WRONG_FIELD_COUNT",
+                "50,30,20,5000,1       | WRONG_FIELD_COUNT",
+                "abc,30,20,5000        | NOT_A_NUMBER",
+                "50,30,20,5000kg       | NOT_A_NUMBER",
+                "50,30,99999999999,5   | NOT_A_NUMBER",
+                "50,-30,20,5000        | NON_POSITIVE",
+                "50,30,20,-Infinity    | NON_POSITIVE",
+                "50,30,20,NaN          | NON_FINITE",
+                "50,30,20,0x1p2000     | NON_FINITE"
+        })
+        @DisplayName("Should report the reason of an invalid input without throwing")
+        void shouldReportReasonWithoutThrowing(String input, ValidationError expected) {
+            // When
+            ParseResult result = PackageInputParser.tryParse(input);
+
+            // Then
+            assertFalse(result.isValid());
+            assertEquals(expected, result.error());
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> PackageInputParser.parse(input));
+            assertEquals(expected.message(), exception.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should return the measurement of a valid input")
+        void shouldReturnMeasurementOfValidInput() {
+            // When
+            ParseResult result = PackageInputParser.tryParse(" 50 , 30 , 20 , 5000.5 ");
+
+            // Then
+            assertTrue(result.isValid());
+            assertNull(result.error());
+            assertEquals(5000.5, result.measurement().mass());
+            assertEquals(PackageInputParser.parse("50,30,20,5000.5"), result.orThrow());
+        }
+    }
+}
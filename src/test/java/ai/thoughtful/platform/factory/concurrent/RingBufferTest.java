@@ -0,0 +1,146 @@
+package ai.thoughtful.platform.factory.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RingBuffer Tests")
+class RingBufferTest {
+
+    @Nested
+    @DisplayName("Capacity Tests")
+    class CapacityTests {
+
+        @Test
+        @DisplayName("Should refuse elements once full and accept them again after a poll")
+        void shouldRefuseElementsOnceFull() {
+            // Given
+            RingBuffer<Integer> ring = new RingBuffer<>(4, RingBuffer.ProducerType.SINGLE, new BusySpinWaitStrategy());
+            for (int i = 0; i < 4; i++) {
+                assertTrue(ring.offer(i));
+            }
+
+            // When & Then
+            assertFalse(ring.offer(4));
+            assertEquals(4, ring.size());
+            assertEquals(Integer.valueOf(0), ring.poll());
+            assertTrue(ring.offer(4));
+            List<Integer> drained = new ArrayList<>();
+            assertEquals(4, ring.drainTo(drained::add, 10));
+            assertEquals(List.of(1, 2, 3, 4), drained);
+            assertNull(ring.poll());
+            assertTrue(ring.isEmpty());
+            assertEquals(5, ring.offered());
+            assertEquals(5, ring.consumed());
+        }
+
+        @Test
+        @DisplayName("Should reject a capacity that is not a power of two")
+        void shouldRejectCapacityNotPowerOfTwo() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new RingBuffer<>(1000, RingBuffer.ProducerType.MULTI, new BusySpinWaitStrategy()));
+            assertThrows(IllegalArgumentException.class,
+                    () -> new RingBuffer<>(0, RingBuffer.ProducerType.MULTI, new BusySpinWaitStrategy()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency Tests")
+    class ConcurrencyTests {
+
+        @Test
+        @DisplayName("Should hand every element of a single producer over in order with each wait strategy")
+        void shouldHandOverElementsInOrderWithEachWaitStrategy() throws InterruptedException {
+            List<Supplier<WaitStrategy>> strategies = List.of(BusySpinWaitStrategy::new, YieldingWaitStrategy::new,
+                    SleepingWaitStrategy::new, BlockingWaitStrategy::new);
+            for (Supplier<WaitStrategy> strategy : strategies) {
+                // Given
+                RingBuffer<Long> ring = new RingBuffer<>(8, RingBuffer.ProducerType.SINGLE, strategy.get());
+                Thread producer = Thread.ofPlatform().start(() -> {
+                    try {
+                        for (long i = 0; i < 50_000; i++) {
+                            ring.put(i);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+
+                // When & Then
+                for (long i = 0; i < 50_000; i++) {
+                    assertEquals(Long.valueOf(i), ring.take());
+                }
+                producer.join();
+                assertTrue(ring.isEmpty());
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep the order of each of several producers")
+        void shouldKeepOrderOfEachProducer() throws InterruptedException {
+            // Given
+            int producers = 4;
+            int perProducer = 25_000;
+            RingBuffer<long[]> ring = new RingBuffer<>(16, RingBuffer.ProducerType.MULTI, new YieldingWaitStrategy());
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        for (long i = 0; i < perProducer; i++) {
+                            ring.put(new long[]{producer, i});
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+
+            // When
+            long[] next = new long[producers];
+            for (int i = 0; i < producers * perProducer; i++) {
+                long[] element = ring.take();
+                // Then
+                assertEquals(next[(int) element[0]]++, element[1]);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            for (long count : next) {
+                assertEquals(perProducer, count);
+            }
+            assertNull(ring.poll());
+        }
+
+        @Test
+        @DisplayName("Should stop waiting when interrupted")
+        void shouldStopWaitingWhenInterrupted() throws InterruptedException {
+            // Given
+            RingBuffer<String> ring = new RingBuffer<>(2, RingBuffer.ProducerType.SINGLE, new BlockingWaitStrategy());
+            List<Throwable> failures = new ArrayList<>();
+            Thread consumer = Thread.ofPlatform().start(() -> {
+                try {
+                    ring.take();
+                } catch (InterruptedException e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+
+            // When
+            consumer.interrupt();
+            consumer.join(10_000);
+
+            // Then
+            assertFalse(consumer.isAlive());
+            assertEquals(1, failures.size());
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package ai.thoughtful.platform.factory.dispatch;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.concurrent.BlockingWaitStrategy;
+import ai.thoughtful.platform.factory.concurrent.RingBuffer;
+import ai.thoughtful.platform.factory.model.Package;
+import ai.thoughtful.platform.factory.model.PackageFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PackageDispatcher Tests")
+class PackageDispatcherTest {
+
+    private static final Package STANDARD = PackageFactory.make(10, 10, 10, 1000);
+    private static final Package SPECIAL = PackageFactory.make(200, 10, 10, 1000);
+    private static final Package REJECTED = PackageFactory.make(200, 10, 10, 30000);
+
+    @Nested
+    @DisplayName("Routing Tests")
+    class RoutingTests {
+
+        @Test
+        @DisplayName("Should route each package into the lane of its stack")
+        void shouldRoutePackagesIntoLaneOfTheirStack() {
+            // Given
+            PackageDispatcher<Package> dispatcher = PackageDispatcher.ofPackages();
+
+            // When
+            assertTrue(dispatcher.offer(STANDARD));
+            assertTrue(dispatcher.offer(REJECTED));
+            assertTrue(dispatcher.offer(SPECIAL));
+            assertTrue(dispatcher.offer(STANDARD));
+
+            // Then
+            assertSame(STANDARD, dispatcher.lane(StackType.STANDARD).poll());
+            assertSame(STANDARD, dispatcher.lane(StackType.STANDARD).poll());
+            assertNull(dispatcher.lane(StackType.STANDARD).poll());
+            assertSame(SPECIAL, dispatcher.lane(StackType.SPECIAL).poll());
+            assertSame(REJECTED, dispatcher.lane(StackType.REJECTED).poll());
+        }
+
+        @Test
+        @DisplayName("Should refuse packages after close but keep the ones waiting")
+        void shouldRefusePackagesAfterClose() throws InterruptedException {
+            // Given
+            PackageDispatcher<Package> dispatcher = PackageDispatcher.ofPackages();
+            dispatcher.offer(SPECIAL);
+
+            // When
+            dispatcher.close();
+
+            // Then
+            assertThrows(IllegalStateException.class, () -> dispatcher.offer(SPECIAL));
+            assertSame(SPECIAL, dispatcher.lane(StackType.SPECIAL).take());
+            assertNull(dispatcher.lane(StackType.SPECIAL).take());
+        }
+
+        @Test
+        @DisplayName("Should hand every accepted package to the handler when closed while producers offer")
+        void shouldHandEveryAcceptedPackageWhenClosedWhileProducersOffer() throws InterruptedException {
+            for (int round = 0; round < 20; round++) {
+                // Given
+                PackageDispatcher<Package> dispatcher = PackageDispatcher.ofPackages();
+                LongAdder handled = new LongAdder();
+                LongAdder accepted = new LongAdder();
+                dispatcher.startHandler(StackType.STANDARD, pkg -> handled.increment());
+                CountDownLatch started = new CountDownLatch(4);
+                List<Thread> producers = new ArrayList<>();
+                for (int p = 0; p < 4; p++) {
+                    producers.add(Thread.ofPlatform().start(() -> {
+                        started.countDown();
+                        try {
+                            while (true) {
+                                if (dispatcher.offer(STANDARD)) {
+                                    accepted.increment();
+                                }
+                            }
+                        } catch (IllegalStateException e) {
+                            // Closed
+                        }
+                    }));
+                }
+                assertTrue(started.await(10, TimeUnit.SECONDS));
+
+                // When
+                dispatcher.close();
+                for (Thread producer : producers) {
+                    producer.join();
+                }
+
+                // Then
+                assertEquals(accepted.sum(), handled.sum());
+                assertEquals(accepted.sum(), dispatcher.lane(StackType.STANDARD).stats().dequeued());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Isolation Tests")
+    class IsolationTests {
+
+        @Test
+        @DisplayName("Should keep the STANDARD lane flowing while the REJECTED handler is stuck")
+        void shouldKeepStandardLaneFlowingWhileRejectedHandlerIsStuck() throws InterruptedException {
+            // Given
+            PackageDispatcher<Package> dispatcher = PackageDispatcher.of(StackType::sort, 4,
+                    RingBuffer.ProducerType.SINGLE, BlockingWaitStrategy::new);
+            CountDownLatch stuck = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            List<Package> standard = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch standardDone = new CountDownLatch(1000);
+            // Queued before the handler starts, so that it takes the package in a batch that keeps its slot
+            assertTrue(dispatcher.offer(REJECTED));
+            dispatcher.startHandler(StackType.REJECTED, pkg -> {
+                stuck.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            dispatcher.startHandler(StackType.STANDARD, pkg -> {
+                standard.add(pkg);
+                standardDone.countDown();
+            });
+            assertTrue(stuck.await(10, TimeUnit.SECONDS));
+
+            // When
+            int rejectedRefused = 0;
+            for (int i = 0; i < 1000; i++) {
+                if (!dispatcher.offer(REJECTED)) {
+                    rejectedRefused++;
+                }
+                dispatcher.put(STANDARD);
+            }
+
+            // Then
+            assertTrue(standardDone.await(10, TimeUnit.SECONDS));
+            assertEquals(1000, standard.size());
+            // The stuck handler holds the first package in its slot and the lane the next three
+            assertEquals(1000 - 3, rejectedRefused);
+            Map<StackType, LaneStats> stats = dispatcher.stats();
+            assertEquals(4, stats.get(StackType.REJECTED).occupancy());
+            assertEquals(1000 - 3, stats.get(StackType.REJECTED).rejected());
+
+            release.countDown();
+            dispatcher.close();
+            assertEquals(4, dispatcher.lane(StackType.REJECTED).stats().dequeued());
+            // Counted once the batch of the last package is released
+            assertEquals(1000, dispatcher.lane(StackType.STANDARD).stats().dequeued());
+        }
+
+        @Test
+        @DisplayName("Should go on with the next package after a handler failure")
+        void shouldGoOnAfterHandlerFailure() throws InterruptedException {
+            // Given
+            PackageDispatcher<Integer> dispatcher = PackageDispatcher.of(i -> StackType.SPECIAL, 8,
+                    RingBuffer.ProducerType.MULTI, BlockingWaitStrategy::new);
+            List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+            dispatcher.startHandler(StackType.SPECIAL, i -> {
+                if (i == 2) {
+                    throw new IllegalStateException("diverter offline");
+                }
+                handled.add(i);
+            });
+
+            // When
+            for (int i = 0; i < 5; i++) {
+                dispatcher.put(i);
+            }
+            dispatcher.close();
+
+            // Then
+            assertEquals(List.of(0, 1, 3, 4), handled);
+            assertThrows(IllegalStateException.class, () -> dispatcher.startHandler(StackType.SPECIAL, i -> {}));
+        }
+    }
+
+    @Nested
+    @DisplayName("Reporting Tests")
+    class ReportingTests {
+
+        @Test
+        @DisplayName("Should report occupancy, throughput and Prometheus counters per lane")
+        void shouldReportOccupancyThroughputAndPrometheusCounters() {
+            // Given
+            PackageDispatcher<Package> dispatcher = PackageDispatcher.ofPackages();
+            LaneStats before = dispatcher.lane(StackType.STANDARD).stats();
+            for (int i = 0; i < 10; i++) {
+                dispatcher.offer(STANDARD);
+            }
+            for (int i = 0; i < 4; i++) {
+                dispatcher.lane(StackType.STANDARD).poll();
+            }
+
+            // When
+            LaneStats after = dispatcher.lane(StackType.STANDARD).stats();
+            StringBuilder text = new StringBuilder();
+            dispatcher.appendPrometheusText(text);
+
+            // Then
+            assertEquals(6, after.occupancy());
+            assertEquals(6.0 / PackageDispatcher.DEFAULT_CAPACITY, after.occupancyRatio());
+            assertEquals(10, after.enqueued());
+            assertTrue(after.throughputSince(before) > 0);
+            assertThrows(IllegalArgumentException.class,
+                    () -> after.throughputSince(dispatcher.lane(StackType.SPECIAL).stats()));
+            String prometheus = text.toString();
+            assertTrue(prometheus.contains("package_dispatch_lane_occupancy{stack_type=\"STANDARD\"} 6\n"));
+            assertTrue(prometheus.contains("package_dispatch_dequeued_total{stack_type=\"STANDARD\"} 4\n"));
+            assertTrue(prometheus.contains("package_dispatch_rejected_total{stack_type=\"REJECTED\"} 0\n"));
+        }
+    }
+}
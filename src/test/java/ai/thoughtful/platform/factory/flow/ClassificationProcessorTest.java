@@ -0,0 +1,312 @@
+package ai.thoughtful.platform.factory.flow;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.model.Package;
+import ai.thoughtful.platform.factory.model.PackageFactory;
+import ai.thoughtful.platform.factory.model.PackageMeasurement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ClassificationProcessor Tests")
+class ClassificationProcessorTest {
+
+    // Runs the processor on the calling thread, so that every signal is delivered before the call returns
+    private static final Executor DIRECT = Runnable::run;
+
+    /**
+     * Subscriber collecting the results, requesting only what the test asks for.
+     */
+    private static final class CollectingSubscriber<T> implements Flow.Subscriber<ClassifiedPackage<T>> {
+
+        final List<ClassifiedPackage<T>> results = new ArrayList<>();
+        final CountDownLatch terminated = new CountDownLatch(1);
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+        // Number of results after which onNext throws
+        int failAfter = Integer.MAX_VALUE;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public synchronized void onNext(ClassifiedPackage<T> item) {
+            if (results.size() == failAfter) {
+                throw new IllegalStateException("Subscriber failure");
+            }
+            results.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+
+        synchronized List<StackType> stackTypes() {
+            return results.stream().map(ClassifiedPackage::stackType).toList();
+        }
+    }
+
+    /**
+     * Publisher pushing measurements by hand and recording the demand of the processor.
+     */
+    private static final class ManualPublisher implements Flow.Subscription {
+
+        Flow.Subscriber<? super PackageMeasurement> subscriber;
+        long requested;
+        boolean cancelled;
+
+        void subscribe(Flow.Subscriber<? super PackageMeasurement> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        void publish(int width, int height, int length, double mass) {
+            subscriber.onNext(new PackageMeasurement(width, height, length, mass));
+        }
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    @Nested
+    @DisplayName("Classification Tests")
+    class ClassificationTests {
+
+        @Test
+        @DisplayName("Should classify published measurements in order")
+        void shouldClassifyPublishedMeasurementsInOrder() throws InterruptedException {
+            // Given
+            ClassificationProcessor<PackageMeasurement> processor = ClassificationProcessor.ofMeasurements();
+            CollectingSubscriber<PackageMeasurement> subscriber = new CollectingSubscriber<>();
+            processor.subscribe(subscriber);
+            subscriber.subscription.request(Long.MAX_VALUE);
+            List<StackType> expected = new ArrayList<>();
+
+            // When
+            try (SubmissionPublisher<PackageMeasurement> publisher = new SubmissionPublisher<>()) {
+                publisher.subscribe(processor);
+                for (int i = 0; i < 1000; i++) {
+                    int width = 100 + i % 60;
+                    double mass = 15000 + (i % 11) * 1000;
+                    publisher.submit(new PackageMeasurement(width, 100, 70, mass));
+                    expected.add(StackType.classify(width, 100, 70, mass));
+                }
+            }
+
+            // Then
+            assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+            assertTrue(subscriber.completed);
+            assertEquals(expected, subscriber.stackTypes());
+            assertEquals(new PackageMeasurement(100, 100, 70, 15000), subscriber.results.get(0).item());
+        }
+
+        @Test
+        @DisplayName("Should classify packages like StackType.sort")
+        void shouldClassifyPackagesLikeStackTypeSort() {
+            // Given
+            ClassificationProcessor<Package> processor = ClassificationProcessor.ofPackages(DIRECT, 16, 4);
+            CollectingSubscriber<Package> subscriber = new CollectingSubscriber<>();
+            processor.subscribe(subscriber);
+            subscriber.subscription.request(10);
+            List<Package> packages = List.of(
+                    PackageFactory.make(50, 30, 20, 5000),
+                    PackageFactory.make(150, 30, 20, 5000),
+                    PackageFactory.make(50, 30, 20, 25000),
+                    PackageFactory.make(150, 30, 20, 25000),
+                    PackageFactory.make(100, 100, 100, 15000));
+
+            // When
+            processor.onSubscribe(new ManualPublisher());
+            packages.forEach(processor::onNext);
+            processor.onComplete();
+
+            // Then
+            assertTrue(subscriber.completed);
+            assertEquals(packages.stream().map(StackType::sort).toList(), subscriber.stackTypes());
+        }
+    }
+
+    @Nested
+    @DisplayName("Backpressure Tests")
+    class BackpressureTests {
+
+        @Test
+        @DisplayName("Should request no more than its buffer until the subscriber consumes")
+        void shouldRequestNoMoreThanBufferUntilSubscriberConsumes() {
+            // Given
+            ClassificationProcessor<PackageMeasurement> processor = ClassificationProcessor.ofMeasurements(DIRECT, 8, 4);
+            CollectingSubscriber<PackageMeasurement> subscriber = new CollectingSubscriber<>();
+            processor.subscribe(subscriber);
+            ManualPublisher publisher = new ManualPublisher();
+            publisher.subscribe(processor);
+
+            // When
+            for (int i = 0; i < 8; i++) {
+                publisher.publish(50, 30, 20, 5000);
+            }
+
+            // Then
+            assertEquals(8, publisher.requested);
+            assertTrue(subscriber.results.isEmpty());
+
+            // When
+            subscriber.subscription.request(3);
+
+            // Then
+            assertEquals(3, subscriber.results.size());
+            assertEquals(8, publisher.requested);
+
+            // When
+            subscriber.subscription.request(5);
+
+            // Then
+            assertEquals(8, subscriber.results.size());
+            assertTrue(publisher.requested > 8, "consumed results are requested again");
+            assertTrue(publisher.requested <= 8 + subscriber.results.size(), "outstanding demand fits the buffer");
+        }
+
+        @Test
+        @DisplayName("Should fail a publisher exceeding the requested demand")
+        void shouldFailPublisherExceedingRequestedDemand() {
+            // Given
+            ClassificationProcessor<PackageMeasurement> processor = ClassificationProcessor.ofMeasurements(DIRECT, 2, 2);
+            CollectingSubscriber<PackageMeasurement> subscriber = new CollectingSubscriber<>();
+            processor.subscribe(subscriber);
+            ManualPublisher publisher = new ManualPublisher();
+            publisher.subscribe(processor);
+
+            // When
+            for (int i = 0; i < 3; i++) {
+                publisher.publish(50, 30, 20, 5000);
+            }
+
+            // Then
+            assertTrue(publisher.cancelled);
+            assertInstanceOf(IllegalStateException.class, subscriber.error);
+        }
+
+        @Test
+        @DisplayName("Should cancel the publisher when the subscriber cancels")
+        void shouldCancelPublisherWhenSubscriberCancels() {
+            // Given
+            ClassificationProcessor<PackageMeasurement> processor = ClassificationProcessor.ofMeasurements(DIRECT, 4, 4);
+            CollectingSubscriber<PackageMeasurement> subscriber = new CollectingSubscriber<>();
+            processor.subscribe(subscriber);
+            ManualPublisher publisher = new ManualPublisher();
+            publisher.subscribe(processor);
+
+            // When
+            subscriber.subscription.cancel();
+            publisher.publish(50, 30, 20, 5000);
+            subscriber.subscription.request(1);
+
+            // Then
+            assertTrue(publisher.cancelled);
+            assertTrue(subscriber.results.isEmpty());
+            assertNull(subscriber.error);
+        }
+    }
+
+    @Nested
+    @DisplayName("Error Tests")
+    class ErrorTests {
+
+        @Test
+        @DisplayName("Should deliver the results before an invalid measurement, then its position")
+        void shouldDeliverResultsBeforeInvalidMeasurementThenItsPosition() {
+            // Given
+            ClassificationProcessor<PackageMeasurement> processor = ClassificationProcessor.ofMeasurements(DIRECT, 8, 8);
+            CollectingSubscriber<PackageMeasurement> subscriber = new CollectingSubscriber<>();
+            processor.subscribe(subscriber);
+            ManualPublisher publisher = new ManualPublisher();
+            publisher.subscribe(processor);
+            publisher.publish(50, 30, 20, 5000);
+            publisher.publish(150, 30, 20, 5000);
+            publisher.publish(50, 0, 20, 5000);
+            publisher.publish(50, 30, 20, 25000);
+
+            // When
+            subscriber.subscription.request(8);
+
+            // Then
+            assertEquals(List.of(StackType.STANDARD, StackType.SPECIAL), subscriber.stackTypes());
+            assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+            assertTrue(subscriber.error.getMessage().startsWith("Item 3: "));
+            assertTrue(publisher.cancelled);
+        }
+
+        @Test
+        @DisplayName("Should cancel the publisher and signal the error when the subscriber throws")
+        void shouldCancelPublisherAndSignalErrorWhenSubscriberThrows() {
+            // Given
+            ClassificationProcessor<PackageMeasurement> processor = ClassificationProcessor.ofMeasurements(DIRECT, 8, 8);
+            CollectingSubscriber<PackageMeasurement> subscriber = new CollectingSubscriber<>();
+            subscriber.failAfter = 1;
+            processor.subscribe(subscriber);
+            ManualPublisher publisher = new ManualPublisher();
+            publisher.subscribe(processor);
+            for (int i = 0; i < 3; i++) {
+                publisher.publish(50, 30, 20, 5000);
+            }
+
+            // When
+            subscriber.subscription.request(8);
+            publisher.publish(50, 30, 20, 5000);
+            subscriber.subscription.request(8);
+
+            // Then
+            assertEquals(1, subscriber.results.size());
+            assertEquals("Subscriber failure", subscriber.error.getMessage());
+            assertTrue(publisher.cancelled);
+        }
+
+        @Test
+        @DisplayName("Should reject a second subscriber")
+        void shouldRejectSecondSubscriber() {
+            // Given
+            ClassificationProcessor<PackageMeasurement> processor = ClassificationProcessor.ofMeasurements();
+            processor.subscribe(new CollectingSubscriber<>());
+            CollectingSubscriber<PackageMeasurement> second = new CollectingSubscriber<>();
+
+            // When
+            processor.subscribe(second);
+
+            // Then
+            assertInstanceOf(IllegalStateException.class, second.error);
+        }
+
+        @Test
+        @DisplayName("Should reject a non-positive buffer size")
+        void shouldRejectNonPositiveBufferSize() {
+            assertThrows(IllegalArgumentException.class, () -> ClassificationProcessor.ofMeasurements(DIRECT, 0, 4));
+        }
+    }
+}
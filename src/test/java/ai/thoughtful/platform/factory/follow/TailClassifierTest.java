@@ -0,0 +1,192 @@
+package ai.thoughtful.platform.factory.follow;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TailClassifier Tests")
+class TailClassifierTest {
+
+    private static void append(Path file, String content) throws IOException {
+        Files.writeString(file, content, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Nested
+    @DisplayName("Follow Tests")
+    class FollowTests {
+
+        @Test
+        @DisplayName("Should classify complete lines as they are appended")
+        void shouldClassifyCompleteLinesAsTheyAreAppended() throws IOException {
+            // Given
+            Path directory = Files.createTempDirectory("follow");
+            Path log = directory.resolve("scanner.log");
+            Path results = directory.resolve("results.txt");
+            append(log, "50,30,20,5000\n150,30");
+
+            try (TailClassifier classifier = new TailClassifier(List.of(log), results, null, null)) {
+                // When
+                long first = classifier.poll();
+                append(log, ",20,5000\n50,0,20,5000\n");
+                long second = classifier.poll();
+
+                // Then
+                assertEquals(1, first);
+                assertEquals(2, second);
+            }
+            assertEquals("STANDARD\nSPECIAL\nINVALID\n", Files.readString(results));
+        }
+
+        @Test
+        @DisplayName("Should finish a rotated file before following its successor")
+        void shouldFinishRotatedFileBeforeFollowingItsSuccessor() throws IOException {
+            // Given
+            Path directory = Files.createTempDirectory("follow");
+            Path log = directory.resolve("scanner.log");
+            Path results = directory.resolve("results.txt");
+            append(log, "50,30,20,5000\n");
+
+            try (TailClassifier classifier = new TailClassifier(List.of(log), results, null, null)) {
+                classifier.poll();
+
+                // When
+                append(log, "150,30,20,5000\n150,30,20,25000");
+                Files.move(log, directory.resolve("scanner.log.1"));
+                append(log, "50,30,20,25000\n");
+                classifier.poll();
+            }
+
+            // Then
+            assertEquals("STANDARD\nSPECIAL\nREJECTED\nSPECIAL\n", Files.readString(results));
+        }
+
+        @Test
+        @DisplayName("Should prefix the results of several files with their path")
+        void shouldPrefixResultsOfSeveralFilesWithTheirPath() throws IOException {
+            // Given
+            Path directory = Files.createTempDirectory("follow");
+            Path first = directory.resolve("a.log");
+            Path second = directory.resolve("b.log");
+            Path results = directory.resolve("results.txt");
+            append(first, "50,30,20,5000\n");
+            append(second, "150,30,20,25000\n");
+
+            // When
+            try (TailClassifier classifier = new TailClassifier(List.of(first, second), results, null, null)) {
+                classifier.poll();
+            }
+
+            // Then
+            assertEquals(first + ":STANDARD\n" + second + ":REJECTED\n", Files.readString(results));
+        }
+
+        @Test
+        @DisplayName("Should notice appends while running")
+        void shouldNoticeAppendsWhileRunning() throws Exception {
+            // Given
+            Path directory = Files.createTempDirectory("follow");
+            Path log = directory.resolve("scanner.log");
+            Path results = directory.resolve("results.txt");
+            TailClassifier classifier = new TailClassifier(List.of(log), results, null, null);
+            Thread runner = Thread.ofVirtual().start(() -> {
+                try {
+                    classifier.run();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            // When
+            append(log, "150,30,20,25000\n");
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (Files.notExists(results) || Files.size(results) == 0) {
+                assertTrue(System.nanoTime() < deadline, "no result within 5 seconds");
+                Thread.sleep(1);
+            }
+            classifier.close();
+            runner.join();
+
+            // Then
+            assertEquals("REJECTED\n", Files.readString(results));
+        }
+    }
+
+    @Nested
+    @DisplayName("Checkpoint Tests")
+    class CheckpointTests {
+
+        @Test
+        @DisplayName("Should resume after the checkpoint without repeating results")
+        void shouldResumeAfterCheckpointWithoutRepeatingResults() throws IOException {
+            // Given
+            Path directory = Files.createTempDirectory("follow");
+            Path log = directory.resolve("scanner.log");
+            Path results = directory.resolve("results.txt");
+            Path checkpoint = directory.resolve("follow.checkpoint");
+            append(log, "50,30,20,5000\n");
+            try (TailClassifier classifier = new TailClassifier(List.of(log), results, checkpoint, null)) {
+                classifier.poll();
+                classifier.checkpoint();
+                // Classified but not checkpointed, as if the process crashed here
+                append(log, "150,30,20,5000\n");
+                classifier.poll();
+            }
+            append(log, "x\n");
+
+            // When
+            try (TailClassifier classifier = new TailClassifier(List.of(log), results, checkpoint, null)) {
+                classifier.poll();
+            }
+
+            // Then
+            assertEquals("STANDARD\nSPECIAL\nINVALID\n", Files.readString(results));
+            FollowCheckpoint stored = FollowCheckpoint.load(checkpoint);
+            assertEquals(1, stored.files().size());
+        }
+
+        @Test
+        @DisplayName("Should keep the line numbers of a resumed file")
+        void shouldKeepLineNumbersOfResumedFile() throws IOException {
+            // Given
+            Path directory = Files.createTempDirectory("follow");
+            Path log = directory.resolve("scanner.log");
+            Path checkpoint = directory.resolve("follow.checkpoint");
+            append(log, "50,30,20,5000\n150,30,20,5000\n");
+            try (TailClassifier classifier = new TailClassifier(List.of(log), directory.resolve("a.txt"), checkpoint,
+                    null)) {
+                classifier.poll();
+                classifier.checkpoint();
+            }
+
+            // When
+            FollowCheckpoint stored = FollowCheckpoint.load(checkpoint);
+
+            // Then
+            FollowCheckpoint.FileState state = stored.files().get(log.toAbsolutePath().normalize().toString());
+            assertEquals(2, state.lines());
+            assertEquals(Files.size(log), state.offset());
+            assertEquals(Files.size(directory.resolve("a.txt")), stored.outputOffset());
+        }
+
+        @Test
+        @DisplayName("Should load a missing checkpoint as empty")
+        void shouldLoadMissingCheckpointAsEmpty() throws IOException {
+            // Given
+            Path checkpoint = Files.createTempDirectory("follow").resolve("missing.checkpoint");
+
+            // When
+            FollowCheckpoint stored = FollowCheckpoint.load(checkpoint);
+
+            // Then
+            assertEquals(FollowCheckpoint.EMPTY, stored);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package ai.thoughtful.platform.factory.gzip;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AsyncGzipOutputStream Tests")
+class AsyncGzipOutputStreamTest {
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return input.readAllBytes();
+        }
+    }
+
+    @Nested
+    @DisplayName("Compression Tests")
+    class CompressionTests {
+
+        @Test
+        @DisplayName("Should write gzip data ending with the BGZF end-of-file block")
+        void shouldWriteGzipDataEndingWithEndOfFileBlock() throws IOException {
+            // Given
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+            // When
+            try (AsyncGzipOutputStream output = new AsyncGzipOutputStream(compressed, 1, 2)) {
+                for (int i = 0; i < 100_000; i++) {
+                    byte[] line = (i % 3 == 0 ? "SPECIAL\n" : "STANDARD\n").getBytes();
+                    output.write(line);
+                    expected.write(line);
+                }
+                output.write('!');
+                expected.write('!');
+            }
+
+            // Then
+            byte[] bytes = compressed.toByteArray();
+            assertArrayEquals(expected.toByteArray(), gunzip(bytes));
+            assertArrayEquals(Bgzf.EOF_BLOCK,
+                    Arrays.copyOfRange(bytes, bytes.length - Bgzf.EOF_BLOCK.length, bytes.length));
+            assertTrue(bytes.length < expected.size() / 10);
+        }
+
+        @Test
+        @DisplayName("Should store incompressible blocks within the BGZF block size")
+        void shouldStoreIncompressibleBlocks() throws IOException {
+            // Given
+            byte[] random = new byte[5 * Bgzf.MAX_INPUT_SIZE + 17];
+            new Random(3).nextBytes(random);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+            // When
+            try (AsyncGzipOutputStream output = new AsyncGzipOutputStream(compressed)) {
+                output.write(random);
+            }
+
+            // Then
+            byte[] bytes = compressed.toByteArray();
+            assertArrayEquals(random, gunzip(bytes));
+            int offset = 0;
+            for (int member = 0; member < 6; member++) {
+                int blockSize = Bgzf.readShort(bytes, 16) + 1;
+                assertTrue(blockSize <= Bgzf.MAX_BLOCK_SIZE);
+                offset += blockSize;
+                bytes = Arrays.copyOfRange(bytes, blockSize, bytes.length);
+            }
+            assertArrayEquals(Bgzf.EOF_BLOCK, bytes);
+            assertTrue(offset > random.length);
+        }
+
+        @Test
+        @DisplayName("Should write the pending bytes through on flush")
+        void shouldWritePendingBytesThroughOnFlush() throws IOException, InterruptedException {
+            // Given
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (AsyncGzipOutputStream output = new AsyncGzipOutputStream(compressed)) {
+                output.write("STANDARD\n".getBytes());
+
+                // When
+                output.flush();
+
+                // Then
+                for (int i = 0; i < 200 && compressed.size() == 0; i++) {
+                    Thread.sleep(10);
+                }
+                assertTrue(compressed.size() > 0);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Failure Tests")
+    class FailureTests {
+
+        @Test
+        @DisplayName("Should report a failure of the output to the writing thread")
+        void shouldReportFailureOfOutputToWritingThread() {
+            // Given
+            OutputStream failing = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    throw new IOException("Disk full");
+                }
+            };
+            byte[] block = new byte[Bgzf.MAX_INPUT_SIZE];
+
+            // When
+            IOException exception = assertThrows(IOException.class, () -> {
+                try (AsyncGzipOutputStream output = new AsyncGzipOutputStream(failing, 6, 2)) {
+                    for (int i = 0; i < 1_000; i++) {
+                        output.write(block);
+                    }
+                }
+            });
+
+            // Then
+            assertEquals("Disk full", exception.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should reject an invalid compression level")
+        void shouldRejectInvalidCompressionLevel() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new AsyncGzipOutputStream(new ByteArrayOutputStream(), 10, 2));
+        }
+    }
+}
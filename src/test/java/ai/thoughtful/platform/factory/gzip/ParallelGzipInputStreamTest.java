@@ -0,0 +1,174 @@
+package ai.thoughtful.platform.factory.gzip;
+
+import ai.thoughtful.platform.factory.manifest.GzipManifestReader;
+import ai.thoughtful.platform.factory.manifest.ManifestClassifier;
+import ai.thoughtful.platform.factory.manifest.ManifestReader;
+import ai.thoughtful.platform.factory.manifest.MappedManifestReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static ai.thoughtful.platform.factory.manifest.TestManifests.randomManifest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ParallelGzipInputStream Tests")
+class ParallelGzipInputStreamTest {
+
+    private static byte[] blockGzip(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (AsyncGzipOutputStream output = new AsyncGzipOutputStream(compressed)) {
+            output.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+            output.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] both = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+        return both;
+    }
+
+    private static byte[] inflate(byte[] compressed, int threads) throws IOException {
+        try (InputStream input = new ParallelGzipInputStream(new ByteArrayInputStream(compressed), threads)) {
+            return input.readAllBytes();
+        }
+    }
+
+    @Nested
+    @DisplayName("Block Tests")
+    class BlockTests {
+
+        @Test
+        @DisplayName("Should inflate block-gzipped data in order on several threads")
+        void shouldInflateBlockGzippedDataInOrder() throws IOException {
+            // Given
+            byte[] data = randomManifest(500_000, 7, "\n").getBytes(StandardCharsets.UTF_8);
+            byte[] compressed = blockGzip(data);
+
+            // When & Then
+            assertTrue(data.length > 4 * ParallelGzipInputStream.GROUP_SIZE);
+            assertArrayEquals(data, inflate(compressed, 3));
+            assertArrayEquals(data, inflate(compressed, 1));
+        }
+
+        @Test
+        @DisplayName("Should inflate ordinary gzip data and concatenated members on the reading thread")
+        void shouldInflateOrdinaryGzipData() throws IOException {
+            // Given
+            byte[] first = randomManifest(20_000, 11, "\n").getBytes(StandardCharsets.UTF_8);
+            byte[] second = randomManifest(20_000, 13, "\n").getBytes(StandardCharsets.UTF_8);
+
+            // When & Then
+            assertArrayEquals(first, inflate(gzip(first), 2));
+            assertArrayEquals(concat(first, second), inflate(concat(gzip(first), gzip(second)), 2));
+            assertArrayEquals(concat(first, second), inflate(concat(blockGzip(first), gzip(second)), 2));
+        }
+
+        @Test
+        @DisplayName("Should reject a block whose CRC does not match")
+        void shouldRejectBlockWithWrongCrc() throws IOException {
+            // Given
+            byte[] compressed = blockGzip(randomManifest(1_000, 17, "\n").getBytes(StandardCharsets.UTF_8));
+            int trailer = Bgzf.readShort(compressed, 16) + 1 - Bgzf.TRAILER_SIZE;
+            compressed[trailer] ^= 1;
+
+            // When
+            ZipException exception = assertThrows(ZipException.class, () -> inflate(compressed, 2));
+
+            // Then
+            assertEquals("Corrupt gzip block at offset 0", exception.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should reject truncated data")
+        void shouldRejectTruncatedData() throws IOException {
+            // Given
+            byte[] compressed = blockGzip(randomManifest(10_000, 19, "\n").getBytes(StandardCharsets.UTF_8));
+
+            // When & Then
+            assertThrows(EOFException.class, () -> inflate(Arrays.copyOf(compressed, compressed.length / 2), 2));
+        }
+
+        @Test
+        @DisplayName("Should reject data truncated between two blocks, without the end-of-file block")
+        void shouldRejectDataTruncatedBetweenBlocks() throws IOException {
+            // Given
+            byte[] compressed = blockGzip(randomManifest(10_000, 23, "\n").getBytes(StandardCharsets.UTF_8));
+            int firstBlock = Bgzf.readShort(compressed, 16) + 1;
+            byte[] withoutEndOfFile = Arrays.copyOf(compressed, compressed.length - Bgzf.EOF_BLOCK.length);
+
+            // When
+            EOFException exception = assertThrows(EOFException.class,
+                    () -> inflate(Arrays.copyOf(compressed, firstBlock), 2));
+
+            // Then
+            assertEquals("Missing BGZF end-of-file block at offset " + firstBlock
+                    + ", the gzip data may be truncated", exception.getMessage());
+            assertThrows(EOFException.class, () -> inflate(withoutEndOfFile, 2));
+            byte[] endOfFile = Arrays.copyOfRange(compressed, withoutEndOfFile.length, compressed.length);
+            assertArrayEquals(Bgzf.EOF_BLOCK, endOfFile);
+        }
+
+        @Test
+        @DisplayName("Should pass uncompressed data through and reject data that is not gzip")
+        void shouldPassUncompressedDataThrough() throws IOException {
+            // Given
+            byte[] data = "50,30,20,5000\n".getBytes(StandardCharsets.UTF_8);
+
+            // When & Then
+            assertArrayEquals(data, ParallelGzipInputStream.decompressing(new ByteArrayInputStream(data), 2)
+                    .readAllBytes());
+            assertArrayEquals(data, ParallelGzipInputStream.decompressing(new ByteArrayInputStream(gzip(data)), 2)
+                    .readAllBytes());
+            assertThrows(ZipException.class, () -> inflate(data, 2));
+        }
+    }
+
+    @Nested
+    @DisplayName("Manifest Tests")
+    class ManifestTests {
+
+        @Test
+        @DisplayName("Should classify a compressed manifest like the uncompressed one")
+        void shouldClassifyCompressedManifestLikeUncompressedOne() throws IOException {
+            // Given
+            Path directory = Files.createTempDirectory("gzip");
+            byte[] data = randomManifest(100_000, 23, "\n").getBytes(StandardCharsets.UTF_8);
+            Path plain = Files.write(directory.resolve("manifest.csv"), data);
+            Path compressed = Files.write(directory.resolve("manifest.csv.gz"), blockGzip(data));
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+            // When
+            ManifestReader reader = ManifestReader.open(compressed);
+            long count = new ManifestClassifier().classify(reader, actual);
+            new ManifestClassifier().classify(ManifestReader.open(plain), expected);
+
+            // Then
+            assertInstanceOf(GzipManifestReader.class, reader);
+            assertInstanceOf(MappedManifestReader.class, ManifestReader.open(plain));
+            assertEquals(100_000, count);
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeReader;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeWriter;
+import ai.thoughtful.platform.factory.packed.PackedStackTypes;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ManifestClassifier Tests")
+class ManifestClassifierTest {
+
+    private final ManifestClassifier classifier = new ManifestClassifier();
+
+    private static ManifestReader manifest(String content) {
+        return new StreamManifestReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Nested
+    @DisplayName("Valid Manifest Tests")
+    class ValidManifestTests {
+
+        @Test
+        @DisplayName("Should write one stack type per input line in order")
+        void shouldWriteOneStackTypePerInputLineInOrder() throws IOException {
+            // Given
+            String manifest = "50,30,20,5000\n150,30,20,5000\n50,30,20,25000\r\n150,30,20,25000";
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            long count = classifier.classify(manifest(manifest), output);
+
+            // Then
+            assertEquals(4, count);
+            assertEquals("STANDARD\nSPECIAL\nSPECIAL\nREJECTED\n", output.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Should classify an empty manifest without output")
+        void shouldClassifyEmptyManifestWithoutOutput() throws IOException {
+            // Given
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            long count = classifier.classify(manifest(""), output);
+
+            // Then
+            assertEquals(0, count);
+            assertEquals("", output.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Nested
+    @DisplayName("Packed Output Tests")
+    class PackedOutputTests {
+
+        @Test
+        @DisplayName("Should write the stack types packed in input order")
+        void shouldWriteStackTypesPackedInInputOrder() throws IOException {
+            // Given
+            String manifest = "50,30,20,5000\n150,30,20,5000\n50,30,20,25000\n150,30,20,25000\n50,30,20,5000\n";
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            long count;
+            try (PackedStackTypeWriter packed = new PackedStackTypeWriter(output)) {
+                count = classifier.classify(manifest(manifest), packed);
+            }
+
+            // Then
+            PackedStackTypeReader reader = PackedStackTypeReader.of(ByteBuffer.wrap(output.toByteArray()));
+            assertEquals(5, count);
+            assertEquals(5, reader.size());
+            assertEquals(List.of(StackType.STANDARD, StackType.SPECIAL, StackType.SPECIAL, StackType.REJECTED,
+                    StackType.STANDARD), List.of(reader.get(0), reader.get(1), reader.get(2), reader.get(3),
+                    reader.get(4)));
+            assertEquals(PackedStackTypes.HEADER_SIZE + 2, output.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid Manifest Tests")
+    class InvalidManifestTests {
+
+        @Test
+        @DisplayName("Should report the line number of the first invalid row")
+        void shouldReportLineNumberOfFirstInvalidRow() {
+            // Given
+            String manifest = "50,30,20,5000\n50,30\n150,30,20,25000\n";
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> classifier.classify(manifest(manifest), output));
+
+            // Then
+            assertTrue(exception.getMessage().startsWith("Line 2: Input must have exactly 4 comma-separated values"));
+            assertEquals("STANDARD\n", output.toString(StandardCharsets.UTF_8));
+        }
+    }
+}
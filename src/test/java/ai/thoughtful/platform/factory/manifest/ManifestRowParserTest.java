@@ -0,0 +1,173 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import ai.thoughtful.platform.factory.cli.PackageInputParser;
+import ai.thoughtful.platform.factory.model.PackageMeasurement;
+import ai.thoughtful.platform.factory.model.ValidationError;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ManifestRowParser Tests")
+class ManifestRowParserTest {
+
+    private static List<PackageMeasurement> parseAll(String content) throws IOException {
+        List<PackageMeasurement> rows = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        new ManifestRowParser().parse(buffer, 0, buffer.limit(), true,
+                (width, height, length, mass) -> rows.add(new PackageMeasurement(width, height, length, mass)));
+        return rows;
+    }
+
+    @Nested
+    @DisplayName("Same Values As PackageInputParser Tests")
+    class SameValuesTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "50,30,20,5000",
+                " 50 ,\t30, 20 ,5000.5 ",
+                "+50,0030,20,1e4",
+                "1,1,1,0.1",
+                "1,1,1,0.000001",
+                "2147483647,1,1,1.7976931348623157E308",
+                "10,10,10,123456789.123456789",
+                "10,10,10,19999.999999999999999",
+                "10,10,10,.5",
+                "10,10,10,5.",
+                "10,10,10,5E-3",
+                "10,10,10,5e+22",
+                "10,10,10,0x1p4",
+                "10,10,10,25000d",
+                "50,30,20,5000,",
+                "١٢,30,20,5000"
+        })
+        @DisplayName("Should parse rows exactly like the String-based parser")
+        void shouldParseRowsExactlyLikeStringParser(String line) throws IOException {
+            // Given
+            PackageMeasurement expected = PackageInputParser.parse(line);
+
+            // When
+            List<PackageMeasurement> rows = parseAll(line);
+
+            // Then
+            assertEquals(1, rows.size());
+            assertEquals(expected.width(), rows.get(0).width());
+            assertEquals(expected.height(), rows.get(0).height());
+            assertEquals(expected.length(), rows.get(0).length());
+            assertEquals(Double.doubleToLongBits(expected.mass()), Double.doubleToLongBits(rows.get(0).mass()));
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "   ",
+                "50,30",
+                "50,30,20,5000,1",
+                "abc,30,20,5000",
+                "50 5,30,20,5000",
+                "2147483648,30,20,5000",
+                "-50,30,20,5000",
+                "50,30,20,-0",
+                "50,30,20,NaN",
+                "50,30,20,Infinity",
+                "50,30,20,1e"
+        })
+        @DisplayName("Should reject rows with the same message as the String-based parser")
+        void shouldRejectRowsWithSameMessage(String line) {
+            // Given
+            IllegalArgumentException expected = assertThrows(IllegalArgumentException.class,
+                    () -> PackageInputParser.parse(line));
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> parseAll(line));
+
+            // Then
+            assertEquals("Line 1: " + expected.getMessage(), exception.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Line Handling Tests")
+    class LineHandlingTests {
+
+        @Test
+        @DisplayName("Should accept LF, CR and CRLF line terminators")
+        void shouldAcceptAllLineTerminators() throws IOException {
+            // When
+            List<PackageMeasurement> rows = parseAll("1,1,1,1\n2,2,2,2\r3,3,3,3\r\n4,4,4,4\n");
+
+            // Then
+            assertEquals(4, rows.size());
+            assertEquals(4, rows.get(3).width());
+        }
+
+        @Test
+        @DisplayName("Should keep an incomplete last line until more input arrives")
+        void shouldKeepIncompleteLastLine() throws IOException {
+            // Given
+            byte[] bytes = "1,1,1,1\r\n2,2,2,2\r".getBytes(StandardCharsets.US_ASCII);
+            ManifestRowParser parser = new ManifestRowParser();
+            List<Integer> widths = new ArrayList<>();
+
+            // When
+            int consumed = parser.parse(ByteBuffer.wrap(bytes), 0, bytes.length, false,
+                    (width, height, length, mass) -> widths.add(width));
+
+            // Then
+            assertEquals(9, consumed);
+            assertEquals(List.of(1), widths);
+            assertEquals(1, parser.getLineNumber());
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid Row Tests")
+    class InvalidRowTests {
+
+        @Test
+        @DisplayName("Should hand invalid rows to the handler and go on with the next row")
+        void shouldHandInvalidRowsToHandlerAndGoOn() throws IOException {
+            // Given
+            byte[] bytes = "1,1,1,1\n1,x,1,1\n2,2,2,2\n3,0,3,3\r\n\n4,4,4,4".getBytes(StandardCharsets.US_ASCII);
+            List<Integer> widths = new ArrayList<>();
+            List<String> invalid = new ArrayList<>();
+
+            // When
+            new ManifestRowParser().parse(ByteBuffer.wrap(bytes), 0, bytes.length, true,
+                    (width, height, length, mass) -> widths.add(width),
+                    (lineNumber, error, line) -> invalid.add(lineNumber + " " + error + " " + line));
+
+            // Then
+            assertEquals(List.of(1, 2, 4), widths);
+            assertEquals(List.of("2 NOT_A_NUMBER 1,x,1,1", "4 NON_POSITIVE 3,0,3,3", "5 EMPTY "), invalid);
+        }
+
+        @Test
+        @DisplayName("Should stop with the line error when the handler declines the row")
+        void shouldStopWhenHandlerDeclinesRow() {
+            // Given
+            byte[] bytes = "1,1,1,1\n1,1,1\n2,2,2,2\n".getBytes(StandardCharsets.US_ASCII);
+            List<ValidationError> errors = new ArrayList<>();
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> new ManifestRowParser().parse(ByteBuffer.wrap(bytes), 0, bytes.length, true,
+                            (width, height, length, mass) -> {},
+                            (lineNumber, error, line) -> errors.add(error) && false));
+
+            // Then
+            assertEquals(List.of(ValidationError.WRONG_FIELD_COUNT), errors);
+            assertEquals("Line 2: " + ValidationError.WRONG_FIELD_COUNT.message(), exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MappedManifestReader Tests")
+class MappedManifestReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    @DisplayName("Window Tests")
+    class WindowTests {
+
+        @Test
+        @DisplayName("Should parse lines spanning several mapped windows")
+        void shouldParseLinesSpanningSeveralWindows() throws IOException {
+            // Given
+            StringBuilder manifest = new StringBuilder();
+            StringBuilder expected = new StringBuilder();
+            for (int i = 1; i <= 500; i++) {
+                int width = 1 + i % 200;
+                manifest.append(width).append(",30,20,").append(i * 100).append(i % 3 == 0 ? "\r\n" : "\n");
+                boolean bulky = width >= 150 || width * 30 * 20 >= 1_000_000;
+                boolean heavy = i * 100 >= 20000;
+                expected.append(bulky && heavy ? "REJECTED" : bulky || heavy ? "SPECIAL" : "STANDARD").append('\n');
+            }
+            Path file = Files.writeString(tempDir.resolve("manifest.csv"), manifest);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            long count = new ManifestClassifier().classify(new MappedManifestReader(file, 37), output);
+
+            // Then
+            assertEquals(500, count);
+            assertEquals(expected.toString(), output.toString(StandardCharsets.US_ASCII));
+        }
+
+        @Test
+        @DisplayName("Should reject lines longer than a window")
+        void shouldRejectLinesLongerThanWindow() throws IOException {
+            // Given
+            Path file = Files.writeString(tempDir.resolve("manifest.csv"), "1,1,1,1\n10000000,10,10,5000\n");
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> new MappedManifestReader(file, 10).read((width, height, length, mass) -> { }));
+
+            // Then
+            assertTrue(exception.getMessage().startsWith("Line 2: Line exceeds the maximum length"));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import ai.thoughtful.platform.factory.packed.PackedStackTypeReader;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static ai.thoughtful.platform.factory.manifest.TestManifests.randomManifest;
+import static ai.thoughtful.platform.factory.manifest.TestManifests.sequential;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ParallelManifestClassifier Tests")
+class ParallelManifestClassifierTest {
+
+    // Small chunks so that the tests exercise many chunks and the reorder buffer
+    private final ParallelManifestClassifier classifier = new ParallelManifestClassifier(4, 64);
+
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    @DisplayName("Ordered Output Tests")
+    class OrderedOutputTests {
+
+        @Test
+        @DisplayName("Should match the sequential classifier on a mapped file")
+        void shouldMatchSequentialClassifierOnMappedFile() throws IOException {
+            // Given
+            String manifest = randomManifest(20_000, 7);
+            Path file = Files.writeString(tempDir.resolve("manifest.csv"), manifest);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            long count = classifier.classify(file, output);
+
+            // Then
+            assertEquals(20_000, count);
+            assertEquals(sequential(manifest), output.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Should match the sequential classifier on a stream")
+        void shouldMatchSequentialClassifierOnStream() throws IOException {
+            // Given
+            String manifest = randomManifest(20_000, 11);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            long count = classifier.classify(
+                    new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)), output);
+
+            // Then
+            assertEquals(20_000, count);
+            assertEquals(sequential(manifest), output.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Should classify an empty manifest without output")
+        void shouldClassifyEmptyManifestWithoutOutput() throws IOException {
+            // Given
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            long count = classifier.classify(new ByteArrayInputStream(new byte[0]), output);
+
+            // Then
+            assertEquals(0, count);
+            assertEquals("", output.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Nested
+    @DisplayName("Packed Output Tests")
+    class PackedOutputTests {
+
+        @Test
+        @DisplayName("Should pack the same results as the sequential classifier")
+        void shouldPackSameResultsAsSequentialClassifier() throws IOException {
+            // Given
+            String manifest = randomManifest(5_001, 11);
+            Path file = Files.writeString(tempDir.resolve("manifest.csv"), manifest);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            try (PackedStackTypeWriter packed = new PackedStackTypeWriter(output)) {
+                classifier.classify(file, packed);
+            }
+
+            // Then
+            PackedStackTypeReader reader = PackedStackTypeReader.of(ByteBuffer.wrap(output.toByteArray()));
+            StringBuilder decoded = new StringBuilder();
+            for (long i = 0; i < reader.size(); i++) {
+                decoded.append(reader.get(i)).append('\n');
+            }
+            assertEquals(5_001, reader.size());
+            assertEquals(sequential(manifest), decoded.toString());
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid Manifest Tests")
+    class InvalidManifestTests {
+
+        @Test
+        @DisplayName("Should report the global line number and write the rows before it")
+        void shouldReportGlobalLineNumberAndWriteRowsBeforeIt() throws IOException {
+            // Given
+            String valid = randomManifest(1_000, 3);
+            String manifest = valid + "50,30,abc,5000\n" + randomManifest(1_000, 5);
+            Path file = Files.writeString(tempDir.resolve("manifest.csv"), manifest);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> classifier.classify(file, output));
+
+            // Then
+            assertEquals("Line 1001: All values must be valid numbers. Width, height, and length must be integers, "
+                    + "mass can be decimal.", exception.getMessage());
+            assertEquals(sequential(valid), output.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Should reject a line longer than a chunk")
+        void shouldRejectLineLongerThanChunk() {
+            // Given
+            String manifest = "50,30,20,5000\n" + "1".repeat(100) + ",30,20,5000\n";
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> classifier.classify(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)),
+                            output));
+
+            // Then
+            assertEquals("Line 2: Line exceeds the maximum length of 64 bytes", exception.getMessage());
+            assertEquals("STANDARD\n", output.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Should hand invalid rows over in input order and classify the others like the sequential classifier")
+        void shouldHandInvalidRowsOverInInputOrder() throws IOException {
+            // Given
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 40; i++) {
+                builder.append(randomManifest(50, i)).append(i % 2 == 0 ? "50,30,abc,5000\n" : "50,0,20,5000\r\n");
+            }
+            String manifest = builder.toString();
+            List<String> sequentialRows = new ArrayList<>();
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            long sequentialCount = new ManifestClassifier(16, null,
+                    (lineNumber, error, line) -> sequentialRows.add(lineNumber + " " + error + " " + line))
+                    .classify(new StreamManifestReader(
+                            new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8))), expected);
+            List<String> parallelRows = new ArrayList<>();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            long count = new ParallelManifestClassifier(4, 64, null,
+                    (lineNumber, error, line) -> parallelRows.add(lineNumber + " " + error + " " + line))
+                    .classify(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)), output);
+
+            // Then
+            assertEquals(2_000, count);
+            assertEquals(2_000, sequentialCount);
+            assertEquals(40, parallelRows.size());
+            assertEquals("51 NOT_A_NUMBER 50,30,abc,5000", parallelRows.get(0));
+            assertEquals("102 NON_POSITIVE 50,0,20,5000", parallelRows.get(1));
+            assertEquals(sequentialRows, parallelRows);
+            assertEquals(expected.toString(StandardCharsets.UTF_8), output.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Should write the rows before the invalid row a handler stops at")
+        void shouldWriteRowsBeforeInvalidRowHandlerStopsAt() throws IOException {
+            // Given
+            String valid = randomManifest(300, 23);
+            String manifest = "1,x,1,1\n" + valid + "1,1,1\n" + randomManifest(300, 29);
+            Path file = Files.writeString(tempDir.resolve("manifest.csv"), manifest);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            List<Long> handed = new ArrayList<>();
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> new ParallelManifestClassifier(4, 64, null,
+                            (lineNumber, error, line) -> handed.add(lineNumber) && lineNumber == 1)
+                            .classify(file, output));
+
+            // Then
+            assertEquals(List.of(1L, 302L), handed);
+            assertEquals("Line 302: Input must have exactly 4 comma-separated values: width,height,length,mass",
+                    exception.getMessage());
+            assertEquals(sequential(valid), output.toString(StandardCharsets.UTF_8));
+        }
+    }
+}
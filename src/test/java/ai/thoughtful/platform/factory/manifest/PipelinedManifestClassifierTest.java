@@ -0,0 +1,170 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.concurrent.YieldingWaitStrategy;
+import ai.thoughtful.platform.factory.metrics.ClassificationMetrics;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeReader;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static ai.thoughtful.platform.factory.manifest.TestManifests.randomManifest;
+import static ai.thoughtful.platform.factory.manifest.TestManifests.sequential;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PipelinedManifestClassifier Tests")
+class PipelinedManifestClassifierTest {
+
+    // Small chunks and few slots so that the tests wrap around the ring many times
+    private final PipelinedManifestClassifier classifier = new PipelinedManifestClassifier(64, 4, null);
+
+    private static InputStream stream(String manifest) {
+        return new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nested
+    @DisplayName("Ordered Output Tests")
+    class OrderedOutputTests {
+
+        @Test
+        @DisplayName("Should match the sequential classifier")
+        void shouldMatchSequentialClassifier() throws IOException {
+            // Given
+            String manifest = randomManifest(20_000, 7);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ClassificationMetrics metrics = new ClassificationMetrics();
+
+            // When
+            long count = new PipelinedManifestClassifier(256, 2, metrics, YieldingWaitStrategy::new)
+                    .classify(stream(manifest), output);
+
+            // Then
+            assertEquals(20_000, count);
+            assertEquals(20_000, metrics.getPackages(StackType.STANDARD) + metrics.getPackages(StackType.SPECIAL)
+                    + metrics.getPackages(StackType.REJECTED));
+            assertEquals(sequential(manifest), output.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Should classify an empty manifest without output")
+        void shouldClassifyEmptyManifestWithoutOutput() throws IOException {
+            // Given
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            long count = classifier.classify(stream(""), output);
+
+            // Then
+            assertEquals(0, count);
+            assertEquals("", output.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Should pack the same results as the sequential classifier")
+        void shouldPackSameResultsAsSequentialClassifier() throws IOException {
+            // Given
+            String manifest = randomManifest(5_001, 11);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            try (PackedStackTypeWriter packed = new PackedStackTypeWriter(output)) {
+                classifier.classify(stream(manifest), packed);
+            }
+
+            // Then
+            PackedStackTypeReader reader = PackedStackTypeReader.of(ByteBuffer.wrap(output.toByteArray()));
+            StringBuilder decoded = new StringBuilder();
+            for (long i = 0; i < reader.size(); i++) {
+                decoded.append(reader.get(i)).append('\n');
+            }
+            assertEquals(5_001, reader.size());
+            assertEquals(sequential(manifest), decoded.toString());
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid Manifest Tests")
+    class InvalidManifestTests {
+
+        @Test
+        @DisplayName("Should report a line the parse stage rejects and write the rows before it")
+        void shouldReportLineRejectedByParseStage() throws IOException {
+            // Given
+            String valid = randomManifest(1_000, 3);
+            String manifest = valid + "50,30,abc,5000\n" + randomManifest(1_000, 5);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ClassificationMetrics metrics = new ClassificationMetrics();
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> new PipelinedManifestClassifier(64, 4, metrics).classify(stream(manifest), output));
+
+            // Then
+            assertEquals("Line 1001: All values must be valid numbers. Width, height, and length must be integers, "
+                    + "mass can be decimal.", exception.getMessage());
+            assertEquals(sequential(valid), output.toString(StandardCharsets.UTF_8));
+            assertEquals(1, metrics.getParseErrors());
+        }
+
+        @Test
+        @DisplayName("Should report a line the validate stage rejects and write the rows before it")
+        void shouldReportLineRejectedByValidateStage() throws IOException {
+            // Given
+            String valid = randomManifest(500, 13);
+            String manifest = valid + "50,0,20,5000\n" + randomManifest(500, 17);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> classifier.classify(stream(manifest), output));
+
+            // Then
+            assertEquals("Line 501: All dimensions and mass must be positive values", exception.getMessage());
+            assertEquals(sequential(valid), output.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Should reject a line longer than a chunk")
+        void shouldRejectLineLongerThanChunk() {
+            // Given
+            String manifest = "50,30,20,5000\n" + "1".repeat(100) + ",30,20,5000\n";
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> classifier.classify(stream(manifest), output));
+
+            // Then
+            assertEquals("Line 2: Line exceeds the maximum length of 64 bytes", exception.getMessage());
+            assertEquals("STANDARD\n", output.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Should stop every stage when the output fails")
+        void shouldStopEveryStageWhenOutputFails() {
+            // Given
+            OutputStream failing = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    throw new IOException("Disk full");
+                }
+            };
+
+            // When
+            IOException exception = assertThrows(IOException.class,
+                    () -> classifier.classify(stream(randomManifest(1_000, 19)), failing));
+
+            // Then
+            assertEquals("Disk full", exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ai.thoughtful.platform.factory.manifest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Manifests shared by the classifier, gzip and checkpoint tests, and their reference results.
+ */
+public final class TestManifests {
+
+    /**
+     * Line terminators accepted by the parsers, mixed at random by {@link #randomManifest(int, long)}.
+     */
+    public static final String[] TERMINATORS = {"\n", "\r\n", "\r"};
+
+    private TestManifests() {}
+
+    /**
+     * @return valid rows of every stack, integer and decimal masses, ending with mixed line terminators
+     */
+    public static String randomManifest(int rows, long seed) {
+        return randomManifest(rows, seed, TERMINATORS);
+    }
+
+    /**
+     * @param terminators line terminators, picked at random for each row
+     * @return valid rows of every stack, integer and decimal masses
+     */
+    public static String randomManifest(int rows, long seed, String... terminators) {
+        Random random = new Random(seed);
+        StringBuilder manifest = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            manifest.append(1 + random.nextInt(200)).append(',')
+                    .append(1 + random.nextInt(120)).append(',')
+                    .append(1 + random.nextInt(120)).append(',')
+                    .append(random.nextInt(40_000) + 1).append(random.nextBoolean() ? ".5" : "")
+                    .append(terminators[random.nextInt(terminators.length)]);
+        }
+        return manifest.toString();
+    }
+
+    /**
+     * @return results of the sequential {@link ManifestClassifier}, the reference of every other classifier
+     */
+    public static String sequential(String manifest) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ManifestClassifier().classify(
+                new StreamManifestReader(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8))), output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
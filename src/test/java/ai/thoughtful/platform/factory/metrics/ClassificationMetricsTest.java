@@ -0,0 +1,134 @@
+package ai.thoughtful.platform.factory.metrics;
+
+import ai.thoughtful.platform.factory.PackageClassification;
+import ai.thoughtful.platform.factory.PackageSorter;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.batch.PackageBatchClassifier;
+import ai.thoughtful.platform.factory.model.ValidationError;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ClassificationMetrics Tests")
+class ClassificationMetricsTest {
+
+    private final ClassificationMetrics metrics = new ClassificationMetrics();
+
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    @DisplayName("Instrumented Sorter Tests")
+    class InstrumentedSorterTests {
+
+        @Test
+        @DisplayName("Should count stacks, classifications and latencies of sorted packages")
+        void shouldCountStacksClassificationsAndLatencies() {
+            // Given
+            PackageSorter sorter = new InstrumentedSorter(PackageSorter.DIRECT, metrics);
+
+            // When
+            assertEquals(StackType.STANDARD, sorter.sort(50, 30, 20, 5000));
+            assertEquals(StackType.SPECIAL, sorter.sort(150, 30, 20, 5000));
+            assertEquals(StackType.REJECTED, sorter.sort(150, 30, 20, 25000));
+            assertThrows(IllegalArgumentException.class, () -> sorter.sort(0, 30, 20, 5000));
+
+            // Then
+            assertEquals(1, metrics.getPackages(StackType.STANDARD));
+            assertEquals(1, metrics.getPackages(StackType.SPECIAL));
+            assertEquals(1, metrics.getPackages(StackType.REJECTED));
+            assertEquals(2, metrics.getPackages(PackageClassification.BULKY));
+            assertEquals(1, metrics.getPackages(PackageClassification.HEAVY));
+            assertEquals(1, metrics.getParseErrors());
+            assertEquals(1, metrics.getLatencies(StackType.REJECTED).count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Validation Error Tests")
+    class ValidationErrorTests {
+
+        @Test
+        @DisplayName("Should count parse errors per reason")
+        void shouldCountParseErrorsPerReason() {
+            // Given
+            PackageSorter sorter = new InstrumentedSorter(PackageSorter.DIRECT, metrics);
+
+            // When
+            metrics.recordParseError(ValidationError.NOT_A_NUMBER);
+            metrics.recordParseError(ValidationError.NOT_A_NUMBER);
+            metrics.recordParseError();
+            assertThrows(IllegalArgumentException.class, () -> sorter.sort(50, 30, 20, Double.NaN));
+
+            // Then
+            assertEquals(4, metrics.getParseErrors());
+            assertEquals(2, metrics.getParseErrors(ValidationError.NOT_A_NUMBER));
+            assertEquals(1, metrics.getParseErrors(ValidationError.NON_FINITE));
+            assertEquals(0, metrics.getParseErrors(ValidationError.EMPTY));
+            String text = metrics.toPrometheusText();
+            assertTrue(text.contains("package_classifier_validation_errors_total{error=\"NOT_A_NUMBER\"} 2\n"));
+            assertTrue(text.contains("package_classifier_validation_errors_total{error=\"EMPTY\"} 0\n"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Tests")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Should count the packages of a classified batch")
+        void shouldCountPackagesOfClassifiedBatch() {
+            // Given
+            PackageBatch batch = new PackageBatch(8);
+            batch.add(50, 30, 20, 5000);
+            batch.add(50, 30, 20, 25000);
+            batch.add(150, 30, 20, 25000);
+            byte[] ordinals = new byte[batch.size()];
+            PackageBatchClassifier.classify(batch, ordinals, ClassificationRules.DEFAULT);
+
+            // When
+            metrics.recordBatch(batch, ordinals, ClassificationRules.DEFAULT);
+
+            // Then
+            assertEquals(1, metrics.getPackages(StackType.STANDARD));
+            assertEquals(1, metrics.getPackages(StackType.SPECIAL));
+            assertEquals(1, metrics.getPackages(StackType.REJECTED));
+            assertEquals(1, metrics.getPackages(PackageClassification.BULKY));
+            assertEquals(2, metrics.getPackages(PackageClassification.HEAVY));
+            String text = metrics.toPrometheusText();
+            assertTrue(text.contains("package_classifier_classifications_total{classification=\"HEAVY\"} 2"));
+            assertTrue(text.contains("package_classifier_parse_errors_total 0"));
+        }
+    }
+
+    @Nested
+    @DisplayName("File Reporter Tests")
+    class FileReporterTests {
+
+        @Test
+        @DisplayName("Should write a last report on close")
+        void shouldWriteLastReportOnClose() throws IOException {
+            // Given
+            Path file = tempDir.resolve("classifier.prom");
+            MetricsFileReporter reporter = new MetricsFileReporter(file, Duration.ofHours(1), metrics::toPrometheusText);
+            metrics.recordParseError();
+
+            // When
+            reporter.close();
+
+            // Then
+            assertTrue(Files.readString(file).contains("package_classifier_parse_errors_total 1"));
+            assertFalse(Files.exists(tempDir.resolve("classifier.prom.tmp")));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ai.thoughtful.platform.factory.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LatencyHistogram Tests")
+class LatencyHistogramTest {
+
+    @Nested
+    @DisplayName("Percentile Tests")
+    class PercentileTests {
+
+        @Test
+        @DisplayName("Should report percentiles within the bucket precision")
+        void shouldReportPercentilesWithinBucketPrecision() {
+            // Given
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (long nanos = 1; nanos <= 100_000; nanos++) {
+                histogram.record(nanos * 100);
+            }
+
+            // When
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+            // Then
+            assertEquals(100_000, snapshot.count());
+            assertEquals(10_000_000, snapshot.max());
+            assertEquals(5_000_000, snapshot.valueAt(0.5), 5_000_000 / 32.0);
+            assertEquals(9_900_000, snapshot.valueAt(0.99), 9_900_000 / 32.0);
+            assertEquals(9_990_000, snapshot.valueAt(0.999), 9_990_000 / 32.0);
+            assertTrue(snapshot.valueAt(0.5) >= 5_000_000);
+        }
+
+        @Test
+        @DisplayName("Should keep small values exact and cap huge ones")
+        void shouldKeepSmallValuesExactAndCapHugeOnes() {
+            // Given
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(-5);
+            histogram.record(42);
+            histogram.record(Long.MAX_VALUE);
+
+            // When
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+            // Then
+            assertEquals(0, snapshot.valueAt(0.0));
+            assertEquals(42, snapshot.valueAt(0.5));
+            assertEquals(3, snapshot.count());
+            assertTrue(snapshot.valueAt(1.0) >= 1L << 39);
+        }
+
+        @Test
+        @DisplayName("Should report zero when empty")
+        void shouldReportZeroWhenEmpty() {
+            assertEquals(0, new LatencyHistogram().snapshot().valueAt(0.99));
+        }
+    }
+
+    @Nested
+    @DisplayName("Prometheus Tests")
+    class PrometheusTests {
+
+        @Test
+        @DisplayName("Should write quantiles, sum and count in seconds")
+        void shouldWriteQuantilesSumAndCountInSeconds() {
+            // Given
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(40);
+            StringBuilder text = new StringBuilder();
+
+            // When
+            histogram.snapshot().appendPrometheusSummary(text, "latency_seconds", "stack_type=\"STANDARD\"");
+
+            // Then
+            assertEquals("""
+                    latency_seconds{stack_type="STANDARD",quantile="0.5"} 4.0E-8
+                    latency_seconds{stack_type="STANDARD",quantile="0.99"} 4.0E-8
+                    latency_seconds{stack_type="STANDARD",quantile="0.999"} 4.0E-8
+                    latency_seconds_sum{stack_type="STANDARD"} 4.0E-8
+                    latency_seconds_count{stack_type="STANDARD"} 1
+                    """, text.toString());
+        }
+    }
+}
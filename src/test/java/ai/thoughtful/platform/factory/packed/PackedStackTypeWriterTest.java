@@ -0,0 +1,188 @@
+package ai.thoughtful.platform.factory.packed;
+
+import ai.thoughtful.platform.factory.StackType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PackedStackTypeWriter Tests")
+class PackedStackTypeWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] randomOrdinals(int count, long seed) {
+        Random random = new Random(seed);
+        byte[] ordinals = new byte[count];
+        for (int i = 0; i < count; i++) {
+            ordinals[i] = (byte) random.nextInt(StackType.values().length);
+        }
+        return ordinals;
+    }
+
+    private static PackedStackTypeReader pack(byte[] ordinals) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PackedStackTypeWriter writer = new PackedStackTypeWriter(output)) {
+            // Single results and arrays, so that arrays start in the middle of a byte
+            int index = 0;
+            while (index < ordinals.length) {
+                if (index % 3 == 0) {
+                    writer.write(StackType.values()[ordinals[index++]]);
+                } else {
+                    int length = Math.min(ordinals.length - index, 1 + index % 7);
+                    writer.write(ordinals, index, length);
+                    index += length;
+                }
+            }
+        }
+        return PackedStackTypeReader.of(ByteBuffer.wrap(output.toByteArray()));
+    }
+
+    @Nested
+    @DisplayName("Round Trip Tests")
+    class RoundTripTests {
+
+        @Test
+        @DisplayName("Should read back every result for all padding lengths")
+        void shouldReadBackEveryResultForAllPaddingLengths() throws IOException {
+            for (int count = 0; count <= 9; count++) {
+                // Given
+                byte[] ordinals = randomOrdinals(count, count);
+
+                // When
+                PackedStackTypeReader reader = pack(ordinals);
+
+                // Then
+                assertEquals(count, reader.size());
+                for (int i = 0; i < count; i++) {
+                    assertEquals(StackType.values()[ordinals[i]], reader.get(i));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should take 2 bits per package after the header")
+        void shouldTakeTwoBitsPerPackageAfterHeader() throws IOException {
+            // Given
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            try (PackedStackTypeWriter writer = new PackedStackTypeWriter(output)) {
+                writer.write(randomOrdinals(100_001, 3), 0, 100_001);
+                assertEquals(100_001, writer.count());
+            }
+
+            // Then
+            assertEquals(PackedStackTypes.HEADER_SIZE + 25_001, output.size());
+        }
+
+        @Test
+        @DisplayName("Should map a packed file")
+        void shouldMapPackedFile() throws IOException {
+            // Given
+            Path file = tempDir.resolve("results.pkst");
+            try (OutputStream output = Files.newOutputStream(file);
+                 PackedStackTypeWriter writer = new PackedStackTypeWriter(output)) {
+                writer.write(StackType.REJECTED);
+                writer.write(StackType.STANDARD);
+            }
+
+            // When
+            PackedStackTypeReader reader = PackedStackTypeReader.open(file);
+
+            // Then
+            assertEquals(2, reader.size());
+            assertEquals(StackType.REJECTED, reader.get(0));
+            assertEquals(StackType.STANDARD, reader.get(1));
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.get(2));
+        }
+    }
+
+    @Nested
+    @DisplayName("Count and Filter Tests")
+    class CountAndFilterTests {
+
+        @Test
+        @DisplayName("Should count and filter like the decoded results")
+        void shouldCountAndFilterLikeDecodedResults() throws IOException {
+            // Given
+            byte[] ordinals = randomOrdinals(1_003, 42);
+            PackedStackTypeReader reader = pack(ordinals);
+
+            for (StackType stackType : StackType.values()) {
+                List<Long> expected = new ArrayList<>();
+                for (int i = 0; i < ordinals.length; i++) {
+                    if (ordinals[i] == stackType.ordinal()) {
+                        expected.add((long) i);
+                    }
+                }
+
+                // When
+                List<Long> indexes = new ArrayList<>();
+                reader.forEachIndexOf(stackType, indexes::add);
+
+                // Then
+                assertEquals(expected, indexes);
+                assertEquals(expected.size(), reader.count(stackType));
+                assertEquals(expected.size(), reader.counts().get(stackType).intValue());
+            }
+            assertEquals(ordinals.length, reader.counts().values().stream().mapToLong(Long::longValue).sum());
+        }
+
+        @Test
+        @DisplayName("Should count nothing in empty results")
+        void shouldCountNothingInEmptyResults() throws IOException {
+            // When
+            PackedStackTypeReader reader = pack(new byte[0]);
+
+            // Then
+            assertEquals(0, reader.size());
+            assertEquals(Map.of(StackType.STANDARD, 0L, StackType.SPECIAL, 0L, StackType.REJECTED, 0L),
+                    reader.counts());
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid Input Tests")
+    class InvalidInputTests {
+
+        @Test
+        @DisplayName("Should reject data without the packed header")
+        void shouldRejectDataWithoutPackedHeader() {
+            // Given
+            ByteBuffer text = ByteBuffer.wrap("STANDARD\nSPECIAL\n".getBytes());
+
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> PackedStackTypeReader.of(text));
+
+            // Then
+            assertEquals("Not packed results: invalid magic", exception.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should reject writes after finishing")
+        void shouldRejectWritesAfterFinishing() throws IOException {
+            // Given
+            PackedStackTypeWriter writer = new PackedStackTypeWriter(new ByteArrayOutputStream());
+            writer.finish();
+
+            // When / Then
+            assertThrows(IllegalStateException.class, () -> writer.write(StackType.STANDARD));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ai.thoughtful.platform.factory.quarantine;
+
+import ai.thoughtful.platform.factory.model.ValidationError;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("QuarantineWriter Tests")
+class QuarantineWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    @DisplayName("Writer Tests")
+    class WriterTests {
+
+        @Test
+        @DisplayName("Should write every invalid row with its line number and error code")
+        void shouldWriteInvalidRowsWithLineNumberAndErrorCode() throws IOException {
+            // Given
+            Path file = tempDir.resolve("quarantine.csv");
+
+            // When
+            try (QuarantineWriter writer = new QuarantineWriter(file)) {
+                assertTrue(writer.onInvalidRow(3, ValidationError.NOT_A_NUMBER, "50,30,abc,5000"));
+                assertTrue(writer.onInvalidRow(7, ValidationError.EMPTY, ""));
+                assertTrue(writer.onInvalidRow(9, ValidationError.WRONG_FIELD_COUNT, "1,2,3,4,5,6"));
+                assertEquals(3, writer.getQuarantined());
+            }
+
+            // Then
+            assertEquals("3,NOT_A_NUMBER,50,30,abc,5000\n7,EMPTY,\n9,WRONG_FIELD_COUNT,1,2,3,4,5,6\n",
+                    Files.readString(file));
+        }
+
+        @Test
+        @DisplayName("Should wait for room instead of dropping rows when the output is stuck")
+        void shouldWaitForRoomInsteadOfDroppingRowsWhenOutputIsStuck() throws Exception {
+            // Given
+            CountDownLatch release = new CountDownLatch(1);
+            ByteArrayOutputStream written = new ByteArrayOutputStream();
+            OutputStream stuck = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    awaitRelease();
+                    written.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    awaitRelease();
+                    written.write(b, off, len);
+                }
+
+                private void awaitRelease() throws IOException {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+            };
+            QuarantineWriter writer = new QuarantineWriter(stuck, 4);
+            List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+            Thread classification = Thread.ofPlatform().start(() -> {
+                try {
+                    for (int i = 1; i <= 10_000; i++) {
+                        writer.onInvalidRow(i, ValidationError.NON_POSITIVE, "0,1,1,1");
+                    }
+                } catch (IOException e) {
+                    failures.add(e);
+                }
+            });
+
+            // When
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (classification.getState() != Thread.State.TIMED_WAITING
+                    && classification.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            // Waiting for the stuck writer rather than dropping rows
+            assertTrue(classification.isAlive());
+            release.countDown();
+            classification.join();
+            writer.close();
+
+            // Then
+            assertTrue(failures.isEmpty());
+            assertEquals(10_000, writer.getQuarantined());
+            assertEquals(10_000, written.toString().lines().count());
+        }
+
+        @Test
+        @DisplayName("Should report a failing output on close")
+        void shouldReportFailingOutputOnClose() throws IOException {
+            // Given
+            QuarantineWriter writer = new QuarantineWriter(new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    throw new IOException("Disk full");
+                }
+            }, 16);
+            writer.onInvalidRow(1, ValidationError.EMPTY, "");
+
+            // When
+            IOException exception = assertThrows(IOException.class, writer::close);
+
+            // Then
+            assertEquals("Disk full", exception.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Error Rate Breaker Tests")
+    class ErrorRateBreakerTests {
+
+        @Test
+        @DisplayName("Should only enforce the rate once the minimum number of lines was read")
+        void shouldEnforceRateOnceMinimumLinesWereRead() throws IOException {
+            // Given
+            List<Long> handed = new ArrayList<>();
+            ErrorRateBreaker breaker = new ErrorRateBreaker(0.04, 100,
+                    (lineNumber, error, line) -> handed.add(lineNumber));
+
+            // When
+            for (long line = 1; line <= 5; line++) {
+                assertTrue(breaker.onInvalidRow(line, ValidationError.EMPTY, ""));
+            }
+            assertTrue(breaker.onInvalidRow(150, ValidationError.EMPTY, ""));
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> breaker.onInvalidRow(160, ValidationError.EMPTY, ""));
+
+            // Then
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 150L), handed);
+            assertEquals("Line 160: Invalid rows exceed the maximum error rate of 0.04 (7 of 160 lines)",
+                    exception.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should apply the rate to a short manifest as a whole")
+        void shouldApplyRateToShortManifestAsWhole() throws IOException {
+            // Given
+            ErrorRateBreaker breaker = new ErrorRateBreaker(0.25, (lineNumber, error, line) -> true);
+            breaker.onInvalidRow(2, ValidationError.NON_FINITE, "1,1,1,NaN");
+
+            // When & Then
+            breaker.checkTotal(4);
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> breaker.checkTotal(3));
+            assertEquals("Invalid rows exceed the maximum error rate of 0.25 (1 of 3 lines)", exception.getMessage());
+            assertThrows(IllegalArgumentException.class,
+                    () -> new ErrorRateBreaker(1.5, (lineNumber, error, line) -> true));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package ai.thoughtful.platform.factory.rules;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.model.PackageFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ClassificationRules Tests")
+class ClassificationRulesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void resetRules() {
+        RuleEngine.reset();
+    }
+
+    @Nested
+    @DisplayName("Loading Tests")
+    class LoadingTests {
+
+        @Test
+        @DisplayName("Should keep the default rules for missing keys")
+        void shouldKeepDefaultRulesForMissingKeys() {
+            // When
+            ClassificationRules rules = ClassificationRules.fromProperties(new Properties());
+
+            // Then
+            assertEquals(ClassificationRules.DEFAULT, rules);
+            assertEquals(StackType.REJECTED, rules.classify(150, 30, 20, 25000));
+            assertEquals(StackType.STANDARD, rules.classify(50, 30, 20, 5000));
+        }
+
+        @Test
+        @DisplayName("Should load limits and stacks from a properties file")
+        void shouldLoadLimitsAndStacksFromPropertiesFile() throws IOException {
+            // Given
+            Path file = Files.writeString(tempDir.resolve("rules.properties"), """
+                    # Carrier limits of the site
+                    bulky.side.limit=120
+                    heavy.mass.limit=15000.5
+                    stack.bulky-heavy=SPECIAL
+                    """);
+
+            // When
+            ClassificationRules rules = ClassificationRules.load(file);
+
+            // Then
+            assertEquals(1_000_000, rules.bulkyVolumeLimit());
+            assertEquals(120, rules.bulkySideLimit());
+            assertEquals(15000.5, rules.heavyMassLimit());
+            assertEquals(StackType.SPECIAL, rules.classify(120, 30, 20, 5000));
+            assertEquals(StackType.SPECIAL, rules.classify(120, 30, 20, 15000.5));
+            assertEquals(StackType.STANDARD, rules.classify(119, 30, 20, 15000));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown keys and invalid values")
+        void shouldRejectUnknownKeysAndInvalidValues() {
+            // Given
+            Properties typo = new Properties();
+            typo.setProperty("heavy.mass.limt", "15000");
+            Properties invalidNumber = new Properties();
+            invalidNumber.setProperty(ClassificationRules.BULKY_SIDE_LIMIT, "wide");
+            Properties invalidStack = new Properties();
+            invalidStack.setProperty(ClassificationRules.HEAVY_STACK, "FRAGILE");
+            Properties negativeLimit = new Properties();
+            negativeLimit.setProperty(ClassificationRules.HEAVY_MASS_LIMIT, "-1");
+
+            // When / Then
+            assertEquals("Unknown rule: heavy.mass.limt", assertThrows(IllegalArgumentException.class,
+                    () -> ClassificationRules.fromProperties(typo)).getMessage());
+            assertEquals("Invalid number for bulky.side.limit: wide", assertThrows(IllegalArgumentException.class,
+                    () -> ClassificationRules.fromProperties(invalidNumber)).getMessage());
+            assertEquals("Invalid stack type for stack.heavy: FRAGILE", assertThrows(IllegalArgumentException.class,
+                    () -> ClassificationRules.fromProperties(invalidStack)).getMessage());
+            assertThrows(IllegalArgumentException.class, () -> ClassificationRules.fromProperties(negativeLimit));
+        }
+    }
+
+    @Nested
+    @DisplayName("Hot Swap Tests")
+    class HotSwapTests {
+
+        @Test
+        @DisplayName("Should apply installed rules to every classification path")
+        void shouldApplyInstalledRulesToEveryClassificationPath() {
+            // Given
+            RuleEngine.install(new ClassificationRules(1_000_000, 100, 20000,
+                    StackType.STANDARD, StackType.SPECIAL, StackType.SPECIAL, StackType.REJECTED));
+
+            // When / Then
+            assertEquals(StackType.SPECIAL, StackType.classify(100, 30, 20, 5000));
+            assertEquals(StackType.SPECIAL, StackType.sort(PackageFactory.make(100, 30, 20, 5000)));
+            assertEquals("REJECTED", StackType.sort(100, 30, 20, 20000));
+        }
+
+        @Test
+        @DisplayName("Should reload the rules when the file is replaced")
+        void shouldReloadRulesWhenFileIsReplaced() throws Exception {
+            // Given
+            Path file = Files.writeString(tempDir.resolve("rules.properties"), "bulky.side.limit=150\n");
+            try (RulesFileWatcher watcher = new RulesFileWatcher(file)) {
+                assertEquals(StackType.STANDARD, StackType.classify(120, 30, 20, 5000));
+
+                // When
+                Path update = Files.writeString(tempDir.resolve("rules.properties.tmp"), "bulky.side.limit=120\n");
+                Files.move(update, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                // Then
+                long deadline = System.nanoTime() + 10_000_000_000L;
+                while (RuleEngine.current().bulkySideLimit() != 120 && System.nanoTime() < deadline) {
+                    Thread.sleep(20);
+                }
+                assertEquals(StackType.SPECIAL, StackType.classify(120, 30, 20, 5000));
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep the current rules when the file becomes invalid")
+        void shouldKeepCurrentRulesWhenFileBecomesInvalid() throws Exception {
+            // Given
+            Path file = Files.writeString(tempDir.resolve("rules.properties"), "bulky.side.limit=120\n");
+            try (RulesFileWatcher watcher = new RulesFileWatcher(file)) {
+
+                // When
+                Files.writeString(file, "bulky.side.limit=wide\n");
+                long deadline = System.nanoTime() + 10_000_000_000L;
+                while (watcher.getFailedReloads() == 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(20);
+                }
+
+                // Then
+                assertTrue(watcher.getFailedReloads() > 0);
+                assertEquals(120, RuleEngine.current().bulkySideLimit());
+            }
+        }
+    }
+}
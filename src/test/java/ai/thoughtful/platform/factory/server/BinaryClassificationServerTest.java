@@ -0,0 +1,158 @@
+package ai.thoughtful.platform.factory.server;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.manifest.StreamManifestReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BinaryClassificationServer Tests")
+class BinaryClassificationServerTest {
+
+    private BinaryClassificationServer server;
+    private BinaryClassificationClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new BinaryClassificationServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), new ServerMetrics());
+        client = new BinaryClassificationClient(server.getAddress());
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Nested
+    @DisplayName("Frame Tests")
+    class FrameTests {
+
+        @Test
+        @DisplayName("Should answer each request with its correlation id and stack type")
+        void shouldAnswerEachRequestWithCorrelationIdAndStackType() throws IOException {
+            // When
+            client.send(42, 50, 30, 20, 5000);
+            client.send(7, 150, 30, 20, 25000);
+            client.flush();
+
+            // Then
+            assertEquals(new BinaryProtocol.Response(42, StackType.STANDARD), client.receive());
+            assertEquals(new BinaryProtocol.Response(7, StackType.REJECTED), client.receive());
+        }
+
+        @Test
+        @DisplayName("Should answer invalid packages without closing the connection")
+        void shouldAnswerInvalidPackagesWithoutClosingConnection() throws IOException {
+            // When
+            client.send(1, 0, 30, 20, 5000);
+            client.send(2, 50, 30, 20, Double.NaN);
+            client.send(3, 50, 30, 20, 25000);
+            client.flush();
+
+            // Then
+            assertFalse(client.receive().isValid());
+            assertFalse(client.receive().isValid());
+            assertEquals(new BinaryProtocol.Response(3, StackType.SPECIAL), client.receive());
+            assertEquals(2, server.getMetrics().getInvalidPackages());
+            assertEquals(3, server.getMetrics().getRequests());
+        }
+
+        @Test
+        @DisplayName("Should answer pipelined requests in order")
+        void shouldAnswerPipelinedRequestsInOrder() throws Exception {
+            // Given
+            int requests = 100_000;
+            Thread sender = Thread.ofVirtual().start(() -> {
+                try {
+                    for (int i = 0; i < requests; i++) {
+                        client.send(i, 1 + i % 200, 30, 20, 1 + i % 30000);
+                    }
+                    client.flush();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            // When / Then
+            for (int i = 0; i < requests; i++) {
+                BinaryProtocol.Response response = client.receive();
+                assertEquals(i, response.correlationId());
+                assertEquals(StackType.classify(1 + i % 200, 30, 20, 1 + i % 30000), response.stackType());
+            }
+            sender.join();
+            assertEquals(requests, server.getMetrics().getRequests());
+        }
+    }
+
+    @Nested
+    @DisplayName("Response Decoding Tests")
+    class ResponseDecodingTests {
+
+        @Test
+        @DisplayName("Should reject an unknown status naming it and the correlation id")
+        void shouldRejectUnknownStatus() {
+            // Given
+            ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.RESPONSE_SIZE);
+            BinaryProtocol.writeResponse(frame, 99, (byte) StackType.values().length);
+            frame.flip();
+
+            // When
+            IOException exception = assertThrows(IOException.class, () -> BinaryProtocol.Response.read(frame));
+
+            // Then
+            assertEquals("Unknown status 3 in the response to request 99", exception.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should decode the invalid status as a response without stack type")
+        void shouldDecodeInvalidStatus() throws IOException {
+            // Given
+            ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.RESPONSE_SIZE);
+            BinaryProtocol.writeResponse(frame, 5, BinaryProtocol.INVALID);
+            frame.flip();
+
+            // When
+            BinaryProtocol.Response response = BinaryProtocol.Response.read(frame);
+
+            // Then
+            assertEquals(5, response.correlationId());
+            assertFalse(response.isValid());
+        }
+    }
+
+    @Nested
+    @DisplayName("Manifest Client Tests")
+    class ManifestClientTests {
+
+        @Test
+        @DisplayName("Should classify a manifest remotely like the local batch mode")
+        void shouldClassifyManifestRemotelyLikeLocalBatchMode() throws IOException {
+            // Given
+            String manifest = "50,30,20,5000\n150,30,20,5000\n50,30,20,25000\n150,30,20,25000\n";
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // When
+            long count = client.classify(
+                    new StreamManifestReader(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8))),
+                    output);
+
+            // Then
+            assertEquals(4, count);
+            assertEquals("STANDARD\nSPECIAL\nSPECIAL\nREJECTED\n", output.toString(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package ai.thoughtful.platform.factory.server;
+
+import ai.thoughtful.platform.factory.StackType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ClassificationHttpServer Tests")
+class ClassificationHttpServerTest {
+
+    private ClassificationHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new ClassificationHttpServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), new ServerMetrics());
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    @Nested
+    @DisplayName("Single Package Tests")
+    class SinglePackageTests {
+
+        @Test
+        @DisplayName("Should classify a posted package")
+        void shouldClassifyPostedPackage() throws Exception {
+            // When
+            HttpResponse<String> response = post("/classify", "150,30,20,25000");
+
+            // Then
+            assertEquals(200, response.statusCode());
+            assertEquals("REJECTED\n", response.body());
+        }
+
+        @Test
+        @DisplayName("Should classify a package from the query string")
+        void shouldClassifyPackageFromQueryString() throws Exception {
+            // When
+            HttpResponse<String> response = get("/classify?package=50,30,20,5000");
+
+            // Then
+            assertEquals(200, response.statusCode());
+            assertEquals("STANDARD\n", response.body());
+        }
+
+        @Test
+        @DisplayName("Should answer 400 with the validation error")
+        void shouldAnswerBadRequestWithValidationError() throws Exception {
+            // When
+            HttpResponse<String> response = post("/classify", "50,30");
+
+            // Then
+            assertEquals(400, response.statusCode());
+            assertTrue(response.body().startsWith("Error: Input must have exactly 4 comma-separated values"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulk Tests")
+    class BulkTests {
+
+        @Test
+        @DisplayName("Should answer one NDJSON line per package in order")
+        void shouldAnswerOneLinePerPackageInOrder() throws Exception {
+            // Given
+            String body = """
+                    {"width":50,"height":30,"length":20,"mass":5000}
+                    {"width":150,"height":30,"length":20,"mass":5000}
+                    {"width":50,"height":30}
+                    {"width":150,"height":30,"length":20,"mass":25000}
+                    """;
+
+            // When
+            HttpResponse<String> response = post("/classify/bulk", body);
+
+            // Then
+            assertEquals(200, response.statusCode());
+            String[] lines = response.body().split("\n");
+            assertEquals(4, lines.length);
+            assertEquals("{\"stackType\":\"STANDARD\"}", lines[0]);
+            assertEquals("{\"stackType\":\"SPECIAL\"}", lines[1]);
+            assertTrue(lines[2].startsWith("{\"error\":"));
+            assertEquals("{\"stackType\":\"REJECTED\"}", lines[3]);
+        }
+
+        @Test
+        @DisplayName("Should drop the connection instead of completing a response that failed midway")
+        void shouldDropConnectionWhenResponseFailsMidway() throws IOException {
+            // Given
+            ServerMetrics metrics = new ServerMetrics();
+            AtomicInteger sorted = new AtomicInteger();
+            try (ClassificationHttpServer failing = new ClassificationHttpServer(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), metrics,
+                    (width, height, length, mass) -> {
+                        if (sorted.incrementAndGet() > 1) {
+                            throw new IllegalStateException("Sorter failure");
+                        }
+                        return StackType.STANDARD;
+                    })) {
+                String body = "{\"width\":50,\"height\":30,\"length\":20,\"mass\":5000}\n".repeat(2);
+                HttpRequest request = HttpRequest.newBuilder(URI.create(
+                                "http://localhost:" + failing.getAddress().getPort() + "/classify/bulk"))
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+
+                // When & Then
+                assertThrows(IOException.class, () -> client.send(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            assertEquals(1, metrics.getFailedRequests());
+        }
+    }
+
+    @Nested
+    @DisplayName("Routing Tests")
+    class RoutingTests {
+
+        @Test
+        @DisplayName("Should answer 404 for paths extending an endpoint")
+        void shouldAnswerNotFoundForPathsExtendingEndpoint() throws Exception {
+            // When
+            HttpResponse<String> prefixed = post("/classifyX", "50,30,20,5000");
+            HttpResponse<String> nested = get("/classify/foo?package=50,30,20,5000");
+            HttpResponse<String> health = get("/health");
+
+            // Then
+            assertEquals(404, prefixed.statusCode());
+            assertEquals(404, nested.statusCode());
+            assertEquals(200, health.statusCode());
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics Tests")
+    class MetricsTests {
+
+        @Test
+        @DisplayName("Should count requests and packages")
+        void shouldCountRequestsAndPackages() throws Exception {
+            // Given
+            post("/classify", "50,30,20,5000");
+            post("/classify", "50,30");
+
+            // When
+            HttpResponse<String> response = get("/metrics");
+
+            // Then
+            assertEquals(200, response.statusCode());
+            assertEquals(1, server.getMetrics().getPackages(StackType.STANDARD));
+            assertEquals(1, server.getMetrics().getInvalidPackages());
+            assertTrue(response.body().contains("package_classifier_packages_total{stack_type=\"STANDARD\"} 1"));
+            assertTrue(response.body().contains("package_classifier_requests_total 2"));
+        }
+    }
+}
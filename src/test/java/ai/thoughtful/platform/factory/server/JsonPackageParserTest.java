@@ -0,0 +1,82 @@
+package ai.thoughtful.platform.factory.server;
+
+import ai.thoughtful.platform.factory.model.PackageMeasurement;
+import ai.thoughtful.platform.factory.model.ValidationError;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JsonPackageParser Tests")
+class JsonPackageParserTest {
+
+    @Nested
+    @DisplayName("Valid JSON Tests")
+    class ValidJsonTests {
+
+        @Test
+        @DisplayName("Should parse a flat JSON package in any member order")
+        void shouldParseFlatJsonPackage() {
+            // When
+            PackageMeasurement measurement = JsonPackageParser.parse(
+                    " { \"mass\": 5000.5, \"length\":20, \"id\": \"scan-1\", \"height\" : 30, \"width\":50 } ");
+
+            // Then
+            assertEquals(new PackageMeasurement(50, 30, 20, 5000.5), measurement);
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid JSON Tests")
+    class InvalidJsonTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "",
+                "[50,30,20,5000]",
+                "{\"width\":50,\"height\":30,\"length\":20}",
+                "{\"width\":50,\"height\":30,\"length\":20,\"mass\":5000",
+                "{\"width\":50 \"height\":30,\"length\":20,\"mass\":5000}",
+                "{\"width\":50,\"height\":30,\"length\":20,\"mass\":5000} trailing"
+        })
+        @DisplayName("Should reject malformed JSON")
+        void shouldRejectMalformedJson(String json) {
+            // When
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> JsonPackageParser.parse(json));
+
+            // Then
+            assertTrue(exception.getMessage().startsWith("Package must be a JSON object"));
+        }
+
+        @Test
+        @DisplayName("Should apply the CLI validation rules")
+        void shouldApplyCliValidationRules() {
+            // When
+            IllegalArgumentException fractional = assertThrows(IllegalArgumentException.class,
+                    () -> JsonPackageParser.parse("{\"width\":50.5,\"height\":30,\"length\":20,\"mass\":5000}"));
+            IllegalArgumentException negative = assertThrows(IllegalArgumentException.class,
+                    () -> JsonPackageParser.parse("{\"width\":-50,\"height\":30,\"length\":20,\"mass\":5000}"));
+
+            // Then
+            assertTrue(fractional.getMessage().startsWith("All values must be valid numbers"));
+            assertEquals("All dimensions and mass must be positive values", negative.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should report the reason of an invalid package without throwing")
+        void shouldReportReasonWithoutThrowing() {
+            // When & Then
+            assertEquals(ValidationError.MALFORMED_JSON, JsonPackageParser.tryParse("{\"width\":50,").error());
+            assertEquals(ValidationError.MALFORMED_JSON, JsonPackageParser.tryParse("").error());
+            assertEquals(ValidationError.NOT_A_NUMBER,
+                    JsonPackageParser.tryParse("{\"width\":\"50\",\"height\":30,\"length\":20,\"mass\":5}").error());
+            assertEquals(ValidationError.NON_POSITIVE,
+                    JsonPackageParser.tryParse("{\"width\":50,\"height\":0,\"length\":20,\"mass\":5}").error());
+            assertTrue(JsonPackageParser.tryParse("{\"width\":50,\"height\":30,\"length\":20,\"mass\":5}").isValid());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ai.thoughtful.platform.factory.stats;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("QuantileSketch Tests")
+class QuantileSketchTest {
+
+    @Nested
+    @DisplayName("Quantile Tests")
+    class QuantileTests {
+
+        @Test
+        @DisplayName("Should report quantiles within the relative error")
+        void shouldReportQuantilesWithinRelativeError() {
+            // Given
+            Random random = new Random(7);
+            double[] values = new double[100_000];
+            QuantileSketch sketch = new QuantileSketch();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Math.exp(random.nextGaussian() * 3 + 8);
+                sketch.record(values[i]);
+            }
+            Arrays.sort(values);
+
+            // When & Then
+            for (double quantile : new double[]{0.01, 0.5, 0.9, 0.99, 0.999}) {
+                double exact = values[(int) Math.ceil(quantile * values.length) - 1];
+                assertEquals(exact, sketch.valueAt(quantile), exact * 0.008);
+            }
+            assertEquals(values[0], sketch.valueAt(0.0));
+            assertEquals(values[values.length - 1], sketch.valueAt(1.0));
+            assertEquals(values.length, sketch.count());
+        }
+
+        @Test
+        @DisplayName("Should clamp extreme values into the edge buckets")
+        void shouldClampExtremeValuesIntoEdgeBuckets() {
+            // Given
+            QuantileSketch sketch = new QuantileSketch();
+            sketch.record(Double.MIN_VALUE);
+            sketch.record(Double.MAX_VALUE);
+            sketch.record(1000);
+
+            // When & Then
+            assertEquals(3, sketch.count());
+            assertEquals(Double.MIN_VALUE, sketch.min());
+            assertEquals(Double.MAX_VALUE, sketch.max());
+            assertEquals(1000, sketch.valueAt(0.5), 1000 * 0.008);
+            assertThrows(IllegalArgumentException.class, () -> sketch.record(0));
+            assertThrows(IllegalArgumentException.class, () -> sketch.valueAt(1.5));
+        }
+
+        @Test
+        @DisplayName("Should report zero when empty")
+        void shouldReportZeroWhenEmpty() {
+            QuantileSketch sketch = new QuantileSketch();
+            assertEquals(0, sketch.valueAt(0.99));
+            assertEquals(0, sketch.mean());
+            assertEquals(0, sketch.max());
+        }
+    }
+
+    @Nested
+    @DisplayName("Merge Tests")
+    class MergeTests {
+
+        @Test
+        @DisplayName("Should merge partial sketches into the sketch of the whole stream")
+        void shouldMergePartialSketchesIntoWholeStream() {
+            // Given
+            Random random = new Random(11);
+            QuantileSketch whole = new QuantileSketch();
+            QuantileSketch[] parts = {new QuantileSketch(), new QuantileSketch(), new QuantileSketch()};
+            for (int i = 0; i < 30_000; i++) {
+                // Each part covers another range, so merging has to grow the buckets both ways
+                double value = (1 + random.nextDouble()) * Math.pow(1000, i % 3);
+                whole.record(value);
+                parts[i % 3].record(value);
+            }
+
+            // When
+            QuantileSketch merged = new QuantileSketch();
+            merged.merge(parts[1]);
+            merged.merge(parts[2]);
+            merged.merge(parts[0]);
+
+            // Then
+            assertEquals(whole.count(), merged.count());
+            assertEquals(whole.sum(), merged.sum(), whole.sum() * 1e-12);
+            for (double quantile : new double[]{0, 0.1, 0.34, 0.5, 0.67, 0.9, 1}) {
+                assertEquals(whole.valueAt(quantile), merged.valueAt(quantile));
+            }
+        }
+
+        @Test
+        @DisplayName("Should forget values on reset")
+        void shouldForgetValuesOnReset() {
+            // Given
+            QuantileSketch sketch = new QuantileSketch();
+            sketch.record(5);
+            sketch.record(500);
+
+            // When
+            sketch.reset();
+            sketch.record(50);
+
+            // Then
+            assertEquals(1, sketch.count());
+            assertEquals(50, sketch.valueAt(0.99));
+            assertEquals(50, sketch.min());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package ai.thoughtful.platform.factory.stats;
+
+import ai.thoughtful.platform.factory.PackageClassification;
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.batch.PackageBatch;
+import ai.thoughtful.platform.factory.batch.PackageBatchClassifier;
+import ai.thoughtful.platform.factory.rules.ClassificationRules;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StatisticsRecorder Tests")
+class StatisticsRecorderTest {
+
+    private static final ClassificationRules RULES = ClassificationRules.DEFAULT;
+
+    @Nested
+    @DisplayName("Package Statistics Tests")
+    class PackageStatisticsTests {
+
+        @Test
+        @DisplayName("Should count stacks, classifications and packages near the limits")
+        void shouldCountStacksClassificationsAndNearLimits() {
+            // Given
+            PackageStatistics statistics = new PackageStatistics(0.05);
+
+            // When
+            statistics.record(50, 30, 20, 5000, RULES);       // standard, nowhere near a limit
+            statistics.record(145, 10, 10, 1000, RULES);      // side 145 within 5% of 150
+            statistics.record(155, 10, 10, 1000, RULES);      // bulky, side 155 within 5% of 150
+            statistics.record(100, 100, 98, 19500, RULES);    // volume 980,000 and mass 19.5 kg near their limits
+            statistics.record(150, 100, 100, 25000, RULES);   // bulky and heavy, side and volume over the limits
+
+            // Then
+            assertEquals(5, statistics.getPackages());
+            assertEquals(3, statistics.getPackages(StackType.STANDARD));
+            assertEquals(1, statistics.getPackages(StackType.SPECIAL));
+            assertEquals(1, statistics.getPackages(StackType.REJECTED));
+            assertEquals(2, statistics.getPackages(PackageClassification.BULKY));
+            assertEquals(1, statistics.getPackages(PackageClassification.HEAVY));
+            assertEquals(3, statistics.getNearSideLimit());
+            assertEquals(1, statistics.getNearVolumeLimit());
+            assertEquals(1, statistics.getNearMassLimit());
+            assertEquals(1_500_000, statistics.getVolumes().max());
+            assertEquals(155, statistics.getLongestSides().max());
+        }
+
+        @Test
+        @DisplayName("Should record batches like single packages")
+        void shouldRecordBatchesLikeSinglePackages() {
+            // Given
+            Random random = new Random(3);
+            PackageBatch batch = new PackageBatch(1000);
+            PackageStatistics single = new PackageStatistics(0.1);
+            for (int i = 0; i < batch.capacity(); i++) {
+                int width = 1 + random.nextInt(200);
+                int height = 1 + random.nextInt(200);
+                int length = 1 + random.nextInt(200);
+                double mass = 1 + random.nextInt(40000);
+                batch.add(width, height, length, mass);
+                single.record(width, height, length, mass, RULES);
+            }
+            byte[] ordinals = new byte[batch.size()];
+            PackageBatchClassifier.classify(batch, ordinals, RULES);
+
+            // When
+            PackageStatistics batched = new PackageStatistics(0.1);
+            batched.recordBatch(batch, ordinals, RULES);
+
+            // Then
+            assertEquals(single.toReport(), batched.toReport());
+        }
+
+        @Test
+        @DisplayName("Should reject merging statistics of another near-limit fraction")
+        void shouldRejectMergingAnotherNearLimitFraction() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new PackageStatistics(0.05).merge(new PackageStatistics(0.1)));
+            assertThrows(IllegalArgumentException.class, () -> new PackageStatistics(1.0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Window Tests")
+    class WindowTests {
+
+        @Test
+        @DisplayName("Should keep recent slots in the window and older ones in the total")
+        void shouldKeepRecentSlotsInWindowAndOlderOnesInTotal() {
+            // Given
+            AtomicLong nanos = new AtomicLong();
+            StatisticsRecorder recorder = new StatisticsRecorder(0.05, Duration.ofSeconds(1), 10, nanos::get);
+
+            // When: one package per second for 25 seconds
+            for (int second = 0; second < 25; second++) {
+                nanos.set(Duration.ofSeconds(second).toNanos());
+                recorder.record(50, 30, 20, 1000 + second, RULES);
+            }
+
+            // Then
+            assertEquals(25, recorder.total().getPackages());
+            assertEquals(10, recorder.window(Duration.ofSeconds(10)).getPackages());
+            assertEquals(3, recorder.window(Duration.ofMillis(2500)).getPackages());
+            assertEquals(10, recorder.window(Duration.ofHours(1)).getPackages());
+            assertEquals(1015, recorder.window(Duration.ofSeconds(10)).getMasses().min());
+
+            // When: nothing for a while
+            nanos.set(Duration.ofSeconds(40).toNanos());
+
+            // Then
+            assertEquals(0, recorder.window(Duration.ofSeconds(10)).getPackages());
+            assertEquals(25, recorder.total().getPackages());
+        }
+
+        @Test
+        @DisplayName("Should merge the packages of concurrent workers")
+        void shouldMergePackagesOfConcurrentWorkers() throws InterruptedException {
+            // Given
+            StatisticsRecorder recorder = new StatisticsRecorder();
+            PackageStatistics expected = new PackageStatistics(StatisticsRecorder.DEFAULT_NEAR_LIMIT_FRACTION);
+            for (int i = 0; i < 4 * 10_000; i++) {
+                expected.record(1 + i % 200, 1 + i % 150, 1 + i % 90, 1 + i % 30000, RULES);
+            }
+
+            // When
+            List<Thread> workers = new ArrayList<>();
+            for (int worker = 0; worker < 4; worker++) {
+                int first = worker * 10_000;
+                workers.add(Thread.ofPlatform().start(() -> {
+                    for (int i = first; i < first + 10_000; i++) {
+                        recorder.record(1 + i % 200, 1 + i % 150, 1 + i % 90, 1 + i % 30000, RULES);
+                    }
+                }));
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            // Then
+            PackageStatistics total = recorder.total();
+            assertEquals(expected.getPackages(), total.getPackages());
+            assertEquals(expected.getNearSideLimit(), total.getNearSideLimit());
+            assertEquals(expected.getVolumes().valueAt(0.99), total.getVolumes().valueAt(0.99));
+            assertEquals(expected.getMasses().valueAt(0.5), total.getMasses().valueAt(0.5));
+        }
+
+        @Test
+        @DisplayName("Should expose the total and the longest window in the Prometheus text")
+        void shouldExposeTotalAndLongestWindowInPrometheusText() {
+            // Given
+            StatisticsRecorder recorder = new StatisticsRecorder();
+            recorder.record(145, 10, 10, 1000, RULES);
+
+            // When
+            StringBuilder text = new StringBuilder();
+            recorder.appendPrometheusText(text);
+
+            // Then
+            String prometheus = text.toString();
+            assertTrue(prometheus.contains(
+                    "package_statistics_near_limit{window=\"total\",limit=\"side\",fraction=\"0.05\"} 1\n"));
+            assertTrue(prometheus.contains(
+                    "package_statistics_packages{window=\"300s\",stack_type=\"STANDARD\"} 1\n"));
+            assertEquals(1, prometheus.split("# TYPE package_statistics_mass_grams summary", -1).length - 1);
+        }
+    }
+}
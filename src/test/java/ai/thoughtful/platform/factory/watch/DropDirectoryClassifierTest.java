@@ -0,0 +1,233 @@
+package ai.thoughtful.platform.factory.watch;
+
+import ai.thoughtful.platform.factory.StackType;
+import ai.thoughtful.platform.factory.metrics.ClassificationMetrics;
+import ai.thoughtful.platform.factory.packed.PackedStackTypeReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DropDirectoryClassifier Tests")
+class DropDirectoryClassifierTest {
+
+    private static String manifest(int rows) {
+        StringBuilder manifest = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            manifest.append(i % 3 == 0 ? "150,30,20,5000\n" : "50,30,20,5000\n");
+        }
+        return manifest.toString();
+    }
+
+    private static String results(int rows) {
+        StringBuilder results = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            results.append(i % 3 == 0 ? "SPECIAL\n" : "STANDARD\n");
+        }
+        return results.toString();
+    }
+
+    @Nested
+    @DisplayName("Drain Tests")
+    class DrainTests {
+
+        @Test
+        @DisplayName("Should classify every dropped manifest and move it to done")
+        void shouldClassifyEveryDroppedManifestAndMoveItToDone() throws IOException, InterruptedException {
+            // Given
+            Path directory = Files.createTempDirectory("watch");
+            for (int i = 0; i < 6; i++) {
+                Files.writeString(directory.resolve("dock" + i + ".csv"), manifest(1_000 + i));
+            }
+            ClassificationMetrics metrics = new ClassificationMetrics();
+
+            try (DropDirectoryClassifier classifier = new DropDirectoryClassifier(directory, null, 3, false, metrics)) {
+                // When
+                int submitted = classifier.drain();
+
+                // Then
+                assertEquals(6, submitted);
+                assertEquals(6, classifier.getClassified());
+                assertEquals(0, classifier.drain());
+            }
+            for (int i = 0; i < 6; i++) {
+                String name = "dock" + i + ".csv";
+                assertEquals(results(1_000 + i), Files.readString(directory.resolve("results").resolve(name + ".out")));
+                assertFalse(Files.exists(directory.resolve(name)));
+                assertTrue(Files.exists(directory.resolve("done").resolve(name)));
+            }
+            try (var entries = Files.list(directory.resolve("results"))) {
+                assertEquals(6, entries.count());
+            }
+            assertEquals(6 * 1_000 + 15, metrics.getPackages(StackType.STANDARD) + metrics.getPackages(StackType.SPECIAL));
+        }
+
+        @Test
+        @DisplayName("Should move an invalid manifest to failed without results")
+        void shouldMoveInvalidManifestToFailedWithoutResults() throws IOException, InterruptedException {
+            // Given
+            Path directory = Files.createTempDirectory("watch");
+            Path output = directory.resolve("out");
+            Files.writeString(directory.resolve("bad.csv"), "50,30,20,5000\n50,0,20,5000\n");
+            Files.writeString(directory.resolve("good.csv"), "50,30,20,5000\n");
+
+            try (DropDirectoryClassifier classifier = new DropDirectoryClassifier(directory, output, 2, false, null)) {
+                // When
+                classifier.drain();
+
+                // Then
+                assertEquals(1, classifier.getClassified());
+                assertEquals(1, classifier.getFailed());
+            }
+            assertTrue(Files.exists(directory.resolve("failed").resolve("bad.csv")));
+            assertTrue(Files.exists(directory.resolve("done").resolve("good.csv")));
+            try (var entries = Files.list(output)) {
+                assertEquals(1, entries.count());
+            }
+            assertEquals("STANDARD\n", Files.readString(output.resolve("good.csv.out")));
+        }
+
+        @Test
+        @DisplayName("Should ignore hidden and partial files")
+        void shouldIgnoreHiddenAndPartialFiles() throws IOException, InterruptedException {
+            // Given
+            Path directory = Files.createTempDirectory("watch");
+            Files.writeString(directory.resolve(".dock.csv"), "50,30,20,5000\n");
+            Files.writeString(directory.resolve("dock.csv.part"), "50,30,20,5000\n");
+            Files.writeString(directory.resolve("dock.csv.tmp"), "50,30,20,5000\n");
+
+            try (DropDirectoryClassifier classifier = new DropDirectoryClassifier(directory, null, 1, false, null)) {
+                // When & Then
+                assertEquals(0, classifier.drain());
+            }
+            assertTrue(Files.exists(directory.resolve("dock.csv.part")));
+        }
+
+        @Test
+        @DisplayName("Should write packed results")
+        void shouldWritePackedResults() throws IOException, InterruptedException {
+            // Given
+            Path directory = Files.createTempDirectory("watch");
+            Files.writeString(directory.resolve("dock.csv"), "50,30,20,5000\n150,30,20,25000\n150,30,20,5000\n");
+
+            try (DropDirectoryClassifier classifier = new DropDirectoryClassifier(directory, null, 1, true, null)) {
+                // When
+                classifier.drain();
+            }
+
+            // Then
+            PackedStackTypeReader reader = PackedStackTypeReader.of(
+                    ByteBuffer.wrap(Files.readAllBytes(directory.resolve("results").resolve("dock.csv.pkst"))));
+            assertEquals(3, reader.size());
+            assertEquals(StackType.STANDARD, reader.get(0));
+            assertEquals(StackType.REJECTED, reader.get(1));
+            assertEquals(StackType.SPECIAL, reader.get(2));
+        }
+    }
+
+    @Nested
+    @DisplayName("Claim Tests")
+    class ClaimTests {
+
+        @Test
+        @DisplayName("Should leave a manifest locked by another instance and classify it once released")
+        void shouldLeaveLockedManifestAndClassifyItOnceReleased() throws IOException, InterruptedException {
+            // Given
+            Path directory = Files.createTempDirectory("watch");
+            Path manifest = directory.resolve("dock.csv");
+            Files.writeString(manifest, "50,30,20,5000\n");
+
+            try (DropDirectoryClassifier classifier = new DropDirectoryClassifier(directory, null, 1, false, null)) {
+                try (FileChannel channel = FileChannel.open(manifest, StandardOpenOption.WRITE);
+                     FileLock lock = channel.lock()) {
+                    // When
+                    classifier.drain();
+
+                    // Then
+                    assertEquals(0, classifier.getClassified());
+                    assertTrue(Files.exists(manifest));
+                    assertFalse(Files.exists(directory.resolve("results").resolve("dock.csv.out")));
+                }
+                classifier.drain();
+                assertEquals(1, classifier.getClassified());
+            }
+            assertEquals("STANDARD\n", Files.readString(directory.resolve("results").resolve("dock.csv.out")));
+        }
+
+        @Test
+        @DisplayName("Should classify each manifest once between two instances watching the same directory")
+        void shouldClassifyEachManifestOnceBetweenTwoInstances() throws IOException, InterruptedException {
+            // Given
+            Path directory = Files.createTempDirectory("watch");
+            for (int i = 0; i < 20; i++) {
+                Files.writeString(directory.resolve("dock" + i + ".csv"), manifest(5_000));
+            }
+
+            try (DropDirectoryClassifier first = new DropDirectoryClassifier(directory, null, 2, false, null);
+                 DropDirectoryClassifier second = new DropDirectoryClassifier(directory, null, 2, false, null)) {
+                // When
+                Thread other = Thread.ofPlatform().start(() -> {
+                    try {
+                        second.drain();
+                    } catch (IOException | InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                first.drain();
+                other.join();
+                first.drain();
+
+                // Then
+                assertEquals(20, first.getClassified() + second.getClassified());
+            }
+            try (var entries = Files.list(directory.resolve("done"))) {
+                assertEquals(20, entries.count());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Watch Tests")
+    class WatchTests {
+
+        @Test
+        @DisplayName("Should classify manifests dropped while running until closed")
+        void shouldClassifyManifestsDroppedWhileRunning() throws IOException, InterruptedException {
+            // Given
+            Path directory = Files.createTempDirectory("watch");
+            DropDirectoryClassifier classifier = new DropDirectoryClassifier(directory, null, 2, false, null);
+            Thread runner = Thread.ofPlatform().start(() -> {
+                try {
+                    classifier.run();
+                } catch (IOException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            // When
+            Path partial = directory.resolve("dock.csv.part");
+            Files.writeString(partial, manifest(100));
+            Files.move(partial, directory.resolve("dock.csv"));
+            Path result = directory.resolve("results").resolve("dock.csv.out");
+            for (int i = 0; i < 200 && !Files.exists(directory.resolve("done").resolve("dock.csv")); i++) {
+                Thread.sleep(50);
+            }
+            classifier.close();
+            runner.join(10_000);
+
+            // Then
+            assertFalse(runner.isAlive());
+            assertEquals(1, classifier.getClassified());
+            assertEquals(results(100), Files.readString(result));
+        }
+    }
+}